@@ -8,6 +8,7 @@ import com.android.volley.toolbox.Volley;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.network.HTTPAuthManager;
 import org.wordpress.android.fluxc.network.OkHttpStack;
+import org.wordpress.android.fluxc.network.ResumableUploadConfig;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.discovery.DiscoveryWPAPIRestClient;
 import org.wordpress.android.fluxc.network.discovery.DiscoveryXMLRPCClient;
@@ -115,9 +116,10 @@ public class MockedNetworkModule {
                                                   RequestQueue requestQueue,
                                                   OkHttpClient okHttpClient,
                                                   AccessToken token, UserAgent userAgent,
-                                                  MediaResponseUtils mediaResponseUtils) {
+                                                  MediaResponseUtils mediaResponseUtils,
+                                                  ResumableUploadConfig resumableUploadConfig) {
         return new MediaRestClient(appContext, dispatcher, requestQueue, okHttpClient, token, userAgent,
-                mediaResponseUtils);
+                mediaResponseUtils, resumableUploadConfig);
     }
 
     @Singleton
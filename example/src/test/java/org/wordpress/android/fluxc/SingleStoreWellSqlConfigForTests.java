@@ -8,6 +8,7 @@ import com.yarolegovich.wellsql.WellTableManager;
 import com.yarolegovich.wellsql.core.Identifiable;
 import com.yarolegovich.wellsql.core.TableClass;
 
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 
 import java.util.ArrayList;
@@ -44,6 +45,7 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
     public void onCreate(SQLiteDatabase db, WellTableManager helper) {
         for (Class<? extends Identifiable> clazz : mStoreClassList) {
             helper.createTable(clazz);
+            createIndexes(db, getTable(clazz).getTableName());
         }
     }
 
@@ -57,6 +59,8 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
             TableClass table = getTable(clazz);
             db.execSQL("DROP TABLE " + table.getTableName());
             db.execSQL(table.createStatement());
+            createIndexes(db, table.getTableName());
         }
+        SiteSqlUtils.getSiteCache().clear();
     }
 }
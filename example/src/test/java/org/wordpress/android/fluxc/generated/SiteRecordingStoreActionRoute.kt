@@ -0,0 +1,13 @@
+package org.wordpress.android.fluxc.generated
+
+import org.wordpress.android.fluxc.action.SiteAction
+import org.wordpress.android.fluxc.annotations.action.ActionRoute
+import org.wordpress.android.fluxc.annotations.action.IAction
+
+/**
+ * The route the processor generates for the `@HandlesActions(SiteAction::class)` store of the DispatcherTest: the
+ * annotation processors only run on the library, not on its tests.
+ */
+class SiteRecordingStoreActionRoute : ActionRoute {
+    override fun handles(actionType: IAction) = actionType is SiteAction
+}
@@ -52,6 +52,15 @@ class ListItemSqlUtilsTest {
         assertEquals(count.toLong(), listItemSqlUtils.getListItemsCount(testList.id))
     }
 
+    @Test
+    fun testGetListItemRemoteIds() {
+        val testList = generateInsertAndAssertListItems(PostListDescriptorForRestSite(testSite()))
+        assertEquals(
+                listItemSqlUtils.getListItems(testList.id).map { it.remoteItemId },
+                listItemSqlUtils.getListItemRemoteIds(testList.id)
+        )
+    }
+
     @Test
     fun testListIdForeignKeyCascadeDelete() {
         val listDescriptor = PostListDescriptorForRestSite(testSite())
@@ -0,0 +1,70 @@
+package org.wordpress.android.fluxc.list
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.model.list.datasource.WindowedItemLoader
+import java.util.concurrent.Executor
+
+private const val PAGE_SIZE = 10
+
+@RunWith(RobolectricTestRunner::class)
+class WindowedItemLoaderTest {
+    private val identifiers = (0 until 100).toList()
+    private val loadedIdentifiers = mutableListOf<List<Int>>()
+    private val loadItems = { ids: List<Int> ->
+        loadedIdentifiers.add(ids)
+        ids.map { "item $it" }
+    }
+
+    @Test
+    fun `only the items that aren't cached are loaded`() {
+        val loader = createLoader()
+        loader.getItemsInRange(identifiers, 0, 10, loadItems)
+        loadedIdentifiers.clear()
+
+        val items = loader.getItemsInRange(identifiers, 5, 15, loadItems)
+
+        assertThat(items).isEqualTo((5 until 15).map { "item $it" })
+        assertThat(loadedIdentifiers).containsExactly((10 until 15).toList())
+    }
+
+    @Test
+    fun `clearing the items loads them again`() {
+        val loader = createLoader()
+        loader.getItemsInRange(identifiers, 0, 10, loadItems)
+
+        loader.clearItems()
+        loadedIdentifiers.clear()
+        loader.getItemsInRange(identifiers, 0, 10, loadItems)
+
+        assertThat(loadedIdentifiers).containsExactly((0 until 10).toList())
+    }
+
+    @Test
+    fun `the next page is prefetched`() {
+        val loader = createLoader(maxPrefetchPages = 2)
+
+        loader.getItemsInRange(identifiers, 0, 10, loadItems)
+
+        assertThat(loadedIdentifiers).containsExactly((0 until 10).toList(), (10 until 20).toList())
+    }
+
+    @Test
+    fun `the whole range is loaded if the data source doesn't return an item per identifier`() {
+        val loader = createLoader()
+        loader.getItemsInRange(identifiers, 0, 10, loadItems)
+
+        val items = loader.getItemsInRange(identifiers, 5, 15) { ids -> ids.filter { it % 2 == 0 }.map { "item $it" } }
+
+        assertThat(items).isEqualTo((5 until 15).filter { it % 2 == 0 }.map { "item $it" })
+    }
+
+    private fun createLoader(maxPrefetchPages: Int = 0) = WindowedItemLoader<Int, String>(
+            itemCacheSize = 50,
+            pageSize = PAGE_SIZE,
+            maxPrefetchPages = maxPrefetchPages,
+            prefetchExecutor = Executor { it.run() }
+    )
+}
@@ -0,0 +1,93 @@
+package org.wordpress.android.fluxc.network
+
+import com.android.volley.TimeoutError
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.EndpointLatencyStats.MAX_RETRY_TOKENS
+import org.wordpress.android.fluxc.network.EndpointLatencyStats.MAX_TIMEOUT_MS
+import org.wordpress.android.fluxc.network.EndpointLatencyStats.MIN_SAMPLES
+import org.wordpress.android.fluxc.network.EndpointLatencyStats.MIN_TIMEOUT_MS
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+private const val FAMILY = "example.com"
+
+@RunWith(RobolectricTestRunner::class)
+class AdaptiveRetryPolicyTest {
+    private val stats = EndpointLatencyStats()
+
+    @Test
+    fun `endpoint families keep Jetpack tunnel calls apart`() {
+        assertEquals("public-api.wordpress.com", EndpointLatencyStats.familyOf(
+                "https://public-api.wordpress.com/rest/v1.1/sites/123/posts/"
+        ))
+        assertEquals("public-api.wordpress.com/jetpack-blogs/", EndpointLatencyStats.familyOf(
+                "https://public-api.wordpress.com/rest/v1.1/jetpack-blogs/123/rest-api/"
+        ))
+        assertEquals("example.com", EndpointLatencyStats.familyOf("https://example.com/xmlrpc.php"))
+    }
+
+    @Test
+    fun `timeout is the default until enough responses are recorded`() {
+        repeat(MIN_SAMPLES - 1) { stats.recordResponse(FAMILY, 20000) }
+
+        assertEquals(BaseRequest.DEFAULT_REQUEST_TIMEOUT, stats.getTimeoutMs(FAMILY))
+    }
+
+    @Test
+    fun `timeout follows the slowest responses within bounds`() {
+        repeat(MIN_SAMPLES) { stats.recordResponse(FAMILY, 200) }
+        assertEquals(MIN_TIMEOUT_MS, stats.getTimeoutMs(FAMILY))
+
+        repeat(MIN_SAMPLES) { stats.recordResponse(FAMILY, 30000) }
+        assertEquals(45000, stats.getTimeoutMs(FAMILY))
+
+        repeat(MIN_SAMPLES) { stats.recordTimeout(FAMILY, 50000) }
+        assertEquals(MAX_TIMEOUT_MS, stats.getTimeoutMs(FAMILY))
+    }
+
+    @Test
+    fun `fast responses don't time out the slow calls of the family early`() {
+        // Mostly quick GETs, e.g. to the WordPress.com REST API
+        repeat(EndpointLatencyStats.SAMPLE_SIZE) { stats.recordResponse(FAMILY, 300) }
+
+        // A call slow by nature, like creating a site, still gets the default timeout
+        val policy = policy()
+        assertEquals(BaseRequest.DEFAULT_REQUEST_TIMEOUT, policy.currentTimeout)
+        assertTrue(policy.currentTimeout > 25000)
+    }
+
+    @Test
+    fun `retries stop once the retry budget is spent`() {
+        repeat(MAX_RETRY_TOKENS.toInt()) {
+            policy().retry(TimeoutError())
+        }
+
+        assertFailsWith<TimeoutError> { policy().retry(TimeoutError()) }
+    }
+
+    @Test
+    fun `retries stop at the max retries`() {
+        val policy = policy()
+        policy.retry(TimeoutError())
+
+        assertEquals(1, policy.currentRetryCount)
+        assertFailsWith<TimeoutError> { policy.retry(TimeoutError()) }
+    }
+
+    @Test
+    fun `backoff delay grows and is jittered`() {
+        repeat(10) {
+            val first = AdaptiveRetryPolicy.getBackoffDelayMs(1, 1000, 8000)
+            val third = AdaptiveRetryPolicy.getBackoffDelayMs(3, 1000, 8000)
+            val capped = AdaptiveRetryPolicy.getBackoffDelayMs(10, 1000, 8000)
+            assertTrue(first in 500..1000)
+            assertTrue(third in 2000..4000)
+            assertTrue(capped in 4000..8000)
+        }
+    }
+
+    private fun policy() = AdaptiveRetryPolicy(FAMILY, 1, stats, 0)
+}
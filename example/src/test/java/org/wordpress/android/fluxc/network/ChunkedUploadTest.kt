@@ -0,0 +1,227 @@
+package org.wordpress.android.fluxc.network
+
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.SocketPolicy
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.ChunkedUpload.Result.Completed
+import org.wordpress.android.fluxc.network.ChunkedUpload.Result.Failed
+import java.io.File
+
+private const val MEDIA_JSON = "{\"media\":[]}"
+
+@RunWith(RobolectricTestRunner::class)
+class ChunkedUploadTest {
+    @get:Rule val temporaryFolder = TemporaryFolder()
+
+    private val server = MockWebServer()
+    private val config = ResumableUploadConfig().apply {
+        chunkSize = 4
+        maxChunkRetries = 2
+        retryDelayMs = 0
+    }
+    private val uploadedBytes = mutableListOf<Pair<String, Long>>()
+    private lateinit var file: File
+
+    @Before
+    fun setUp() {
+        server.start()
+        file = temporaryFolder.newFile("video.mp4").apply { writeText("0123456789") }
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `uploads the file in chunks`() {
+        server.enqueue(MockResponse().setResponseCode(201).addHeader("Location", "/files/1"))
+        server.enqueue(chunkResponse(4))
+        server.enqueue(chunkResponse(8))
+        server.enqueue(lastChunkResponse())
+
+        val result = newUpload().run()
+
+        assertThat((result as Completed).responseBody).isEqualTo(MEDIA_JSON)
+        val creation = server.takeRequest()
+        assertThat(creation.method).isEqualTo("POST")
+        assertThat(creation.getHeader("Upload-Length")).isEqualTo("10")
+        assertThat(creation.getHeader("Tus-Resumable")).isEqualTo("1.0.0")
+        assertThat(creation.getHeader("Authorization")).isEqualTo("Bearer token")
+        val chunks = List(3) { server.takeRequest() }
+        assertThat(chunks.map { it.method }).containsOnly("PATCH")
+        assertThat(chunks.map { it.path }).containsOnly("/files/1")
+        assertThat(chunks.map { it.getHeader("Upload-Offset") }).containsExactly("0", "4", "8")
+        assertThat(chunks.map { it.body.readUtf8() }).containsExactly("0123", "4567", "89")
+        assertThat(uploadedBytes.map { it.second }).containsExactly(0L, 4L, 8L, 10L)
+        assertThat(uploadedBytes.map { it.first }).containsOnly(server.url("/files/1").toString())
+    }
+
+    @Test
+    fun `resumes from what the server has`() {
+        server.enqueue(headResponse(6))
+        server.enqueue(lastChunkResponse())
+
+        val result = newUpload(uploadUrl = server.url("/files/1").toString()).run()
+
+        assertThat(result).isInstanceOf(Completed::class.java)
+        assertThat(server.takeRequest().method).isEqualTo("HEAD")
+        val chunk = server.takeRequest()
+        assertThat(chunk.getHeader("Upload-Offset")).isEqualTo("6")
+        assertThat(chunk.body.readUtf8()).isEqualTo("6789")
+        assertThat(server.requestCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `sends again only what the server is missing when a chunk fails`() {
+        server.enqueue(MockResponse().setResponseCode(201).addHeader("Location", "/files/1"))
+        server.enqueue(chunkResponse(4))
+        server.enqueue(MockResponse().setResponseCode(503))
+        // The server got part of the failed chunk
+        server.enqueue(headResponse(6))
+        server.enqueue(lastChunkResponse())
+
+        val result = newUpload().run()
+
+        assertThat(result).isInstanceOf(Completed::class.java)
+        val requests = List(5) { server.takeRequest() }
+        assertThat(requests.map { it.method }).containsExactly("POST", "PATCH", "PATCH", "HEAD", "PATCH")
+        assertThat(requests.last().getHeader("Upload-Offset")).isEqualTo("6")
+        assertThat(requests.last().body.readUtf8()).isEqualTo("6789")
+    }
+
+    @Test
+    fun `starts over when the server doesn't know the upload anymore`() {
+        server.enqueue(MockResponse().setResponseCode(404))
+        server.enqueue(MockResponse().setResponseCode(201).addHeader("Location", "/files/2"))
+        server.enqueue(chunkResponse(4))
+        server.enqueue(chunkResponse(8))
+        server.enqueue(lastChunkResponse())
+
+        val result = newUpload(uploadUrl = server.url("/files/1").toString()).run()
+
+        assertThat(result).isInstanceOf(Completed::class.java)
+        assertThat(server.takeRequest().path).isEqualTo("/files/1")
+        assertThat(server.takeRequest().method).isEqualTo("POST")
+        assertThat(server.takeRequest().getHeader("Upload-Offset")).isEqualTo("0")
+    }
+
+    @Test
+    fun `fetches the result when the response to the last chunk is lost`() {
+        server.enqueue(MockResponse().setResponseCode(201).addHeader("Location", "/files/1"))
+        server.enqueue(chunkResponse(4))
+        server.enqueue(chunkResponse(8))
+        server.enqueue(lastChunkResponse().setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY))
+        server.enqueue(headResponse(10))
+        server.enqueue(MockResponse().setBody(MEDIA_JSON))
+
+        val result = newUpload().run()
+
+        assertThat((result as Completed).responseBody).isEqualTo(MEDIA_JSON)
+        val requests = List(6) { server.takeRequest() }
+        assertThat(requests.map { it.method }).containsExactly("POST", "PATCH", "PATCH", "PATCH", "HEAD", "GET")
+        assertThat(requests.last().path).isEqualTo("/files/1")
+        // The upload is kept until its result is fetched
+        assertThat(uploadedBytes.last()).isEqualTo(server.url("/files/1").toString() to 10L)
+    }
+
+    @Test
+    fun `fetches the result of an upload the server already has`() {
+        server.enqueue(headResponse(10))
+        server.enqueue(MockResponse().setBody(MEDIA_JSON))
+
+        val result = newUpload(uploadUrl = server.url("/files/1").toString()).run()
+
+        assertThat((result as Completed).responseBody).isEqualTo(MEDIA_JSON)
+        assertThat(server.takeRequest().method).isEqualTo("HEAD")
+        assertThat(server.takeRequest().method).isEqualTo("GET")
+        assertThat(server.requestCount).isEqualTo(2)
+    }
+
+    @Test
+    fun `fails without the result of the upload`() {
+        server.enqueue(headResponse(10))
+        repeat(3) {
+            server.enqueue(MockResponse().setResponseCode(200))
+            server.enqueue(headResponse(10))
+        }
+
+        val result = newUpload(uploadUrl = server.url("/files/1").toString()).run()
+
+        assertThat((result as Failed).exception).isNotNull()
+    }
+
+    @Test
+    fun `starts over when the server has the upload of a file of another length`() {
+        server.enqueue(chunkResponse(6).addHeader("Upload-Length", "12"))
+        server.enqueue(MockResponse().setResponseCode(201).addHeader("Location", "/files/2"))
+        server.enqueue(chunkResponse(4))
+        server.enqueue(chunkResponse(8))
+        server.enqueue(lastChunkResponse())
+
+        val result = newUpload(uploadUrl = server.url("/files/1").toString()).run()
+
+        assertThat(result).isInstanceOf(Completed::class.java)
+        assertThat(server.takeRequest().method).isEqualTo("HEAD")
+        assertThat(server.takeRequest().method).isEqualTo("POST")
+        assertThat(server.takeRequest().getHeader("Upload-Offset")).isEqualTo("0")
+        assertThat(uploadedBytes.map { it.first }).containsOnly(server.url("/files/2").toString())
+    }
+
+    @Test
+    fun `fails when the chunks keep failing`() {
+        server.enqueue(MockResponse().setResponseCode(201).addHeader("Location", "/files/1"))
+        repeat(3) {
+            server.enqueue(MockResponse().setResponseCode(500))
+            server.enqueue(headResponse(0))
+        }
+
+        val result = newUpload().run()
+
+        assertThat((result as Failed).exception).isNotNull()
+    }
+
+    @Test
+    fun `fails without retrying when the server refuses the upload`() {
+        server.enqueue(MockResponse().setResponseCode(413))
+
+        val result = newUpload().run()
+
+        assertThat((result as Failed).statusCode).isEqualTo(413)
+        assertThat(server.requestCount).isEqualTo(1)
+    }
+
+    private fun chunkResponse(offset: Long) = MockResponse().setResponseCode(204)
+            .addHeader("Upload-Offset", offset.toString())
+
+    private fun headResponse(offset: Long) = chunkResponse(offset).addHeader("Upload-Length", "10")
+
+    private fun lastChunkResponse() = chunkResponse(10).setResponseCode(200).setBody(MEDIA_JSON)
+
+    private fun newUpload(uploadUrl: String? = null) = ChunkedUpload(
+            OkHttpClient(),
+            config,
+            server.url("/files/").toString(),
+            file,
+            "video.mp4",
+            "video/mp4",
+            mapOf("Authorization" to "Bearer token"),
+            object : ChunkedUpload.Listener {
+                override fun onUploadedBytesChanged(uploadUrl: String, uploadedBytes: Long) {
+                    this@ChunkedUploadTest.uploadedBytes.add(uploadUrl to uploadedBytes)
+                }
+
+                override fun onProgress(progress: Float) {}
+            },
+            uploadUrl
+    )
+}
@@ -0,0 +1,164 @@
+package org.wordpress.android.fluxc.network
+
+import com.android.volley.ExecutorDelivery
+import com.android.volley.Network
+import com.android.volley.NetworkResponse
+import com.android.volley.Request
+import com.android.volley.Request.Method
+import com.android.volley.Response
+import com.android.volley.ServerError
+import com.android.volley.toolbox.HttpHeaderParser
+import com.android.volley.toolbox.NoCache
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener
+import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+private const val URL = "https://public-api.wordpress.com/rest/v1.1/me/sites/"
+
+@RunWith(RobolectricTestRunner::class)
+class CoalescingRequestQueueTest {
+    private val networkCalls = AtomicInteger()
+    private val releaseNetwork = CountDownLatch(1)
+    private var failNetwork = false
+    private lateinit var queue: CoalescingRequestQueue
+
+    @Before
+    fun setUp() {
+        val network = Network {
+            networkCalls.incrementAndGet()
+            releaseNetwork.await(5, TimeUnit.SECONDS)
+            if (failNetwork) {
+                throw ServerError(NetworkResponse(500, ByteArray(0), false, 0, listOf()))
+            }
+            NetworkResponse("sites".toByteArray())
+        }
+        queue = CoalescingRequestQueue(NoCache(), network, 1, ExecutorDelivery(Executor { it.run() }))
+        queue.start()
+    }
+
+    @After
+    fun tearDown() {
+        queue.stop()
+    }
+
+    @Test
+    fun identicalInFlightRequestsShareOneNetworkCall() {
+        val delivered = CountDownLatch(3)
+        val responses = List(3) { TestRequest(Method.GET, URL, delivered) }
+
+        responses.forEach { queue.add(it) }
+        releaseNetwork.countDown()
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(networkCalls.get()).isEqualTo(1)
+        assertThat(queue.suppressedRequestCount).isEqualTo(2)
+        responses.forEach { assertThat(it.response).isEqualTo("sites") }
+    }
+
+    @Test
+    fun coalescedRequestsParseTheirOwnResponse() {
+        val delivered = CountDownLatch(2)
+        val leader = TestRequest(Method.GET, URL, delivered)
+        val follower = TestRequest(Method.GET, URL, delivered)
+
+        queue.add(leader)
+        queue.add(follower)
+        releaseNetwork.countDown()
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(networkCalls.get()).isEqualTo(1)
+        assertThat(leader.parseCount).isEqualTo(1)
+        assertThat(follower.parseCount).isEqualTo(1)
+        assertThat(follower.response).isEqualTo("sites").isNotSameAs(leader.response)
+    }
+
+    @Test
+    fun errorsAreDeliveredToCoalescedRequests() {
+        failNetwork = true
+        val delivered = CountDownLatch(2)
+        val requests = List(2) { TestRequest(Method.GET, URL, delivered) }
+
+        requests.forEach { queue.add(it) }
+        releaseNetwork.countDown()
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(networkCalls.get()).isEqualTo(1)
+        requests.forEach { assertThat(it.error).isNotNull() }
+    }
+
+    @Test
+    fun requestsWithDifferentUrlsAreNotCoalesced() {
+        val delivered = CountDownLatch(2)
+
+        queue.add(TestRequest(Method.GET, URL, delivered))
+        queue.add(TestRequest(Method.GET, "$URL?page=2", delivered))
+        releaseNetwork.countDown()
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(networkCalls.get()).isEqualTo(2)
+        assertThat(queue.suppressedRequestCount).isEqualTo(0)
+    }
+
+    @Test
+    fun postRequestsAreNotCoalesced() {
+        val delivered = CountDownLatch(2)
+
+        queue.add(TestRequest(Method.POST, URL, delivered))
+        queue.add(TestRequest(Method.POST, URL, delivered))
+        releaseNetwork.countDown()
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(networkCalls.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun followersOfACancelledRequestGoToTheNetwork() {
+        val delivered = CountDownLatch(1)
+        val leader = TestRequest(Method.GET, URL, delivered)
+        val follower = TestRequest(Method.GET, URL, delivered)
+
+        queue.add(leader)
+        queue.add(follower)
+        leader.cancel()
+        releaseNetwork.countDown()
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(follower.response).isEqualTo("sites")
+        assertThat(leader.response).isNull()
+    }
+
+    private class TestRequest(
+        method: Int,
+        url: String,
+        private val delivered: CountDownLatch
+    ) : BaseRequest<String>(method, url, BaseErrorListener { }) {
+        var response: String? = null
+        var error: BaseNetworkError? = null
+        var parseCount = 0
+
+        override fun parseNetworkResponse(response: NetworkResponse): Response<String> {
+            parseCount++
+            return Response.success(String(response.data), HttpHeaderParser.parseCacheHeaders(response))
+        }
+
+        override fun deliverResponse(response: String) {
+            this.response = response
+            delivered.countDown()
+        }
+
+        override fun deliverBaseNetworkError(error: BaseNetworkError): BaseNetworkError {
+            this.error = error
+            delivered.countDown()
+            return error
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.wordpress.android.fluxc.network.discovery
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.timeout
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder.DiscoveryError
+import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder.DiscoveryResultPayload
+
+private const val SITE_URL = "http://example.com"
+private const val DISPATCH_TIMEOUT_MS = 5000L
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class SelfHostedEndpointFinderTest {
+    private val dispatcher: Dispatcher = mock()
+    private val xmlrpcClient: DiscoveryXMLRPCClient = mock()
+    private val wpApiClient: DiscoveryWPAPIRestClient = mock()
+    private val finder = SelfHostedEndpointFinder(dispatcher, xmlrpcClient, wpApiClient)
+
+    @Test
+    fun `a site that isn't WordPress isn't probed again for a while`() {
+        whenever(xmlrpcClient.getResponse(any())).thenReturn("<html><body>Hello</body></html>")
+
+        finder.findEndpoint(SITE_URL)
+        discoveryErrors(1)
+
+        finder.findEndpoint(SITE_URL)
+
+        assertThat(discoveryErrors(2)).containsOnly(DiscoveryError.NO_SITE_ERROR)
+        verify(xmlrpcClient, times(1)).getResponse(SITE_URL)
+    }
+
+    @Test
+    fun `a site that didn't answer is probed again`() {
+        // Offline: no response at all
+        finder.findEndpoint(SITE_URL)
+        assertThat(discoveryErrors(1)).containsOnly(DiscoveryError.NO_SITE_ERROR)
+
+        finder.findEndpoint(SITE_URL)
+
+        assertThat(discoveryErrors(2)).containsOnly(DiscoveryError.NO_SITE_ERROR)
+        verify(xmlrpcClient, times(2)).getResponse(SITE_URL)
+    }
+
+    @Test
+    fun `a retry probes the site again`() {
+        whenever(xmlrpcClient.getResponse(any())).thenReturn("<html><body>Hello</body></html>")
+        finder.findEndpoint(SITE_URL)
+        discoveryErrors(1)
+
+        finder.findEndpoint(SITE_URL, true)
+
+        discoveryErrors(2)
+        verify(xmlrpcClient, times(2)).getResponse(SITE_URL)
+    }
+
+    /**
+     * Waits for the given number of discovery results, and returns their errors.
+     */
+    private fun discoveryErrors(count: Int): List<DiscoveryError?> {
+        val captor = argumentCaptor<Action<*>>()
+        verify(dispatcher, timeout(DISPATCH_TIMEOUT_MS).times(count)).dispatch(captor.capture())
+        return captor.allValues.map { (it.payload as DiscoveryResultPayload).error }
+    }
+}
@@ -0,0 +1,35 @@
+package org.wordpress.android.fluxc.network.rest
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import org.wordpress.android.fluxc.generated.endpoint.WPORGAPI
+import org.wordpress.android.fluxc.network.rest.EndpointCachePolicies.NO_POLICY
+import org.wordpress.android.fluxc.network.rest.EndpointCachePolicies.REVALIDATE
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class EndpointCachePoliciesTest {
+    @Test
+    fun generatedEndpointsMatchTheirTemplates() {
+        assertThat(EndpointCachePolicies.getTimeToLive(WPCOMREST.me.sites.urlV1_1)).isEqualTo(REVALIDATE)
+        assertThat(EndpointCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).plugins.urlV1_2))
+                .isEqualTo(REVALIDATE)
+        assertThat(EndpointCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).themes.mine.urlV1_1))
+                .isEqualTo(REVALIDATE)
+        assertThat(EndpointCachePolicies.getTimeToLive(WPCOMREST.themes.urlV1_2))
+                .isEqualTo(TimeUnit.HOURS.toMillis(1).toInt())
+        assertThat(EndpointCachePolicies.getTimeToLive(WPORGAPI.plugins.info.version("1.0").slug("akismet").url))
+                .isEqualTo(TimeUnit.HOURS.toMillis(1).toInt())
+    }
+
+    @Test
+    fun unlistedEndpointsHaveNoPolicy() {
+        assertThat(EndpointCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).posts.urlV1_1)).isEqualTo(NO_POLICY)
+        assertThat(EndpointCachePolicies.getTimeToLive(WPCOMREST.me.urlV1_1)).isEqualTo(NO_POLICY)
+        assertThat(EndpointCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).plugins.name("akismet").urlV1_2))
+                .isEqualTo(NO_POLICY)
+    }
+}
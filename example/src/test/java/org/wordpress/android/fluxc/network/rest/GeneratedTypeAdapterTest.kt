@@ -0,0 +1,156 @@
+package org.wordpress.android.fluxc.network.rest
+
+import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaWPComRestResponse
+import org.wordpress.android.fluxc.network.rest.wpcom.post.PostWPComRestResponse
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteWPComRestResponse
+import org.wordpress.android.fluxc.network.rest.wpcom.wc.order.OrderApiResponse
+import org.wordpress.android.fluxc.network.rest.wpcom.wc.product.ProductApiResponse
+import org.wordpress.android.util.AppLog
+import java.lang.management.ManagementFactory
+
+private const val BENCHMARK_ITEM_COUNT = 1000
+
+@RunWith(RobolectricTestRunner::class)
+class GeneratedTypeAdapterTest {
+    private val gson = GsonRequest.getGson()
+    private val reflectiveGson = Gson()
+
+    @Test
+    fun `annotated classes use their generated adapter`() {
+        assertThat(gson.getAdapter(SiteWPComRestResponse::class.java).javaClass.simpleName)
+                .isEqualTo("SiteWPComRestResponseTypeAdapter")
+        assertThat(gson.getAdapter(PostWPComRestResponse::class.java).javaClass.simpleName)
+                .isEqualTo("PostWPComRestResponseTypeAdapter")
+    }
+
+    @Test
+    fun `generated adapter decodes fields like the reflective one`() {
+        val json = "{\"ID\":12,\"URL\":\"https://example.com\",\"name\":\"Example\",\"jetpack\":true," +
+                "\"is_private\":null,\"unknown\":{\"nested\":[1,2]},\"options\":{\"admin_url\":\"admin\"," +
+                "\"page_on_front\":3},\"quota\":{\"percent_used\":0.5}}"
+
+        val generated = gson.fromJson(json, SiteWPComRestResponse::class.java)
+        val reflective = reflectiveGson.fromJson(json, SiteWPComRestResponse::class.java)
+
+        assertThat(generated.ID).isEqualTo(12)
+        assertThat(generated.options.admin_url).isEqualTo("admin")
+        assertThat(reflectiveGson.toJson(generated)).isEqualTo(reflectiveGson.toJson(reflective))
+    }
+
+    @Test
+    fun `generated adapter writes fields like the reflective one`() {
+        val media = MediaWPComRestResponse().apply {
+            ID = 5
+            URL = "https://example.com/image.jpg"
+            videopress_processing_done = true
+        }
+
+        assertThat(gson.toJson(media)).isEqualTo(reflectiveGson.toJson(media))
+    }
+
+    @Test
+    fun `classes created through their constructor are decoded`() {
+        val json = "{\"ID\":7,\"type\":\"post\",\"title\":\"Title\",\"sticky\":true,\"metadata\":false}"
+
+        val post = gson.fromJson(json, PostWPComRestResponse::class.java)
+
+        assertThat(post.remotePostId).isEqualTo(7)
+        assertThat(post.type).isEqualTo("post")
+        assertThat(post.title).isEqualTo("Title")
+        assertThat(post.sticky).isTrue()
+        assertThat(post.metadata).isEmpty()
+    }
+
+    @Test
+    fun `classes created through their constructor are decoded from partial responses`() {
+        // As asked by the post list and post status fetches, with their `fields`
+        val json = "{\"ID\":1,\"status\":\"publish\"}"
+
+        val post = gson.fromJson(json, PostWPComRestResponse::class.java)
+
+        assertThat(post.remotePostId).isEqualTo(1)
+        assertThat(post.status).isEqualTo("publish")
+        assertThat(post.type).isNull()
+    }
+
+    @Test
+    fun benchmarkGeneratedAdapters() {
+        // The shared Gson, without GeneratedTypeAdapterFactory
+        val gsonWithoutFactory = GsonBuilder()
+                .setLenient()
+                .registerTypeHierarchyAdapter(JsonObjectOrFalse::class.java, JsonObjectOrFalseDeserializer())
+                .registerTypeHierarchyAdapter(JsonObjectOrEmptyArray::class.java, JsonObjectOrEmptyArrayDeserializer())
+                .create()
+        val responses = listOf<Pair<Class<out Array<*>>, String>>(
+                Array<PostWPComRestResponse>::class.java to jsonArray { postJson(it) },
+                Array<OrderApiResponse>::class.java to jsonArray { orderJson(it) },
+                Array<ProductApiResponse>::class.java to jsonArray { productJson(it) }
+        )
+        responses.forEach { (type, json) ->
+            // Warm up both paths first, so class loading and the adapters creation don't count
+            assertThat(gson.fromJson(json, type).size).isEqualTo(BENCHMARK_ITEM_COUNT)
+            assertThat(gsonWithoutFactory.fromJson(json, type).size).isEqualTo(BENCHMARK_ITEM_COUNT)
+
+            val (generatedNanos, generatedBytes) = measureDecoding { gson.fromJson(json, type) }
+            val (reflectiveNanos, reflectiveBytes) = measureDecoding { gsonWithoutFactory.fromJson(json, type) }
+
+            AppLog.i(AppLog.T.TESTS, "Decoding $BENCHMARK_ITEM_COUNT ${type.componentType.simpleName}: " +
+                    "generated adapters in ${generatedNanos / 1_000_000} ms allocating $generatedBytes bytes, " +
+                    "reflective adapters in ${reflectiveNanos / 1_000_000} ms allocating $reflectiveBytes bytes")
+        }
+    }
+
+    /**
+     * Returns the time taken by [decode] in nanoseconds, and the bytes it allocated.
+     */
+    private inline fun measureDecoding(decode: () -> Unit): Pair<Long, Long> {
+        val startBytes = allocatedBytes()
+        val start = System.nanoTime()
+        decode()
+        val elapsedNanos = System.nanoTime() - start
+        return elapsedNanos to allocatedBytes() - startBytes
+    }
+
+    private fun allocatedBytes(): Long {
+        return (ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean)
+                .getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+
+    private fun jsonArray(itemJson: (Int) -> String) =
+            List(BENCHMARK_ITEM_COUNT) { itemJson(it) }.joinToString(",", "[", "]")
+
+    private fun postJson(id: Int) = "{\"ID\":$id,\"site_ID\":1,\"date\":\"2020-01-01T10:00:00+00:00\"," +
+            "\"modified\":\"2020-01-02T10:00:00+00:00\",\"title\":\"Post $id\"," +
+            "\"URL\":\"https://example.com/post-$id\",\"content\":\"<p>Lorem ipsum dolor sit amet.</p>\"," +
+            "\"excerpt\":\"Lorem ipsum\",\"slug\":\"post-$id\",\"status\":\"publish\",\"sticky\":false," +
+            "\"type\":\"post\",\"format\":\"standard\",\"parent\":false,\"categories\":{\"News\":" +
+            "{\"ID\":3,\"name\":\"News\",\"slug\":\"news\"}},\"tags\":{}," +
+            "\"capabilities\":{\"publish_post\":true,\"edit_post\":true,\"delete_post\":true}," +
+            "\"metadata\":[{\"id\":\"1\",\"key\":\"geo_public\",\"value\":\"0\"}]}"
+
+    private fun orderJson(id: Int) = "{\"id\":$id,\"number\":\"$id\",\"status\":\"processing\"," +
+            "\"currency\":\"USD\",\"date_created_gmt\":\"2020-01-01T10:00:00\"," +
+            "\"date_modified_gmt\":\"2020-01-02T10:00:00\",\"total\":\"42.00\",\"total_tax\":\"2.00\"," +
+            "\"shipping_total\":\"5.00\",\"payment_method\":\"stripe\",\"payment_method_title\":\"Card\"," +
+            "\"prices_include_tax\":false,\"customer_note\":\"\",\"discount_total\":\"0.00\"," +
+            "\"billing\":{\"first_name\":\"Jane\",\"last_name\":\"Doe\",\"city\":\"Paris\"," +
+            "\"country\":\"FR\",\"email\":\"jane@example.com\"},\"shipping\":{\"first_name\":\"Jane\"," +
+            "\"last_name\":\"Doe\",\"city\":\"Paris\",\"country\":\"FR\"}," +
+            "\"line_items\":[{\"id\":1,\"name\":\"Shirt\",\"quantity\":2,\"total\":\"35.00\"}]," +
+            "\"coupon_lines\":[],\"refunds\":[],\"shipping_lines\":[{\"method_title\":\"Flat rate\"}]}"
+
+    private fun productJson(id: Int) = "{\"id\":$id,\"name\":\"Product $id\",\"slug\":\"product-$id\"," +
+            "\"permalink\":\"https://example.com/product-$id\",\"date_created\":\"2020-01-01T10:00:00\"," +
+            "\"date_modified\":\"2020-01-02T10:00:00\",\"type\":\"simple\",\"status\":\"publish\"," +
+            "\"featured\":false,\"description\":\"<p>Lorem ipsum dolor sit amet.</p>\",\"sku\":\"SKU-$id\"," +
+            "\"price\":\"10.00\",\"regular_price\":\"12.00\",\"sale_price\":\"10.00\",\"on_sale\":true," +
+            "\"total_sales\":3,\"stock_quantity\":20,\"stock_status\":\"instock\",\"weight\":\"1\"," +
+            "\"dimensions\":{\"length\":\"10\",\"width\":\"5\",\"height\":\"2\"}," +
+            "\"categories\":[{\"id\":9,\"name\":\"Clothing\"}],\"images\":[],\"attributes\":[]}"
+}
@@ -0,0 +1,108 @@
+package org.wordpress.android.fluxc.network.rest
+
+import com.android.volley.NetworkResponse
+import com.android.volley.ParseError
+import com.nhaarman.mockitokotlin2.mock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteWPComRestResponse.SitesResponse
+import org.wordpress.android.fluxc.network.rest.wpcom.wc.product.ProductApiResponse
+import org.wordpress.android.util.AppLog
+import java.lang.management.ManagementFactory
+
+private const val URL = "https://public-api.wordpress.com/rest/v1.1/me/sites/"
+private const val PRODUCTS_URL = "https://public-api.wordpress.com/rest/v1.1/jetpack-blogs/1/rest-api/"
+private const val BENCHMARK_ITEM_COUNT = 1000
+
+@RunWith(RobolectricTestRunner::class)
+class GsonRequestTest {
+    @Test
+    fun `responses are decoded from the response bytes`() {
+        val request = WPComGsonRequest.buildGetRequest(URL, null, SitesResponse::class.java, mock(), mock())
+        val json = sitesJson(500)
+
+        val response = request.parseNetworkResponse(NetworkResponse(json.toByteArray()))
+
+        assertThat(response.isSuccess).isTrue()
+        assertThat(response.result.sites).hasSize(500)
+        assertThat(response.result.sites.last().name).isEqualTo("Site 500")
+    }
+
+    @Test
+    fun `malformed responses are parse errors`() {
+        val request = WPComGsonRequest.buildGetRequest(URL, null, SitesResponse::class.java, mock(), mock())
+
+        val response = request.parseNetworkResponse(NetworkResponse("{\"sites\": 1}".toByteArray()))
+
+        assertThat(response.error).isInstanceOf(ParseError::class.java)
+    }
+
+    @Test
+    fun `the body is encoded once`() {
+        val request = WPComGsonRequest.buildPostRequest(URL, mapOf<String, Any>("key" to "value"),
+                Any::class.java, mock(), mock())
+
+        assertThat(request.body).isSameAs(request.body)
+        assertThat(String(request.body)).isEqualTo("{\"key\":\"value\"}")
+    }
+
+    @Test
+    fun benchmarkResponseDecodingAllocations() {
+        val sitesRequest = WPComGsonRequest.buildGetRequest(URL, null, SitesResponse::class.java, mock(), mock())
+        val productsRequest = WPComGsonRequest.buildGetRequest(PRODUCTS_URL, null,
+                Array<ProductApiResponse>::class.java, mock(), mock())
+        val responses = listOf(
+                Triple(sitesRequest, SitesResponse::class.java, sitesJson(BENCHMARK_ITEM_COUNT).toByteArray()),
+                Triple(productsRequest, Array<ProductApiResponse>::class.java,
+                        productsJson(BENCHMARK_ITEM_COUNT).toByteArray())
+        )
+        responses.forEach { (request, type, bytes) ->
+            // Warm up both paths first, so class loading doesn't count as allocations
+            decodeFromStringCopy(bytes, type)
+            request.parseNetworkResponse(NetworkResponse(bytes))
+
+            val stringCopyBytes = measureAllocations { decodeFromStringCopy(bytes, type) }
+            val sharedGsonBytes = measureAllocations {
+                assertThat(request.parseNetworkResponse(NetworkResponse(bytes)).isSuccess).isTrue()
+            }
+
+            AppLog.i(AppLog.T.TESTS, "Decoding a ${bytes.size} bytes ${type.simpleName} response allocated " +
+                    "$stringCopyBytes bytes through a String copy and a new Gson, " +
+                    "$sharedGsonBytes bytes from the bytes with the shared Gson")
+        }
+    }
+
+    /**
+     * The previous GsonRequest path: a Gson per request, decoding a String copy of the response.
+     */
+    private fun decodeFromStringCopy(bytes: ByteArray, type: Class<*>) {
+        val json = String(bytes, Charsets.UTF_8)
+        assertThat(GsonRequest.setupGsonBuilder().create().fromJson(json, type)).isNotNull()
+    }
+
+    private inline fun measureAllocations(decode: () -> Unit): Long {
+        val start = allocatedBytes()
+        decode()
+        return allocatedBytes() - start
+    }
+
+    private fun allocatedBytes(): Long {
+        return (ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean)
+                .getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+
+    private fun sitesJson(siteCount: Int) = (1..siteCount).joinToString(prefix = "{\"sites\":[", postfix = "]}") {
+        "{\"ID\":$it,\"name\":\"Site $it\",\"URL\":\"https://site$it.example.com\",\"jetpack\":false," +
+                "\"options\":{\"admin_url\":\"https://site$it.example.com/wp-admin/\",\"timezone\":\"UTC\"}}"
+    }
+
+    private fun productsJson(productCount: Int) = (1..productCount).joinToString(prefix = "[", postfix = "]") {
+        "{\"id\":$it,\"name\":\"Product $it\",\"slug\":\"product-$it\",\"type\":\"simple\"," +
+                "\"status\":\"publish\",\"description\":\"<p>Lorem ipsum dolor sit amet.</p>\"," +
+                "\"price\":\"10.00\",\"regular_price\":\"12.00\",\"on_sale\":true,\"stock_quantity\":20," +
+                "\"categories\":[{\"id\":9,\"name\":\"Clothing\"}],\"images\":[]}"
+    }
+}
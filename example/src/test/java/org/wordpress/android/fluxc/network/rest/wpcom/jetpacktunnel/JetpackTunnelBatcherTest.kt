@@ -0,0 +1,192 @@
+package org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel
+
+import com.android.volley.NetworkResponse
+import com.android.volley.Response
+import com.android.volley.ServerError
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.atLeastOnce
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
+import kotlinx.coroutines.test.TestCoroutineScope
+import kotlinx.coroutines.test.runBlockingTest
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType
+import org.wordpress.android.fluxc.network.rest.GsonRequest
+import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelBatcher.Method
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse.JetpackError
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse.JetpackSuccess
+
+private const val SITE_ID = 123L
+private const val BATCH_NOT_ALLOWED_ERROR = "{\"code\":\"rest_batch_not_allowed\"," +
+        "\"message\":\"The requested route does not support batch requests.\"}"
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class JetpackTunnelBatcherTest {
+    private val restClient: BaseWPComRestClient = mock()
+    private val batcher = JetpackTunnelBatcher()
+
+    @Test
+    fun `calls made together are sent as one batch`() = runBlockingTest {
+        val calls = updateProductsTogether(1, 2)
+
+        val body = String(sentRequests().single().body)
+        assertThat(body).contains("/batch/v1")
+        assertThat(body).contains("/wc/v3/products/1/").contains("/wc/v3/products/2/")
+        calls.forEach { it.cancel() }
+    }
+
+    @Test
+    fun `a call made alone is sent as is`() = runBlockingTest {
+        val call = async {
+            batcher.request(restClient, SITE_ID, Method.DELETE, "/wc/v3/products/1/", mapOf(), mapOf(), Any::class.java)
+        }
+        advanceTimeBy(batcher.batchWindowMs)
+
+        val body = String(sentRequests().single().body)
+        assertThat(body).contains("/wc/v3/products/1/").doesNotContain("/batch/v1")
+        call.cancel()
+    }
+
+    @Test
+    fun `each call gets its own response from the batch`() = runBlockingTest {
+        val calls = updateProductsTogether(1, 2)
+
+        sentRequests().single().respond(batchResponse(itemResponse(200, "{\"id\":1}"), itemResponse(200, "{\"id\":2}")))
+
+        assertThat(calls.map { (it.await() as JetpackSuccess).data?.id }).containsExactly(1L, 2L)
+    }
+
+    @Test
+    fun `failed calls of the batch get their own error`() = runBlockingTest {
+        val calls = updateProductsTogether(1, 2, 3, 4)
+
+        sentRequests().single().respond(batchResponse(
+                itemResponse(400, "{\"code\":\"woocommerce_rest_invalid_id\",\"message\":\"Invalid ID.\"}"),
+                itemResponse(404, "{\"code\":\"rest_no_route\",\"message\":\"No route was found.\"}"),
+                itemResponse(500, "{\"code\":\"internal_server_error\",\"message\":\"Error\"}")
+                // No response for the last call
+        ))
+
+        val errors = calls.map { (it.await() as JetpackError).error }
+        assertThat(errors.map { it.type }).containsExactly(
+                GenericErrorType.UNKNOWN,
+                GenericErrorType.NOT_FOUND,
+                GenericErrorType.SERVER_ERROR,
+                GenericErrorType.PARSE_ERROR
+        )
+        assertThat(errors.map { it.apiError })
+                .containsExactly("woocommerce_rest_invalid_id", "rest_no_route", "internal_server_error", "")
+        assertThat(errors[0].message).isEqualTo("Invalid ID.")
+        assertThat(errors[0].volleyError.networkResponse.statusCode).isEqualTo(400)
+        // Only the batch was sent
+        verify(restClient, times(1)).add(any<WPComGsonRequest<*>>())
+    }
+
+    @Test
+    fun `calls are sent alone when the site has no batch endpoint`() = runBlockingTest {
+        val calls = updateProductsTogether(1, 2)
+
+        sentRequests().single().fail(404, "{\"code\":\"rest_no_route\",\"message\":\"No route was found.\"}")
+
+        assertCallsSentAlone(calls)
+        // Later calls to the site aren't held for a batch
+        val laterCall = updateProduct(3)
+        assertThat(sentRequests()).hasSize(4)
+        laterCall.cancel()
+    }
+
+    @Test
+    fun `calls are sent alone when the batch endpoint isn't found`() = runBlockingTest {
+        val calls = updateProductsTogether(1, 2)
+
+        sentRequests().single().fail(404, "")
+
+        assertCallsSentAlone(calls)
+    }
+
+    @Test
+    fun `calls are sent alone when the route doesn't allow batching`() = runBlockingTest {
+        val calls = updateProductsTogether(1, 2)
+
+        val notAllowed = itemResponse(400, BATCH_NOT_ALLOWED_ERROR)
+        sentRequests().single().respond(batchResponse(notAllowed, notAllowed))
+
+        assertCallsSentAlone(calls)
+        // Later calls to the route aren't held for a batch, whatever the product
+        val laterCall = updateProduct(3)
+        assertThat(sentRequests()).hasSize(4)
+        laterCall.cancel()
+    }
+
+    @Test
+    fun `calls of a failed batch aren't sent again`() = runBlockingTest {
+        val calls = updateProductsTogether(1, 2)
+
+        sentRequests().single().fail(500, "{\"code\":\"internal_server_error\",\"message\":\"Error\"}")
+
+        assertThat(calls.map { (it.await() as JetpackError).error.type }).containsOnly(GenericErrorType.SERVER_ERROR)
+        verify(restClient, times(1)).add(any<WPComGsonRequest<*>>())
+    }
+
+    /**
+     * Checks that each of the [calls] was sent once on its own after the batch, and gets the response to its request.
+     */
+    private suspend fun assertCallsSentAlone(calls: List<Deferred<JetpackResponse<ProductResponse>>>) {
+        val singleRequests = sentRequests().drop(1)
+        assertThat(singleRequests).hasSize(calls.size)
+        singleRequests.forEachIndexed { index, request ->
+            assertThat(String(request.body)).contains("/wc/v3/products/${index + 1}/").doesNotContain("/batch/v1")
+            request.respond("{\"data\":{\"id\":${index + 1}}}")
+        }
+        assertThat(calls.map { (it.await() as JetpackSuccess).data?.id }).containsExactly(1L, 2L)
+    }
+
+    private fun TestCoroutineScope.updateProductsTogether(vararg productIds: Long) =
+            productIds.map { updateProduct(it) }.also { advanceTimeBy(batcher.batchWindowMs) }
+
+    private fun TestCoroutineScope.updateProduct(productId: Long) = async {
+        batcher.request(restClient, SITE_ID, Method.PUT, "/wc/v3/products/$productId/", mapOf("name" to "a"),
+                mapOf(), ProductResponse::class.java)
+    }
+
+    private fun sentRequests(): List<WPComGsonRequest<*>> {
+        val captor = argumentCaptor<WPComGsonRequest<*>>()
+        verify(restClient, atLeastOnce()).add(captor.capture())
+        return captor.allValues
+    }
+
+    private fun batchResponse(vararg itemResponses: String) =
+            itemResponses.joinToString(",", "{\"data\":{\"responses\":[", "]}}")
+
+    private fun itemResponse(status: Int, body: String) = "{\"status\":$status,\"body\":$body}"
+
+    /**
+     * Delivers [json] to the request as Volley would, from the response received through the tunnel.
+     */
+    private fun WPComGsonRequest<*>.respond(json: String) {
+        val response = GsonRequest::class.java.getDeclaredMethod("parseNetworkResponse", NetworkResponse::class.java)
+                .apply { isAccessible = true }
+                .invoke(this, NetworkResponse(json.toByteArray())) as Response<*>
+        GsonRequest::class.java.getDeclaredMethod("deliverResponse", Any::class.java)
+                .apply { isAccessible = true }
+                .invoke(this, response.result)
+    }
+
+    private fun WPComGsonRequest<*>.fail(statusCode: Int, json: String) {
+        deliverError(ServerError(NetworkResponse(statusCode, json.toByteArray(), emptyMap(), false)))
+    }
+
+    private class ProductResponse(val id: Long = 0)
+}
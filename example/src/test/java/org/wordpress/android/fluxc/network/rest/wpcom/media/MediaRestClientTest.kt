@@ -0,0 +1,99 @@
+package org.wordpress.android.fluxc.network.rest.wpcom.media
+
+import com.android.volley.RequestQueue
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.yarolegovich.wellsql.WellSql
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.model.MediaModel
+import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.ResumableUploadConfig
+import org.wordpress.android.fluxc.network.UserAgent
+import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken
+import org.wordpress.android.fluxc.persistence.WellSqlConfig
+import org.wordpress.android.fluxc.store.MediaStore.MediaErrorType
+import org.wordpress.android.fluxc.store.MediaStore.ProgressPayload
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class MediaRestClientTest {
+    @get:Rule val temporaryFolder = TemporaryFolder()
+
+    private val server = MockWebServer()
+    private val dispatcher: Dispatcher = mock()
+    private val uploadResults = mutableListOf<ProgressPayload>()
+    private val uploadFinished = CountDownLatch(1)
+    private val site = SiteModel().apply {
+        id = 1
+        siteId = 100
+    }
+    private lateinit var restClient: MediaRestClient
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+        val config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+
+        server.start()
+        val resumableUploadConfig = ResumableUploadConfig().apply {
+            uploadCreationUrl = { server.url("/files/").toString() }
+            minFileSize = 0
+            retryDelayMs = 0
+        }
+        doAnswer {
+            val payload = (it.arguments[0] as Action<*>).payload
+            if (payload is ProgressPayload && (payload.completed || payload.error != null)) {
+                uploadResults.add(payload)
+                uploadFinished.countDown()
+            }
+        }.whenever(dispatcher).dispatch(any())
+        restClient = MediaRestClient(appContext, dispatcher, mock<RequestQueue>(), OkHttpClient(), mock<AccessToken>(),
+                mock<UserAgent>(), MediaResponseUtils(), resumableUploadConfig)
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `a chunked upload answered with something else than JSON fails with a parse error`() {
+        server.enqueue(MockResponse().setResponseCode(201).addHeader("Location", "/files/1"))
+        server.enqueue(MockResponse().setResponseCode(200).addHeader("Upload-Offset", "10")
+                .setBody("<html><body>Bad gateway</body></html>"))
+        val file = temporaryFolder.newFile("video.mp4").apply { writeText("0123456789") }
+        val media = MediaModel().apply {
+            id = 1
+            localSiteId = site.id
+            filePath = file.path
+            fileName = "video.mp4"
+            mimeType = "video/mp4"
+        }
+
+        restClient.uploadMedia(site, media)
+
+        assertThat(uploadFinished.await(5, TimeUnit.SECONDS)).isTrue()
+        val result = uploadResults.single()
+        assertThat(result.error?.type).isEqualTo(MediaErrorType.PARSE_ERROR)
+        assertThat(result.media?.uploadState).isEqualTo(MediaUploadState.FAILED.toString())
+    }
+}
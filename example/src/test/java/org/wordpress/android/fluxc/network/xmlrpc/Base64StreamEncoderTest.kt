@@ -0,0 +1,61 @@
+package org.wordpress.android.fluxc.network.xmlrpc
+
+import android.util.Base64
+import android.util.Xml
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.FilterInputStream
+import java.io.InputStream
+import java.io.StringWriter
+import kotlin.random.Random
+
+@RunWith(RobolectricTestRunner::class)
+class Base64StreamEncoderTest {
+    private val sizes = listOf(0, 1, 2, 3, 56, 57, 58, 3419, 3420, 3421, 100_000)
+
+    @Test
+    fun encodedLengthMatchesTheEncodedOutput() {
+        sizes.forEach { size ->
+            val output = ByteArrayOutputStream()
+
+            Base64StreamEncoder().encode(ByteArrayInputStream(Random.nextBytes(size)), output)
+
+            assertThat(output.size().toLong()).describedAs("size $size")
+                    .isEqualTo(Base64StreamEncoder.encodedLength(size.toLong()))
+        }
+    }
+
+    @Test
+    fun chunkedOutputDecodesToTheInput() {
+        sizes.forEach { size ->
+            val input = Random.nextBytes(size)
+            val output = ByteArrayOutputStream()
+
+            // Short reads must not change the chunk boundaries
+            Base64StreamEncoder().encode(OneByteAtATimeInputStream(ByteArrayInputStream(input)), output)
+
+            assertThat(Base64.decode(output.toByteArray(), Base64.DEFAULT)).isEqualTo(input)
+        }
+    }
+
+    @Test
+    fun serializedBase64ParameterDecodesToTheInput() {
+        val input = Random.nextBytes(10_000)
+        val writer = StringWriter()
+        val serializer = Xml.newSerializer().apply { setOutput(writer) }
+
+        XMLRPCSerializer.serialize(serializer, input)
+        serializer.flush()
+
+        val encoded = writer.toString().removePrefix("<base64>").removeSuffix("</base64>")
+        assertThat(Base64.decode(encoded, Base64.DEFAULT)).isEqualTo(input)
+    }
+
+    private class OneByteAtATimeInputStream(input: InputStream) : FilterInputStream(input) {
+        override fun read(b: ByteArray, off: Int, len: Int) = super.read(b, off, minOf(len, 1))
+    }
+}
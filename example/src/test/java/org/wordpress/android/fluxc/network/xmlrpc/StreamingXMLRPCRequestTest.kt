@@ -0,0 +1,45 @@
+package org.wordpress.android.fluxc.network.xmlrpc
+
+import com.android.volley.NetworkResponse
+import com.android.volley.ParseError
+import com.nhaarman.mockitokotlin2.mock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.generated.endpoint.XMLRPC
+import org.wordpress.android.fluxc.network.xmlrpc.StreamingXMLRPCRequest.ElementParser
+
+private const val URL = "https://example.com/xmlrpc.php"
+
+@RunWith(RobolectricTestRunner::class)
+class StreamingXMLRPCRequestTest {
+    private val postIdParser = ElementParser<Long> { element -> (element as Map<*, *>)["post_id"].toString().toLong() }
+
+    @Test
+    fun `elements are converted as they're parsed`() {
+        val request = StreamingXMLRPCRequest(URL, XMLRPC.GET_POSTS, listOf(), postIdParser, mock(), mock())
+
+        val response = request.parseNetworkResponse(NetworkResponse(postsResponse("12", "13")))
+
+        assertThat(response.result as List<*>).containsExactly(12L, 13L)
+    }
+
+    @Test
+    fun `elements which can't be converted make the response a parse error`() {
+        val request = StreamingXMLRPCRequest(URL, XMLRPC.GET_POSTS, listOf(), postIdParser, mock(), mock())
+
+        val response = request.parseNetworkResponse(NetworkResponse(postsResponse("12", "not a number")))
+
+        assertThat(response.error).isInstanceOf(ParseError::class.java)
+        assertThat(response.error.cause).isInstanceOf(NumberFormatException::class.java)
+    }
+
+    private fun postsResponse(vararg postIds: String) = postIds.joinToString(
+            "",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodResponse><params><param><value><array><data>",
+            "</data></array></value></param></params></methodResponse>"
+    ) {
+        "<value><struct><member><name>post_id</name><value><string>$it</string></value></member></struct></value>"
+    }.toByteArray()
+}
@@ -18,9 +18,12 @@ import org.wordpress.android.fluxc.network.rest.wpcom.notifications.Notification
 import org.wordpress.android.fluxc.persistence.NotificationSqlUtils
 import org.wordpress.android.fluxc.persistence.NotificationSqlUtils.NotificationModelBuilder
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
+import org.wordpress.android.fluxc.tools.LazyFormattableList
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
+import kotlin.test.assertNotSame
 import kotlin.test.assertNull
+import kotlin.test.assertSame
 
 @Config(manifest = Config.NONE)
 @RunWith(RobolectricTestRunner::class)
@@ -388,4 +391,94 @@ class NotificationSqlUtilsTest {
         // Verify notification not in database
         assertNull(notificationSqlUtils.getNotificationByRemoteId(noteId))
     }
+
+    @Test
+    fun testBulkInsertOrUpdateNotifications() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = parseNotifications()
+
+        assertEquals(6, notificationSqlUtils.insertOrUpdateNotifications(notesList))
+
+        // Stored notifications are matched on their remote ids, new ones are inserted
+        val newNote = notesList[0].copy(noteId = -1, remoteNoteId = 333)
+        val updatedNotes = notesList.map { it.copy(noteId = -1, read = true) } + newNote
+        assertEquals(7, notificationSqlUtils.insertOrUpdateNotifications(updatedNotes))
+        val dbList = notificationSqlUtils.getNotifications()
+        assertEquals(7, dbList.size)
+        assertEquals(6, dbList.count { it.read })
+    }
+
+    @Test
+    fun testGetNoteHashesAndDeleteByRemoteIds() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = parseNotifications()
+        notificationSqlUtils.insertOrUpdateNotifications(notesList)
+
+        val noteHashes = notificationSqlUtils.getNoteHashesByRemoteId()
+        assertEquals(notesList.associate { it.remoteNoteId to it.noteHash }, noteHashes)
+
+        val staleIds = notesList.take(2).map { it.remoteNoteId }
+        assertEquals(2, notificationSqlUtils.deleteNotificationsByRemoteIds(staleIds))
+        assertEquals(4, notificationSqlUtils.getNotificationsCount())
+        staleIds.forEach { assertNull(notificationSqlUtils.getNotificationByRemoteId(it)) }
+    }
+
+    @Test
+    fun testReadNotificationsShareDecodedContent() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = parseNotifications()
+        notificationSqlUtils.insertOrUpdateNotifications(notesList)
+        val remoteNoteId = notesList[0].remoteNoteId
+
+        val first = notificationSqlUtils.getNotificationByRemoteId(remoteNoteId)!!
+        val second = notificationSqlUtils.getNotificationByRemoteId(remoteNoteId)!!
+        assertEquals(notesList[0].body, first.body)
+        assertSame(first.body, second.body)
+
+        // Writing back a notification read from the db keeps its content
+        notificationSqlUtils.insertOrUpdateNotification(second.copy(read = !second.read))
+        assertEquals(notesList[0].body, notificationSqlUtils.getNotificationByRemoteId(remoteNoteId)!!.body)
+
+        // Changed content is decoded again
+        val changedNote = NotificationModel(
+                remoteNoteId = remoteNoteId,
+                remoteSiteId = notesList[0].remoteSiteId,
+                noteHash = notesList[0].noteHash + 1,
+                body = notesList[1].body
+        )
+        notificationSqlUtils.insertOrUpdateNotification(changedNote)
+        val changed = notificationSqlUtils.getNotificationByRemoteId(remoteNoteId)!!
+        assertNotSame(first.body, changed.body)
+        assertEquals(notesList[1].body, changed.body)
+
+        // A copy with new content is written with it
+        notificationSqlUtils.insertOrUpdateNotification(changed.copy(body = notesList[2].body))
+        assertEquals(notesList[2].body, notificationSqlUtils.getNotificationByRemoteId(remoteNoteId)!!.body)
+    }
+
+    @Test
+    fun testReadNotificationsAreComparedWithoutDecodingTheirContent() {
+        val notesList = parseNotifications()
+        NotificationSqlUtils(FormattableContentMapper(Gson())).insertOrUpdateNotifications(notesList)
+
+        // Separate instances don't share their decoded content
+        val first = NotificationSqlUtils(FormattableContentMapper(Gson()))
+                .getNotificationByRemoteId(notesList[0].remoteNoteId)!!
+        val second = NotificationSqlUtils(FormattableContentMapper(Gson()))
+                .getNotificationByRemoteId(notesList[0].remoteNoteId)!!
+        assertNotSame(first.body, second.body)
+        assertEquals(first, second)
+
+        val notDecodable = { _: String -> throw AssertionError("Decoded") }
+        assertEquals(LazyFormattableList("[]", notDecodable), LazyFormattableList("[]", notDecodable))
+    }
+
+    private fun parseNotifications(): List<NotificationModel> {
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/notifications-api-response.json")
+        val apiResponse = NotificationTestUtils.parseNotificationsApiResponseFromJsonString(jsonString)
+        return apiResponse.notes?.map {
+            NotificationApiResponse.notificationResponseToNotificationModel(it)
+        } ?: emptyList()
+    }
 }
@@ -11,14 +11,13 @@ import org.mockito.Mock
 import org.mockito.junit.MockitoJUnitRunner
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.StatsUtils
-import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.VisitAndViewsRestClient.VisitsAndViewsResponse
 import org.wordpress.android.fluxc.network.utils.StatsGranularity.DAYS
 import org.wordpress.android.fluxc.network.utils.StatsGranularity.MONTHS
 import org.wordpress.android.fluxc.network.utils.StatsGranularity.WEEKS
 import org.wordpress.android.fluxc.network.utils.StatsGranularity.YEARS
+import org.wordpress.android.fluxc.persistence.StatsPeriodMetricSqlUtils
 import org.wordpress.android.fluxc.persistence.StatsRequestSqlUtils
 import org.wordpress.android.fluxc.persistence.StatsSqlUtils
-import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.VISITS_AND_VIEWS
 import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.DAY
 import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.MONTH
 import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.WEEK
@@ -37,31 +36,27 @@ class VisitAndViewsSqlUtilsTest {
     @Mock lateinit var site: SiteModel
     @Mock lateinit var statsUtils: StatsUtils
     @Mock lateinit var statsRequestSqlUtils: StatsRequestSqlUtils
+    @Mock lateinit var statsPeriodMetricSqlUtils: StatsPeriodMetricSqlUtils
     private lateinit var timeStatsSqlUtils: VisitsAndViewsSqlUtils
     private val mappedTypes = mapOf(DAY to DAYS, WEEK to WEEKS, MONTH to MONTHS, YEAR to YEARS)
 
     @Before
     fun setUp() {
-        timeStatsSqlUtils = VisitsAndViewsSqlUtils(statsSqlUtils, statsUtils, statsRequestSqlUtils)
+        timeStatsSqlUtils = VisitsAndViewsSqlUtils(
+                statsSqlUtils,
+                statsUtils,
+                statsRequestSqlUtils,
+                statsPeriodMetricSqlUtils
+        )
         whenever(statsUtils.getFormattedDate(eq(DATE), isNull())).thenReturn(DATE_VALUE)
     }
 
     @Test
-    fun `returns data from stats utils`() {
+    fun `returns data from period metric utils`() {
         mappedTypes.forEach { statsType, dbGranularity ->
 
-            whenever(
-                    statsSqlUtils.select(
-                            site,
-                            VISITS_AND_VIEWS,
-                            statsType,
-                            VisitsAndViewsResponse::class.java,
-                            DATE_VALUE
-                    )
-            )
-                    .thenReturn(
-                            VISITS_AND_VIEWS_RESPONSE
-                    )
+            whenever(statsPeriodMetricSqlUtils.select(site, statsType, DATE_VALUE))
+                    .thenReturn(VISITS_AND_VIEWS_RESPONSE)
 
             val result = timeStatsSqlUtils.select(site, dbGranularity, DATE)
 
@@ -70,12 +65,11 @@ class VisitAndViewsSqlUtilsTest {
     }
 
     @Test
-    fun `inserts data to stats utils`() {
+    fun `inserts data to period metric utils`() {
         mappedTypes.forEach { statsType, dbGranularity ->
             timeStatsSqlUtils.insert(site, VISITS_AND_VIEWS_RESPONSE, dbGranularity, DATE)
 
-            verify(statsSqlUtils).insert(site, VISITS_AND_VIEWS, statsType, VISITS_AND_VIEWS_RESPONSE,
-                    true, DATE_VALUE)
+            verify(statsPeriodMetricSqlUtils).insert(site, statsType, DATE_VALUE, VISITS_AND_VIEWS_RESPONSE)
         }
     }
 }
@@ -0,0 +1,89 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.google.gson.Gson
+import com.yarolegovich.wellsql.SelectQuery
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.activity.ActivityLogModel
+import org.wordpress.android.fluxc.tools.FormattableContentMapper
+import java.util.Date
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class ActivityLogSqlUtilsTest {
+    private val sqlUtils = ActivityLogSqlUtils(FormattableContentMapper(Gson()))
+    private val site = SiteModel().apply {
+        id = 1
+        siteId = 100
+    }
+    private val otherSite = SiteModel().apply {
+        id = 2
+        siteId = 200
+    }
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+
+        val config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun `inserts new activities and only updates the changed ones`() {
+        val first = activity("1", "first")
+        val second = activity("2", "second")
+        assertThat(sqlUtils.insertOrUpdateActivities(site, listOf(first, second))).isEqualTo(2)
+
+        val rowsAffected = sqlUtils.insertOrUpdateActivities(
+                site,
+                listOf(first, second.copy(name = "renamed"), activity("3", "third"))
+        )
+
+        assertThat(rowsAffected).isEqualTo(2)
+        assertThat(sqlUtils.getActivitiesForSite(site, SelectQuery.ORDER_ASCENDING).map { it.name })
+                .containsExactly("first", "renamed", "third")
+    }
+
+    @Test
+    fun `unchanged activities are not written again`() {
+        val activities = listOf(activity("1", "first"), activity("2", "second", rewindable = null))
+        sqlUtils.insertOrUpdateActivities(site, activities)
+
+        assertThat(sqlUtils.insertOrUpdateActivities(site, activities)).isEqualTo(0)
+    }
+
+    @Test
+    fun `activities are stored per site`() {
+        sqlUtils.insertOrUpdateActivities(otherSite, listOf(activity("1", "other")))
+
+        assertThat(sqlUtils.insertOrUpdateActivities(site, listOf(activity("1", "first")))).isEqualTo(1)
+
+        assertThat(sqlUtils.getActivitiesForSite(site, SelectQuery.ORDER_ASCENDING).map { it.name })
+                .containsExactly("first")
+        assertThat(sqlUtils.getActivitiesForSite(otherSite, SelectQuery.ORDER_ASCENDING).map { it.name })
+                .containsExactly("other")
+    }
+
+    private fun activity(activityId: String, name: String, rewindable: Boolean? = true) = ActivityLogModel(
+            activityID = activityId,
+            summary = "summary",
+            content = null,
+            name = name,
+            type = "post",
+            gridicon = null,
+            status = null,
+            rewindable = rewindable,
+            rewindID = null,
+            published = Date(activityId.toLong() * 1000),
+            actor = null
+    )
+}
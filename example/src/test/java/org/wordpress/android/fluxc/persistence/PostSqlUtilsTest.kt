@@ -94,6 +94,62 @@ class PostSqlUtilsTest {
         assertThat(postsWithSameRemotePostId).hasSize(1)
     }
 
+    @Test
+    fun `insertOrUpdatePosts inserts new posts and updates existing ones`() {
+        // Given
+        val site = createSite()
+        val existingPost = postSqlUtils.insertPostForResult(
+                createPost(localSiteId = site.id, localId = 0, remoteId = 1)
+        )
+
+        val fetchedPosts = listOf(
+                createPost(localSiteId = site.id, localId = 0, remoteId = 1).apply { setTitle("updated") },
+                createPost(localSiteId = site.id, localId = 0, remoteId = 2)
+        )
+
+        // When
+        val rowsAffected = postSqlUtils.insertOrUpdatePosts(fetchedPosts, false)
+
+        // Then
+        assertThat(rowsAffected).isEqualTo(2)
+        assertThat(fetchedPosts[0].id).isEqualTo(existingPost.id)
+        assertThat(fetchedPosts[1].id).isNotEqualTo(0).isNotEqualTo(existingPost.id)
+
+        val postsForSite = postSqlUtils.getPostsForSite(site, false)
+        assertThat(postsForSite).hasSize(2)
+        assertThat(postsForSite.first { it.remotePostId == 1L }.title).isEqualTo("updated")
+    }
+
+    @Test
+    fun `insertOrUpdatePosts keeps local changes unless told to overwrite them`() {
+        // Given
+        val site = createSite()
+        postSqlUtils.insertPostForResult(createPost(localSiteId = site.id, localId = 0, remoteId = 1).apply {
+            setTitle("local")
+            setIsLocallyChanged(true)
+        })
+
+        // When
+        val keptRows = postSqlUtils.insertOrUpdatePosts(
+                listOf(createPost(localSiteId = site.id, localId = 0, remoteId = 1).apply { setTitle("remote") }),
+                false
+        )
+
+        // Then
+        assertThat(keptRows).isEqualTo(0)
+        assertThat(postSqlUtils.getPostsForSite(site, false).single().title).isEqualTo("local")
+
+        // When
+        val overwrittenRows = postSqlUtils.insertOrUpdatePosts(
+                listOf(createPost(localSiteId = site.id, localId = 0, remoteId = 1).apply { setTitle("remote") }),
+                true
+        )
+
+        // Then
+        assertThat(overwrittenRows).isEqualTo(1)
+        assertThat(postSqlUtils.getPostsForSite(site, false).single().title).isEqualTo("remote")
+    }
+
     private fun createPost(localSiteId: Int, localId: Int, remoteId: Long) = PostModel().apply {
         setId(localId)
         setRemotePostId(remoteId)
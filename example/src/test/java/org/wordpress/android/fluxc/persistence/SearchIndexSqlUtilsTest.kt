@@ -0,0 +1,175 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.wellsql.generated.PostModelTable
+import com.yarolegovich.wellsql.SelectQuery
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.CommentModel
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
+import org.wordpress.android.fluxc.model.MediaModel
+import org.wordpress.android.fluxc.model.PostModel
+import org.wordpress.android.fluxc.model.SiteModel
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class SearchIndexSqlUtilsTest {
+    private val postSqlUtils = PostSqlUtils()
+    private val site = SiteModel().apply { id = 100 }
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+
+        val config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun `match query looks for all the words as prefixes`() {
+        assertThat(SearchIndexSqlUtils.toMatchQuery("hello wor")).isEqualTo("hello* wor*")
+        assertThat(SearchIndexSqlUtils.toMatchQuery("  \"don't\" OR-NOT ")).isEqualTo("don* t* OR* NOT*")
+        assertThat(SearchIndexSqlUtils.toMatchQuery("?!")).isNull()
+        assertThat(SearchIndexSqlUtils.toMatchQuery("夏休み")).isNull()
+        assertThat(SearchIndexSqlUtils.toMatchQuery(null)).isNull()
+    }
+
+    @Test
+    fun `posts search follows the inserts, updates and deletes`() {
+        val first = postSqlUtils.insertPostForResult(createPost("Summer holidays", "<p>At the beach</p>"))
+        val second = postSqlUtils.insertPostForResult(createPost("Recipes", "<p>Summer salads</p>"))
+
+        assertThat(search("summ")).containsExactlyInAnyOrder(LocalId(first.id), LocalId(second.id))
+
+        first.setTitle("Winter holidays")
+        postSqlUtils.insertOrUpdatePost(first, true)
+        assertThat(search("summ")).containsExactly(LocalId(second.id))
+        assertThat(search("winter")).containsExactly(LocalId(first.id))
+
+        postSqlUtils.deletePost(second)
+        assertThat(search("summ")).isEmpty()
+    }
+
+    @Test
+    fun `posts search finds CJK text and text within words`() {
+        val cjkPost = postSqlUtils.insertPostForResult(createPost("東京の夏休み", "<p>海に行きました</p>"))
+        val post = postSqlUtils.insertPostForResult(createPost("Summer holidays", "<p>At the beach</p>"))
+
+        assertThat(search("夏休み")).containsExactly(LocalId(cjkPost.id))
+        assertThat(search("海")).containsExactly(LocalId(cjkPost.id))
+        assertThat(search("liday")).containsExactly(LocalId(post.id))
+    }
+
+    @Test
+    fun `searches find the text within words along with the words starting with it`() {
+        val wordPressPost = postSqlUtils.insertPostForResult(createPost("WordPress tips", "<p>Plugins</p>"))
+        val pressPost = postSqlUtils.insertPostForResult(createPost("Press release", "<p>Our new app</p>"))
+        val wordPressMedia = MediaSqlUtils.insertMediaForResult(createMedia(title = "WordPress logo"))
+        val pressMedia = MediaSqlUtils.insertMediaForResult(createMedia(title = "Press kit"))
+        CommentSqlUtils.insertOrUpdateComment(CommentModel().apply {
+            localSiteId = site.id
+            remoteCommentId = 1
+            authorName = "Jane"
+            content = "I love WordPress"
+        })
+        CommentSqlUtils.insertOrUpdateComment(CommentModel().apply {
+            localSiteId = site.id
+            remoteCommentId = 2
+            authorName = "John"
+            content = "Pressing matters"
+        })
+
+        assertThat(search("press")).containsExactlyInAnyOrder(LocalId(wordPressPost.id), LocalId(pressPost.id))
+        // The words starting with the term come first
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "press").map { it.id })
+                .containsExactly(pressMedia.id, wordPressMedia.id)
+        assertThat(MediaSqlUtils.searchSiteImages(site, "press").map { it.id })
+                .containsExactly(pressMedia.id, wordPressMedia.id)
+        assertThat(CommentSqlUtils.searchComments(site, "press").map { it.content })
+                .containsExactly("Pressing matters", "I love WordPress")
+    }
+
+    @Test
+    fun `media and comments search find CJK text`() {
+        val media = MediaSqlUtils.insertMediaForResult(createMedia(title = "富士山の写真"))
+        CommentSqlUtils.insertOrUpdateComment(CommentModel().apply {
+            localSiteId = site.id
+            remoteCommentId = 1
+            authorName = "山田"
+            content = "きれいな写真ですね"
+        })
+
+        assertThat(MediaSqlUtils.searchSiteMedia(site, "富士山").map { it.id }).containsExactly(media.id)
+        assertThat(MediaSqlUtils.searchSiteImages(site, "写真").map { it.id }).containsExactly(media.id)
+        assertThat(CommentSqlUtils.searchComments(site, "写真").map { it.content })
+                .containsExactly("きれいな写真ですね")
+    }
+
+    @Test
+    fun `an index missing its triggers isn't available`() {
+        assumeTrue(SearchIndexSqlUtils.isAvailable(SearchIndexSqlUtils.POSTS))
+
+        WellSql.giveMeWritableDb().execSQL("DROP TRIGGER PostModelFts_after_insert")
+
+        assertThat(SearchIndexSqlUtils.isAvailable(SearchIndexSqlUtils.POSTS)).isFalse()
+        // The posts are still found, without the index
+        val post = postSqlUtils.insertPostForResult(createPost("Summer holidays", "<p>At the beach</p>"))
+        assertThat(search("summ")).containsExactly(LocalId(post.id))
+    }
+
+    @Test
+    fun `media search ranks the title matches first`() {
+        assumeTrue(SearchIndexSqlUtils.isAvailable(SearchIndexSqlUtils.MEDIA))
+        val inDescription = MediaSqlUtils.insertMediaForResult(
+                createMedia(title = "Holidays", description = "A sunset at the beach", uploadDate = "2020-02-01")
+        )
+        val inTitle = MediaSqlUtils.insertMediaForResult(
+                createMedia(title = "Sunset", description = "", uploadDate = "2020-01-01")
+        )
+
+        val result = MediaSqlUtils.searchSiteMedia(site, "sun")
+
+        assertThat(result.map { it.id }).containsExactly(inTitle.id, inDescription.id)
+    }
+
+    @Test
+    fun `media search by type keeps to the type`() {
+        MediaSqlUtils.insertMediaForResult(createMedia(title = "Sunset", mimeType = "image/jpeg"))
+        val video = MediaSqlUtils.insertMediaForResult(createMedia(title = "Sunset", mimeType = "video/mp4"))
+
+        val result = MediaSqlUtils.searchSiteVideos(site, "sunset")
+
+        assertThat(result.map { it.id }).containsExactly(video.id)
+    }
+
+    private fun search(searchQuery: String) = postSqlUtils.getLocalPostIdsForFilter(
+            site, false, searchQuery, PostModelTable.DATE_LOCALLY_CHANGED, SelectQuery.ORDER_DESCENDING
+    )
+
+    private fun createPost(title: String, content: String) = PostModel().apply {
+        setLocalSiteId(site.id)
+        setIsLocalDraft(true)
+        setTitle(title)
+        setContent(content)
+    }
+
+    private fun createMedia(
+        title: String,
+        description: String = "",
+        uploadDate: String = "2020-01-01",
+        mimeType: String = "image/jpeg"
+    ) = MediaModel().apply {
+        localSiteId = site.id
+        this.title = title
+        this.description = description
+        this.uploadDate = uploadDate
+        this.mimeType = mimeType
+    }
+}
@@ -0,0 +1,79 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.VisitAndViewsRestClient.VisitsAndViewsResponse
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.DAY
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.MONTH
+
+private const val DATE = "2018-10-10"
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class StatsPeriodMetricSqlUtilsTest {
+    private val sqlUtils = StatsPeriodMetricSqlUtils()
+    private val site = SiteModel().apply { id = 1 }
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+
+        val config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun `stored response is read back`() {
+        val response = VisitsAndViewsResponse(
+                DATE,
+                listOf("period", "views", "likes", "comments", "visitors"),
+                listOf(listOf("2018-10-09", "10", "15", "20", "25"), listOf("2018-10-10", "1", "2", "3", "4")),
+                "day"
+        )
+
+        sqlUtils.insert(site, DAY, DATE, response)
+
+        assertThat(sqlUtils.select(site, DAY, DATE)).isEqualTo(response)
+    }
+
+    @Test
+    fun `response without periods is read back`() {
+        val response = VisitsAndViewsResponse(DATE, listOf("period", "views"), listOf(), "day")
+
+        sqlUtils.insert(site, DAY, DATE, response)
+
+        assertThat(sqlUtils.select(site, DAY, DATE)).isEqualTo(response)
+    }
+
+    @Test
+    fun `insert replaces the block of the same granularity and date only`() {
+        val first = VisitsAndViewsResponse(DATE, listOf("period", "views"), listOf(listOf("2018-10-09", "10")), "day")
+        val second = VisitsAndViewsResponse(DATE, listOf("period", "views"), listOf(listOf("2018-10-10", "20")), "day")
+
+        sqlUtils.insert(site, DAY, DATE, first)
+        sqlUtils.insert(site, MONTH, DATE, first)
+        sqlUtils.insert(site, DAY, DATE, second)
+
+        assertThat(sqlUtils.select(site, DAY, DATE)).isEqualTo(second)
+        assertThat(sqlUtils.select(site, MONTH, DATE)).isEqualTo(first)
+        assertThat(sqlUtils.select(site, DAY, "2018-10-11")).isNull()
+    }
+
+    @Test
+    fun `deletes the site stats`() {
+        val response = VisitsAndViewsResponse(DATE, listOf("period", "views"), listOf(listOf(DATE, "10")), "day")
+        sqlUtils.insert(site, DAY, DATE, response)
+
+        sqlUtils.deleteSiteStats(site)
+
+        assertThat(sqlUtils.select(site, DAY, DATE)).isNull()
+    }
+}
@@ -0,0 +1,78 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.VisitAndViewsRestClient.VisitsAndViewsResponse
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.BlockType.VISITS_AND_VIEWS
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType.DAY
+
+private const val DATE = "2018-10-10"
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class StatsSqlUtilsTest {
+    private val sqlUtils = StatsSqlUtils()
+    private val site = SiteModel().apply { id = 1 }
+    private lateinit var config: WellSqlConfig
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+
+        config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun `repeated selects return the decoded block`() {
+        sqlUtils.insert(site, VISITS_AND_VIEWS, DAY, response("day"), true, DATE)
+
+        val first = sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)
+        val second = sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)
+
+        assertThat(first).isNotNull
+        assertThat(second).isSameAs(first)
+    }
+
+    @Test
+    fun `insert drops the decoded block`() {
+        sqlUtils.insert(site, VISITS_AND_VIEWS, DAY, response("day"), true, DATE)
+        sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)
+
+        sqlUtils.insert(site, VISITS_AND_VIEWS, DAY, response("week"), true, DATE)
+
+        assertThat(sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)?.unit)
+                .isEqualTo("week")
+    }
+
+    @Test
+    fun `deleting the site stats drops the decoded blocks`() {
+        sqlUtils.insert(site, VISITS_AND_VIEWS, DAY, response("day"), true, DATE)
+        sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)
+
+        sqlUtils.deleteSiteStats(site)
+
+        assertThat(sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)).isNull()
+    }
+
+    @Test
+    fun `resetting the tables drops the decoded blocks`() {
+        sqlUtils.insert(site, VISITS_AND_VIEWS, DAY, response("day"), true, DATE)
+        sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)
+
+        config.reset()
+
+        // Another site can get the same local id after the reset
+        assertThat(sqlUtils.select(site, VISITS_AND_VIEWS, DAY, VisitsAndViewsResponse::class.java, DATE)).isNull()
+    }
+
+    private fun response(unit: String) = VisitsAndViewsResponse(DATE, listOf("period", "views"), listOf(), unit)
+}
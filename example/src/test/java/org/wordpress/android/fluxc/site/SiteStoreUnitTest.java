@@ -270,6 +270,44 @@ public class SiteStoreUnitTest {
         assertEquals(jetpackSite.getSiteId(), mSiteStore.getSiteIdForLocalId(jetpackSite.getId()));
     }
 
+    @Test
+    public void testSiteLookupsAreCachedUntilTheSiteIsWritten() throws DuplicateSiteException {
+        WellSqlTestUtils.setupWordPressComAccount();
+
+        SiteModel wpComSite = generateWPComSite();
+        wpComSite.setName("First name");
+        SiteSqlUtils.insertOrUpdateSite(wpComSite);
+
+        mSiteStore.getSiteByLocalId(wpComSite.getId());
+        long hitCount = mSiteStore.getSiteCacheHitCount();
+        long missCount = mSiteStore.getSiteCacheMissCount();
+
+        // Served from memory, as a new model
+        SiteModel cachedSite = mSiteStore.getSiteByLocalId(wpComSite.getId());
+        assertEquals(hitCount + 1, mSiteStore.getSiteCacheHitCount());
+        assertEquals(missCount, mSiteStore.getSiteCacheMissCount());
+        assertEquals(wpComSite.getId(), cachedSite.getId());
+        assertEquals(wpComSite.getSiteId(), cachedSite.getSiteId());
+        assertEquals("First name", cachedSite.getName());
+        assertTrue(cachedSite.isWPCom());
+
+        // Changing the returned model doesn't change the cached site
+        cachedSite.setName("Local change");
+        assertEquals("First name", mSiteStore.getSiteByLocalId(wpComSite.getId()).getName());
+
+        // Writing the site drops it from the cache
+        wpComSite.setName("Second name");
+        SiteSqlUtils.insertOrUpdateSite(wpComSite);
+        assertEquals("Second name", mSiteStore.getSiteByLocalId(wpComSite.getId()).getName());
+        assertEquals("Second name", mSiteStore.getSiteBySiteId(wpComSite.getSiteId()).getName());
+        assertEquals(wpComSite.getId(), mSiteStore.getLocalIdForRemoteSiteId(wpComSite.getSiteId()));
+
+        SiteSqlUtils.deleteSite(wpComSite);
+        assertNull(mSiteStore.getSiteByLocalId(wpComSite.getId()));
+        assertNull(mSiteStore.getSiteBySiteId(wpComSite.getSiteId()));
+        assertEquals(0, mSiteStore.getLocalIdForRemoteSiteId(wpComSite.getSiteId()));
+    }
+
     @Test
     public void testGetSiteBySiteId() throws DuplicateSiteException {
         WellSqlTestUtils.setupWordPressComAccount();
@@ -634,6 +672,37 @@ public class SiteStoreUnitTest {
         assertEquals(5, mSiteStore.getSitesCount());
     }
 
+    @Test
+    public void testBatchUpdateSkipsUnchangedSitesAndKeepsEditors()
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        WellSqlTestUtils.setupWordPressComAccount();
+
+        List<SiteModel> siteList = new ArrayList<>();
+        siteList.add(generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        siteList.add(generateTestSite(2, "https://pony2.com", "https://pony2.com/xmlrpc.php", true, true));
+        Method createOrUpdateSites = SiteStore.class.getDeclaredMethod("createOrUpdateSites", SitesModel.class);
+        createOrUpdateSites.setAccessible(true);
+        createOrUpdateSites.invoke(mSiteStore, new SitesModel(siteList));
+
+        SiteModel storedSite = mSiteStore.getSiteBySiteId(1);
+        storedSite.setMobileEditor("gutenberg");
+        SiteSqlUtils.insertOrUpdateSite(storedSite);
+
+        // Fetch the same sites again, the second one with a new name
+        List<SiteModel> fetchedSites = new ArrayList<>();
+        fetchedSites.add(generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        fetchedSites.add(generateTestSite(2, "https://pony2.com", "https://pony2.com/xmlrpc.php", true, true));
+        fetchedSites.get(1).setName("Pony 2");
+        UpdateSitesResult res = (UpdateSitesResult) createOrUpdateSites.invoke(mSiteStore,
+                new SitesModel(fetchedSites));
+
+        assertFalse(res.duplicateSiteFound);
+        assertEquals(1, res.rowsAffected);
+        assertEquals(2, mSiteStore.getSitesCount());
+        assertEquals("gutenberg", mSiteStore.getSiteBySiteId(1).getMobileEditor());
+        assertEquals("Pony 2", mSiteStore.getSiteBySiteId(2).getName());
+    }
+
     @Test
     public void testSingleInsertSiteDuplicateWPCom()
             throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
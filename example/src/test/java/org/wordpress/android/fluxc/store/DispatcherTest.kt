@@ -0,0 +1,160 @@
+package org.wordpress.android.fluxc.store
+
+import org.assertj.core.api.Assertions.assertThat
+import org.greenrobot.eventbus.Subscribe
+import org.greenrobot.eventbus.ThreadMode
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.Dispatcher.DispatchMode
+import org.wordpress.android.fluxc.Dispatcher.DispatchMode.EVENT_BUS
+import org.wordpress.android.fluxc.Dispatcher.DispatchMode.STORE_EXECUTORS
+import org.wordpress.android.fluxc.DispatcherMetrics
+import org.wordpress.android.fluxc.action.AccountAction
+import org.wordpress.android.fluxc.action.SiteAction
+import org.wordpress.android.fluxc.annotations.AnnotationConfig
+import org.wordpress.android.fluxc.annotations.HandlesActions
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.ActionRoute
+import org.wordpress.android.fluxc.annotations.action.IAction
+import org.wordpress.android.fluxc.generated.AccountActionBuilder
+import org.wordpress.android.fluxc.generated.SiteActionBuilder
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.util.AppLog
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+private const val STORE_COUNT = 20
+private const val ACTION_COUNT = 2000
+
+@RunWith(RobolectricTestRunner::class)
+class DispatcherTest {
+    @Test
+    fun storeExecutorsDeliverActionsToEveryStore() {
+        val dispatcher = Dispatcher(STORE_EXECUTORS)
+        val latch = CountDownLatch(2)
+        val stores = List(2) { RecordingStore(dispatcher, latch, 1) }
+
+        dispatcher.dispatch(SiteActionBuilder.newFetchSitesAction())
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue()
+        stores.forEach { assertThat(it.received).hasSize(1) }
+    }
+
+    @Test
+    fun storeExecutorsDeliverOnlyTheHandledActionsToAnnotatedStores() {
+        val dispatcher = Dispatcher(STORE_EXECUTORS)
+        val latch = CountDownLatch(2)
+        val siteStore = SiteRecordingStore(dispatcher, latch, 1)
+        val catchAllStore = RecordingStore(dispatcher, latch, 2)
+
+        dispatcher.dispatch(AccountActionBuilder.newFetchAccountAction())
+        dispatcher.dispatch(SiteActionBuilder.newFetchSitesAction())
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(siteStore.received.map { it.type }).containsExactly(SiteAction.FETCH_SITES)
+        assertThat(catchAllStore.received.map { it.type })
+                .containsExactly(AccountAction.FETCH_ACCOUNT, SiteAction.FETCH_SITES)
+    }
+
+    @Test
+    fun routesAreGeneratedForTheAnnotatedStores() {
+        val routeClassName = "${AnnotationConfig.PACKAGE}.${SiteStore::class.java.simpleName}${ActionRoute.SUFFIX}"
+        val route = Class.forName(routeClassName).newInstance() as ActionRoute
+
+        assertThat(route.handles(SiteAction.FETCH_SITES)).isTrue()
+        assertThat(route.handles(AccountAction.FETCH_ACCOUNT)).isFalse()
+    }
+
+    @Test
+    fun storeExecutorsPreserveDispatchOrderPerStore() {
+        val dispatcher = Dispatcher(STORE_EXECUTORS)
+        val latch = CountDownLatch(1)
+        val store = RecordingStore(dispatcher, latch, ACTION_COUNT)
+        val sites = List(ACTION_COUNT) { SiteModel().apply { id = it } }
+
+        sites.forEach { dispatcher.dispatch(SiteActionBuilder.newFetchSiteAction(it)) }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(store.received.map { (it.payload as SiteModel).id }).isEqualTo(sites.map { it.id })
+    }
+
+    @Test
+    fun metricsAttributeChangesToTheHandledAction() {
+        val dispatcher = Dispatcher(STORE_EXECUTORS)
+        val metrics = dispatcher.enableMetrics()
+        val samples = Collections.synchronizedList(mutableListOf<IAction>())
+        metrics.setSampler(DispatcherMetrics.Sampler { actionType, _ -> samples.add(actionType) }, 1)
+        val latch = CountDownLatch(1)
+        RecordingStore(dispatcher, latch, 2, emitChanges = true)
+
+        dispatcher.dispatch(SiteActionBuilder.newFetchSitesAction())
+        dispatcher.dispatch(SiteActionBuilder.newFetchSitesAction())
+        dispatcher.emitChange(OnChanged<OnChangedError>())
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue()
+        val siteMetrics = metrics.snapshot().single()
+        assertThat(siteMetrics.actionType).isEqualTo(SiteAction.FETCH_SITES)
+        assertThat(siteMetrics.dispatchCount).isEqualTo(2)
+        assertThat(siteMetrics.changeCount).isEqualTo(2)
+        assertThat(metrics.unattributedChangeCount).isEqualTo(1)
+        assertThat(samples).containsExactly(SiteAction.FETCH_SITES, SiteAction.FETCH_SITES)
+    }
+
+    @Test
+    fun benchmarkDispatchModes() {
+        // Warm up both paths first, so class loading and EventBus' subscriber lookup don't skew the numbers
+        DispatchMode.values().forEach { measureDispatch(it) }
+        DispatchMode.values().forEach {
+            val elapsedNanos = measureDispatch(it)
+            val deliveries = STORE_COUNT * ACTION_COUNT
+            AppLog.i(AppLog.T.TESTS, "$it: $deliveries deliveries in ${elapsedNanos / 1_000_000} ms, " +
+                    "${elapsedNanos / deliveries} ns per delivery")
+        }
+    }
+
+    private fun measureDispatch(dispatchMode: DispatchMode): Long {
+        val dispatcher = Dispatcher(dispatchMode)
+        val latch = CountDownLatch(STORE_COUNT)
+        List(STORE_COUNT) { RecordingStore(dispatcher, latch, ACTION_COUNT) }
+
+        val start = System.nanoTime()
+        repeat(ACTION_COUNT) { dispatcher.dispatch(SiteActionBuilder.newFetchSitesAction()) }
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue()
+        return System.nanoTime() - start
+    }
+
+    private open class RecordingStore(
+        dispatcher: Dispatcher,
+        private val latch: CountDownLatch,
+        private val expectedActions: Int,
+        private val emitChanges: Boolean = false
+    ) : Store(dispatcher) {
+        val received: MutableList<Action<*>> = Collections.synchronizedList(mutableListOf())
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        override fun onAction(action: Action<*>) {
+            received.add(action)
+            if (emitChanges) {
+                emitChange(OnChanged<OnChangedError>())
+            }
+            if (received.size == expectedActions) {
+                latch.countDown()
+            }
+        }
+
+        override fun onRegister() {}
+    }
+
+    /**
+     * Its route is in the tests, see [org.wordpress.android.fluxc.generated.SiteRecordingStoreActionRoute].
+     */
+    @HandlesActions(SiteAction::class)
+    private class SiteRecordingStore(
+        dispatcher: Dispatcher,
+        latch: CountDownLatch,
+        expectedActions: Int
+    ) : RecordingStore(dispatcher, latch, expectedActions)
+}
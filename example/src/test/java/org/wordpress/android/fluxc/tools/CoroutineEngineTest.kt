@@ -0,0 +1,80 @@
+package org.wordpress.android.fluxc.tools
+
+import com.nhaarman.mockitokotlin2.mock
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import kotlinx.coroutines.yield
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.util.AppLog.T.API
+
+@RunWith(RobolectricTestRunner::class)
+class CoroutineEngineTest {
+    private val limits = StoreConcurrencyLimits()
+    private val metrics = CoroutineEngineMetrics()
+    private val engine = CoroutineEngine(Dispatchers.Unconfined, mock(), WorkloadDispatchers(), limits, metrics)
+    private val store = Any()
+
+    @Test
+    fun `calls of a store over its limit wait for a running one`() = runBlocking<Unit> {
+        limits.setLimit(store.javaClass, 1)
+        val firstCallDone = CompletableDeferred<Unit>()
+        val first = async { engine.withDefaultContext(API, store, "first") { firstCallDone.await() } }
+        val second = async { engine.withDefaultContext(API, store, "second") { "done" } }
+        yield()
+
+        assertThat(second.isCompleted).isFalse()
+        firstCallDone.complete(Unit)
+        first.await()
+        assertThat(second.await()).isEqualTo("done")
+    }
+
+    @Test
+    fun `calls of a store without a limit all run at once`() = runBlocking<Unit> {
+        val callsDone = CompletableDeferred<Unit>()
+        val calls = List(10) { async { engine.withDefaultContext(API, store, "call") { callsDone.await() } } }
+        val lastCall = async { engine.withDefaultContext(API, store, "last") { "done" } }
+        yield()
+
+        assertThat(lastCall.isCompleted).isTrue()
+        assertThat(lastCall.await()).isEqualTo("done")
+        callsDone.complete(Unit)
+        calls.forEach { it.await() }
+    }
+
+    @Test
+    fun `nested calls of a store don't wait for a permit`() = runBlocking<Unit> {
+        limits.setLimit(store.javaClass, 1)
+
+        val result = withTimeout(1000) {
+            engine.withDefaultContext(API, store, "outer") {
+                engine.withDefaultContext(API, store, "inner") { "done" }
+            }
+        }
+
+        assertThat(result).isEqualTo("done")
+    }
+
+    @Test
+    fun `cancelling a caller cancels what it launched`() {
+        val job = engine.launch(API, store, "launched") { delay(Long.MAX_VALUE) }
+
+        engine.cancel(store)
+
+        assertThat(job.isCancelled).isTrue()
+    }
+
+    @Test
+    fun `calls are timed`() = runBlocking<Unit> {
+        engine.withDefaultContext(API, store, "timed") { }
+        engine.withDefaultContext(API, store, "timed") { }
+
+        assertThat(metrics.getTimings()[CoroutineEngineMetrics.keyOf(store, "timed")]?.count).isEqualTo(2)
+    }
+}
@@ -0,0 +1,75 @@
+package org.wordpress.android.fluxc.tools
+
+import com.nhaarman.mockitokotlin2.mock
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.tools.MultiSiteFetcher.SiteOutcome.Failure
+import org.wordpress.android.fluxc.tools.MultiSiteFetcher.SiteOutcome.Success
+import java.util.concurrent.atomic.AtomicInteger
+
+@RunWith(RobolectricTestRunner::class)
+class MultiSiteFetcherTest {
+    private val engine = CoroutineEngine(
+            Dispatchers.Default,
+            mock(),
+            WorkloadDispatchers(),
+            StoreConcurrencyLimits(),
+            CoroutineEngineMetrics()
+    )
+    private val fetcher = MultiSiteFetcher(engine)
+    private val running = AtomicInteger()
+    private val maxRunning = AtomicInteger()
+
+    @Test
+    fun `outcomes are in the order of the sites and failures don't stop the others`() = runBlocking<Unit> {
+        val sites = (1..5).map { site(it, "https://site$it.example.com") }
+
+        val result = fetcher.fetch(sites) { site ->
+            if (site.id == 3) throw IllegalStateException("failed")
+            site.id * 10
+        }
+
+        assertThat(result.outcomes.map { it.site }).isEqualTo(sites)
+        assertThat(result.successes.map { it.value }).containsExactly(10, 20, 40, 50)
+        assertThat(result.failures.map { it.site.id }).containsExactly(3)
+        assertThat(result.isSuccessful).isFalse()
+        assertThat(result.outcomes[2]).isInstanceOf(Failure::class.java)
+        assertThat(result.outcomes[0]).isInstanceOf(Success::class.java)
+    }
+
+    @Test
+    fun `fetches are limited overall`() = runBlocking<Unit> {
+        val sites = (1..20).map { site(it, "https://site$it.example.com") }
+
+        fetcher.fetch(sites, maxConcurrency = 4) { trackRunning() }
+
+        assertThat(maxRunning.get()).isEqualTo(4)
+    }
+
+    @Test
+    fun `fetches are limited per host`() = runBlocking<Unit> {
+        val sites = (1..10).map { site(it, "https://example.com/site$it") }
+
+        fetcher.fetch(sites, maxConcurrency = 10, maxConcurrencyPerHost = 2) { trackRunning() }
+
+        assertThat(maxRunning.get()).isEqualTo(2)
+    }
+
+    private suspend fun trackRunning() {
+        val current = running.incrementAndGet()
+        maxRunning.accumulateAndGet(current) { a, b -> maxOf(a, b) }
+        delay(50)
+        running.decrementAndGet()
+    }
+
+    private fun site(id: Int, url: String) = SiteModel().apply {
+        this.id = id
+        this.url = url
+    }
+}
@@ -51,6 +51,34 @@ public class UploadSqlUtilsTest {
         assertEquals(0, WellSql.select(MediaUploadModel.class).getAsCursor().getCount());
     }
 
+    @Test
+    public void testUpdateMediaResumableUploadOnly() {
+        long testId = Math.abs(mRandom.nextLong());
+        MediaModel testMedia = UploadTestUtils.getTestMedia(testId);
+        MediaSqlUtils.insertOrUpdateMedia(testMedia);
+        testMedia = MediaSqlUtils.getSiteMediaWithId(UploadTestUtils.getTestSite(), testId).get(0);
+        MediaUploadModel mediaUploadModel = new MediaUploadModel(testMedia.getId());
+        mediaUploadModel.setProgress(0.5F);
+        UploadSqlUtils.insertOrUpdateMedia(mediaUploadModel);
+
+        MediaUploadModel resumableUpload = new MediaUploadModel(testMedia.getId());
+        resumableUpload.setResumableUploadCreationUrl("https://example.com/files/");
+        resumableUpload.setResumableUploadUrl("https://example.com/files/1");
+        resumableUpload.setUploadedBytes(4096);
+        assertEquals(1, UploadSqlUtils.updateMediaResumableUploadOnly(resumableUpload));
+
+        mediaUploadModel = UploadSqlUtils.getMediaUploadModelForLocalId(testMedia.getId());
+        assertNotNull(mediaUploadModel);
+        assertEquals("https://example.com/files/", mediaUploadModel.getResumableUploadCreationUrl());
+        assertEquals("https://example.com/files/1", mediaUploadModel.getResumableUploadUrl());
+        assertEquals(4096, mediaUploadModel.getUploadedBytes());
+        // The rest of the upload is left as is
+        assertEquals(0.5F, mediaUploadModel.getProgress());
+
+        // Nothing to update for media that isn't being uploaded
+        assertEquals(0, UploadSqlUtils.updateMediaResumableUploadOnly(new MediaUploadModel(testMedia.getId() + 1)));
+    }
+
     @Test
     public void testInsertMedia() {
         long testId = Math.abs(mRandom.nextLong());
@@ -4,12 +4,23 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCException;
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCFault;
 import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCSerializer;
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCSerializer.ArrayElementHandler;
 import org.wordpress.android.fluxc.network.xmlrpc.XMLSerializerUtils;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @RunWith(RobolectricTestRunner.class)
 public class XMLSerializerUtilsTest {
@@ -66,4 +77,104 @@ public class XMLSerializerUtilsTest {
         // If the input wasn't modified, it will fail during the XMLRPC serialization step
         Assert.assertNotEquals(inputString, serializeThis);
     }
+
+    @Test
+    public void testDeserializeArrayHandsOutEveryElement() throws Exception {
+        byte[] response = postsResponse(3);
+        final List<Object> elements = new ArrayList<>();
+
+        int count = XMLSerializerUtils.deserializeArray(XMLSerializerUtils.scrubXmlResponse(
+                new ByteArrayInputStream(response)), "UTF-8", new ArrayElementHandler() {
+                    @Override
+                    public void onArrayElement(Object element) {
+                        elements.add(element);
+                    }
+                });
+
+        Object[] tree = (Object[]) XMLSerializerUtils.deserialize(new ByteArrayInputStream(response));
+        Assert.assertEquals(3, count);
+        Assert.assertArrayEquals(tree, elements.toArray());
+        Assert.assertEquals("Post 2 \u00e9", ((Map<?, ?>) elements.get(2)).get("post_title"));
+    }
+
+    @Test
+    public void testDeserializeArrayThrowsFaults() throws Exception {
+        String fault = "<?xml version=\"1.0\"?><methodResponse><fault><value><struct>"
+                       + "<member><name>faultCode</name><value><int>403</int></value></member>"
+                       + "<member><name>faultString</name><value><string>Nope</string></value></member>"
+                       + "</struct></value></fault></methodResponse>";
+        try {
+            XMLSerializerUtils.deserializeArray(new ByteArrayInputStream(fault.getBytes("UTF-8")), "UTF-8",
+                    new ArrayElementHandler() {
+                        @Override
+                        public void onArrayElement(Object element) {
+                            Assert.fail();
+                        }
+                    });
+            Assert.fail();
+        } catch (XMLRPCFault e) {
+            Assert.assertEquals(403, e.getFaultCode());
+        }
+    }
+
+    @Test
+    public void benchmarkResponseParsingAllocations() throws Exception {
+        byte[] response = postsResponse(2000);
+        // Warm up both paths first, so class loading doesn't count as allocations
+        parseWithStringCopy(response);
+        parseStreaming(response);
+
+        long stringCopyBytes = allocatedBytes();
+        parseWithStringCopy(response);
+        stringCopyBytes = allocatedBytes() - stringCopyBytes;
+
+        long streamingBytes = allocatedBytes();
+        parseStreaming(response);
+        streamingBytes = allocatedBytes() - streamingBytes;
+
+        AppLog.i(T.TESTS, "Parsing a " + response.length + " bytes response allocated " + stringCopyBytes
+                          + " bytes through a String copy, " + streamingBytes + " bytes streaming");
+    }
+
+    private static void parseWithStringCopy(byte[] response)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        // The previous XMLRPCRequest path
+        String data = new String(response, "UTF-8");
+        InputStream is = new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
+        Object[] posts = (Object[]) XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(is));
+        Assert.assertEquals(2000, posts.length);
+    }
+
+    private static void parseStreaming(byte[] response) throws IOException, XmlPullParserException, XMLRPCException {
+        InputStream is = XMLSerializerUtils.scrubXmlResponse(new ByteArrayInputStream(response));
+        final List<String> titles = new ArrayList<>();
+        XMLSerializerUtils.deserializeArray(is, "UTF-8", new ArrayElementHandler() {
+            @Override
+            public void onArrayElement(Object element) {
+                titles.add((String) ((Map<?, ?>) element).get("post_title"));
+            }
+        });
+        Assert.assertEquals(2000, titles.size());
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static byte[] postsResponse(int postCount) throws IOException {
+        StringBuilder xml = new StringBuilder("PHP Warning: junk\n<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                                              + "<methodResponse><params><param><value><array><data>");
+        for (int i = 0; i < postCount; i++) {
+            xml.append("<value><struct>")
+               .append("<member><name>post_id</name><value><string>").append(i).append("</string></value></member>")
+               .append("<member><name>post_title</name><value><string>Post ").append(i)
+               .append(" \u00e9</string></value></member>")
+               .append("<member><name>post_content</name><value><string>")
+               .append("Lorem ipsum dolor sit amet, consectetur adipiscing elit.</string></value></member>")
+               .append("</struct></value>");
+        }
+        xml.append("</data></array></value></param></params></methodResponse>");
+        return xml.toString().getBytes("UTF-8");
+    }
 }
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.wc.order
 
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.verify
 import com.yarolegovich.wellsql.WellSql
 import org.junit.Before
 import org.junit.Test
@@ -15,15 +16,20 @@ import org.wordpress.android.fluxc.generated.WCOrderActionBuilder
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCOrderModel
 import org.wordpress.android.fluxc.model.WCOrderNoteModel
+import org.wordpress.android.fluxc.model.WCOrderShipmentTrackingModel
 import org.wordpress.android.fluxc.model.WCOrderStatusModel
 import org.wordpress.android.fluxc.model.order.OrderIdentifier
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.order.CoreOrderStatus
+import org.wordpress.android.fluxc.network.rest.wpcom.wc.order.OrderRestClient
 import org.wordpress.android.fluxc.persistence.OrderSqlUtils
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
 import org.wordpress.android.fluxc.store.WCOrderStore
 import org.wordpress.android.fluxc.store.WCOrderStore.FetchOrderStatusOptionsResponsePayload
+import org.wordpress.android.fluxc.store.WCOrderStore.FetchOrdersPayload
+import org.wordpress.android.fluxc.store.WCOrderStore.FetchOrdersResponsePayload
 import org.wordpress.android.fluxc.store.WCOrderStore.OrderErrorType
 import org.wordpress.android.fluxc.store.WCOrderStore.RemoteOrderPayload
+import org.wordpress.android.fluxc.utils.PreferenceUtils.PreferenceUtilsWrapper
 import kotlin.test.assertEquals
 import kotlin.test.assertNull
 import kotlin.test.assertTrue
@@ -31,14 +37,24 @@ import kotlin.test.assertTrue
 @Config(manifest = Config.NONE)
 @RunWith(RobolectricTestRunner::class)
 class WCOrderStoreTest {
-    private val orderStore = WCOrderStore(Dispatcher(), mock())
+    private val orderRestClient: OrderRestClient = mock()
+    private val orderStore = WCOrderStore(
+            Dispatcher(),
+            orderRestClient,
+            PreferenceUtilsWrapper(RuntimeEnvironment.application)
+    )
 
     @Before
     fun setUp() {
         val appContext = RuntimeEnvironment.application.applicationContext
         val config = SingleStoreWellSqlConfigForTests(
                 appContext,
-                listOf(WCOrderModel::class.java, WCOrderNoteModel::class.java, WCOrderStatusModel::class.java),
+                listOf(
+                        WCOrderModel::class.java,
+                        WCOrderNoteModel::class.java,
+                        WCOrderStatusModel::class.java,
+                        WCOrderShipmentTrackingModel::class.java
+                ),
                 WellSqlConfig.ADDON_WOOCOMMERCE
         )
         WellSql.init(config)
@@ -216,4 +232,74 @@ class WCOrderStoreTest {
             assertEquals(duplicateRemoteOrder.apply { id = 1 }, orderStore.getOrderByIdentifier(packagedOrder))
         }
     }
+
+    @Test
+    fun testIncrementalSyncAppliesChangesAndDeletesTrashedOrders() {
+        val site = SiteModel().apply { id = 6 }
+        OrderSqlUtils.insertOrUpdateOrder(OrderTestUtils.generateSampleOrder(1))
+        OrderSqlUtils.insertOrUpdateOrder(OrderTestUtils.generateSampleOrder(2))
+
+        val changedOrders = listOf(
+                OrderTestUtils.generateSampleOrder(1, CoreOrderStatus.COMPLETED.value),
+                OrderTestUtils.generateSampleOrder(2, WCOrderStore.TRASHED_ORDER_STATUS),
+                OrderTestUtils.generateSampleOrder(3)
+        )
+        val payload = FetchOrdersResponsePayload(site, changedOrders).apply { modifiedAfter = "2020-01-01T00:00:00Z" }
+        orderStore.onAction(WCOrderActionBuilder.newFetchedOrdersAction(payload))
+
+        val storedOrders = OrderSqlUtils.getOrdersForSite(site).sortedBy { it.remoteOrderId }
+        assertEquals(listOf(1L, 3L), storedOrders.map { it.remoteOrderId })
+        assertEquals(CoreOrderStatus.COMPLETED.value, storedOrders[0].status)
+    }
+
+    @Test
+    fun testIncrementalSyncFetchesChangesSinceLastFetch() {
+        val site = SiteModel().apply { id = 6 }
+        val fetchedOrders = listOf(
+                OrderTestUtils.generateSampleOrder(1).apply { dateModified = "2020-01-02T00:00:00Z" },
+                OrderTestUtils.generateSampleOrder(2).apply { dateModified = "2020-01-03T00:00:00Z" }
+        )
+        val fetchedPayload = FetchOrdersResponsePayload(site, fetchedOrders)
+        orderStore.onAction(WCOrderActionBuilder.newFetchedOrdersAction(fetchedPayload))
+
+        val fetchPayload = FetchOrdersPayload(site, incrementalSync = true)
+        orderStore.onAction(WCOrderActionBuilder.newFetchOrdersAction(fetchPayload))
+
+        verify(orderRestClient).fetchOrdersModifiedAfter(site, "2020-01-03T00:00:00Z")
+    }
+
+    @Test
+    fun testIncrementalSyncPagesThroughOrdersSharingTheSameDate() {
+        val site = SiteModel().apply { id = 6 }
+        val fetchedOrders = listOf(
+                OrderTestUtils.generateSampleOrder(1).apply { dateModified = "2020-01-03T00:00:00Z" }
+        )
+        val fetchedPayload = FetchOrdersResponsePayload(site, fetchedOrders)
+        orderStore.onAction(WCOrderActionBuilder.newFetchedOrdersAction(fetchedPayload))
+
+        // More orders than a page were modified at the same date, e.g. by a bulk edit
+        val pageSize = WCOrderStore.NUM_ORDERS_PER_FETCH
+        val changedOrders = (2L..(2L * pageSize + 6)).map {
+            OrderTestUtils.generateSampleOrder(it).apply { dateModified = "2020-01-05T00:00:00Z" }
+        } + OrderTestUtils.generateSampleOrder(100).apply { dateModified = "2020-01-06T00:00:00Z" }
+        val pages = changedOrders.chunked(pageSize)
+        pages.forEachIndexed { index, page ->
+            val offset = index * pageSize
+            orderStore.onAction(WCOrderActionBuilder.newFetchOrdersAction(
+                    FetchOrdersPayload(site, incrementalSync = true, loadMore = index > 0)
+            ))
+            verify(orderRestClient).fetchOrdersModifiedAfter(site, "2020-01-03T00:00:00Z", offset)
+
+            val changedPayload = FetchOrdersResponsePayload(site, page, canLoadMore = page.size == pageSize).apply {
+                modifiedAfter = "2020-01-03T00:00:00Z"
+                modifiedAfterOffset = offset
+            }
+            orderStore.onAction(WCOrderActionBuilder.newFetchedOrdersAction(changedPayload))
+        }
+
+        orderStore.onAction(WCOrderActionBuilder.newFetchOrdersAction(FetchOrdersPayload(site, incrementalSync = true)))
+
+        verify(orderRestClient).fetchOrdersModifiedAfter(site, "2020-01-06T00:00:00Z", 0)
+        assertEquals(changedOrders.size + 1, OrderSqlUtils.getOrdersForSite(site).size)
+    }
 }
@@ -19,6 +19,8 @@ import org.wordpress.android.fluxc.persistence.ProductSqlUtils
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
 import org.wordpress.android.fluxc.store.WCProductStore.ProductFilterOption
+import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_ASC
+import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_DESC
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
@@ -464,6 +466,20 @@ class ProductSqlUtilsTest {
         assertEquals(42, differentSiteProducts.first().remoteProductId)
     }
 
+    @Test
+    fun testGetProductsByFilterOptionsSortsCaseInsensitivelyAndPages() {
+        listOf("banana", "Cherry", "apple", "Date").forEachIndexed { index, name ->
+            ProductSqlUtils.insertOrUpdateProduct(ProductTestUtils.generateSampleProduct(index + 1L, name = name))
+        }
+        val site = SiteModel().apply { id = 6 }
+
+        val allProducts = ProductSqlUtils.getProductsByFilterOptions(site, emptyMap(), TITLE_ASC)
+        assertEquals(listOf("apple", "banana", "Cherry", "Date"), allProducts.map { it.name })
+
+        val secondPage = ProductSqlUtils.getProductsByFilterOptions(site, emptyMap(), TITLE_DESC, limit = 2, offset = 2)
+        assertEquals(listOf("banana", "apple"), secondPage.map { it.name })
+    }
+
     @Test
     fun testInsertOrUpdateProductReview() {
         val review = getProductReviews(site.id)[0]
@@ -3,4 +3,6 @@ package org.wordpress.android.fluxc.annotations;
 public abstract class AnnotationConfig {
     public static final String PACKAGE = "org.wordpress.android.fluxc.generated";
     public static final String PACKAGE_ENDPOINTS = PACKAGE + ".endpoint";
+    // Generated TypeAdapters live next to their class, e.g. Outer.Inner -> Outer_InnerTypeAdapter
+    public static final String TYPE_ADAPTER_SUFFIX = "TypeAdapter";
 }
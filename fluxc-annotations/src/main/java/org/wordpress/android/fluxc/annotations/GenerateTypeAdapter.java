@@ -0,0 +1,23 @@
+package org.wordpress.android.fluxc.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a Gson TypeAdapter for a response class at build time, so that it's decoded without reflection.
+ *
+ * The adapter follows the rules of Gson's reflective adapter: the non-static, non-transient fields of the class and
+ * its superclasses are mapped, by their {@code @SerializedName} if any, and {@code @JsonAdapter} fields are honored.
+ * Fields have to be assignable, or have a setter, or be set through a constructor taking them by name.
+ *
+ * The adapter is picked up at runtime by the shared Gson of the REST requests, through the annotation - which is
+ * why it's retained.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateTypeAdapter {
+}
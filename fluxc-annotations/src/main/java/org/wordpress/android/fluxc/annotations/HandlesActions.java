@@ -0,0 +1,15 @@
+package org.wordpress.android.fluxc.annotations;
+
+import org.wordpress.android.fluxc.annotations.action.IAction;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the {@link ActionEnum}-annotated action types a Store handles in its onAction method.
+ * Used to generate the {@link org.wordpress.android.fluxc.annotations.action.ActionRoute} for that Store.
+ */
+@Target(value = ElementType.TYPE)
+public @interface HandlesActions {
+    Class<? extends IAction>[] value() default {};
+}
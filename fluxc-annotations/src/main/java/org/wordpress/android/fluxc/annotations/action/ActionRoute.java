@@ -0,0 +1,11 @@
+package org.wordpress.android.fluxc.annotations.action;
+
+/**
+ * Build-time generated routing information for a Store, see
+ * {@link org.wordpress.android.fluxc.annotations.HandlesActions}.
+ */
+public interface ActionRoute {
+    String SUFFIX = "ActionRoute";
+
+    boolean handles(IAction actionType);
+}
@@ -0,0 +1,134 @@
+package org.wordpress.android.fluxc.processor;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.wordpress.android.fluxc.annotations.AnnotationConfig;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
+import org.wordpress.android.fluxc.annotations.action.ActionRoute;
+import org.wordpress.android.fluxc.annotations.action.IAction;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+import static java.util.Collections.singleton;
+import static javax.lang.model.SourceVersion.latestSupported;
+
+/**
+ * Generates an {@link ActionRoute} for every {@link HandlesActions}-annotated Store, letting the
+ * {@code Dispatcher} route actions to Stores with a precomputed type check instead of an EventBus lookup.
+ */
+@SuppressWarnings("unused")
+@AutoService(Processor.class)
+public class ActionRouteProcessor extends AbstractProcessor {
+    private Filer mFiler;
+    private Messager mMessager;
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mFiler = processingEnv.getFiler();
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return singleton(HandlesActions.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element storeElement : roundEnv.getElementsAnnotatedWith(HandlesActions.class)) {
+            createActionRouteClass(storeElement, getHandledActionTypes(storeElement));
+        }
+
+        return true;
+    }
+
+    /**
+     * Class values can't be read directly from the annotation at compile time, so they're extracted from the mirror.
+     */
+    private List<TypeMirror> getHandledActionTypes(Element storeElement) {
+        List<TypeMirror> actionTypes = new ArrayList<>();
+        for (AnnotationMirror annotationMirror : storeElement.getAnnotationMirrors()) {
+            if (!annotationMirror.getAnnotationType().toString().equals(HandlesActions.class.getCanonicalName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : annotationMirror.getElementValues().entrySet()) {
+                @SuppressWarnings("unchecked")
+                List<? extends AnnotationValue> values = (List<? extends AnnotationValue>) entry.getValue().getValue();
+                for (AnnotationValue value : values) {
+                    actionTypes.add((TypeMirror) value.getValue());
+                }
+            }
+        }
+        return actionTypes;
+    }
+
+    private void createActionRouteClass(Element storeElement, List<TypeMirror> actionTypes) {
+        String genClassName = storeElement.getSimpleName() + ActionRoute.SUFFIX;
+
+        CodeBlock.Builder condition = CodeBlock.builder();
+        if (actionTypes.isEmpty()) {
+            condition.add("false");
+        }
+        for (int i = 0; i < actionTypes.size(); i++) {
+            if (i > 0) {
+                condition.add(" || ");
+            }
+            condition.add("actionType instanceof $T", TypeName.get(actionTypes.get(i)));
+        }
+
+        MethodSpec handlesMethod = MethodSpec.methodBuilder("handles")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(boolean.class)
+                .addParameter(IAction.class, "actionType")
+                .addStatement("return $L", condition.build())
+                .build();
+
+        TypeSpec routeClass = TypeSpec.classBuilder(genClassName)
+                .addModifiers(Modifier.FINAL, Modifier.PUBLIC)
+                .addSuperinterface(ActionRoute.class)
+                .addMethod(handlesMethod)
+                .build();
+
+        JavaFile javaFile = JavaFile.builder(AnnotationConfig.PACKAGE, routeClass)
+                .build();
+
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, "Failed to create file: " + e.getMessage());
+        }
+    }
+}
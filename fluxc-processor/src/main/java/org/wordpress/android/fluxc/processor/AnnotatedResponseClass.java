@@ -0,0 +1,398 @@
+package org.wordpress.android.fluxc.processor;
+
+import org.wordpress.android.fluxc.annotations.AnnotationConfig;
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Blueprint for a {@link GenerateTypeAdapter}-annotated response class after processing: the JSON properties it
+ * maps, following the rules of Gson's reflective adapter, and how each of them is read and written.
+ */
+public class AnnotatedResponseClass {
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    private static final String JSON_ADAPTER = "com.google.gson.annotations.JsonAdapter";
+
+    /**
+     * A field of the response class, mapped to a JSON property.
+     */
+    public static class Property {
+        private final String mName;
+        private final TypeMirror mType;
+        private final List<String> mJsonNames = new ArrayList<>();
+        private TypeMirror mJsonAdapter;
+        private boolean mJsonAdapterNullSafe;
+        // Null when the field is read (or written) directly
+        private String mGetterName;
+        private String mSetterName;
+        private boolean mWritable;
+        private boolean mSetThroughConstructor;
+
+        Property(VariableElement field) {
+            mName = field.getSimpleName().toString();
+            mType = field.asType();
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        public TypeMirror getType() {
+            return mType;
+        }
+
+        /**
+         * @return The name the property is written with, followed by the alternate names it's read from
+         */
+        public List<String> getJsonNames() {
+            return Collections.unmodifiableList(mJsonNames);
+        }
+
+        /**
+         * @return The class given by {@code @JsonAdapter} for the field, or null
+         */
+        public TypeMirror getJsonAdapter() {
+            return mJsonAdapter;
+        }
+
+        public boolean isJsonAdapterNullSafe() {
+            return mJsonAdapterNullSafe;
+        }
+
+        public String getGetterName() {
+            return mGetterName;
+        }
+
+        public String getSetterName() {
+            return mSetterName;
+        }
+
+        public boolean isSetThroughConstructor() {
+            return mSetThroughConstructor;
+        }
+
+        public boolean isPrimitive() {
+            return mType.getKind().isPrimitive();
+        }
+    }
+
+    /**
+     * Thrown for classes a TypeAdapter can't be generated for, with the element to report the error on.
+     */
+    public static class InvalidElementException extends Exception {
+        private final Element mElement;
+
+        InvalidElementException(String message, Element element) {
+            super(message);
+            mElement = element;
+        }
+
+        public Element getElement() {
+            return mElement;
+        }
+    }
+
+    private final TypeElement mTypeElement;
+    private final String mPackageName;
+    private final List<Property> mProperties = new ArrayList<>();
+    // Null when the class is created with its no-arg constructor
+    private ExecutableElement mConstructor;
+
+    public AnnotatedResponseClass(TypeElement typeElement, Elements elementUtils, Types typeUtils)
+            throws InvalidElementException {
+        mTypeElement = typeElement;
+        mPackageName = elementUtils.getPackageOf(typeElement).getQualifiedName().toString();
+
+        if (typeElement.getKind() != ElementKind.CLASS || typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidElementException("Only concrete classes can have a generated TypeAdapter", typeElement);
+        }
+        if (typeElement.getModifiers().contains(Modifier.PRIVATE) || (typeElement.getNestingKind() == NestingKind.MEMBER
+                && !typeElement.getModifiers().contains(Modifier.STATIC))) {
+            throw new InvalidElementException("Classes with a generated TypeAdapter can't be private or inner "
+                                              + "classes", typeElement);
+        }
+
+        Map<String, Property> propertiesByJsonName = new HashMap<>();
+        TypeElement currentElement = typeElement;
+        while (currentElement != null && !currentElement.getQualifiedName().contentEquals("java.lang.Object")) {
+            if (!currentElement.getTypeParameters().isEmpty()) {
+                throw new InvalidElementException("Generic classes can't have a generated TypeAdapter", currentElement);
+            }
+            for (Element element : currentElement.getEnclosedElements()) {
+                Set<Modifier> modifiers = element.getModifiers();
+                if (element.getKind() != ElementKind.FIELD || modifiers.contains(Modifier.STATIC)
+                    || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                Property property = createProperty((VariableElement) element, currentElement, typeUtils);
+                for (String jsonName : property.mJsonNames) {
+                    if (propertiesByJsonName.put(jsonName, property) != null) {
+                        throw new InvalidElementException(typeElement.getSimpleName()
+                                + " declares multiple JSON fields named " + jsonName, element);
+                    }
+                }
+                mProperties.add(property);
+            }
+            TypeMirror superclass = currentElement.getSuperclass();
+            currentElement = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+
+        findConstructor(typeUtils);
+    }
+
+    public TypeElement getTypeElement() {
+        return mTypeElement;
+    }
+
+    public String getPackageName() {
+        return mPackageName;
+    }
+
+    /**
+     * @return The name of the generated TypeAdapter, e.g. Outer_InnerTypeAdapter for Outer.Inner - the runtime
+     * lookup relies on this naming
+     */
+    public String getAdapterName() {
+        String name = mTypeElement.getSimpleName().toString();
+        Element enclosingElement = mTypeElement.getEnclosingElement();
+        while (enclosingElement.getKind() != ElementKind.PACKAGE) {
+            name = enclosingElement.getSimpleName() + "_" + name;
+            enclosingElement = enclosingElement.getEnclosingElement();
+        }
+        return name + AnnotationConfig.TYPE_ADAPTER_SUFFIX;
+    }
+
+    public List<Property> getProperties() {
+        return Collections.unmodifiableList(mProperties);
+    }
+
+    /**
+     * @return The constructor taking some of the properties, or null if the class is created with its no-arg
+     * constructor and all the properties are then set
+     */
+    public ExecutableElement getConstructor() {
+        return mConstructor;
+    }
+
+    private Property createProperty(VariableElement field, TypeElement declaringElement, Types typeUtils)
+            throws InvalidElementException {
+        Property property = new Property(field);
+        String serializedName = null;
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            String annotationName = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+                                                                                               .toString();
+            if (annotationName.equals(SERIALIZED_NAME)) {
+                serializedName = (String) getAnnotationValue(annotation, "value").getValue();
+                property.mJsonNames.add(serializedName);
+                @SuppressWarnings("unchecked")
+                List<? extends AnnotationValue> alternates =
+                        (List<? extends AnnotationValue>) getAnnotationValue(annotation, "alternate").getValue();
+                for (AnnotationValue alternate : alternates) {
+                    property.mJsonNames.add((String) alternate.getValue());
+                }
+            } else if (annotationName.equals(JSON_ADAPTER)) {
+                property.mJsonAdapter = (TypeMirror) getAnnotationValue(annotation, "value").getValue();
+                AnnotationValue nullSafe = getAnnotationValue(annotation, "nullSafe");
+                // nullSafe was added in Gson 2.7, and defaults to true
+                property.mJsonAdapterNullSafe = nullSafe == null || (Boolean) nullSafe.getValue();
+            }
+        }
+        if (serializedName == null) {
+            property.mJsonNames.add(property.mName);
+        }
+
+        boolean fieldAccessible = isAccessible(field);
+        if (!fieldAccessible) {
+            ExecutableElement getter = findAccessor(declaringElement, getterNames(property.mName), property, true,
+                    typeUtils);
+            if (getter == null) {
+                throw new InvalidElementException("Field " + property.mName + " must be accessible from its "
+                                                  + "package or have a getter", field);
+            }
+            property.mGetterName = getter.getSimpleName().toString();
+        }
+        if (fieldAccessible && !field.getModifiers().contains(Modifier.FINAL)) {
+            property.mWritable = true;
+        } else {
+            ExecutableElement setter = findAccessor(declaringElement, setterNames(property.mName), property, false,
+                    typeUtils);
+            if (setter != null) {
+                checkNullable(setter.getParameters().get(0), property);
+                property.mSetterName = setter.getSimpleName().toString();
+                property.mWritable = true;
+            }
+        }
+        return property;
+    }
+
+    /**
+     * Picks how the class is created: with its no-arg constructor if all the properties can be set afterwards,
+     * or else with a constructor taking, by name, the ones that can't.
+     */
+    private void findConstructor(Types typeUtils) throws InvalidElementException {
+        Map<String, Property> propertiesByName = new HashMap<>();
+        List<Property> readOnlyProperties = new ArrayList<>();
+        for (Property property : mProperties) {
+            propertiesByName.put(property.mName, property);
+            if (!property.mWritable) {
+                readOnlyProperties.add(property);
+            }
+        }
+
+        for (Element element : mTypeElement.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.CONSTRUCTOR || !isAccessible(element)) {
+                continue;
+            }
+            ExecutableElement constructor = (ExecutableElement) element;
+            if (readOnlyProperties.isEmpty()) {
+                if (constructor.getParameters().isEmpty()) {
+                    mConstructor = null;
+                    return;
+                }
+                continue;
+            }
+            List<Property> parameterProperties = new ArrayList<>();
+            for (VariableElement parameter : constructor.getParameters()) {
+                Property property = propertiesByName.get(parameter.getSimpleName().toString());
+                if (property == null || !typeUtils.isAssignable(property.mType, parameter.asType())) {
+                    break;
+                }
+                parameterProperties.add(property);
+            }
+            if (parameterProperties.size() == constructor.getParameters().size()
+                && parameterProperties.containsAll(readOnlyProperties)) {
+                for (int i = 0; i < parameterProperties.size(); i++) {
+                    checkNullable(constructor.getParameters().get(i), parameterProperties.get(i));
+                }
+                for (Property property : parameterProperties) {
+                    property.mSetThroughConstructor = true;
+                }
+                mConstructor = constructor;
+                return;
+            }
+        }
+
+        if (readOnlyProperties.isEmpty()) {
+            throw new InvalidElementException(mTypeElement.getSimpleName() + " must have a no-arg constructor "
+                                              + "accessible from its package", mTypeElement);
+        }
+        throw new InvalidElementException("Field " + readOnlyProperties.get(0).mName + " must be writable, have a "
+                                          + "setter, or be taken by a constructor", mTypeElement);
+    }
+
+    /**
+     * The generated adapter passes null for the properties missing from the JSON or null in it, as the reflective
+     * adapter would set them: a parameter refusing null (e.g. a Kotlin non-null one) would fail the whole response.
+     */
+    private static void checkNullable(VariableElement parameter, Property property) throws InvalidElementException {
+        if (parameter.asType().getKind().isPrimitive()) {
+            return;
+        }
+        for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+            String annotationName = annotation.getAnnotationType().asElement().getSimpleName().toString();
+            if (annotationName.equals("NotNull") || annotationName.equals("NonNull")) {
+                throw new InvalidElementException("Field " + property.mName + " must be nullable: it's null when "
+                                                  + "the response doesn't have it or has null", parameter);
+            }
+        }
+    }
+
+    private ExecutableElement findAccessor(TypeElement declaringElement, List<String> names, Property property,
+                                           boolean getter, Types typeUtils) {
+        for (Element element : declaringElement.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.METHOD || !names.contains(element.getSimpleName().toString())
+                || !isAccessible(element)) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) element;
+            if (getter && method.getParameters().isEmpty()
+                && typeUtils.isSameType(method.getReturnType(), property.mType)) {
+                return method;
+            }
+            if (!getter && method.getParameters().size() == 1
+                && typeUtils.isSameType(method.getParameters().get(0).asType(), property.mType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The generated TypeAdapter lives in the package of the annotated class, so it can use anything public or
+     * package-private declared in that package.
+     */
+    private boolean isAccessible(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        Element packageElement = element;
+        while (packageElement.getKind() != ElementKind.PACKAGE) {
+            packageElement = packageElement.getEnclosingElement();
+        }
+        return packageElement.toString().equals(mPackageName);
+    }
+
+    // Java bean names, and the Kotlin ones for properties starting with "is"
+    private static List<String> getterNames(String name) {
+        List<String> names = new ArrayList<>();
+        names.add("get" + capitalize(name));
+        names.add("is" + capitalize(name));
+        if (name.startsWith("is")) {
+            names.add(name);
+        }
+        return names;
+    }
+
+    private static List<String> setterNames(String name) {
+        List<String> names = new ArrayList<>();
+        names.add("set" + capitalize(name));
+        if (name.startsWith("is") && name.length() > 2) {
+            names.add("set" + name.substring(2));
+        }
+        return names;
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static AnnotationValue getAnnotationValue(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        for (Element element : annotation.getAnnotationType().asElement().getEnclosedElements()) {
+            if (element.getKind() == ElementKind.METHOD && element.getSimpleName().contentEquals(name)) {
+                return ((ExecutableElement) element).getDefaultValue();
+            }
+        }
+        return null;
+    }
+}
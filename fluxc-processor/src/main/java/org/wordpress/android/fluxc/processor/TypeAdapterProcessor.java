@@ -0,0 +1,364 @@
+package org.wordpress.android.fluxc.processor;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
+import org.wordpress.android.fluxc.processor.AnnotatedResponseClass.InvalidElementException;
+import org.wordpress.android.fluxc.processor.AnnotatedResponseClass.Property;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import static java.util.Collections.singleton;
+import static javax.lang.model.SourceVersion.latestSupported;
+
+/**
+ * Generates a Gson TypeAdapter for each {@link GenerateTypeAdapter}-annotated class, which reads and writes its
+ * fields directly instead of through reflection.
+ */
+@SuppressWarnings("unused")
+@SupportedAnnotationTypes("org.wordpress.android.fluxc.annotations.GenerateTypeAdapter")
+@AutoService(Processor.class)
+public class TypeAdapterProcessor extends AbstractProcessor {
+    private static final ClassName GSON = ClassName.get("com.google.gson", "Gson");
+    private static final ClassName TYPE_ADAPTER = ClassName.get("com.google.gson", "TypeAdapter");
+    private static final ClassName TYPE_ADAPTER_FACTORY = ClassName.get("com.google.gson", "TypeAdapterFactory");
+    private static final ClassName JSON_SYNTAX_EXCEPTION = ClassName.get("com.google.gson", "JsonSyntaxException");
+    private static final ClassName TYPE_TOKEN = ClassName.get("com.google.gson.reflect", "TypeToken");
+    private static final ClassName JSON_READER = ClassName.get("com.google.gson.stream", "JsonReader");
+    private static final ClassName JSON_WRITER = ClassName.get("com.google.gson.stream", "JsonWriter");
+    private static final ClassName JSON_TOKEN = ClassName.get("com.google.gson.stream", "JsonToken");
+
+    private Filer mFiler;
+    private Messager mMessager;
+    private Elements mElementUtils;
+    private Types mTypeUtils;
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mFiler = processingEnv.getFiler();
+        mMessager = processingEnv.getMessager();
+        mElementUtils = processingEnv.getElementUtils();
+        mTypeUtils = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return singleton(GenerateTypeAdapter.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class)) {
+            try {
+                AnnotatedResponseClass responseClass =
+                        new AnnotatedResponseClass((TypeElement) element, mElementUtils, mTypeUtils);
+                createTypeAdapterClass(responseClass);
+            } catch (InvalidElementException e) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.getElement());
+            }
+        }
+
+        return true;
+    }
+
+    private void createTypeAdapterClass(AnnotatedResponseClass responseClass) throws InvalidElementException {
+        TypeName responseType = TypeName.get(responseClass.getTypeElement().asType());
+
+        TypeSpec.Builder adapterClassBuilder = TypeSpec.classBuilder(responseClass.getAdapterName())
+                .addJavadoc("Reads and writes {@link $T} without reflection.\n", responseType)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .superclass(ParameterizedTypeName.get(TYPE_ADAPTER, responseType));
+
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                                             .addMember("value", "$S", "unchecked").build())
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(GSON, "gson");
+        for (Property property : responseClass.getProperties()) {
+            TypeName propertyType = TypeName.get(property.getType());
+            adapterClassBuilder.addField(FieldSpec.builder(
+                    ParameterizedTypeName.get(TYPE_ADAPTER, propertyType.box()), adapterFieldName(property),
+                    Modifier.PRIVATE, Modifier.FINAL).build());
+            constructorBuilder.addStatement("$N = $L", adapterFieldName(property), createAdapter(property));
+        }
+
+        TypeSpec adapterClass = adapterClassBuilder
+                .addMethod(constructorBuilder.build())
+                .addMethod(createReadMethod(responseClass, responseType))
+                .addMethod(createWriteMethod(responseClass, responseType))
+                .build();
+
+        JavaFile javaFile = JavaFile.builder(responseClass.getPackageName(), adapterClass).build();
+
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, "Failed to create file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The same adapter Gson's reflective adapter would use for the field: the one given by {@code @JsonAdapter}, or
+     * else the one Gson has for the declared type of the field.
+     */
+    private CodeBlock createAdapter(Property property) throws InvalidElementException {
+        CodeBlock typeToken = createTypeToken(property.getType());
+        TypeMirror jsonAdapter = property.getJsonAdapter();
+        if (jsonAdapter == null) {
+            return CodeBlock.of("gson.getAdapter($L)", typeToken);
+        }
+        CodeBlock adapter;
+        if (isSubtype(jsonAdapter, TYPE_ADAPTER)) {
+            adapter = CodeBlock.of("($T) ($T) new $T()", ParameterizedTypeName.get(TYPE_ADAPTER,
+                    TypeName.get(property.getType()).box()), TYPE_ADAPTER, jsonAdapter);
+        } else if (isSubtype(jsonAdapter, TYPE_ADAPTER_FACTORY)) {
+            adapter = CodeBlock.of("new $T().create(gson, $L)", jsonAdapter, toTypeToken(property.getType()));
+        } else {
+            throw new InvalidElementException("Only TypeAdapter and TypeAdapterFactory classes are supported by "
+                                              + "@JsonAdapter in classes with a generated TypeAdapter",
+                    mTypeUtils.asElement(jsonAdapter));
+        }
+        return property.isJsonAdapterNullSafe() ? CodeBlock.of("$L.nullSafe()", adapter) : adapter;
+    }
+
+    private CodeBlock createTypeToken(TypeMirror type) {
+        TypeName typeName = TypeName.get(type);
+        TypeName componentType = typeName;
+        while (componentType instanceof ArrayTypeName) {
+            componentType = ((ArrayTypeName) componentType).componentType;
+        }
+        if (componentType instanceof ClassName || componentType.isPrimitive()) {
+            return CodeBlock.of("$T.class", typeName);
+        }
+        return toTypeToken(type);
+    }
+
+    private CodeBlock toTypeToken(TypeMirror type) {
+        return CodeBlock.of("new $T<$T>() { }", TYPE_TOKEN, TypeName.get(type).box());
+    }
+
+    private MethodSpec createReadMethod(AnnotatedResponseClass responseClass, TypeName responseType) {
+        boolean useConstructor = responseClass.getConstructor() != null;
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("read")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(responseType)
+                .addParameter(JSON_READER, "in")
+                .addException(IOException.class)
+                .beginControlFlow("if (in.peek() == $T.NULL)", JSON_TOKEN)
+                .addStatement("in.nextNull()")
+                .addStatement("return null")
+                .endControlFlow();
+
+        if (useConstructor) {
+            // The properties are read first, and the object created from them at the end
+            for (Property property : responseClass.getProperties()) {
+                builder.addStatement("$T $N = $L", TypeName.get(property.getType()), localName(property),
+                        defaultValue(property));
+                if (!property.isSetThroughConstructor()) {
+                    builder.addStatement("boolean $N = false", isReadName(property));
+                }
+            }
+        } else {
+            builder.addStatement("$T value = new $T()", responseType, responseType);
+        }
+
+        builder.addStatement("in.beginObject()")
+               .beginControlFlow("while (in.hasNext())")
+               .beginControlFlow("switch (in.nextName())");
+        for (Property property : responseClass.getProperties()) {
+            for (String jsonName : property.getJsonNames()) {
+                builder.addCode("case $S:\n", jsonName);
+            }
+            builder.addCode("$>");
+            if (useConstructor) {
+                addReadIntoLocal(builder, property);
+            } else {
+                addReadIntoValue(builder, property);
+            }
+            builder.addStatement("break")
+                   .addCode("$<");
+        }
+        builder.addCode("default:\n$>")
+               .addStatement("in.skipValue()")
+               .addCode("$<")
+               .endControlFlow()
+               .endControlFlow()
+               .addStatement("in.endObject()");
+
+        if (useConstructor) {
+            List<String> arguments = new ArrayList<>();
+            for (VariableElement parameter : responseClass.getConstructor().getParameters()) {
+                arguments.add(parameter.getSimpleName() + "Value");
+            }
+            builder.addStatement("$T value", responseType)
+                   .beginControlFlow("try")
+                   .addStatement("value = new $T($L)", responseType, joinArguments(arguments))
+                   .nextControlFlow("catch ($T e)", RuntimeException.class)
+                   // e.g. a Kotlin non-null parameter missing from the response
+                   .addStatement("throw new $T(e)", JSON_SYNTAX_EXCEPTION)
+                   .endControlFlow();
+            for (Property property : responseClass.getProperties()) {
+                if (!property.isSetThroughConstructor()) {
+                    builder.beginControlFlow("if ($N)", isReadName(property))
+                           .addStatement("$L", setValue(property, CodeBlock.of("$N", localName(property))))
+                           .endControlFlow();
+                }
+            }
+        }
+        return builder.addStatement("return value").build();
+    }
+
+    private void addReadIntoLocal(MethodSpec.Builder builder, Property property) {
+        if (property.isPrimitive()) {
+            // As in Gson's reflective adapter, a null for a primitive is ignored
+            builder.addStatement("$T $N = $N.read(in)", TypeName.get(property.getType()).box(), jsonName(property),
+                           adapterFieldName(property))
+                   .beginControlFlow("if ($N != null)", jsonName(property))
+                   .addStatement("$N = $N", localName(property), jsonName(property));
+            if (!property.isSetThroughConstructor()) {
+                builder.addStatement("$N = true", isReadName(property));
+            }
+            builder.endControlFlow();
+        } else {
+            builder.addStatement("$N = $N.read(in)", localName(property), adapterFieldName(property));
+            if (!property.isSetThroughConstructor()) {
+                builder.addStatement("$N = true", isReadName(property));
+            }
+        }
+    }
+
+    private void addReadIntoValue(MethodSpec.Builder builder, Property property) {
+        if (property.isPrimitive()) {
+            builder.addStatement("$T $N = $N.read(in)", TypeName.get(property.getType()).box(), jsonName(property),
+                           adapterFieldName(property))
+                   .beginControlFlow("if ($N != null)", jsonName(property))
+                   .addStatement("$L", setValue(property, CodeBlock.of("$N", jsonName(property))))
+                   .endControlFlow();
+        } else {
+            builder.addStatement("$L", setValue(property, CodeBlock.of("$N.read(in)", adapterFieldName(property))));
+        }
+    }
+
+    private MethodSpec createWriteMethod(AnnotatedResponseClass responseClass, TypeName responseType) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("write")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(JSON_WRITER, "out")
+                .addParameter(responseType, "value")
+                .addException(IOException.class)
+                .beginControlFlow("if (value == null)")
+                .addStatement("out.nullValue()")
+                .addStatement("return")
+                .endControlFlow()
+                .addStatement("out.beginObject()");
+        for (Property property : responseClass.getProperties()) {
+            CodeBlock propertyValue = property.getGetterName() == null
+                    ? CodeBlock.of("value.$N", property.getName())
+                    : CodeBlock.of("value.$N()", property.getGetterName());
+            builder.addStatement("out.name($S)", property.getJsonNames().get(0))
+                   .addStatement("$N.write(out, $L)", adapterFieldName(property), propertyValue);
+        }
+        return builder.addStatement("out.endObject()").build();
+    }
+
+    private CodeBlock setValue(Property property, CodeBlock propertyValue) {
+        if (property.getSetterName() == null) {
+            return CodeBlock.of("value.$N = $L", property.getName(), propertyValue);
+        }
+        return CodeBlock.of("value.$N($L)", property.getSetterName(), propertyValue);
+    }
+
+    private static String joinArguments(List<String> arguments) {
+        StringBuilder joined = new StringBuilder();
+        for (String argument : arguments) {
+            if (joined.length() > 0) {
+                joined.append(", ");
+            }
+            joined.append(argument);
+        }
+        return joined.toString();
+    }
+
+    private boolean isSubtype(TypeMirror type, ClassName superclass) {
+        TypeElement superElement = mElementUtils.getTypeElement(superclass.toString());
+        return superElement != null
+               && mTypeUtils.isSubtype(mTypeUtils.erasure(type), mTypeUtils.erasure(superElement.asType()));
+    }
+
+    private static CodeBlock defaultValue(Property property) {
+        switch (property.getType().getKind()) {
+            case BOOLEAN:
+                return CodeBlock.of("false");
+            case LONG:
+                return CodeBlock.of("0L");
+            case FLOAT:
+                return CodeBlock.of("0f");
+            case DOUBLE:
+                return CodeBlock.of("0d");
+            case CHAR:
+            case BYTE:
+            case SHORT:
+                return CodeBlock.of("($T) 0", TypeName.get(property.getType()));
+            case INT:
+                return CodeBlock.of("0");
+            default:
+                return CodeBlock.of("null");
+        }
+    }
+
+    private static String adapterFieldName(Property property) {
+        return "m" + Character.toUpperCase(property.getName().charAt(0)) + property.getName().substring(1)
+               + "Adapter";
+    }
+
+    // Suffixed, so that they can't clash with the parameters of the method
+    private static String localName(Property property) {
+        return property.getName() + "Value";
+    }
+
+    // Declared in the cases of a switch, which share their scope
+    private static String jsonName(Property property) {
+        return property.getName() + "Json";
+    }
+
+    private static String isReadName(Property property) {
+        return property.getName() + "Read";
+    }
+}
@@ -10,34 +10,101 @@ import javax.inject.Singleton;
 
 @Singleton
 public class Dispatcher {
+    public enum DispatchMode {
+        /**
+         * Actions are posted to the EventBus and handled by every Store on the EventBus' shared executor.
+         */
+        EVENT_BUS,
+        /**
+         * Actions are routed to the Stores declaring them with
+         * {@link org.wordpress.android.fluxc.annotations.HandlesActions}, and handled on a serial executor per Store.
+         * Actions no Store handles, and all change events, still go through the EventBus.
+         */
+        STORE_EXECUTORS
+    }
+
     private final EventBus mBus;
+    private final DispatchMode mDispatchMode;
+    private final StoreActionRouter mStoreActionRouter;
+    private volatile DispatcherMetrics mMetrics;
+    private volatile boolean mLogActions = BuildConfig.DEBUG;
 
     public Dispatcher() {
+        this(DispatchMode.EVENT_BUS);
+    }
+
+    public Dispatcher(DispatchMode dispatchMode) {
         mBus = EventBus.builder()
                 .logNoSubscriberMessages(true)
                 .sendNoSubscriberEvent(true)
                 .throwSubscriberException(true)
                 .build();
+        mDispatchMode = dispatchMode;
+        mStoreActionRouter = dispatchMode == DispatchMode.STORE_EXECUTORS ? new StoreActionRouter() : null;
+    }
+
+    public DispatchMode getDispatchMode() {
+        return mDispatchMode;
+    }
+
+    /**
+     * Starts recording {@link DispatcherMetrics}, if it wasn't already.
+     */
+    public synchronized DispatcherMetrics enableMetrics() {
+        if (mMetrics == null) {
+            mMetrics = new DispatcherMetrics();
+        }
+        return mMetrics;
+    }
+
+    public void disableMetrics() {
+        mMetrics = null;
+    }
+
+    /**
+     * Every dispatched action is logged by default in debug builds only.
+     */
+    public void setActionLoggingEnabled(boolean enabled) {
+        mLogActions = enabled;
     }
 
     public void register(final Object object) {
+        // Stores stay registered on the bus in every mode, as some of them also subscribe to change events
         mBus.register(object);
         if (object instanceof Store) {
+            if (mStoreActionRouter != null) {
+                mStoreActionRouter.register((Store) object);
+            }
             ((Store) object).onRegister();
         }
     }
 
     public void unregister(final Object object) {
         mBus.unregister(object);
+        if (mStoreActionRouter != null) {
+            mStoreActionRouter.unregister(object);
+        }
     }
 
     public void dispatch(Action action) {
-        AppLog.d(T.API, "Dispatching action: " + action.getType().getClass().getSimpleName()
-                + "-" + action.getType().toString());
-        post(action);
+        if (mLogActions) {
+            AppLog.d(T.API, "Dispatching action: " + action.getType().getClass().getSimpleName()
+                    + "-" + action.getType().toString());
+        }
+        DispatcherMetrics metrics = mMetrics;
+        if (metrics != null) {
+            metrics.onDispatch(action.getType());
+        }
+        if (mStoreActionRouter == null || !mStoreActionRouter.route(action, metrics)) {
+            post(action);
+        }
     }
 
     public void emitChange(final Object changeEvent) {
+        DispatcherMetrics metrics = mMetrics;
+        if (metrics != null) {
+            metrics.onEmitChange();
+        }
         mBus.post(changeEvent);
     }
 
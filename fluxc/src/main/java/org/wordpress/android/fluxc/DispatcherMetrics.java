@@ -0,0 +1,195 @@
+package org.wordpress.android.fluxc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.annotations.action.IAction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Opt-in instrumentation for the {@link Dispatcher}, enabled with {@link Dispatcher#enableMetrics()}.
+ *
+ * Counts dispatched actions per action type and, when actions are routed through
+ * {@link Dispatcher.DispatchMode#STORE_EXECUTORS}, records a histogram of the time between dispatching an action and
+ * the handling Store emitting a change for it. A change is attributed to an action when it's emitted while the Store
+ * handles that action, which is the case for every FETCHED_* style action.
+ *
+ * Recording doesn't allocate once an action type has been seen, only {@link #snapshot()} does.
+ */
+public class DispatcherMetrics {
+    /**
+     * Upper bounds of the latency buckets, in milliseconds. The last bucket holds everything slower.
+     */
+    private static final long[] BUCKET_UPPER_BOUNDS_MS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 2048, 4096,
+            8192, 16384};
+
+    public interface Sampler {
+        /**
+         * Called from the thread emitting the change, keep it short.
+         */
+        void onSample(@NonNull IAction actionType, long dispatchToChangeNanos);
+    }
+
+    public static class ActionTypeMetrics {
+        private final IAction mActionType;
+        private final long mDispatchCount;
+        private final long[] mLatencyBuckets;
+
+        ActionTypeMetrics(IAction actionType, long dispatchCount, long[] latencyBuckets) {
+            mActionType = actionType;
+            mDispatchCount = dispatchCount;
+            mLatencyBuckets = latencyBuckets;
+        }
+
+        public IAction getActionType() {
+            return mActionType;
+        }
+
+        public long getDispatchCount() {
+            return mDispatchCount;
+        }
+
+        public long getChangeCount() {
+            long count = 0;
+            for (long bucket : mLatencyBuckets) {
+                count += bucket;
+            }
+            return count;
+        }
+
+        /**
+         * @return the number of changes per latency bucket, see {@link #getBucketUpperBoundMs(int)}
+         */
+        public long[] getLatencyBuckets() {
+            return mLatencyBuckets.clone();
+        }
+
+        /**
+         * @return the (inclusive) upper bound of the given latency bucket, or {@link Long#MAX_VALUE} for the last one
+         */
+        public static long getBucketUpperBoundMs(int bucket) {
+            return bucket < BUCKET_UPPER_BOUNDS_MS.length ? BUCKET_UPPER_BOUNDS_MS[bucket] : Long.MAX_VALUE;
+        }
+    }
+
+    private static class Recorder {
+        private final AtomicLong mDispatchCount = new AtomicLong();
+        private final AtomicLongArray mLatencyBuckets = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MS.length + 1);
+    }
+
+    /**
+     * The action being handled on the current thread, reused for every action handled on that thread.
+     */
+    private static class InFlightAction {
+        private IAction mActionType;
+        private long mDispatchedAtNanos;
+    }
+
+    private final ConcurrentHashMap<IAction, Recorder> mRecorders = new ConcurrentHashMap<>();
+    private final AtomicLong mUnattributedChangeCount = new AtomicLong();
+    private final ThreadLocal<InFlightAction> mInFlightAction = new ThreadLocal<InFlightAction>() {
+        @Override
+        protected InFlightAction initialValue() {
+            return new InFlightAction();
+        }
+    };
+
+    private volatile Sampler mSampler;
+    private volatile int mSampleInterval;
+    private final AtomicLong mSampleCounter = new AtomicLong();
+
+    DispatcherMetrics() {}
+
+    /**
+     * Forwards one in every {@code sampleInterval} attributed changes to the sampler, or stops sampling if it's null.
+     */
+    public void setSampler(@Nullable Sampler sampler, int sampleInterval) {
+        mSampleInterval = Math.max(1, sampleInterval);
+        mSampler = sampler;
+    }
+
+    public List<ActionTypeMetrics> snapshot() {
+        List<ActionTypeMetrics> snapshot = new ArrayList<>(mRecorders.size());
+        for (Map.Entry<IAction, Recorder> entry : mRecorders.entrySet()) {
+            Recorder recorder = entry.getValue();
+            long[] buckets = new long[recorder.mLatencyBuckets.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = recorder.mLatencyBuckets.get(i);
+            }
+            snapshot.add(new ActionTypeMetrics(entry.getKey(), recorder.mDispatchCount.get(), buckets));
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the number of changes emitted outside of any routed action handling
+     */
+    public long getUnattributedChangeCount() {
+        return mUnattributedChangeCount.get();
+    }
+
+    public void reset() {
+        mRecorders.clear();
+        mUnattributedChangeCount.set(0);
+    }
+
+    void onDispatch(IAction actionType) {
+        getRecorder(actionType).mDispatchCount.incrementAndGet();
+    }
+
+    void onHandlingStarted(IAction actionType, long dispatchedAtNanos) {
+        InFlightAction inFlightAction = mInFlightAction.get();
+        inFlightAction.mActionType = actionType;
+        inFlightAction.mDispatchedAtNanos = dispatchedAtNanos;
+    }
+
+    void onHandlingFinished() {
+        mInFlightAction.get().mActionType = null;
+    }
+
+    void onEmitChange() {
+        InFlightAction inFlightAction = mInFlightAction.get();
+        IAction actionType = inFlightAction.mActionType;
+        if (actionType == null) {
+            mUnattributedChangeCount.incrementAndGet();
+            return;
+        }
+
+        long latencyNanos = System.nanoTime() - inFlightAction.mDispatchedAtNanos;
+        getRecorder(actionType).mLatencyBuckets.incrementAndGet(getBucket(latencyNanos));
+
+        Sampler sampler = mSampler;
+        if (sampler != null && mSampleCounter.incrementAndGet() % mSampleInterval == 0) {
+            sampler.onSample(actionType, latencyNanos);
+        }
+    }
+
+    private Recorder getRecorder(IAction actionType) {
+        Recorder recorder = mRecorders.get(actionType);
+        if (recorder == null) {
+            Recorder newRecorder = new Recorder();
+            recorder = mRecorders.putIfAbsent(actionType, newRecorder);
+            if (recorder == null) {
+                recorder = newRecorder;
+            }
+        }
+        return recorder;
+    }
+
+    private static int getBucket(long latencyNanos) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_MS.length; i++) {
+            if (latencyMs <= BUCKET_UPPER_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_UPPER_BOUNDS_MS.length;
+    }
+}
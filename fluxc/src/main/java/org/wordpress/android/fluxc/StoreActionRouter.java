@@ -0,0 +1,170 @@
+package org.wordpress.android.fluxc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.annotations.AnnotationConfig;
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.ActionRoute;
+import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.fluxc.store.Store;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers actions straight to the Stores handling them, as declared by their generated {@link ActionRoute}.
+ * Each Store gets its own serial executor, so actions reach a given Store in dispatch order and Stores don't queue
+ * behind each other.
+ */
+class StoreActionRouter {
+    private static final RoutedStore[] NO_TARGETS = new RoutedStore[0];
+
+    private final ExecutorService mThreadPool = Executors.newCachedThreadPool(new StoreThreadFactory());
+    private final List<RoutedStore> mStores = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, RoutedStore[]> mRoutingTable = new ConcurrentHashMap<>();
+
+    void register(Store store) {
+        mStores.add(new RoutedStore(store, findRoute(store), new SerialExecutor(mThreadPool)));
+        mRoutingTable.clear();
+    }
+
+    void unregister(Object object) {
+        for (RoutedStore routedStore : mStores) {
+            if (routedStore.mStore == object) {
+                mStores.remove(routedStore);
+            }
+        }
+        mRoutingTable.clear();
+    }
+
+    /**
+     * @return false if no registered Store handles the action
+     */
+    boolean route(final Action action, @Nullable final DispatcherMetrics metrics) {
+        RoutedStore[] targets = getTargets(action.getType());
+        final long dispatchedAtNanos = metrics != null ? System.nanoTime() : 0;
+        for (final RoutedStore target : targets) {
+            target.mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (metrics == null) {
+                        target.mStore.onAction(action);
+                        return;
+                    }
+                    metrics.onHandlingStarted(action.getType(), dispatchedAtNanos);
+                    try {
+                        target.mStore.onAction(action);
+                    } finally {
+                        metrics.onHandlingFinished();
+                    }
+                }
+            });
+        }
+        return targets.length > 0;
+    }
+
+    private RoutedStore[] getTargets(IAction actionType) {
+        RoutedStore[] targets = mRoutingTable.get(actionType.getClass());
+        if (targets == null) {
+            List<RoutedStore> matching = new ArrayList<>();
+            for (RoutedStore routedStore : mStores) {
+                if (routedStore.handles(actionType)) {
+                    matching.add(routedStore);
+                }
+            }
+            targets = matching.isEmpty() ? NO_TARGETS : matching.toArray(new RoutedStore[matching.size()]);
+            mRoutingTable.put(actionType.getClass(), targets);
+        }
+        return targets;
+    }
+
+    /**
+     * Looks up the route generated for the Store's class. Stores without one (not annotated, or subclassed in tests)
+     * receive every action, as they would through the EventBus.
+     */
+    private static ActionRoute findRoute(Store store) {
+        String routeClassName = AnnotationConfig.PACKAGE + "." + store.getClass().getSimpleName() + ActionRoute.SUFFIX;
+        try {
+            return (ActionRoute) Class.forName(routeClassName).newInstance();
+        } catch (ClassNotFoundException e) {
+            AppLog.w(T.API, "No generated action route for " + store.getClass().getName());
+        } catch (InstantiationException | IllegalAccessException e) {
+            AppLog.e(T.API, "Unable to instantiate " + routeClassName, e);
+        }
+        return null;
+    }
+
+    private static class RoutedStore {
+        private final Store mStore;
+        private final ActionRoute mRoute;
+        private final Executor mExecutor;
+
+        RoutedStore(Store store, ActionRoute route, Executor executor) {
+            mStore = store;
+            mRoute = route;
+            mExecutor = executor;
+        }
+
+        boolean handles(IAction actionType) {
+            return mRoute == null || mRoute.handles(actionType);
+        }
+    }
+
+    /**
+     * Runs tasks one at a time, in submission order, on the shared thread pool.
+     */
+    private static class SerialExecutor implements Executor {
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+        private final Executor mExecutor;
+        private Runnable mActive;
+
+        SerialExecutor(Executor executor) {
+            mExecutor = executor;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull final Runnable runnable) {
+            mTasks.offer(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        runnable.run();
+                    } finally {
+                        scheduleNext();
+                    }
+                }
+            });
+            if (mActive == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            mActive = mTasks.poll();
+            if (mActive != null) {
+                mExecutor.execute(mActive);
+            }
+        }
+    }
+
+    private static class StoreThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(runnable, "fluxc-store-" + mCount.getAndIncrement());
+        }
+    }
+}
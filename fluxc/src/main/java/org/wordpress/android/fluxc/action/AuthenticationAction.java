@@ -16,6 +16,8 @@ public enum AuthenticationAction implements IAction {
     AUTHENTICATE,
     @Action(payloadType = String.class)
     DISCOVER_ENDPOINT,
+    @Action(payloadType = String.class)
+    REDISCOVER_ENDPOINT,
     @Action(payloadType = AuthEmailPayload.class)
     SEND_AUTH_EMAIL,
 
@@ -45,6 +45,12 @@ public class MediaUploadModel extends Payload<BaseNetworkError> implements Ident
     @Column private String mErrorType;
     @Column private String mErrorMessage;
 
+    // Where a chunked upload is being sent, and how much of the file the server has, to resume it (see ChunkedUpload)
+    @Column private String mResumableUploadUrl;
+    // The URL which created the upload, it's only resumed through the same endpoint
+    @Column private String mResumableUploadCreationUrl;
+    @Column private long mUploadedBytes;
+
     public MediaUploadModel() {}
 
     public MediaUploadModel(int id) {
@@ -93,6 +99,30 @@ public class MediaUploadModel extends Payload<BaseNetworkError> implements Ident
         mErrorMessage = errorMessage;
     }
 
+    public @Nullable String getResumableUploadUrl() {
+        return mResumableUploadUrl;
+    }
+
+    public void setResumableUploadUrl(@Nullable String resumableUploadUrl) {
+        mResumableUploadUrl = resumableUploadUrl;
+    }
+
+    public @Nullable String getResumableUploadCreationUrl() {
+        return mResumableUploadCreationUrl;
+    }
+
+    public void setResumableUploadCreationUrl(@Nullable String resumableUploadCreationUrl) {
+        mResumableUploadCreationUrl = resumableUploadCreationUrl;
+    }
+
+    public long getUploadedBytes() {
+        return mUploadedBytes;
+    }
+
+    public void setUploadedBytes(long uploadedBytes) {
+        mUploadedBytes = uploadedBytes;
+    }
+
     public @Nullable MediaError getMediaError() {
         if (TextUtils.isEmpty(getErrorType())) {
             return null;
@@ -122,6 +152,9 @@ public class MediaUploadModel extends Payload<BaseNetworkError> implements Ident
                 && getUploadState() == otherMedia.getUploadState()
                 && Float.compare(getProgress(), otherMedia.getProgress()) == 0
                 && StringUtils.equals(getErrorType(), otherMedia.getErrorType())
-                && StringUtils.equals(getErrorMessage(), otherMedia.getErrorMessage());
+                && StringUtils.equals(getErrorMessage(), otherMedia.getErrorMessage())
+                && StringUtils.equals(getResumableUploadUrl(), otherMedia.getResumableUploadUrl())
+                && StringUtils.equals(getResumableUploadCreationUrl(), otherMedia.getResumableUploadCreationUrl())
+                && getUploadedBytes() == otherMedia.getUploadedBytes();
     }
 }
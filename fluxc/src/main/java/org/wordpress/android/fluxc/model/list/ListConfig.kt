@@ -7,6 +7,8 @@ private const val DB_PAGE_SIZE = 10
 private const val INITIAL_LOAD_SIZE = 20
 private const val NETWORK_PAGE_SIZE = 60
 private const val PRE_FETCH_DISTANCE = DB_PAGE_SIZE * 3
+private const val WINDOWED_ITEM_CACHE_SIZE = 500
+private const val WINDOWED_MAX_PREFETCH_PAGES = 5
 
 /**
  * Configures how the [ListStore] loads content from its DataSource.
@@ -19,9 +21,25 @@ private const val PRE_FETCH_DISTANCE = DB_PAGE_SIZE * 3
  * of visible items onscreen). Smaller page sizes improve memory usage, latency, and avoid GC churn. Larger pages
  * generally improve loading throughput, to a point.
  * See [Builder.setPageSize] for more information.
- * @param prefetchDistance ?
+ * @param prefetchDistance How far from the edge of the loaded content an access must be to trigger further loading.
+ * See [Builder.setPrefetchDistance] for more information.
+ * @param itemCacheSize Turns on windowed mode when above 0: up to this many of the items loaded lately are kept
+ * across invalidations of the list, until its data is invalidated, and only the missing ones are loaded from the
+ * DataSource.
+ * @param maxPrefetchPages In windowed mode, the most pages of [dbPageSize] items loaded in the background ahead of
+ * the scroll - more of them the faster the list is scrolled.
  */
-class ListConfig(val networkPageSize: Int, val initialLoadSize: Int, val dbPageSize: Int, val prefetchDistance: Int) {
+class ListConfig(
+    val networkPageSize: Int,
+    val initialLoadSize: Int,
+    val dbPageSize: Int,
+    val prefetchDistance: Int,
+    val itemCacheSize: Int = 0,
+    val maxPrefetchPages: Int = 0
+) {
+    val isWindowed: Boolean
+        get() = itemCacheSize > 0
+
     companion object {
         val default = ListConfig(
                 networkPageSize = NETWORK_PAGE_SIZE,
@@ -29,5 +47,18 @@ class ListConfig(val networkPageSize: Int, val initialLoadSize: Int, val dbPageS
                 dbPageSize = DB_PAGE_SIZE,
                 prefetchDistance = PRE_FETCH_DISTANCE
         )
+
+        /**
+         * For lists that can get long enough (e.g. many thousands of posts or orders) for loading their items to
+         * stall the scroll.
+         */
+        val windowed = ListConfig(
+                networkPageSize = NETWORK_PAGE_SIZE,
+                initialLoadSize = INITIAL_LOAD_SIZE,
+                dbPageSize = DB_PAGE_SIZE,
+                prefetchDistance = PRE_FETCH_DISTANCE,
+                itemCacheSize = WINDOWED_ITEM_CACHE_SIZE,
+                maxPrefetchPages = WINDOWED_MAX_PREFETCH_PAGES
+        )
     }
 }
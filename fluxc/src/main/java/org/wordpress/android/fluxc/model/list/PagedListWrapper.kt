@@ -38,6 +38,7 @@ class PagedListWrapper<T>(
     private val lifecycle: Lifecycle,
     private val refresh: () -> Unit,
     private val invalidate: () -> Unit,
+    private val invalidateItems: () -> Unit = {},
     private val parentCoroutineContext: CoroutineContext
 ) : LifecycleObserver, CoroutineScope {
     private var job: Job = Job()
@@ -96,6 +97,7 @@ class PagedListWrapper<T>(
      * should be managed through `ListStore` and shouldn't be necessary to be handled by clients.
      */
     fun invalidateData() {
+        invalidateItems()
         invalidate()
     }
 
@@ -115,8 +117,9 @@ class PagedListWrapper<T>(
     }
 
     /**
-     * Handles the [OnListChanged] `ListStore` event. It'll invalidate the data, so it can be reloaded. It'll also
-     * updates whether the list is empty or not.
+     * Handles the [OnListChanged] `ListStore` event. It'll invalidate the list, so it can be reloaded. It'll also
+     * updates whether the list is empty or not. Only the list of items changed, so the items that are already loaded
+     * are kept.
      */
     @Subscribe(threadMode = ThreadMode.BACKGROUND)
     @Suppress("unused")
@@ -124,7 +127,7 @@ class PagedListWrapper<T>(
         if (!event.listDescriptors.contains(listDescriptor)) {
             return
         }
-        invalidateData()
+        invalidate()
     }
 
     /**
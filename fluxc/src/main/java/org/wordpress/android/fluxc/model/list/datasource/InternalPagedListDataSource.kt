@@ -18,12 +18,16 @@ import org.wordpress.android.fluxc.model.list.ListDescriptor
  *
  * Most importantly, by separating this component, we are able to keep a single instance of [ListItemDataSourceInterface]
  * and hide the requirement for identifiers needing to be cached from it.
+ *
+ * When the list is in windowed mode, the items are loaded through the [itemLoader] kept for the list instead, which
+ * caches and prefetches them.
  */
 class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM>(
     private val listDescriptor: LIST_DESCRIPTOR,
     remoteItemIds: List<RemoteId>,
     isListFullyFetched: Boolean,
-    private val itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+    private val itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+    private val itemLoader: WindowedItemLoader<ITEM_IDENTIFIER, LIST_ITEM>? = null
 ) {
     /*
      * PagedList library needs a snapshot of the data. It does the heavy lifting by caching the items provided to it,
@@ -47,8 +51,14 @@ class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIF
      * @param startPosition Start position that's inclusive
      * @param endPosition End position that's exclusive
      */
-    fun getItemsInRange(startPosition: Int, endPosition: Int): List<LIST_ITEM> =
-            itemDataSource.getItemsAndFetchIfNecessary(listDescriptor, getItemIds(startPosition, endPosition))
+    fun getItemsInRange(startPosition: Int, endPosition: Int): List<LIST_ITEM> {
+        if (itemLoader == null) {
+            return itemDataSource.getItemsAndFetchIfNecessary(listDescriptor, getItemIds(startPosition, endPosition))
+        }
+        return itemLoader.getItemsInRange(itemIdentifiers, startPosition, endPosition) { ids ->
+            itemDataSource.getItemsAndFetchIfNecessary(listDescriptor, ids)
+        }
+    }
 
     /**
      * Helper function that returns the list [ITEM_IDENTIFIER]s for the given start and end positions using the
@@ -0,0 +1,152 @@
+package org.wordpress.android.fluxc.model.list.datasource
+
+import android.os.SystemClock
+import android.util.LruCache
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+
+// How far ahead of the scroll position the items should be loaded, in time
+private const val PREFETCH_LOOKAHEAD_MS = 1000L
+
+/**
+ * Loads the items of a list for [InternalPagedListDataSource] when the list is in windowed mode (see
+ * `ListConfig.itemCacheSize`).
+ *
+ * A single instance is kept for a list across the [InternalPagedListDataSource]s created each time the list is
+ * invalidated, so that:
+ *
+ * - The items loaded lately are kept in a bounded cache, by identifier, and only the missing items of a range are
+ * requested from the [ListItemDataSourceInterface] - a list changing doesn't reload the items it already showed.
+ * - The pages after (or before) the loaded range are loaded in the background, as many as the scroll speed calls for,
+ * so that they're in the cache by the time they're shown.
+ *
+ * The cache has to be dropped with [clearItems] whenever the items themselves change, as opposed to the list of
+ * identifiers.
+ */
+class WindowedItemLoader<ITEM_IDENTIFIER, LIST_ITEM>(
+    itemCacheSize: Int,
+    private val pageSize: Int,
+    private val maxPrefetchPages: Int,
+    private val prefetchExecutor: Executor = sharedPrefetchExecutor
+) {
+    // Null identifiers and items, which LruCache doesn't take, are never cached
+    private val items = LruCache<Any, Any>(itemCacheSize)
+    private val lock = Any()
+    // Bumped when the items are dropped, so that items loaded before aren't cached
+    private var itemsGeneration = 0
+    // Bumped when a range is loaded, so that the prefetches for the previous ranges stop
+    private var prefetchGeneration = 0
+    private var lastStartPosition = -1
+    private var lastLoadTime = 0L
+
+    /**
+     * Returns the items of the given identifiers, loading the ones that aren't cached with [loadItems], and then
+     * prefetches the items the scroll is heading for.
+     *
+     * @param itemIdentifiers all the identifiers of the list
+     * @param startPosition Start position that's inclusive
+     * @param endPosition End position that's exclusive
+     */
+    fun getItemsInRange(
+        itemIdentifiers: List<ITEM_IDENTIFIER>,
+        startPosition: Int,
+        endPosition: Int,
+        loadItems: (List<ITEM_IDENTIFIER>) -> List<LIST_ITEM>
+    ): List<LIST_ITEM> {
+        val result = getItems(itemIdentifiers.subList(startPosition, endPosition), loadItems)
+        prefetch(itemIdentifiers, startPosition, endPosition, loadItems)
+        return result
+    }
+
+    fun clearItems() {
+        synchronized(lock) {
+            itemsGeneration++
+            items.evictAll()
+        }
+    }
+
+    private fun getItems(
+        identifiers: List<ITEM_IDENTIFIER>,
+        loadItems: (List<ITEM_IDENTIFIER>) -> List<LIST_ITEM>
+    ): List<LIST_ITEM> {
+        val generationAtStart: Int
+        val cachedItems = synchronized(lock) {
+            generationAtStart = itemsGeneration
+            identifiers.map { identifier -> identifier?.let { items.get(it) } }
+        }
+        val missingIdentifiers = identifiers.filterIndexed { index, _ -> cachedItems[index] == null }
+        if (missingIdentifiers.isEmpty()) {
+            @Suppress("UNCHECKED_CAST")
+            return cachedItems as List<LIST_ITEM>
+        }
+        val loadedItems = loadItems(missingIdentifiers)
+        if (loadedItems.size != missingIdentifiers.size) {
+            // The data source didn't return one item per identifier, so they can't be matched: load the range as is
+            return loadItems(identifiers)
+        }
+        synchronized(lock) {
+            // Items loaded while the cache was being dropped may be outdated already
+            if (generationAtStart == itemsGeneration) {
+                missingIdentifiers.forEachIndexed { index, identifier ->
+                    val item = loadedItems[index]
+                    if (identifier != null && item != null) {
+                        items.put(identifier, item)
+                    }
+                }
+            }
+        }
+        val loadedIterator = loadedItems.iterator()
+        @Suppress("UNCHECKED_CAST")
+        return cachedItems.map { (it ?: loadedIterator.next()) as LIST_ITEM }
+    }
+
+    private fun prefetch(
+        itemIdentifiers: List<ITEM_IDENTIFIER>,
+        startPosition: Int,
+        endPosition: Int,
+        loadItems: (List<ITEM_IDENTIFIER>) -> List<LIST_ITEM>
+    ) {
+        if (maxPrefetchPages <= 0) {
+            return
+        }
+        val now = SystemClock.elapsedRealtime()
+        val currentPrefetch: Int
+        val prefetchRange: IntRange
+        synchronized(lock) {
+            val scrolledItems = if (lastStartPosition < 0) 0 else startPosition - lastStartPosition
+            val elapsedMs = (now - lastLoadTime).coerceAtLeast(1)
+            lastStartPosition = startPosition
+            lastLoadTime = now
+            // One page by default, and more for a scroll that would get past them within the lookahead time
+            val itemsAhead = Math.abs(scrolledItems) * PREFETCH_LOOKAHEAD_MS / elapsedMs
+            val pages = (itemsAhead / pageSize).toInt().coerceIn(1, maxPrefetchPages)
+            prefetchRange = if (scrolledItems >= 0) {
+                endPosition until minOf(itemIdentifiers.size, endPosition + pages * pageSize)
+            } else {
+                maxOf(0, startPosition - pages * pageSize) until startPosition
+            }
+            currentPrefetch = ++prefetchGeneration
+        }
+        if (prefetchRange.isEmpty()) {
+            return
+        }
+        val identifiers = itemIdentifiers.subList(prefetchRange.first, prefetchRange.last + 1)
+        prefetchExecutor.execute {
+            identifiers.chunked(pageSize).forEach { page ->
+                // Stop if the scroll went elsewhere
+                if (synchronized(lock) { currentPrefetch != prefetchGeneration }) {
+                    return@execute
+                }
+                getItems(page, loadItems)
+            }
+        }
+    }
+
+    companion object {
+        private val sharedPrefetchExecutor: Executor by lazy {
+            Executors.newSingleThreadExecutor { runnable ->
+                Thread(runnable, "FluxC-list-prefetch").apply { isDaemon = true }
+            }
+        }
+    }
+}
@@ -2,27 +2,27 @@ package org.wordpress.android.fluxc.module;
 
 import android.content.Context;
 
+import com.android.volley.Cache;
 import com.android.volley.Network;
 import com.android.volley.RequestQueue;
 import com.android.volley.toolbox.BasicNetwork;
 import com.android.volley.toolbox.DiskBasedCache;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.model.scan.threat.ThreatMapper;
+import org.wordpress.android.fluxc.network.CoalescingRequestQueue;
 import org.wordpress.android.fluxc.network.RetryOnRedirectBasicNetwork;
 import org.wordpress.android.fluxc.network.HTTPAuthManager;
 import org.wordpress.android.fluxc.network.MemorizingTrustManager;
 import org.wordpress.android.fluxc.network.OkHttpStack;
+import org.wordpress.android.fluxc.network.ResumableUploadConfig;
+import org.wordpress.android.fluxc.network.TieredCache;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.discovery.DiscoveryWPAPIRestClient;
 import org.wordpress.android.fluxc.network.discovery.DiscoveryXMLRPCClient;
 import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder;
-import org.wordpress.android.fluxc.network.rest.JsonObjectOrEmptyArray;
-import org.wordpress.android.fluxc.network.rest.JsonObjectOrEmptyArrayDeserializer;
-import org.wordpress.android.fluxc.network.rest.JsonObjectOrFalse;
-import org.wordpress.android.fluxc.network.rest.JsonObjectOrFalseDeserializer;
+import org.wordpress.android.fluxc.network.rest.GsonRequest;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder;
 import org.wordpress.android.fluxc.network.rest.wpcom.account.AccountRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.activity.ActivityLogRestClient;
@@ -93,7 +93,8 @@ public class ReleaseNetworkModule {
 
     private RequestQueue createRequestQueue(Network network, Context appContext) {
         File cacheDir = new File(appContext.getCacheDir(), DEFAULT_CACHE_DIR);
-        RequestQueue queue = new RequestQueue(new DiskBasedCache(cacheDir), network, NETWORK_THREAD_POOL_SIZE);
+        Cache cache = new TieredCache(new DiskBasedCache(cacheDir));
+        RequestQueue queue = new CoalescingRequestQueue(cache, network, NETWORK_THREAD_POOL_SIZE);
         queue.start();
         return queue;
     }
@@ -152,9 +153,10 @@ public class ReleaseNetworkModule {
                                                   @Named("regular") RequestQueue requestQueue,
                                                   @Named("regular") OkHttpClient okHttpClient,
                                                   AccessToken token, UserAgent userAgent,
-                                                  MediaResponseUtils mediaResponseUtils) {
+                                                  MediaResponseUtils mediaResponseUtils,
+                                                  ResumableUploadConfig resumableUploadConfig) {
         return new MediaRestClient(appContext, dispatcher, requestQueue, okHttpClient, token, userAgent,
-                mediaResponseUtils);
+                mediaResponseUtils, resumableUploadConfig);
     }
 
     @Singleton
@@ -501,11 +503,7 @@ public class ReleaseNetworkModule {
     @Singleton
     @Provides
     public Gson provideGson() {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.setLenient();
-        gsonBuilder.registerTypeHierarchyAdapter(JsonObjectOrFalse.class, new JsonObjectOrFalseDeserializer());
-        gsonBuilder.registerTypeHierarchyAdapter(JsonObjectOrEmptyArray.class,
-                new JsonObjectOrEmptyArrayDeserializer());
-        return gsonBuilder.create();
+        // Same configuration as the requests, so their type adapters are shared
+        return GsonRequest.getGson();
     }
 }
@@ -0,0 +1,86 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.RetryPolicy;
+import com.android.volley.VolleyError;
+
+import java.util.Random;
+
+/**
+ * Retry policy timing requests out from the recent response times of their endpoint family (see
+ * {@link EndpointLatencyStats}), and waiting a jittered, exponentially growing delay before each retry - as long as the
+ * retry budget of the endpoint family isn't spent.
+ */
+public class AdaptiveRetryPolicy implements RetryPolicy {
+    public static final int DEFAULT_MAX_RETRIES = 1;
+    private static final long RETRY_BASE_DELAY_MS = 500;
+    private static final long RETRY_MAX_DELAY_MS = 4000;
+    private static final float TIMEOUT_BACKOFF_MULTIPLIER = 1.5f;
+
+    private static final Random RANDOM = new Random();
+
+    private final String mEndpointFamily;
+    private final int mMaxRetries;
+    private final EndpointLatencyStats mStats;
+    private final long mRetryBaseDelayMs;
+    private int mCurrentTimeoutMs;
+    private int mCurrentRetryCount;
+
+    public AdaptiveRetryPolicy(@NonNull String endpointFamily, int maxRetries) {
+        this(endpointFamily, maxRetries, EndpointLatencyStats.getInstance(), RETRY_BASE_DELAY_MS);
+    }
+
+    AdaptiveRetryPolicy(@NonNull String endpointFamily, int maxRetries, @NonNull EndpointLatencyStats stats,
+                        long retryBaseDelayMs) {
+        mEndpointFamily = endpointFamily;
+        mMaxRetries = maxRetries;
+        mStats = stats;
+        mRetryBaseDelayMs = retryBaseDelayMs;
+    }
+
+    /**
+     * The timeout is only read from the stats once the request is first sent, so that it's as recent as can be.
+     */
+    @Override
+    public int getCurrentTimeout() {
+        if (mCurrentTimeoutMs == 0) {
+            mCurrentTimeoutMs = mStats.getTimeoutMs(mEndpointFamily);
+        }
+        return mCurrentTimeoutMs;
+    }
+
+    @Override
+    public int getCurrentRetryCount() {
+        return mCurrentRetryCount;
+    }
+
+    /**
+     * Waits before the retry, on the network thread - the same way {@link RetryOnRedirectBasicNetwork} waits.
+     */
+    @Override
+    public void retry(VolleyError error) throws VolleyError {
+        if (mCurrentRetryCount >= mMaxRetries || !mStats.tryAcquireRetry(mEndpointFamily)) {
+            throw error;
+        }
+        mCurrentRetryCount++;
+        mCurrentTimeoutMs = Math.min(EndpointLatencyStats.MAX_TIMEOUT_MS,
+                (int) (getCurrentTimeout() * TIMEOUT_BACKOFF_MULTIPLIER));
+        try {
+            Thread.sleep(getBackoffDelayMs(mCurrentRetryCount, mRetryBaseDelayMs, RETRY_MAX_DELAY_MS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw error;
+        }
+    }
+
+    /**
+     * Returns the delay before the given retry (starting at 1): the base delay doubled for each retry after the
+     * first, up to the max delay, of which a random half is taken off so that clients failing together don't all
+     * retry together.
+     */
+    public static long getBackoffDelayMs(int retry, long baseDelayMs, long maxDelayMs) {
+        long delay = Math.min(maxDelayMs, baseDelayMs << Math.min(Math.max(retry - 1, 0), 30));
+        return delay - (long) (RANDOM.nextDouble() * (delay / 2));
+    }
+}
@@ -5,20 +5,22 @@ import android.net.Uri.Builder;
 import android.util.Base64;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.android.volley.AuthFailureError;
 import com.android.volley.Cache;
-import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.NetworkError;
 import com.android.volley.NetworkResponse;
 import com.android.volley.NoConnectionError;
 import com.android.volley.ParseError;
 import com.android.volley.Request;
+import com.android.volley.Response;
 import com.android.volley.TimeoutError;
 import com.android.volley.VolleyError;
 import com.android.volley.toolbox.HttpHeaderParser;
 
 import org.wordpress.android.fluxc.FluxCError;
+import org.wordpress.android.fluxc.network.CoalescingRequestQueue.CoalescingKey;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
 import org.wordpress.android.util.AppLog;
@@ -29,6 +31,7 @@ import java.util.Map;
 import javax.net.ssl.SSLHandshakeException;
 
 public abstract class BaseRequest<T> extends Request<T> {
+    // Timeout of the requests to an endpoint until its response times are known, see EndpointLatencyStats
     public static final int DEFAULT_REQUEST_TIMEOUT = 30000;
     public static final int UPLOAD_REQUEST_READ_TIMEOUT = 60000;
 
@@ -129,8 +132,8 @@ public abstract class BaseRequest<T> extends Request<T> {
         mErrorListener = errorListener;
         // Make sure all our custom Requests are never cached.
         setShouldCache(false);
-        setRetryPolicy(new DefaultRetryPolicy(DEFAULT_REQUEST_TIMEOUT,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        setRetryPolicy(new AdaptiveRetryPolicy(EndpointLatencyStats.familyOf(url),
+                AdaptiveRetryPolicy.DEFAULT_MAX_RETRIES));
     }
 
     @Override
@@ -197,6 +200,40 @@ public abstract class BaseRequest<T> extends Request<T> {
         return mHeaders;
     }
 
+    /**
+     * Returns the key identifying requests that can share a single network call while one of them is in flight
+     * (see {@link CoalescingRequestQueue}), or null if this request must always hit the network.
+     *
+     * Only GET requests are coalesced by default.
+     */
+    @Nullable
+    public CoalescingKey getCoalescingKey() {
+        if (getMethod() != Method.GET) {
+            return null;
+        }
+        return buildCoalescingKey(null);
+    }
+
+    /**
+     * Parses the network response of the request this one was coalesced into, so that each of them gets its own
+     * parsed response.
+     */
+    Response<T> parseCoalescedResponse(NetworkResponse response) {
+        return parseNetworkResponse(response);
+    }
+
+    /**
+     * @param responseType identifies what the response is parsed into, when it isn't implied by the request class
+     */
+    @Nullable
+    protected CoalescingKey buildCoalescingKey(@Nullable Object responseType) {
+        try {
+            return new CoalescingKey(getClass(), responseType, getMethod(), getUrl(), mHeaders, getBody());
+        } catch (AuthFailureError e) {
+            return null;
+        }
+    }
+
     public void setHTTPAuthHeaderOnMatchingURL(HTTPAuthManager httpAuthManager) {
         HTTPAuthModel httpAuthModel = httpAuthManager.getHTTPAuthModel(getUrl());
         if (httpAuthModel != null) {
@@ -226,7 +263,7 @@ public abstract class BaseRequest<T> extends Request<T> {
      * Convenience method for setting a {@link com.android.volley.RetryPolicy} with no retries.
      */
     public void disableRetries() {
-        setRetryPolicy(new DefaultRetryPolicy(DEFAULT_REQUEST_TIMEOUT, 0, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        setRetryPolicy(new AdaptiveRetryPolicy(EndpointLatencyStats.familyOf(getUrl()), 0));
     }
 
     /**
@@ -236,6 +273,9 @@ public abstract class BaseRequest<T> extends Request<T> {
      * given are used to configure the cache entry.
      *
      * Otherwise, just generate a cache entry from the response's cache headers (default behaviour).
+     *
+     * A time-to-live of 0 means the entry is always revalidated with the server using its ETag or Last-Modified date,
+     * so it's not stored if the response has neither.
      */
     protected Cache.Entry createCacheEntry(NetworkResponse response) {
         Cache.Entry cacheEntry = HttpHeaderParser.parseCacheHeaders(response);
@@ -257,10 +297,17 @@ public abstract class BaseRequest<T> extends Request<T> {
                 cacheEntry.lastModified = HttpHeaderParser.parseDateAsEpoch(headerValue);
             }
 
+            cacheEntry.etag = response.headers.get("ETag");
+
             cacheEntry.data = response.data;
             cacheEntry.responseHeaders = response.headers;
         }
 
+        if (mCacheTtl == 0 && cacheEntry.etag == null && cacheEntry.lastModified == 0) {
+            // Always revalidated, but there's nothing to revalidate the entry with
+            return null;
+        }
+
         long now = System.currentTimeMillis();
         cacheEntry.ttl = now + mCacheTtl;
         cacheEntry.softTtl = now + mCacheSoftTtl;
@@ -0,0 +1,291 @@
+package org.wordpress.android.fluxc.network
+
+import okhttp3.Call
+import okhttp3.MediaType
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.Response
+import okio.BufferedSink
+import okio.ByteString.Companion.encodeUtf8
+import org.wordpress.android.fluxc.network.ChunkedUpload.Result.Canceled
+import org.wordpress.android.fluxc.network.ChunkedUpload.Result.Completed
+import org.wordpress.android.fluxc.network.ChunkedUpload.Result.Failed
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+
+private const val TUS_VERSION = "1.0.0"
+private const val HEADER_TUS_RESUMABLE = "Tus-Resumable"
+private const val HEADER_UPLOAD_LENGTH = "Upload-Length"
+private const val HEADER_UPLOAD_OFFSET = "Upload-Offset"
+private const val HEADER_UPLOAD_METADATA = "Upload-Metadata"
+private const val HEADER_LOCATION = "Location"
+private const val CHUNK_CONTENT_TYPE = "application/offset+octet-stream"
+private const val HTTP_CONFLICT = 409
+private const val PROGRESS_THROTTLE_MS = 100L
+private const val COPY_BUFFER_SIZE = 8192
+
+/**
+ * Uploads a file in chunks over the tus resumable upload protocol (https://tus.io/protocols/resumable-upload.html),
+ * so that a dropped connection only costs the chunk being sent:
+ *
+ * - The upload is created on the server, which gives its URL. Along with the bytes the server has, reported through
+ * [Listener.onUploadedBytesChanged], it can be persisted to resume the upload later, after the app was killed.
+ * - The file is sent in chunks of [ResumableUploadConfig.chunkSize], from what the server has.
+ * - When a chunk fails, the server is asked what it has and only the rest is sent again, up to
+ * [ResumableUploadConfig.maxChunkRetries] times in a row.
+ *
+ * An upload whose URL the server doesn't know anymore (it expired), or knows for a file of another length, starts
+ * over. When the server has the whole file but its response to the last chunk was lost, the result of the upload is
+ * fetched from the upload URL.
+ *
+ * [run] blocks until the upload is over, it has to be called off the main thread.
+ */
+class ChunkedUpload(
+    private val okHttpClient: OkHttpClient,
+    private val config: ResumableUploadConfig,
+    private val creationUrl: String,
+    private val file: File,
+    private val fileName: String,
+    private val mimeType: String,
+    private val headers: Map<String, String>,
+    private val listener: Listener,
+    private var uploadUrl: String? = null
+) {
+    interface Listener {
+        /**
+         * The server has the first [uploadedBytes] of the file, for the upload at [uploadUrl].
+         */
+        fun onUploadedBytesChanged(uploadUrl: String, uploadedBytes: Long)
+
+        fun onProgress(progress: Float)
+    }
+
+    sealed class Result {
+        /**
+         * The server has the whole file. [responseBody] is the body of its response to the last chunk, or of the
+         * upload URL if that response was lost.
+         */
+        class Completed(val responseBody: String) : Result()
+
+        /**
+         * The server refused the upload with [statusCode], or the chunks kept failing with [exception].
+         */
+        class Failed(val statusCode: Int, val message: String?, val exception: IOException? = null) : Result()
+
+        object Canceled : Result()
+    }
+
+    private class UploadException(val response: Response) : Exception()
+
+    @Volatile private var isCanceled = false
+    @Volatile private var currentCall: Call? = null
+
+    fun cancel() {
+        isCanceled = true
+        currentCall?.cancel()
+    }
+
+    fun run(): Result {
+        val length = file.length()
+        return try {
+            var offset = uploadUrl?.let { fetchOffset(it) } ?: createUpload(length)
+            var failures = 0
+            var needsOffset = false
+            var responseBody: String? = null
+            while (responseBody == null) {
+                try {
+                    if (needsOffset) {
+                        // The server may have part of the failed chunk, or none of it
+                        offset = fetchOffset(requireNotNull(uploadUrl)) ?: createUpload(length)
+                        needsOffset = false
+                    } else if (offset < length) {
+                        offset = sendChunk(offset, minOf(length, offset + config.chunkSize), length) {
+                            responseBody = it
+                        }
+                        failures = 0
+                    } else {
+                        // The server has the whole file but its response to the last chunk was lost, with the
+                        // connection or the app: the upload URL gives it again rather than uploading the file twice
+                        responseBody = fetchResult(requireNotNull(uploadUrl))
+                    }
+                } catch (e: IOException) {
+                    if (isCanceled) {
+                        return Canceled
+                    }
+                    if (++failures > config.maxChunkRetries) {
+                        return Failed(0, e.message, e)
+                    }
+                    AppLog.w(T.MEDIA, "Chunk of $fileName failed, retrying: $e")
+                    Thread.sleep(config.retryDelayMs * failures)
+                    needsOffset = true
+                }
+            }
+            Completed(requireNotNull(responseBody))
+        } catch (e: UploadException) {
+            Failed(e.response.code, e.response.message)
+        } catch (e: IOException) {
+            if (isCanceled) Canceled else Failed(0, e.message, e)
+        } catch (e: InterruptedException) {
+            Canceled
+        }
+    }
+
+    /**
+     * Creates the upload on the server.
+     *
+     * @return the offset to upload from
+     */
+    private fun createUpload(length: Long): Long {
+        val metadata = "filename ${fileName.encodeUtf8().base64()},filetype ${mimeType.encodeUtf8().base64()}"
+        val request = newRequest(creationUrl)
+                .header(HEADER_UPLOAD_LENGTH, length.toString())
+                .header(HEADER_UPLOAD_METADATA, metadata)
+                .post(ByteArray(0).toRequestBody())
+                .build()
+        execute(request).use { response ->
+            val location = response.header(HEADER_LOCATION)
+            if (!response.isSuccessful || location == null) {
+                throw UploadException(response)
+            }
+            val url = response.request.url.resolve(location)?.toString() ?: throw UploadException(response)
+            uploadUrl = url
+            listener.onUploadedBytesChanged(url, 0)
+        }
+        return 0
+    }
+
+    /**
+     * Asks the server how much of the file it has.
+     *
+     * @return the offset to upload from, or null if the server doesn't know the upload, or knows it for a file of
+     * another length - the file changed since the upload was created
+     */
+    private fun fetchOffset(url: String): Long? {
+        val length = file.length()
+        return execute(newRequest(url).head().build()).use { response ->
+            if (response.code >= 500) {
+                // Worth retrying, the server may still have the upload
+                throw IOException("Server error ${response.code}")
+            }
+            val offset = response.header(HEADER_UPLOAD_OFFSET)?.toLongOrNull()
+            val uploadLength = response.header(HEADER_UPLOAD_LENGTH)?.toLongOrNull()
+            if (!response.isSuccessful || offset == null) {
+                AppLog.d(T.MEDIA, "Upload of $fileName can't be resumed (${response.code}), starting over")
+                null
+            } else if (uploadLength != length || offset > length) {
+                AppLog.d(T.MEDIA, "Upload of $fileName is for $uploadLength bytes instead of $length, starting over")
+                null
+            } else {
+                listener.onUploadedBytesChanged(url, offset)
+                offset
+            }
+        }
+    }
+
+    /**
+     * Sends the bytes from [start] to [end], passing the body of the response to the last chunk, if any, to
+     * [onLastChunk].
+     *
+     * @return the offset to upload from next
+     */
+    private fun sendChunk(start: Long, end: Long, length: Long, onLastChunk: (String?) -> Unit): Long {
+        val url = requireNotNull(uploadUrl)
+        val request = newRequest(url)
+                .header(HEADER_UPLOAD_OFFSET, start.toString())
+                .patch(FileChunkRequestBody(start, end, length))
+                .build()
+        return execute(request).use { response ->
+            when {
+                response.isSuccessful -> {
+                    val offset = response.header(HEADER_UPLOAD_OFFSET)?.toLongOrNull() ?: end
+                    listener.onUploadedBytesChanged(url, offset)
+                    if (offset >= length) {
+                        onLastChunk(response.body?.string()?.takeIf { it.isNotEmpty() })
+                    }
+                    offset
+                }
+                // The server has a different offset, sending again from there
+                response.code == HTTP_CONFLICT -> throw IOException("Offset mismatch")
+                // Worth retrying
+                response.code >= 500 -> throw IOException("Server error ${response.code}")
+                else -> throw UploadException(response)
+            }
+        }
+    }
+
+    /**
+     * Fetches the result of the upload, once the server has the whole file.
+     *
+     * @return the body of the response, as the server sends it to the last chunk
+     */
+    private fun fetchResult(url: String): String {
+        return execute(newRequest(url).get().build()).use { response ->
+            when {
+                response.isSuccessful -> response.body?.string()?.takeIf { it.isNotEmpty() }
+                        ?: throw IOException("Empty upload result")
+                // Worth retrying
+                response.code >= 500 -> throw IOException("Server error ${response.code}")
+                else -> throw UploadException(response)
+            }
+        }
+    }
+
+    private fun newRequest(url: String): Request.Builder {
+        val builder = Request.Builder().url(url).header(HEADER_TUS_RESUMABLE, TUS_VERSION)
+        headers.forEach { (name, value) -> builder.header(name, value) }
+        return builder
+    }
+
+    private fun execute(request: Request): Response {
+        if (isCanceled) {
+            throw IOException("Canceled")
+        }
+        val call = okHttpClient.newCall(request)
+        currentCall = call
+        if (isCanceled) {
+            call.cancel()
+        }
+        return call.execute()
+    }
+
+    /**
+     * Sends the bytes of the file from [start] to [end], reporting the progress of the whole file.
+     */
+    private inner class FileChunkRequestBody(
+        private val start: Long,
+        private val end: Long,
+        private val length: Long
+    ) : RequestBody() {
+        override fun contentType(): MediaType = CHUNK_CONTENT_TYPE.toMediaType()
+
+        override fun contentLength() = end - start
+
+        override fun writeTo(sink: BufferedSink) {
+            RandomAccessFile(file, "r").use { input ->
+                input.seek(start)
+                val buffer = ByteArray(COPY_BUFFER_SIZE)
+                var position = start
+                var lastProgressTime = 0L
+                while (position < end) {
+                    val read = input.read(buffer, 0, minOf(buffer.size.toLong(), end - position).toInt())
+                    if (read < 0) {
+                        throw IOException("$fileName is shorter than expected")
+                    }
+                    sink.write(buffer, 0, read)
+                    position += read
+                    val now = System.currentTimeMillis()
+                    if (now - lastProgressTime > PROGRESS_THROTTLE_MS) {
+                        lastProgressTime = now
+                        listener.onProgress(position.toFloat() / length)
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.wordpress.android.fluxc.network;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.Cache;
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.Network;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.Response;
+import com.android.volley.ResponseDelivery;
+import com.android.volley.VolleyError;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link RequestQueue} that lets identical requests share a single network call.
+ *
+ * While a request is in flight, any request added with the same {@link BaseRequest#getCoalescingKey()} is held back
+ * instead of hitting the network, and gets the in flight request's response (or error) delivered to its own listeners.
+ * Each coalesced request parses the shared network response itself, so that the callers never share a parsed object
+ * they could change. A request served from the cache, with no network response to share, leaves its coalesced requests
+ * to go through the queue on their own when it finishes.
+ */
+public class CoalescingRequestQueue extends RequestQueue {
+    private final CoalescingDelivery mDelivery;
+    private final AtomicLong mSuppressedRequestCount = new AtomicLong();
+
+    public CoalescingRequestQueue(Cache cache, Network network, int threadPoolSize) {
+        this(cache, network, threadPoolSize, new ExecutorDelivery(new Handler(Looper.getMainLooper())));
+    }
+
+    public CoalescingRequestQueue(Cache cache, Network network, int threadPoolSize, ResponseDelivery delivery) {
+        this(cache, network, threadPoolSize, new CoalescingDelivery(delivery));
+    }
+
+    private CoalescingRequestQueue(Cache cache, Network network, int threadPoolSize, CoalescingDelivery delivery) {
+        super(cache, delivery.recordResponses(network), threadPoolSize, delivery);
+        mDelivery = delivery;
+        addRequestFinishedListener(new RequestFinishedListener<Object>() {
+            @Override
+            public void onRequestFinished(Request<Object> request) {
+                // The leader finished without a delivery (it was cancelled) or with a response its followers can't
+                // parse again (it came from the cache): let its followers go through the queue
+                for (Request<?> follower : mDelivery.removeFollowers(request)) {
+                    if (!follower.isCanceled()) {
+                        add(follower);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public <T> Request<T> add(Request<T> request) {
+        CoalescingKey key = request instanceof BaseRequest ? ((BaseRequest) request).getCoalescingKey() : null;
+        if (key != null && !mDelivery.addLeaderOrFollower(key, request)) {
+            long suppressed = mSuppressedRequestCount.incrementAndGet();
+            AppLog.d(T.API, "Coalesced duplicate request to " + request.getUrl() + " (" + suppressed
+                    + " suppressed so far)");
+            return request;
+        }
+        return super.add(request);
+    }
+
+    /**
+     * @return the number of requests that were served by an identical in flight request instead of the network
+     */
+    public long getSuppressedRequestCount() {
+        return mSuppressedRequestCount.get();
+    }
+
+    public static final class CoalescingKey {
+        private final Class<?> mRequestClass;
+        private final Object mResponseType;
+        private final int mMethod;
+        private final String mUrl;
+        private final Map<String, String> mHeaders;
+        private final byte[] mBody;
+        private final int mHashCode;
+
+        CoalescingKey(@NonNull Class<?> requestClass, @Nullable Object responseType, int method, String url,
+                      Map<String, String> headers, @Nullable byte[] body) {
+            mRequestClass = requestClass;
+            mResponseType = responseType;
+            mMethod = method;
+            mUrl = url;
+            mHeaders = new HashMap<>(headers);
+            mBody = body;
+            mHashCode = Arrays.hashCode(new Object[]{mRequestClass, mResponseType, mMethod, mUrl, mHeaders})
+                    + 31 * Arrays.hashCode(mBody);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof CoalescingKey)) return false;
+            CoalescingKey key = (CoalescingKey) other;
+            return mHashCode == key.mHashCode
+                    && mMethod == key.mMethod
+                    && mRequestClass.equals(key.mRequestClass)
+                    && (mResponseType == null ? key.mResponseType == null : mResponseType.equals(key.mResponseType))
+                    && (mUrl == null ? key.mUrl == null : mUrl.equals(key.mUrl))
+                    && mHeaders.equals(key.mHeaders)
+                    && Arrays.equals(mBody, key.mBody);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
+    /**
+     * Tracks in flight requests and fans out their final response or error to the requests coalesced into them.
+     */
+    private static class CoalescingDelivery implements ResponseDelivery {
+        private final ResponseDelivery mDelegate;
+        private final Map<CoalescingKey, InFlightRequest> mInFlightRequests = new HashMap<>();
+        private final Map<Request<?>, CoalescingKey> mLeaderKeys = new IdentityHashMap<>();
+
+        CoalescingDelivery(ResponseDelivery delegate) {
+            mDelegate = delegate;
+        }
+
+        /**
+         * @return true if the request should go to the network, false if it was attached to an identical request
+         */
+        synchronized boolean addLeaderOrFollower(CoalescingKey key, Request<?> request) {
+            InFlightRequest inFlightRequest = mInFlightRequests.get(key);
+            if (inFlightRequest == null) {
+                mInFlightRequests.put(key, new InFlightRequest());
+                mLeaderKeys.put(request, key);
+                return true;
+            }
+            inFlightRequest.mFollowers.add(request);
+            return false;
+        }
+
+        synchronized List<Request<?>> removeFollowers(Request<?> leader) {
+            InFlightRequest inFlightRequest = removeInFlightRequest(leader);
+            return inFlightRequest == null ? Collections.<Request<?>>emptyList() : inFlightRequest.mFollowers;
+        }
+
+        @Nullable
+        private synchronized InFlightRequest removeInFlightRequest(Request<?> leader) {
+            CoalescingKey key = mLeaderKeys.remove(leader);
+            return key == null ? null : mInFlightRequests.remove(key);
+        }
+
+        /**
+         * Wraps the network to keep the raw response of each leader, for its followers to parse.
+         */
+        Network recordResponses(final Network network) {
+            return new Network() {
+                @Override
+                public NetworkResponse performRequest(Request<?> request) throws VolleyError {
+                    NetworkResponse networkResponse = network.performRequest(request);
+                    synchronized (CoalescingDelivery.this) {
+                        CoalescingKey key = mLeaderKeys.get(request);
+                        if (key != null) {
+                            mInFlightRequests.get(key).mNetworkResponse = networkResponse;
+                        }
+                    }
+                    return networkResponse;
+                }
+            };
+        }
+
+        @Override
+        public void postResponse(Request<?> request, Response<?> response) {
+            postResponse(request, response, null);
+        }
+
+        @Override
+        public void postResponse(Request<?> request, Response<?> response, Runnable runnable) {
+            // Intermediate (soft expired cache) responses are followed by the network response
+            InFlightRequest inFlightRequest = response.intermediate ? null : removeParsableInFlightRequest(request);
+            mDelegate.postResponse(request, response, runnable);
+            if (inFlightRequest == null) {
+                return;
+            }
+            for (Request<?> follower : inFlightRequest.mFollowers) {
+                try {
+                    mDelegate.postResponse(follower,
+                            ((BaseRequest<?>) follower).parseCoalescedResponse(inFlightRequest.mNetworkResponse));
+                } catch (Exception e) {
+                    // Same as when Volley's NetworkDispatcher fails to parse a response
+                    AppLog.e(T.API, "Unhandled exception parsing a coalesced response: " + e);
+                    mDelegate.postError(follower, new VolleyError(e));
+                }
+            }
+        }
+
+        /**
+         * Removes the leader's followers if it has a network response for them to parse, or keeps them for when it
+         * finishes otherwise.
+         */
+        @Nullable
+        private synchronized InFlightRequest removeParsableInFlightRequest(Request<?> leader) {
+            CoalescingKey key = mLeaderKeys.get(leader);
+            if (key == null || mInFlightRequests.get(key).mNetworkResponse == null) {
+                return null;
+            }
+            return removeInFlightRequest(leader);
+        }
+
+        @Override
+        public void postError(Request<?> request, VolleyError error) {
+            List<Request<?>> followers = removeFollowers(request);
+            mDelegate.postError(request, error);
+            for (Request<?> follower : followers) {
+                mDelegate.postError(follower, error);
+            }
+        }
+    }
+
+    private static class InFlightRequest {
+        private final List<Request<?>> mFollowers = new ArrayList<>();
+        private NetworkResponse mNetworkResponse;
+    }
+}
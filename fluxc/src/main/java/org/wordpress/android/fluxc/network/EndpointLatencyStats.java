@@ -0,0 +1,143 @@
+package org.wordpress.android.fluxc.network;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the recent response times of each endpoint family, to time requests out from what the endpoint actually
+ * takes instead of a fixed timeout, and the retry budget of each family, so that an endpoint failing every request
+ * doesn't also get every request retried.
+ *
+ * An endpoint family is the host of the request - the WordPress.com REST API, or a self-hosted site - except for
+ * calls through the Jetpack tunnel, which take as long as the tunneled site does and are kept apart from the other
+ * WordPress.com calls.
+ *
+ * The timeouts only ever grow past {@link BaseRequest#DEFAULT_REQUEST_TIMEOUT}: the fast calls of a family make most
+ * of its response times, and would otherwise time out (and retry, POSTs included) the calls that are slow by nature,
+ * like creating a site or installing a plugin.
+ */
+public class EndpointLatencyStats {
+    private static final EndpointLatencyStats INSTANCE = new EndpointLatencyStats();
+
+    private static final String JETPACK_TUNNEL_PATH = "/jetpack-blogs/";
+
+    static final int SAMPLE_SIZE = 100;
+    static final int MIN_SAMPLES = 20;
+    static final int MIN_TIMEOUT_MS = BaseRequest.DEFAULT_REQUEST_TIMEOUT;
+    static final int MAX_TIMEOUT_MS = 60000;
+    // Requests get the 99th percentile response time of their endpoint, with this much margin
+    private static final float TIMEOUT_P99_MULTIPLIER = 1.5f;
+
+    // A retry costs a token, and each response gives back a tenth of one: retries can't go over about 10% of the
+    // requests of an endpoint, besides the initial bucket
+    static final float MAX_RETRY_TOKENS = 10f;
+    private static final float RETRY_TOKENS_PER_RESPONSE = 0.1f;
+
+    private final Map<String, Endpoint> mEndpoints = new HashMap<>();
+
+    public static EndpointLatencyStats getInstance() {
+        return INSTANCE;
+    }
+
+    @NonNull
+    public static String familyOf(@Nullable String url) {
+        if (url == null) {
+            return "";
+        }
+        Uri uri = Uri.parse(url);
+        String host = uri.getHost() == null ? "" : uri.getHost();
+        String path = uri.getPath();
+        if (path != null && path.contains(JETPACK_TUNNEL_PATH)) {
+            return host + JETPACK_TUNNEL_PATH;
+        }
+        return host;
+    }
+
+    /**
+     * Records the time it took to get the response of a request to the given endpoint family.
+     */
+    public synchronized void recordResponse(@NonNull String family, long durationMs) {
+        Endpoint endpoint = getEndpoint(family);
+        endpoint.addSample(durationMs);
+        endpoint.mRetryTokens = Math.min(MAX_RETRY_TOKENS, endpoint.mRetryTokens + RETRY_TOKENS_PER_RESPONSE);
+    }
+
+    /**
+     * Records a request to the given endpoint family that timed out after the given time. It counts as a response
+     * time, so that the timeouts of an endpoint slower than its current timeout go up.
+     */
+    public synchronized void recordTimeout(@NonNull String family, long durationMs) {
+        getEndpoint(family).addSample(durationMs);
+    }
+
+    /**
+     * @return the timeout for a request to the given endpoint family - {@link BaseRequest#DEFAULT_REQUEST_TIMEOUT}
+     * until there are enough response times to go by, and at least that afterwards
+     */
+    public synchronized int getTimeoutMs(@NonNull String family) {
+        Endpoint endpoint = mEndpoints.get(family);
+        if (endpoint == null || endpoint.mSampleCount < MIN_SAMPLES) {
+            return BaseRequest.DEFAULT_REQUEST_TIMEOUT;
+        }
+        int timeout = (int) (endpoint.getP99() * TIMEOUT_P99_MULTIPLIER);
+        return Math.max(MIN_TIMEOUT_MS, Math.min(MAX_TIMEOUT_MS, timeout));
+    }
+
+    /**
+     * Takes a token from the retry budget of the given endpoint family.
+     *
+     * @return false if the budget is spent, and the request shouldn't be retried
+     */
+    public synchronized boolean tryAcquireRetry(@NonNull String family) {
+        Endpoint endpoint = getEndpoint(family);
+        if (endpoint.mRetryTokens < 1) {
+            return false;
+        }
+        endpoint.mRetryTokens--;
+        return true;
+    }
+
+    public synchronized void clear() {
+        mEndpoints.clear();
+    }
+
+    private Endpoint getEndpoint(String family) {
+        Endpoint endpoint = mEndpoints.get(family);
+        if (endpoint == null) {
+            endpoint = new Endpoint();
+            mEndpoints.put(family, endpoint);
+        }
+        return endpoint;
+    }
+
+    private static class Endpoint {
+        // The last SAMPLE_SIZE response times, as a ring buffer
+        private final long[] mSamples = new long[SAMPLE_SIZE];
+        private int mSampleCount;
+        private int mNextSample;
+        private long mP99 = -1;
+        private float mRetryTokens = MAX_RETRY_TOKENS;
+
+        void addSample(long durationMs) {
+            mSamples[mNextSample] = durationMs;
+            mNextSample = (mNextSample + 1) % SAMPLE_SIZE;
+            mSampleCount = Math.min(SAMPLE_SIZE, mSampleCount + 1);
+            mP99 = -1;
+        }
+
+        long getP99() {
+            if (mP99 < 0) {
+                long[] sorted = Arrays.copyOf(mSamples, mSampleCount);
+                Arrays.sort(sorted);
+                mP99 = sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+            }
+            return mP99;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.wordpress.android.fluxc.network;
 
+import android.os.SystemClock;
+
 import androidx.annotation.NonNull;
 
 import com.android.volley.AuthFailureError;
@@ -10,6 +12,7 @@ import com.android.volley.toolbox.HttpResponse;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -120,7 +123,16 @@ public class OkHttpStack extends BaseHttpStack {
         OkHttpClient client = mClientBuilder.build();
         okhttp3.Request okHttpRequest = okHttpRequestBuilder.build();
         Call okHttpCall = client.newCall(okHttpRequest);
-        okhttp3.Response okHttpResponse = okHttpCall.execute();
+        String endpointFamily = EndpointLatencyStats.familyOf(request.getUrl());
+        long startTime = SystemClock.elapsedRealtime();
+        okhttp3.Response okHttpResponse;
+        try {
+            okHttpResponse = okHttpCall.execute();
+        } catch (SocketTimeoutException e) {
+            EndpointLatencyStats.getInstance().recordTimeout(endpointFamily, SystemClock.elapsedRealtime() - startTime);
+            throw e;
+        }
+        EndpointLatencyStats.getInstance().recordResponse(endpointFamily, SystemClock.elapsedRealtime() - startTime);
 
 
         int code = okHttpResponse.code();
@@ -0,0 +1,46 @@
+package org.wordpress.android.fluxc.network
+
+import org.wordpress.android.fluxc.model.SiteModel
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val DEFAULT_MIN_FILE_SIZE = 10L * 1024 * 1024
+private const val DEFAULT_CHUNK_SIZE = 4L * 1024 * 1024
+private const val DEFAULT_MAX_CHUNK_RETRIES = 3
+private const val DEFAULT_RETRY_DELAY_MS = 2000L
+
+/**
+ * Settings of the chunked, resumable media uploads (see [ChunkedUpload]).
+ *
+ * The uploads are sent in one request unless [uploadCreationUrl] gives a resumable upload endpoint for the site.
+ */
+@Singleton
+class ResumableUploadConfig @Inject constructor() {
+    /**
+     * Returns the URL creating the resumable uploads to a site, or null if the site doesn't take them.
+     *
+     * The server answers the last chunk of an upload with the uploaded media, as the media/new endpoint does, and
+     * gives it again on a GET of the upload URL.
+     */
+    var uploadCreationUrl: (SiteModel) -> String? = { null }
+
+    /**
+     * Files smaller than this are uploaded in one request, there would be little to resume.
+     */
+    var minFileSize = DEFAULT_MIN_FILE_SIZE
+
+    /**
+     * The most bytes sent in one request, and so the most that's sent again when a request fails.
+     */
+    var chunkSize = DEFAULT_CHUNK_SIZE
+
+    /**
+     * How many times in a row a chunk is sent again before the upload fails.
+     */
+    var maxChunkRetries = DEFAULT_MAX_CHUNK_RETRIES
+
+    /**
+     * How long to wait before sending a chunk again, times the number of retries.
+     */
+    var retryDelayMs = DEFAULT_RETRY_DELAY_MS
+}
@@ -25,10 +25,12 @@ public class RetryOnRedirectBasicNetwork extends BasicNetwork {
             if (request != null && error.networkResponse.statusCode == HTTP_TEMPORARY_REDIRECT) {
                 RetryPolicy policy = request.getRetryPolicy();
                 policy.retry(error); // If no attempts are left an error is thrown
-                try {
-                    Thread.sleep(policy.getCurrentTimeout()); // Wait before retrying
-                } catch (InterruptedException e) {
-                    throw error;
+                if (!(policy instanceof AdaptiveRetryPolicy)) { // Which already waited before retrying
+                    try {
+                        Thread.sleep(policy.getCurrentTimeout()); // Wait before retrying
+                    } catch (InterruptedException e) {
+                        throw error;
+                    }
                 }
                 return performRequest(request);
             }
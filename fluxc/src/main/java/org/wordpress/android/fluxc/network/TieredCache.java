@@ -0,0 +1,87 @@
+package org.wordpress.android.fluxc.network;
+
+import android.util.LruCache;
+
+import com.android.volley.Cache;
+
+/**
+ * A Volley {@link Cache} keeping the most recently used entries in memory, in front of a (disk) cache.
+ *
+ * Entries found on disk are promoted to memory, so repeated reads of the same response (e.g. when revalidating with
+ * ETag/Last-Modified) don't hit the disk. Writes go to both tiers.
+ */
+public class TieredCache implements Cache {
+    private static final int DEFAULT_MEMORY_CACHE_SIZE_BYTES = 2 * 1024 * 1024;
+
+    private final Cache mDelegate;
+    private final LruCache<String, Entry> mMemoryCache;
+
+    public TieredCache(Cache delegate) {
+        this(delegate, DEFAULT_MEMORY_CACHE_SIZE_BYTES);
+    }
+
+    public TieredCache(Cache delegate, int memoryCacheSizeBytes) {
+        mDelegate = delegate;
+        mMemoryCache = new LruCache<String, Entry>(memoryCacheSizeBytes) {
+            @Override
+            protected int sizeOf(String key, Entry entry) {
+                return entry.data == null ? 1 : Math.max(1, entry.data.length);
+            }
+        };
+    }
+
+    @Override
+    public Entry get(String key) {
+        Entry entry = mMemoryCache.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        entry = mDelegate.get(key);
+        if (entry != null) {
+            mMemoryCache.put(key, entry);
+        }
+        return entry;
+    }
+
+    @Override
+    public void put(String key, Entry entry) {
+        mMemoryCache.put(key, entry);
+        mDelegate.put(key, entry);
+    }
+
+    @Override
+    public void initialize() {
+        mDelegate.initialize();
+    }
+
+    @Override
+    public void invalidate(String key, boolean fullExpire) {
+        Entry entry = mMemoryCache.get(key);
+        if (entry != null) {
+            entry.softTtl = 0;
+            if (fullExpire) {
+                entry.ttl = 0;
+            }
+        }
+        mDelegate.invalidate(key, fullExpire);
+    }
+
+    @Override
+    public void remove(String key) {
+        mMemoryCache.remove(key);
+        mDelegate.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        mMemoryCache.evictAll();
+        mDelegate.clear();
+    }
+
+    /**
+     * @return the number of requests served from memory since this cache was created
+     */
+    public int getMemoryHitCount() {
+        return mMemoryCache.hitCount();
+    }
+}
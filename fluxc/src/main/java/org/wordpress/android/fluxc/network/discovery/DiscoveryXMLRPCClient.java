@@ -85,7 +85,11 @@ public class DiscoveryXMLRPCClient extends BaseXMLRPCClient {
 
         try {
             return future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException | TimeoutException e) {
+        } catch (InterruptedException e) {
+            // The discovery doesn't need this URL anymore (another one was found first)
+            request.cancel();
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
             AppLog.e(AppLog.T.API, "Couldn't get XML-RPC response.");
         } catch (ExecutionException e) {
             if (e.getCause() instanceof AuthFailureError) {
@@ -15,17 +15,39 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.UrlUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class SelfHostedEndpointFinder {
     public static final int TIMEOUT_MS = 60000;
 
+    // The most URLs probed at once - enough for all the XML-RPC URLs tried for a site, and the WP-API discovery
+    private static final int MAX_PARALLEL_PROBES = 4;
+    private static final long PROBE_THREAD_KEEP_ALIVE_SECONDS = 30;
+    private static final long FOUND_RESULT_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long NOT_FOUND_RESULT_TTL_MS = TimeUnit.MINUTES.toMillis(1);
+
     private final Dispatcher mDispatcher;
     private final DiscoveryXMLRPCClient mDiscoveryXMLRPCClient;
     private final DiscoveryWPAPIRestClient mDiscoveryWPAPIRestClient;
+    private final ExecutorService mDiscoveryExecutor = Executors.newCachedThreadPool();
+    private final ExecutorService mProbeExecutor;
+    private final Map<String, CachedResult> mCachedResults = new HashMap<>();
 
     public enum DiscoveryError implements OnChangedError {
         INVALID_URL,
@@ -44,10 +66,17 @@ public class SelfHostedEndpointFinder {
 
         public final DiscoveryError discoveryError;
         public final String failedUrl;
+        // False when the site didn't answer at all, e.g. because the device is offline: trying again could succeed
+        final boolean siteResponded;
 
         DiscoveryException(DiscoveryError failureType, String failedUrl) {
+            this(failureType, failedUrl, true);
+        }
+
+        DiscoveryException(DiscoveryError failureType, String failedUrl, boolean siteResponded) {
             this.discoveryError = failureType;
             this.failedUrl = failedUrl;
+            this.siteResponded = siteResponded;
         }
     }
 
@@ -72,32 +101,129 @@ public class SelfHostedEndpointFinder {
         mDispatcher = dispatcher;
         mDiscoveryXMLRPCClient = discoveryXMLRPCClient;
         mDiscoveryWPAPIRestClient = discoveryWPAPIRestClient;
+        ThreadPoolExecutor probeExecutor = new ThreadPoolExecutor(MAX_PARALLEL_PROBES, MAX_PARALLEL_PROBES,
+                PROBE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        probeExecutor.allowCoreThreadTimeOut(true);
+        mProbeExecutor = probeExecutor;
     }
 
+    /**
+     * Finds the XML-RPC (and WP-API) endpoints of the given site, and dispatches the result.
+     *
+     * The URLs which could be the endpoint are probed in parallel, so that a slow or unresponsive candidate only
+     * delays the discovery by its own timeout. Results are kept for a while, so that finding the endpoints of the same
+     * site again (e.g. after a failed login attempt) doesn't probe the site again. Errors the user can fix (like
+     * HTTP auth or an invalid SSL certificate) aren't kept, and neither is a site not found because it didn't answer
+     * (e.g. offline).
+     */
     public void findEndpoint(final String url) {
-        new Thread(new Runnable() {
+        findEndpoint(url, false);
+    }
+
+    /**
+     * Same as {@link #findEndpoint(String)}, but probes the site again if {@code ignoreCachedResult} is true, e.g.
+     * when the user retries after an error.
+     */
+    public void findEndpoint(final String url, final boolean ignoreCachedResult) {
+        mDiscoveryExecutor.execute(new Runnable() {
             @Override
             public void run() {
-                try {
-                    String wpRestEndpoint = "";
-                    if (BuildConfig.ENABLE_WPAPI) {
-                        wpRestEndpoint = discoverWPRESTEndpoint(url);
+                CachedResult result = ignoreCachedResult ? null : getCachedResult(url);
+                if (result == null) {
+                    result = discoverEndpoints(url);
+                    cacheResult(url, result);
+                }
+                mDispatcher.dispatch(AuthenticationActionBuilder.newDiscoveryResultAction(result.toPayload()));
+            }
+        });
+    }
+
+    private CachedResult discoverEndpoints(final String url) {
+        try {
+            Future<String> wpRestEndpointFuture = null;
+            if (BuildConfig.ENABLE_WPAPI) {
+                wpRestEndpointFuture = mProbeExecutor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws DiscoveryException {
+                        return discoverWPRESTEndpoint(url);
                     }
-                    // TODO: Eventually make the XML-RPC discovery only run if WP-API discovery fails
-                    String xmlRpcEndpoint = verifyOrDiscoverXMLRPCEndpoint(url);
-                    DiscoveryResultPayload payload = new DiscoveryResultPayload(xmlRpcEndpoint, wpRestEndpoint);
-                    mDispatcher.dispatch(AuthenticationActionBuilder.newDiscoveryResultAction(payload));
-                } catch (DiscoveryException e) {
-                    // TODO: Handle tracking of XMLRPCDiscoveryException
-                    // If a DiscoveryException is caught this high up, it means that either:
-                    // 1. The discovery process has completed, and did not turn up a valid WordPress.com site
-                    // 2. Discovery was halted early because the given site requires SSL validation, or HTTP AUTH login,
-                    // or is a WordPress.com site, or is a completely invalid URL
-                    DiscoveryResultPayload payload = new DiscoveryResultPayload(e.discoveryError, e.failedUrl);
-                    mDispatcher.dispatch(AuthenticationActionBuilder.newDiscoveryResultAction(payload));
+                });
+            }
+            // TODO: Eventually make the XML-RPC discovery only run if WP-API discovery fails
+            String xmlRpcEndpoint = null;
+            DiscoveryException xmlRpcError = null;
+            try {
+                xmlRpcEndpoint = verifyOrDiscoverXMLRPCEndpoint(url);
+            } catch (DiscoveryException e) {
+                xmlRpcError = e;
+            }
+            // The WP-API discovery errors come first, as when both discoveries ran one after the other
+            String wpRestEndpoint = wpRestEndpointFuture != null ? getProbeResult(wpRestEndpointFuture) : "";
+            if (xmlRpcError != null) {
+                throw xmlRpcError;
+            }
+            return new CachedResult(xmlRpcEndpoint, wpRestEndpoint);
+        } catch (DiscoveryException e) {
+            // TODO: Handle tracking of XMLRPCDiscoveryException
+            // If a DiscoveryException is caught this high up, it means that either:
+            // 1. The discovery process has completed, and did not turn up a valid WordPress.com site
+            // 2. Discovery was halted early because the given site requires SSL validation, or HTTP AUTH login,
+            // or is a WordPress.com site, or is a completely invalid URL
+            return new CachedResult(e.discoveryError, e.failedUrl, e.siteResponded);
+        }
+    }
+
+    private String getProbeResult(Future<String> probe) throws DiscoveryException {
+        try {
+            return probe.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DiscoveryException(DiscoveryError.GENERIC_ERROR, null);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DiscoveryException) {
+                throw (DiscoveryException) e.getCause();
+            }
+            throw new DiscoveryException(DiscoveryError.GENERIC_ERROR, null);
+        }
+    }
+
+    private CachedResult getCachedResult(String url) {
+        synchronized (mCachedResults) {
+            CachedResult result = mCachedResults.get(url);
+            if (result != null && result.mExpiresAt < System.currentTimeMillis()) {
+                mCachedResults.remove(url);
+                return null;
+            }
+            return result;
+        }
+    }
+
+    private void cacheResult(String url, CachedResult result) {
+        long ttl;
+        if (result.mError == null) {
+            ttl = FOUND_RESULT_TTL_MS;
+        } else if ((result.mError == DiscoveryError.NO_SITE_ERROR
+                    || result.mError == DiscoveryError.MISSING_XMLRPC_METHOD) && result.mSiteResponded) {
+            ttl = NOT_FOUND_RESULT_TTL_MS;
+        } else {
+            // Not kept, and not hiding a result the next discovery could find
+            synchronized (mCachedResults) {
+                mCachedResults.remove(url);
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        result.mExpiresAt = now + ttl;
+        synchronized (mCachedResults) {
+            // Drop the expired results of the other sites, so they don't pile up
+            Iterator<CachedResult> iterator = mCachedResults.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().mExpiresAt < now) {
+                    iterator.remove();
                 }
             }
-        }).start();
+            mCachedResults.put(url, result);
+        }
     }
 
     private String verifyOrDiscoverXMLRPCEndpoint(final String siteUrl) throws DiscoveryException {
@@ -161,24 +287,46 @@ public class SelfHostedEndpointFinder {
         final LinkedHashSet<String> urlsToTry = getOrderedVerifyUrlsToTry(siteUrl);
 
         AppLog.i(T.NUX, "Calling system.listMethods on the following URLs: " + urlsToTry);
-        for (String url : urlsToTry) {
-            try {
-                if (checkXMLRPCEndpointValidity(url)) {
-                    // Endpoint found and works fine.
-                    return url;
+        // All the URLs are probed at once, and their results read in order: the result is the same as probing them
+        // one after the other, but the slow ones are waited for in parallel
+        List<Future<Boolean>> probes = new ArrayList<>();
+        for (final String url : urlsToTry) {
+            probes.add(mProbeExecutor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws DiscoveryException {
+                    return checkXMLRPCEndpointValidity(url);
                 }
-            } catch (DiscoveryException e) {
-                // Stop execution for errors requiring user interaction
-                if (e.discoveryError == DiscoveryError.ERRONEOUS_SSL_CERTIFICATE
-                    || e.discoveryError == DiscoveryError.HTTP_AUTH_REQUIRED
-                    || e.discoveryError == DiscoveryError.MISSING_XMLRPC_METHOD
-                    || e.discoveryError == DiscoveryError.XMLRPC_BLOCKED) {
-                    throw e;
+            }));
+        }
+        try {
+            int index = 0;
+            for (String url : urlsToTry) {
+                try {
+                    if (probes.get(index++).get()) {
+                        // Endpoint found and works fine.
+                        return url;
+                    }
+                } catch (ExecutionException executionException) {
+                    if (executionException.getCause() instanceof DiscoveryException) {
+                        DiscoveryException e = (DiscoveryException) executionException.getCause();
+                        // Stop execution for errors requiring user interaction
+                        if (e.discoveryError == DiscoveryError.ERRONEOUS_SSL_CERTIFICATE
+                            || e.discoveryError == DiscoveryError.HTTP_AUTH_REQUIRED
+                            || e.discoveryError == DiscoveryError.MISSING_XMLRPC_METHOD
+                            || e.discoveryError == DiscoveryError.XMLRPC_BLOCKED) {
+                            throw e;
+                        }
+                    }
+                    // Otherwise. swallow the error since we are just verifying various URLs. Depending how corrupt the
+                    // user entered URL is, it can generate several kinds of runtime exceptions, ignore them too
                 }
-                // Otherwise. swallow the error since we are just verifying various URLs
-            } catch (RuntimeException re) {
-                // Depending how corrupt the user entered URL is, it can generate several kinds of runtime exceptions,
-                // ignore them
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Stop the probes still running, their result isn't needed anymore
+            for (Future<Boolean> probe : probes) {
+                probe.cancel(true);
             }
         }
         // Input url was not verified to be working
@@ -208,6 +356,7 @@ public class SelfHostedEndpointFinder {
 
         String xmlrpcUrl = null;
         boolean isWpSite = false;
+        boolean siteResponded = false;
         for (String currentURL : urlsToTry) {
             if (!URLUtil.isValidUrl(currentURL)) {
                 continue;
@@ -219,6 +368,7 @@ public class SelfHostedEndpointFinder {
                 AppLog.w(AppLog.T.NUX, "Content downloaded but it's empty or null. Skipping this URL");
                 continue;
             }
+            siteResponded = true;
 
             // Try to find the RSD tag with a regex
             String rsdUrl = getRSDMetaTagHrefRegEx(responseHTML);
@@ -263,12 +413,44 @@ public class SelfHostedEndpointFinder {
             }
         }
         if (!isWpSite) {
-            throw new DiscoveryException(DiscoveryError.NO_SITE_ERROR, xmlrpcUrl);
+            throw new DiscoveryException(DiscoveryError.NO_SITE_ERROR, xmlrpcUrl, siteResponded);
         } else {
             throw new DiscoveryException(DiscoveryError.MISSING_XMLRPC_METHOD, xmlrpcUrl);
         }
     }
 
+    private static class CachedResult {
+        private final String mXmlRpcEndpoint;
+        private final String mWpRestEndpoint;
+        private final DiscoveryError mError;
+        private final String mFailedEndpoint;
+        private final boolean mSiteResponded;
+        private long mExpiresAt;
+
+        CachedResult(String xmlRpcEndpoint, String wpRestEndpoint) {
+            mXmlRpcEndpoint = xmlRpcEndpoint;
+            mWpRestEndpoint = wpRestEndpoint;
+            mError = null;
+            mFailedEndpoint = null;
+            mSiteResponded = true;
+        }
+
+        CachedResult(DiscoveryError error, String failedEndpoint, boolean siteResponded) {
+            mXmlRpcEndpoint = null;
+            mWpRestEndpoint = null;
+            mError = error;
+            mFailedEndpoint = failedEndpoint;
+            mSiteResponded = siteResponded;
+        }
+
+        DiscoveryResultPayload toPayload() {
+            if (mError != null) {
+                return new DiscoveryResultPayload(mError, mFailedEndpoint);
+            }
+            return new DiscoveryResultPayload(mXmlRpcEndpoint, mWpRestEndpoint);
+        }
+    }
+
     /**
      * Regex pattern for matching the RSD link found in most WordPress sites.
      */
@@ -0,0 +1,87 @@
+package org.wordpress.android.fluxc.network.rest;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache time-to-live for GET endpoints, declared with the same path templates as the endpoint definition files used
+ * to generate the endpoint classes (wp-com-endpoints.txt, wporg-api-endpoints.txt...).
+ *
+ * {@link GsonRequest}s for an endpoint listed here are cached without the client having to enable it. Clients calling
+ * {@link GsonRequest#enableCaching(int)} themselves override the policy. The first matching template wins.
+ */
+public class EndpointCachePolicies {
+    public static final int NO_POLICY = -1;
+    /**
+     * The cached response is always revalidated with the server (ETag/Last-Modified) before being used, so it's never
+     * stale but saves the transfer when the content didn't change.
+     */
+    public static final int REVALIDATE = 0;
+
+    private static final int ONE_HOUR = (int) TimeUnit.HOURS.toMillis(1);
+
+    // Matches a variable path segment in any of the endpoint file formats: $site, {version}#String, <id>
+    private static final Pattern VARIABLE_SEGMENT = Pattern.compile("(\\$[^/#]+|\\{[^}]+\\}|<[^>]+>)(#[^/]+)?");
+
+    private static final List<CachePolicy> POLICIES = new ArrayList<>();
+
+    static {
+        // WP.com REST
+        register("/me/sites/", REVALIDATE);
+        register("/sites/$site/plugins", REVALIDATE);
+        register("/sites/$site/themes/mine", REVALIDATE);
+        register("/sites/$site/stats", REVALIDATE);
+        register("/themes", ONE_HOUR);
+
+        // WordPress.org API (plugin directory)
+        register("/plugins/info/{version}#String/", ONE_HOUR);
+        register("/plugins/info/{version}#String/{slug}#String", ONE_HOUR);
+    }
+
+    private static void register(@NonNull String endpointTemplate, int timeToLive) {
+        POLICIES.add(new CachePolicy(endpointTemplate, timeToLive));
+    }
+
+    /**
+     * @return the time-to-live in milliseconds for the given URL, or {@link #NO_POLICY}
+     */
+    public static int getTimeToLive(@NonNull String url) {
+        String path = Uri.parse(url).getPath();
+        if (path == null) {
+            return NO_POLICY;
+        }
+        for (CachePolicy policy : POLICIES) {
+            if (policy.mPathPattern.matcher(path).matches()) {
+                return policy.mTimeToLive;
+            }
+        }
+        return NO_POLICY;
+    }
+
+    private static class CachePolicy {
+        private final Pattern mPathPattern;
+        private final int mTimeToLive;
+
+        CachePolicy(String endpointTemplate, int timeToLive) {
+            String template = endpointTemplate.replaceAll("/$", "");
+            // Allow for an API prefix such as /rest/v1.1 or /wpcom/v2
+            StringBuilder regex = new StringBuilder("(/[^/]+){0,2}");
+            int start = 0;
+            Matcher matcher = VARIABLE_SEGMENT.matcher(template);
+            while (matcher.find()) {
+                regex.append(Pattern.quote(template.substring(start, matcher.start()))).append("[^/]+");
+                start = matcher.end();
+            }
+            regex.append(Pattern.quote(template.substring(start))).append("/?");
+            mPathPattern = Pattern.compile(regex.toString());
+            mTimeToLive = timeToLive;
+        }
+    }
+}
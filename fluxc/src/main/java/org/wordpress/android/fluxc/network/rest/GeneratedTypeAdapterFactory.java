@@ -0,0 +1,47 @@
+package org.wordpress.android.fluxc.network.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import org.wordpress.android.fluxc.annotations.AnnotationConfig;
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Provides the TypeAdapters generated at build time for the {@link GenerateTypeAdapter}-annotated classes.
+ *
+ * Gson caches the adapter it gets for each type, so the generated adapter of a class is only looked up once per Gson
+ * instance. Other classes, and annotated classes whose adapter can't be loaded, are left to the reflective adapter.
+ */
+public class GeneratedTypeAdapterFactory implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (!rawType.isAnnotationPresent(GenerateTypeAdapter.class)) {
+            return null;
+        }
+        // The adapter of Outer.Inner is Outer_InnerTypeAdapter, in the same package
+        String adapterClassName = rawType.getName().replace('$', '_') + AnnotationConfig.TYPE_ADAPTER_SUFFIX;
+        try {
+            Class<?> adapterClass = Class.forName(adapterClassName, true, rawType.getClassLoader());
+            return (TypeAdapter<T>) adapterClass.getConstructor(Gson.class).newInstance(gson);
+        } catch (ClassNotFoundException e) {
+            AppLog.e(T.API, "Missing generated TypeAdapter: " + adapterClassName);
+        } catch (NoSuchMethodException e) {
+            AppLog.e(T.API, "Invalid generated TypeAdapter: " + adapterClassName);
+        } catch (InstantiationException e) {
+            AppLog.e(T.API, "Invalid generated TypeAdapter: " + adapterClassName);
+        } catch (IllegalAccessException e) {
+            AppLog.e(T.API, "Invalid generated TypeAdapter: " + adapterClassName);
+        } catch (InvocationTargetException e) {
+            AppLog.e(T.API, "Failed to create generated TypeAdapter: " + adapterClassName);
+        }
+        return null;
+    }
+}
@@ -8,16 +8,24 @@ import com.android.volley.Response.Listener;
 import com.android.volley.toolbox.HttpHeaderParser;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
 
 import org.jetbrains.annotations.Nullable;
 import org.wordpress.android.fluxc.network.BaseRequest;
+import org.wordpress.android.fluxc.network.CoalescingRequestQueue.CoalescingKey;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 public abstract class GsonRequest<T> extends BaseRequest<T> {
     private static final String PROTOCOL_CHARSET = "utf-8";
@@ -29,6 +37,8 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
     private final Listener<T> mListener;
     private final Map<String, String> mParams;
     private final Map<String, Object> mBody;
+    // The body is encoded once, and not again on every retry
+    private byte[] mEncodedBody;
 
     protected GsonRequest(int method, Map<String, String> params, Map<String, Object> body, String url, Class<T> clazz,
                        Type type, Listener<T> listener, BaseErrorListener errorListener) {
@@ -43,9 +53,16 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
         mClass = clazz;
         mType = type;
         mListener = listener;
-        mGson = setupGsonBuilder().create();
+        mGson = getGson();
         mParams = params;
         mBody = body;
+
+        if (method == Method.GET) {
+            int timeToLive = EndpointCachePolicies.getTimeToLive(url);
+            if (timeToLive != EndpointCachePolicies.NO_POLICY) {
+                enableCaching(timeToLive);
+            }
+        }
     }
 
     @Override
@@ -73,7 +90,20 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
             return super.getBody();
         }
 
-        return mGson.toJson(mBody).getBytes(Charset.forName("UTF-8"));
+        if (mEncodedBody == null) {
+            mEncodedBody = mGson.toJson(mBody).getBytes(Charset.forName("UTF-8"));
+        }
+        return mEncodedBody;
+    }
+
+    @Nullable
+    @Override
+    public CoalescingKey getCoalescingKey() {
+        if (getMethod() != Method.GET) {
+            return null;
+        }
+        // Requests for the same URL can be parsed into different response classes
+        return buildCoalescingKey(mClass != null ? mClass : mType);
     }
 
     @Nullable
@@ -84,27 +114,67 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
     @Override
     protected Response<T> parseNetworkResponse(NetworkResponse response) {
         try {
-            String json = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
+            // Decode straight from the response bytes rather than from a copy of them as a String
+            InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(response.data),
+                    HttpHeaderParser.parseCharset(response.headers));
             T res;
             if (mClass == null) {
-                res = mGson.fromJson(json, mType);
+                res = mGson.fromJson(reader, mType);
             } else {
-                res = mGson.fromJson(json, mClass);
+                res = mGson.fromJson(reader, mClass);
             }
             return Response.success(res, createCacheEntry(response));
         } catch (UnsupportedEncodingException e) {
             return Response.error(new ParseError(e));
         } catch (JsonSyntaxException e) {
             return Response.error(new ParseError(e));
+        } catch (JsonIOException e) {
+            return Response.error(new ParseError(e));
         }
     }
 
-    private GsonBuilder setupGsonBuilder() {
+    /**
+     * @return The {@link Gson} instance shared by all the requests. Gson is thread-safe and caches the type adapters
+     * it creates, so sharing it means the adapters of a response class are only built for its first request.
+     */
+    public static Gson getGson() {
+        return GsonHolder.GSON;
+    }
+
+    /**
+     * Builds the type adapters of the given response types in the background, so that the first request for each
+     * of them doesn't have to. Meant for large responses that are fetched early, such as the list of sites.
+     */
+    public static void prewarm(final Type... types) {
+        GsonHolder.PREWARM_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Type type : types) {
+                    getGson().getAdapter(TypeToken.get(type));
+                }
+            }
+        });
+    }
+
+    public static GsonBuilder setupGsonBuilder() {
         GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.setLenient();
+        gsonBuilder.registerTypeAdapterFactory(new GeneratedTypeAdapterFactory());
         gsonBuilder.registerTypeHierarchyAdapter(JsonObjectOrFalse.class, new JsonObjectOrFalseDeserializer());
         gsonBuilder.registerTypeHierarchyAdapter(JsonObjectOrEmptyArray.class,
                 new JsonObjectOrEmptyArrayDeserializer());
         return gsonBuilder;
     }
+
+    private static class GsonHolder {
+        private static final Gson GSON = setupGsonBuilder().create();
+        private static final Executor PREWARM_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "FluxC-gson-prewarm");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
 }
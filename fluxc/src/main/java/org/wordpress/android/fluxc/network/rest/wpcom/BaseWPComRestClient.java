@@ -119,7 +119,7 @@ public abstract class BaseWPComRestClient {
     private Request addRequest(BaseRequest request) {
         request.setOnParseErrorListener(mOnParseErrorListener);
         if (request.shouldCache() && request.shouldForceUpdate()) {
-            mRequestQueue.getCache().invalidate(request.mUri.toString(), true);
+            mRequestQueue.getCache().invalidate(request.getCacheKey(), true);
         }
         return mRequestQueue.add(request);
     }
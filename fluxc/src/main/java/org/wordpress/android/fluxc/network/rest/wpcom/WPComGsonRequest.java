@@ -156,6 +156,18 @@ public class WPComGsonRequest<T> extends GsonRequest<T> {
         }
     }
 
+    /**
+     * Cached responses belong to the account that made the request.
+     */
+    @Override
+    public String getCacheKey() {
+        String authorization = mHeaders.get(REST_AUTHORIZATION_HEADER);
+        if (authorization == null) {
+            return super.getCacheKey();
+        }
+        return super.getCacheKey() + "#" + authorization.hashCode();
+    }
+
     @Override
     public BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error) {
         WPComGsonNetworkError returnedError = new WPComGsonNetworkError(error);
@@ -2,6 +2,7 @@ package org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel
 
 import android.os.Handler
 import com.android.volley.Response.Listener
+import org.wordpress.android.fluxc.network.AdaptiveRetryPolicy
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComErrorListener
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError
@@ -34,6 +35,7 @@ class JetpackTimeoutRequestHandler<T>(
     companion object {
         const val DEFAULT_MAX_RETRIES = 2
         const val ADDITIONAL_RETRY_DELAY_MS = 5000L
+        const val MAX_RETRY_DELAY_MS = 20000L
 
         @JvmStatic
         fun WPComGsonNetworkError.isJetpackTimeoutError(): Boolean {
@@ -59,10 +61,14 @@ class JetpackTimeoutRequestHandler<T>(
                 if (numRetries < maxRetries) {
                     AppLog.e(AppLog.T.API, "5-second timeout reached for endpoint $wpApiEndpoint, retrying...")
                     if (numRetries > 0) {
-                        // Delay retries after the first by a bit
+                        // Delay retries after the first by a bit, more for each retry
+                        val delay = AdaptiveRetryPolicy.getBackoffDelayMs(
+                                numRetries,
+                                ADDITIONAL_RETRY_DELAY_MS,
+                                MAX_RETRY_DELAY_MS
+                        )
                         with(Handler()) {
-                            postDelayed({ jpTimeoutListener(gsonRequest.apply { increaseManualRetryCount() }) },
-                                    ADDITIONAL_RETRY_DELAY_MS)
+                            postDelayed({ jpTimeoutListener(gsonRequest.apply { increaseManualRetryCount() }) }, delay)
                         }
                     } else {
                         jpTimeoutListener(gsonRequest.apply { increaseManualRetryCount() })
@@ -0,0 +1,253 @@
+package org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel
+
+import com.android.volley.NetworkResponse
+import com.android.volley.Request
+import com.android.volley.ServerError
+import com.google.gson.Gson
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.google.gson.JsonSyntaxException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.delay
+import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType
+import org.wordpress.android.fluxc.network.rest.GsonRequest
+import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComErrorListener
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse.JetpackError
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse.JetpackSuccess
+import java.net.URLEncoder
+import java.util.Collections
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val BATCH_PATH = "/batch/v1"
+private const val DEFAULT_BATCH_WINDOW_MS = 20L
+// The default `max_items` of the WP-API batch endpoint
+private const val MAX_BATCH_SIZE = 25
+private const val ERROR_NO_ROUTE = "rest_no_route"
+private const val ERROR_BATCH_NOT_ALLOWED = "rest_batch_not_allowed"
+
+/**
+ * Sends the write calls made to the same site within a short window as a single WP-API batch request
+ * (`/batch/v1`) through the Jetpack tunnel, so that a screen firing several of them pays for one round trip to the
+ * site instead of one each. Each caller still gets its own [JetpackResponse].
+ *
+ * Only POST, PUT and DELETE calls can be batched - the batch endpoint doesn't take GET requests.
+ *
+ * Calls are sent on their own instead:
+ * - when they're the only call of their window
+ * - when the site doesn't have the batch endpoint (WordPress < 5.6), found out from the first batch sent to it
+ * - when the route doesn't allow batching, found out from the first batched call to it
+ *
+ * Calls of a batch the site rejected as a whole aren't sent again on their own, so that they can't be made twice:
+ * they all get the batch error.
+ */
+@Singleton
+class JetpackTunnelBatcher @Inject constructor() {
+    private val gson: Gson = GsonRequest.getGson()
+    private val lock = Any()
+    private val pendingCalls = mutableMapOf<Long, MutableList<BatchCall<*>>>()
+    private val sitesWithoutBatching = Collections.synchronizedSet(mutableSetOf<Long>())
+    private val routesWithoutBatching = Collections.synchronizedSet(mutableSetOf<String>())
+
+    var batchWindowMs = DEFAULT_BATCH_WINDOW_MS
+
+    suspend fun <T : Any> request(
+        restClient: BaseWPComRestClient,
+        siteId: Long,
+        method: Method,
+        url: String,
+        body: Map<String, Any>,
+        params: Map<String, String>,
+        clazz: Class<T>
+    ): JetpackResponse<T> {
+        val call = BatchCall(restClient, siteId, method, url, body, params, clazz)
+        if (siteId in sitesWithoutBatching || call.routeKey in routesWithoutBatching) {
+            call.sendAlone()
+            return call.await()
+        }
+
+        val isFirstCall = synchronized(lock) {
+            val calls = pendingCalls[siteId]
+            if (calls == null) {
+                pendingCalls[siteId] = mutableListOf(call)
+                true
+            } else {
+                calls.add(call)
+                false
+            }
+        }
+        // The first call of a window waits for the others, then sends them all - even if it gets cancelled itself
+        if (isFirstCall) {
+            try {
+                delay(batchWindowMs)
+            } finally {
+                flush(siteId)
+            }
+        }
+        return call.await()
+    }
+
+    private fun flush(siteId: Long) {
+        val calls = synchronized(lock) { pendingCalls.remove(siteId) }
+                ?.filterNot { it.result.isCompleted }
+                ?: return
+        calls.chunked(MAX_BATCH_SIZE).forEach { chunk ->
+            if (chunk.size == 1) {
+                chunk[0].sendAlone()
+            } else {
+                sendBatch(siteId, chunk)
+            }
+        }
+    }
+
+    private fun sendBatch(siteId: Long, calls: List<BatchCall<*>>) {
+        val requests = calls.map { it.toBatchItem() }
+        val request = JetpackTunnelGsonRequest.buildPostRequest<BatchResponse>(
+                BATCH_PATH,
+                siteId,
+                mapOf("requests" to requests),
+                BatchResponse::class.java,
+                { response -> onBatchResponse(calls, response?.responses) },
+                WPComErrorListener { error -> onBatchError(siteId, calls, error) }
+        )
+        calls[0].restClient.add(request)
+    }
+
+    private fun onBatchResponse(calls: List<BatchCall<*>>, responses: List<BatchItemResponse>?) {
+        calls.forEachIndexed { index, call ->
+            val response = responses?.getOrNull(index)
+            when {
+                response == null -> call.fail(WPComGsonNetworkError(BaseNetworkError(GenericErrorType.PARSE_ERROR)))
+                response.status in 200..299 -> call.succeed(response.body)
+                else -> {
+                    val error = response.toError()
+                    if (error.apiError == ERROR_BATCH_NOT_ALLOWED) {
+                        // The call wasn't made: send it on its own, and any later call to the route too
+                        routesWithoutBatching.add(call.routeKey)
+                        call.sendAlone()
+                    } else {
+                        call.fail(error)
+                    }
+                }
+            }
+        }
+    }
+
+    private fun onBatchError(siteId: Long, calls: List<BatchCall<*>>, error: WPComGsonNetworkError) {
+        if (error.apiError == ERROR_NO_ROUTE || error.type == GenericErrorType.NOT_FOUND) {
+            // The site doesn't have the batch endpoint, so none of the calls were made
+            sitesWithoutBatching.add(siteId)
+            calls.forEach { it.sendAlone() }
+        } else {
+            calls.forEach { it.fail(error) }
+        }
+    }
+
+    private fun BatchItemResponse.toError(): WPComGsonNetworkError {
+        val json = body?.toString().orEmpty()
+        val type = when (status) {
+            404 -> GenericErrorType.NOT_FOUND
+            451 -> GenericErrorType.CENSORED
+            500 -> GenericErrorType.SERVER_ERROR
+            else -> GenericErrorType.UNKNOWN
+        }
+        val errorBody = body?.takeIf { it.isJsonObject }?.asJsonObject
+        val message = errorBody?.stringOrEmpty("message").orEmpty()
+        val volleyError = ServerError(NetworkResponse(status, json.toByteArray(), emptyMap(), false))
+        return WPComGsonNetworkError(BaseNetworkError(type, message, volleyError)).apply {
+            apiError = errorBody?.stringOrEmpty("code").orEmpty()
+        }
+    }
+
+    private fun JsonObject.stringOrEmpty(name: String): String {
+        val element = get(name)
+        return if (element != null && element.isJsonPrimitive) element.asString else ""
+    }
+
+    enum class Method(val value: String) {
+        POST("post"), PUT("put"), DELETE("delete")
+    }
+
+    private inner class BatchCall<T : Any>(
+        val restClient: BaseWPComRestClient,
+        val siteId: Long,
+        val method: Method,
+        val url: String,
+        val body: Map<String, Any>,
+        val params: Map<String, String>,
+        val clazz: Class<T>
+    ) {
+        val result = CompletableDeferred<JetpackResponse<T>>()
+        // Ids in the path are left out, so that a route found to not allow batching is known for every item
+        val routeKey = method.value + " " + url.replace(Regex("/\\d+"), "/#")
+        @Volatile private var request: Request<*>? = null
+
+        suspend fun await(): JetpackResponse<T> {
+            try {
+                return result.await()
+            } finally {
+                if (!result.isCompleted) {
+                    // The caller got cancelled: a call that's still pending is dropped from its batch
+                    result.cancel()
+                    request?.cancel()
+                }
+            }
+        }
+
+        fun toBatchItem(): Map<String, Any> {
+            val item = mutableMapOf<String, Any>("method" to method.value.toUpperCase(), "path" to pathWithQuery())
+            if (body.isNotEmpty()) {
+                item["body"] = body
+            }
+            return item
+        }
+
+        fun sendAlone() {
+            val listener: (T?) -> Unit = { result.complete(JetpackSuccess(it)) }
+            val errorListener = WPComErrorListener { result.complete(JetpackError(it)) }
+            val request = when (method) {
+                Method.POST -> JetpackTunnelGsonRequest.buildPostRequest(
+                        url, siteId, body, clazz, listener, errorListener
+                )
+                Method.PUT -> JetpackTunnelGsonRequest.buildPutRequest(
+                        url, siteId, body, clazz, listener, errorListener
+                )
+                Method.DELETE -> JetpackTunnelGsonRequest.buildDeleteRequest(
+                        url, siteId, params, clazz, listener, errorListener
+                )
+            }
+            this.request = request
+            restClient.add(request)
+        }
+
+        fun succeed(json: JsonElement?) {
+            try {
+                result.complete(JetpackSuccess(gson.fromJson(json, clazz)))
+            } catch (e: JsonSyntaxException) {
+                fail(WPComGsonNetworkError(BaseNetworkError(GenericErrorType.PARSE_ERROR)))
+            }
+        }
+
+        fun fail(error: WPComGsonNetworkError) {
+            result.complete(JetpackError(error))
+        }
+
+        private fun pathWithQuery(): String {
+            if (params.isEmpty()) {
+                return url
+            }
+            val query = params.entries.joinToString("&") {
+                URLEncoder.encode(it.key, "UTF-8") + "=" + URLEncoder.encode(it.value, "UTF-8")
+            }
+            return url + (if (url.contains('?')) "&" else "?") + query
+        }
+    }
+
+    private class BatchResponse(val responses: List<BatchItemResponse>?)
+
+    private class BatchItemResponse(val status: Int, val body: JsonElement?)
+}
@@ -7,6 +7,7 @@ import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComErrorListener
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelBatcher.Method
 import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse.JetpackError
 import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder.JetpackResponse.JetpackSuccess
 import javax.inject.Inject
@@ -15,7 +16,7 @@ import kotlin.coroutines.resume
 
 @Singleton
 class JetpackTunnelGsonRequestBuilder
-@Inject constructor() {
+@Inject constructor(private val batcher: JetpackTunnelBatcher) {
     /**
      * Creates a new GET request.
      * @param url the request URL
@@ -101,6 +102,7 @@ class JetpackTunnelGsonRequestBuilder
 
     /**
      * Creates a new JSON-formatted POST request, triggers it and awaits results synchronously.
+     * Write requests made to the same site at the same time are sent together, see [JetpackTunnelBatcher].
      * @param restClient rest client that handles the request
      * @param url the request URL
      * @param body the content body, which will be converted to JSON using [Gson][com.google.gson.Gson]
@@ -112,17 +114,7 @@ class JetpackTunnelGsonRequestBuilder
         url: String,
         body: Map<String, Any>,
         clazz: Class<T>
-    ) = suspendCancellableCoroutine<JetpackResponse<T>> { cont ->
-        val request = JetpackTunnelGsonRequest.buildPostRequest<T>(url, site.siteId, body, clazz, {
-            cont.resume(JetpackSuccess(it))
-        }, WPComErrorListener {
-            cont.resume(JetpackError(it))
-        })
-        cont.invokeOnCancellation {
-            request?.cancel()
-        }
-        restClient.add(request)
-    }
+    ) = batcher.request(restClient, site.siteId, Method.POST, url, body, mapOf(), clazz)
 
     /**
      * Extends JetpackTunnelGsonRequestBuilder to make available a new JSON-formatted PUT requests,
@@ -139,17 +131,7 @@ class JetpackTunnelGsonRequestBuilder
         url: String,
         body: Map<String, Any>,
         clazz: Class<T>
-    ) = suspendCancellableCoroutine<JetpackResponse<T>> { cont ->
-        val request = JetpackTunnelGsonRequest.buildPutRequest<T>(url, site.siteId, body, clazz, {
-            cont.resume(JetpackSuccess(it))
-        }, {
-            cont.resume(JetpackError(it))
-        })
-        cont.invokeOnCancellation {
-            request?.cancel()
-        }
-        restClient.add(request)
-    }
+    ) = batcher.request(restClient, site.siteId, Method.PUT, url, body, mapOf(), clazz)
 
     /**
      * Extends JetpackTunnelGsonRequestBuilder to make available a new JSON-formatted DELETE requests,
@@ -164,17 +146,7 @@ class JetpackTunnelGsonRequestBuilder
         site: SiteModel,
         url: String,
         clazz: Class<T>
-    ) = suspendCancellableCoroutine<JetpackResponse<T>> { cont ->
-        val request = JetpackTunnelGsonRequest.buildDeleteRequest<T>(url, site.siteId, mapOf(), clazz, {
-            cont.resume(JetpackSuccess(it))
-        }, {
-            cont.resume(JetpackError(it))
-        })
-        cont.invokeOnCancellation {
-            request?.cancel()
-        }
-        restClient.add(request)
-    }
+    ) = batcher.request(restClient, site.siteId, Method.DELETE, url, mapOf(), mapOf(), clazz)
 
     sealed class JetpackResponse<T> {
         data class JetpackSuccess<T>(val data: T?) : JetpackResponse<T>()
@@ -9,7 +9,9 @@ import com.android.volley.RequestQueue;
 import com.android.volley.Response.Listener;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
 
 import org.json.JSONArray;
@@ -21,9 +23,12 @@ import org.wordpress.android.fluxc.generated.UploadActionBuilder;
 import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
+import org.wordpress.android.fluxc.model.MediaUploadModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.StockMediaModel;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody.ProgressListener;
+import org.wordpress.android.fluxc.network.ChunkedUpload;
+import org.wordpress.android.fluxc.network.ResumableUploadConfig;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
@@ -31,6 +36,7 @@ import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComErro
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError;
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken;
 import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaWPComRestResponse.MultipleMediaResponse;
+import org.wordpress.android.fluxc.persistence.UploadSqlUtils;
 import org.wordpress.android.fluxc.store.MediaStore.FetchMediaListResponsePayload;
 import org.wordpress.android.fluxc.store.MediaStore.MediaError;
 import org.wordpress.android.fluxc.store.MediaStore.MediaErrorType;
@@ -45,12 +51,16 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.StringUtils;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 
@@ -80,23 +90,36 @@ import okhttp3.ResponseBody;
  */
 @Singleton
 public class MediaRestClient extends BaseWPComRestClient implements ProgressListener {
+    private static final long CHUNKED_UPLOAD_THREAD_KEEP_ALIVE_SECONDS = 60;
+
     private OkHttpClient mOkHttpClient;
     private MediaResponseUtils mMediaResponseUtils;
     // this will hold which media is being uploaded by which call, in order to be able
     // to monitor multiple uploads
     private ConcurrentHashMap<Integer, Call> mCurrentUploadCalls = new ConcurrentHashMap<>();
+    // Same for the uploads sent in chunks
+    private ConcurrentHashMap<Integer, ChunkedUpload> mCurrentChunkedUploads = new ConcurrentHashMap<>();
+    private ResumableUploadConfig mResumableUploadConfig;
+    private final ThreadPoolExecutor mChunkedUploadExecutor;
 
     public MediaRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue,
                            OkHttpClient okHttpClient, AccessToken accessToken, UserAgent userAgent,
-                           MediaResponseUtils mediaResponseUtils) {
+                           MediaResponseUtils mediaResponseUtils, ResumableUploadConfig resumableUploadConfig) {
         super(appContext, dispatcher, requestQueue, accessToken, userAgent);
         mOkHttpClient = okHttpClient;
         mMediaResponseUtils = mediaResponseUtils;
+        mResumableUploadConfig = resumableUploadConfig;
+        // The chunks are sent with blocking calls, which OkHttp doesn't limit: at most as many uploads are sent at
+        // once as OkHttp sends requests to a host, like the uploads sent in one request
+        int maxChunkedUploads = okHttpClient.dispatcher().getMaxRequestsPerHost();
+        mChunkedUploadExecutor = new ThreadPoolExecutor(maxChunkedUploads, maxChunkedUploads,
+                CHUNKED_UPLOAD_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        mChunkedUploadExecutor.allowCoreThreadTimeOut(true);
     }
 
     @Override
     public void onProgress(MediaModel media, float progress) {
-        if (mCurrentUploadCalls.containsKey(media.getId())) {
+        if (mCurrentUploadCalls.containsKey(media.getId()) || mCurrentChunkedUploads.containsKey(media.getId())) {
             notifyMediaProgress(media, Math.min(progress, 0.99f));
         }
     }
@@ -142,6 +165,8 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
 
     /**
      * Uploads a single media item to a WP.com site.
+     *
+     * Large files are sent in resumable chunks if {@link ResumableUploadConfig} has an endpoint for the site.
      */
     public void uploadMedia(final SiteModel site, final MediaModel media) {
         if (media == null || media.getId() == 0) {
@@ -202,6 +227,13 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
 
         String authHeader = String.format(WPComGsonRequest.REST_AUTHORIZATION_FORMAT, getAccessToken().get());
 
+        // Send large files in chunks when the site takes them, so that a dropped connection doesn't restart the upload
+        String creationUrl = mResumableUploadConfig.getUploadCreationUrl().invoke(site);
+        if (creationUrl != null && new File(media.getFilePath()).length() >= mResumableUploadConfig.getMinFileSize()) {
+            uploadMediaInChunks(site, media, creationUrl, authHeader);
+            return;
+        }
+
         Request request = new Request.Builder()
                 .addHeader(WPComGsonRequest.REST_AUTHORIZATION_HEADER, authHeader)
                 .addHeader("User-Agent", mUserAgent.toString())
@@ -239,27 +271,7 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
                     }
 
                     AppLog.d(T.MEDIA, "media upload successful: " + response);
-                    String jsonBody = responseBody.string();
-
-                    Gson gson = new Gson();
-                    JsonReader reader = new JsonReader(new StringReader(jsonBody));
-                    reader.setLenient(true);
-                    MultipleMediaResponse mediaResponse = gson.fromJson(reader, MultipleMediaResponse.class);
-
-                    List<MediaModel> responseMedia =
-                            mMediaResponseUtils.getMediaListFromRestResponse(mediaResponse, site.getId());
-                    if (responseMedia != null && !responseMedia.isEmpty()) {
-                        MediaModel uploadedMedia = responseMedia.get(0);
-                        uploadedMedia.setId(media.getId());
-                        uploadedMedia.setLocalPostId(media.getLocalPostId());
-                        uploadedMedia.setMarkedLocallyAsFeatured(media.getMarkedLocallyAsFeatured());
-
-                        notifyMediaUploaded(uploadedMedia, null);
-                    } else {
-                        MediaError error = new MediaError(MediaErrorType.PARSE_ERROR);
-                        error.logMessage = "Failed to parse response on uploadMedia";
-                        notifyMediaUploaded(media, error);
-                    }
+                    onMediaUploadResponse(site, media, responseBody.string());
                 } else {
                     AppLog.e(T.MEDIA, "error uploading media: " + response.message());
 
@@ -290,6 +302,115 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
         });
     }
 
+    /**
+     * Uploads a media item in chunks, resuming the previous upload of the item if the server still has it.
+     */
+    private void uploadMediaInChunks(final SiteModel site, final MediaModel media, final String creationUrl,
+                                     String authHeader) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(WPComGsonRequest.REST_AUTHORIZATION_HEADER, authHeader);
+        headers.put("User-Agent", mUserAgent.toString());
+
+        MediaUploadModel previousUpload = UploadSqlUtils.getMediaUploadModelForLocalId(media.getId());
+        String resumableUploadUrl = null;
+        // An upload created through another endpoint, since the settings changed, isn't resumed
+        if (previousUpload != null && creationUrl.equals(previousUpload.getResumableUploadCreationUrl())) {
+            resumableUploadUrl = previousUpload.getResumableUploadUrl();
+        }
+
+        final ChunkedUpload upload = new ChunkedUpload(mOkHttpClient, mResumableUploadConfig, creationUrl,
+                new File(media.getFilePath()), media.getFileName(), media.getMimeType(), headers,
+                new ChunkedUpload.Listener() {
+                    @Override
+                    public void onUploadedBytesChanged(@NonNull String uploadUrl, long uploadedBytes) {
+                        saveResumableUpload(media, creationUrl, uploadUrl, uploadedBytes);
+                    }
+
+                    @Override
+                    public void onProgress(float progress) {
+                        MediaRestClient.this.onProgress(media, progress);
+                    }
+                }, resumableUploadUrl);
+        mCurrentChunkedUploads.put(media.getId(), upload);
+
+        AppLog.d(T.MEDIA, "starting chunked upload for: " + media.getId() + ", resuming: " + resumableUploadUrl);
+        mChunkedUploadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ChunkedUpload.Result result = upload.run();
+                if (result instanceof ChunkedUpload.Result.Canceled
+                    || mCurrentChunkedUploads.get(media.getId()) != upload) {
+                    // The cancellation has already been handled
+                    return;
+                }
+                if (result instanceof ChunkedUpload.Result.Completed) {
+                    String responseBody = ((ChunkedUpload.Result.Completed) result).getResponseBody();
+                    // Whatever happens next, the next upload of this media starts over
+                    saveResumableUpload(media, null, null, 0);
+                    AppLog.d(T.MEDIA, "media chunked upload successful: " + media.getId());
+                    onMediaUploadResponse(site, media, responseBody);
+                } else {
+                    ChunkedUpload.Result.Failed failure = (ChunkedUpload.Result.Failed) result;
+                    String message = "media chunked upload failed: " + failure.getMessage();
+                    AppLog.w(T.MEDIA, message);
+                    MediaError error;
+                    if (failure.getException() != null) {
+                        // The upload can be resumed from what the server has
+                        error = MediaError.fromIOException(failure.getException());
+                    } else {
+                        // The server refused the upload, the next one starts over
+                        saveResumableUpload(media, null, null, 0);
+                        error = new MediaError(MediaErrorType.fromHttpStatusCode(failure.getStatusCode()));
+                        error.statusCode = failure.getStatusCode();
+                        error.message = failure.getMessage();
+                    }
+                    error.logMessage = message;
+                    notifyMediaUploaded(media, error);
+                }
+            }
+        });
+    }
+
+    private void saveResumableUpload(MediaModel media, String creationUrl, String uploadUrl, long uploadedBytes) {
+        MediaUploadModel mediaUploadModel = new MediaUploadModel(media.getId());
+        mediaUploadModel.setResumableUploadCreationUrl(creationUrl);
+        mediaUploadModel.setResumableUploadUrl(uploadUrl);
+        mediaUploadModel.setUploadedBytes(uploadedBytes);
+        UploadSqlUtils.updateMediaResumableUploadOnly(mediaUploadModel);
+    }
+
+    private void onMediaUploadResponse(SiteModel site, MediaModel media, String jsonBody) {
+        Gson gson = new Gson();
+        JsonReader reader = new JsonReader(new StringReader(jsonBody));
+        reader.setLenient(true);
+        MultipleMediaResponse mediaResponse;
+        try {
+            mediaResponse = gson.fromJson(reader, MultipleMediaResponse.class);
+        } catch (JsonSyntaxException | JsonIOException e) {
+            // The chunked uploads get here on their own thread, which an exception would kill
+            AppLog.e(T.MEDIA, "Failed to parse response on uploadMedia: " + e);
+            MediaError error = new MediaError(MediaErrorType.PARSE_ERROR);
+            error.logMessage = "Failed to parse response on uploadMedia: " + e.getMessage();
+            notifyMediaUploaded(media, error);
+            return;
+        }
+
+        List<MediaModel> responseMedia =
+                mMediaResponseUtils.getMediaListFromRestResponse(mediaResponse, site.getId());
+        if (responseMedia != null && !responseMedia.isEmpty()) {
+            MediaModel uploadedMedia = responseMedia.get(0);
+            uploadedMedia.setId(media.getId());
+            uploadedMedia.setLocalPostId(media.getLocalPostId());
+            uploadedMedia.setMarkedLocallyAsFeatured(media.getMarkedLocallyAsFeatured());
+
+            notifyMediaUploaded(uploadedMedia, null);
+        } else {
+            MediaError error = new MediaError(MediaErrorType.PARSE_ERROR);
+            error.logMessage = "Failed to parse response on uploadMedia";
+            notifyMediaUploaded(media, error);
+        }
+    }
+
     /**
      * Gets a list of media items given the offset on a WP.com site.
      *
@@ -435,6 +556,18 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
             return;
         }
 
+        // cancel in-progress chunked upload if necessary
+        ChunkedUpload chunkedUpload = mCurrentChunkedUploads.get(media.getId());
+        if (chunkedUpload != null) {
+            AppLog.d(T.MEDIA, "Canceled in-progress chunked upload: " + media.getFileName());
+            removeCallFromCurrentUploadsMap(media.getId());
+            chunkedUpload.cancel();
+
+            // report the upload was successfully cancelled
+            notifyMediaUploadCanceled(media);
+            return;
+        }
+
         // cancel in-progress upload if necessary
         Call correspondingCall = mCurrentUploadCalls.get(media.getId());
         if (correspondingCall != null && correspondingCall.isExecuted() && !correspondingCall.isCanceled()) {
@@ -449,8 +582,9 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
 
     private void removeCallFromCurrentUploadsMap(int id) {
         mCurrentUploadCalls.remove(id);
+        mCurrentChunkedUploads.remove(id);
         AppLog.d(T.MEDIA, "mediaRestClient: removed id: " + id + " from current uploads, remaining: "
-                + mCurrentUploadCalls.size());
+                + (mCurrentUploadCalls.size() + mCurrentChunkedUploads.size()));
     }
 
     public void uploadStockMedia(@NonNull final SiteModel site,
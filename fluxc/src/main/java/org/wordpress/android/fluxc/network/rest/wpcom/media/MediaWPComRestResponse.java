@@ -1,5 +1,6 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.media;
 
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter;
 import org.wordpress.android.fluxc.network.Response;
 
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.List;
  *
  * https://developer.wordpress.com/docs/api/1.1/get/sites/%24site/media/%24media_ID/
  */
+@GenerateTypeAdapter
 public class MediaWPComRestResponse implements Response {
     public static final String DELETED_STATUS = "deleted";
 
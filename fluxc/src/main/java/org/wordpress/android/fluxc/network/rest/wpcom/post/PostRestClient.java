@@ -416,7 +416,7 @@ public class PostRestClient extends BaseWPComRestClient {
         post.setSlug(from.getSlug());
         post.setStatus(from.getStatus());
         post.setPassword(from.getPassword());
-        post.setIsPage(from.getType().equals("page"));
+        post.setIsPage("page".equals(from.getType()));
 
         if (from.getAuthor() != null) {
             post.setAuthorId(from.getAuthor().getId());
@@ -12,12 +12,14 @@ import com.google.gson.stream.JsonReader
 import com.google.gson.stream.JsonToken.BEGIN_ARRAY
 import com.google.gson.stream.JsonToken.BEGIN_OBJECT
 import com.google.gson.stream.JsonWriter
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostWPComRestResponse.PostMeta.PostData.PostAutoSave
 import org.wordpress.android.fluxc.network.rest.wpcom.taxonomy.TermWPComRestResponse
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.AppLog.T.POSTS
 import java.io.IOException
 
+@GenerateTypeAdapter
 data class PostWPComRestResponse(
     @SerializedName("ID") val remotePostId: Long = 0,
     @SerializedName("site_ID") val remoteSiteId: Long = 0,
@@ -34,7 +36,7 @@ data class PostWPComRestResponse(
     @SerializedName("sticky") val sticky: Boolean = false,
     @SerializedName("password") val password: String? = null,
     @SerializedName("parent") val parent: PostParent? = null,
-    @SerializedName("type") val type: String,
+    @SerializedName("type") val type: String? = null,
     @SerializedName("featured_image") val featuredImage: String? = null,
     @SerializedName("post_thumbnail") val postThumbnail: PostThumbnail? = null,
     @SerializedName("format") val format: String? = null,
@@ -0,0 +1,91 @@
+package org.wordpress.android.fluxc.network.xmlrpc;
+
+import android.util.Base64;
+
+import org.xmlpull.v1.XmlSerializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Base64 encodes a stream in fixed size chunks, so the memory used doesn't grow with the size of the encoded data.
+ *
+ * The output is identical to {@code Base64.encode(chunk, Base64.DEFAULT)} applied to each chunk in turn, which lets
+ * {@link #encodedLength(long)} compute the exact output size without reading the data.
+ */
+public class Base64StreamEncoder {
+    // A multiple of 3 (so chunks don't need padding) and of the 57 bytes making up a 76 characters base64 line
+    private static final int CHUNK_SIZE = 57 * 3 * 20;
+    private static final int GROUPS_PER_LINE = 19;
+
+    private final byte[] mChunk = new byte[CHUNK_SIZE];
+    private char[] mChars;
+
+    /**
+     * @return the number of characters (or bytes, base64 being ASCII) the given number of bytes are encoded into
+     */
+    public static long encodedLength(long byteCount) {
+        long fullChunks = byteCount / CHUNK_SIZE;
+        return fullChunks * encodedChunkLength(CHUNK_SIZE) + encodedChunkLength((int) (byteCount % CHUNK_SIZE));
+    }
+
+    private static long encodedChunkLength(int byteCount) {
+        long groups = (byteCount + 2) / 3;
+        // Each group is 4 characters, and every line (including the last one) ends with a line feed
+        long lines = (groups + GROUPS_PER_LINE - 1) / GROUPS_PER_LINE;
+        return groups * 4 + lines;
+    }
+
+    /**
+     * Encodes the input into the output stream. Neither stream is closed.
+     *
+     * @return the number of bytes read from the input
+     */
+    public long encode(InputStream input, OutputStream output) throws IOException {
+        long total = 0;
+        int length;
+        while ((length = readChunk(input)) > 0) {
+            output.write(Base64.encode(mChunk, 0, length, Base64.DEFAULT));
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Encodes the input as the text of the serializer's current tag. The input stream isn't closed.
+     *
+     * @return the number of bytes read from the input
+     */
+    public long encode(InputStream input, XmlSerializer serializer) throws IOException {
+        long total = 0;
+        int length;
+        while ((length = readChunk(input)) > 0) {
+            byte[] encoded = Base64.encode(mChunk, 0, length, Base64.DEFAULT);
+            if (mChars == null) {
+                mChars = new char[(int) encodedChunkLength(CHUNK_SIZE)];
+            }
+            for (int i = 0; i < encoded.length; i++) {
+                mChars[i] = (char) encoded[i];
+            }
+            serializer.text(mChars, 0, encoded.length);
+            total += length;
+        }
+        return total;
+    }
+
+    /**
+     * Fills the chunk buffer, so that only the last chunk of the input can be shorter than {@link #CHUNK_SIZE}.
+     */
+    private int readChunk(InputStream input) throws IOException {
+        int length = 0;
+        while (length < CHUNK_SIZE) {
+            int read = input.read(mChunk, length, CHUNK_SIZE - length);
+            if (read == -1) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,76 @@
+package org.wordpress.android.fluxc.network.xmlrpc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.Response.Listener;
+
+import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
+import org.wordpress.android.fluxc.network.CoalescingRequestQueue.CoalescingKey;
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCSerializer.ArrayElementHandler;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link XMLRPCRequest} for methods returning an array (e.g. wp.getPosts), converting each element of the array
+ * as soon as it's parsed.
+ *
+ * Only one raw element (a struct of {@code HashMap}s and {@code Object[]}s) is held in memory at a time, instead of the
+ * whole response tree, and the conversion runs on the network thread rather than in the listener.
+ */
+public class StreamingXMLRPCRequest<T> extends XMLRPCRequest {
+    public interface ElementParser<T> {
+        /**
+         * @param element a deserialized array element, usually a {@code Map}
+         * @return the converted element, or null if it couldn't be converted
+         */
+        @Nullable T parse(@NonNull Object element);
+    }
+
+    private final ElementParser<T> mElementParser;
+    private final Listener<List<T>> mListener;
+
+    /**
+     * @param listener receives the converted elements in response order. Elements the parser returned null for are
+     *                 kept as null, so the size of the list always matches the size of the response array.
+     */
+    public StreamingXMLRPCRequest(String url, XMLRPC method, List<Object> params, ElementParser<T> elementParser,
+                                  Listener<List<T>> listener, BaseErrorListener errorListener) {
+        super(url, method, params, null, errorListener);
+        mElementParser = elementParser;
+        mListener = listener;
+    }
+
+    @Override
+    protected Object parseResponse(InputStream is, String charset)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        final List<T> elements = new ArrayList<>();
+        XMLSerializerUtils.deserializeArray(is, charset, new ArrayElementHandler() {
+            @Override
+            public void onArrayElement(Object element) {
+                elements.add(element == null ? null : mElementParser.parse(element));
+            }
+        });
+        return elements;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void deliverResponse(Object response) {
+        mListener.onResponse((List<T>) response);
+    }
+
+    @Nullable
+    @Override
+    public CoalescingKey getCoalescingKey() {
+        if (super.getCoalescingKey() == null) {
+            return null;
+        }
+        // Requests converting their elements differently don't share a response
+        return buildCoalescingKey(mElementParser.getClass());
+    }
+}
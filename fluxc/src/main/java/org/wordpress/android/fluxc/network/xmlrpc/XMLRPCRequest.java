@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.network.xmlrpc;
 import android.util.Xml;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.android.volley.AuthFailureError;
 import com.android.volley.NetworkResponse;
@@ -14,6 +15,7 @@ import com.android.volley.toolbox.HttpHeaderParser;
 
 import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
 import org.wordpress.android.fluxc.network.BaseRequest;
+import org.wordpress.android.fluxc.network.CoalescingRequestQueue.CoalescingKey;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticationErrorType;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
@@ -27,7 +29,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
-import java.nio.charset.Charset;
 import java.util.List;
 
 
@@ -35,6 +36,7 @@ import java.util.List;
 public class XMLRPCRequest extends BaseRequest<Object> {
     private static final String PROTOCOL_CHARSET = "utf-8";
     private static final String PROTOCOL_CONTENT_TYPE = String.format("text/xml; charset=%s", PROTOCOL_CHARSET);
+    private static final String READ_ONLY_METHOD_PREFIX = "GET_";
 
     private final Listener<? super Object[]> mListener;
     private final XMLRPC mMethod;
@@ -58,9 +60,9 @@ public class XMLRPCRequest extends BaseRequest<Object> {
     @Override
     protected Response<Object> parseNetworkResponse(NetworkResponse response) {
         try {
-            String data = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
-            InputStream is = new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
-            Object obj = XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(is));
+            // Decode straight from the response bytes, without an intermediate String copy of the whole response
+            InputStream is = XMLSerializerUtils.scrubXmlResponse(new ByteArrayInputStream(response.data));
+            Object obj = parseResponse(is, HttpHeaderParser.parseCharset(response.headers));
             return Response.success(obj, createCacheEntry(response));
         } catch (XMLRPCFault e) {
             return Response.error(new VolleyError(e));
@@ -75,9 +77,21 @@ public class XMLRPCRequest extends BaseRequest<Object> {
         } catch (XMLRPCException e) {
             AppLog.e(T.API, "Can't deserialize XMLRPC response", e);
             return Response.error(new ParseError(e));
+        } catch (RuntimeException e) {
+            // The response isn't what the conversion of its elements expects, e.g. a value of another type
+            AppLog.e(T.API, "Can't convert XMLRPC response", e);
+            return Response.error(new ParseError(e));
         }
     }
 
+    /**
+     * Parses the (scrubbed) response stream into the object delivered to the listener.
+     */
+    protected Object parseResponse(InputStream is, String charset)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        return XMLSerializerUtils.deserialize(is, charset);
+    }
+
     @Override
     public String getBodyContentType() {
         return PROTOCOL_CONTENT_TYPE;
@@ -92,10 +106,26 @@ public class XMLRPCRequest extends BaseRequest<Object> {
             AppLog.e(T.API, "Can't encode XMLRPC request", e);
         } catch (IOException e) {
             AppLog.e(T.API, "Can't serialize XMLRPC request", e);
+        } catch (OutOfMemoryError e) {
+            // The whole envelope is built in memory, large base64 parameters should be streamed instead (see
+            // XmlrpcUploadRequestBody)
+            AppLog.e(T.API, "Can't serialize XMLRPC request, out of memory", e);
         }
         return null;
     }
 
+    /**
+     * All XML-RPC calls are POST requests, but read-only methods can still be coalesced.
+     */
+    @Nullable
+    @Override
+    public CoalescingKey getCoalescingKey() {
+        if (!mMethod.name().startsWith(READ_ONLY_METHOD_PREFIX)) {
+            return null;
+        }
+        return buildCoalescingKey(null);
+    }
+
     @Override
     public BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error) {
         AuthenticateErrorPayload payload = new AuthenticateErrorPayload(AuthenticationErrorType.GENERIC_ERROR);
@@ -12,6 +12,7 @@ import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlSerializer;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.StringReader;
@@ -96,27 +97,14 @@ public class XMLRPCSerializer {
             String sDate = simpleDateFormat.format(date);
             serializer.startTag(null, TYPE_DATE_TIME_ISO8601).text(sDate).endTag(null, TYPE_DATE_TIME_ISO8601);
         } else if (object instanceof byte[]) {
-            String value;
+            // Encoded in chunks rather than into one string, but the request body still holds the whole envelope
+            serializer.startTag(null, TYPE_BASE64);
             try {
-                value = Base64.encodeToString((byte[]) object, Base64.DEFAULT);
-                serializer.startTag(null, TYPE_BASE64).text(value).endTag(null, TYPE_BASE64);
+                new Base64StreamEncoder().encode(new ByteArrayInputStream((byte[]) object), serializer);
             } catch (OutOfMemoryError e) {
                 throw new IOException("Out of memory");
             }
-//        } else if (object instanceof MediaFile) {
-//            // convert media file binary to base64
-//            serializer.startTag(null, "base64");
-//            MediaFile mediaFile = (MediaFile) object;
-//            InputStream inStream = new DataInputStream(new FileInputStream(mediaFile.getFilePath()));
-//            byte[] buffer = new byte[3600];//you must use a 24bit multiple
-//            int length = -1;
-//            String chunk = null;
-//            while ((length = inStream.read(buffer)) > 0) {
-//                chunk = Base64.encodeToString(buffer, 0, length, Base64.DEFAULT);
-//                serializer.text(chunk);
-//            }
-//            inStream.close();
-//            serializer.endTag(null, "base64");
+            serializer.endTag(null, TYPE_BASE64);
         } else if (object instanceof List<?>) {
             serializer.startTag(null, TYPE_ARRAY).startTag(null, TAG_DATA);
             List<Object> list = (List<Object>) object;
@@ -243,18 +231,13 @@ public class XMLRPCSerializer {
             }
             obj = Base64.decode(sb.toString(), Base64.DEFAULT);
         } else if (typeNodeName.equals(TYPE_ARRAY)) {
-            parser.nextTag(); // TAG_DATA (<data>)
-            parser.require(XmlPullParser.START_TAG, null, TAG_DATA);
-
-            parser.nextTag();
-            List<Object> list = new ArrayList<Object>();
-            while (parser.getName().equals(TAG_VALUE)) {
-                list.add(deserialize(parser));
-                parser.nextTag();
-            }
-            parser.require(XmlPullParser.END_TAG, null, TAG_DATA);
-            parser.nextTag(); // TAG_ARRAY (</array>)
-            parser.require(XmlPullParser.END_TAG, null, TYPE_ARRAY);
+            final List<Object> list = new ArrayList<Object>();
+            readArrayElements(parser, new ArrayElementHandler() {
+                @Override
+                public void onArrayElement(Object element) {
+                    list.add(element);
+                }
+            });
             obj = list.toArray();
         } else if (typeNodeName.equals(TYPE_STRUCT)) {
             parser.nextTag();
@@ -288,4 +271,45 @@ public class XMLRPCSerializer {
         parser.require(XmlPullParser.END_TAG, null, TAG_VALUE);
         return obj;
     }
+
+    /**
+     * Deserializes an array value element by element: each element is handed to the handler as soon as it's parsed,
+     * so the array itself is never held in memory.
+     *
+     * @return the number of elements in the array
+     */
+    public static int deserializeArray(XmlPullParser parser, ArrayElementHandler handler)
+            throws XmlPullParserException, IOException, NumberFormatException {
+        parser.require(XmlPullParser.START_TAG, null, TAG_VALUE);
+
+        parser.nextTag();
+        parser.require(XmlPullParser.START_TAG, null, TYPE_ARRAY);
+        int count = readArrayElements(parser, handler);
+
+        parser.nextTag(); // TAG_VALUE (</value>)
+        parser.require(XmlPullParser.END_TAG, null, TAG_VALUE);
+        return count;
+    }
+
+    private static int readArrayElements(XmlPullParser parser, ArrayElementHandler handler)
+            throws XmlPullParserException, IOException {
+        parser.nextTag(); // TAG_DATA (<data>)
+        parser.require(XmlPullParser.START_TAG, null, TAG_DATA);
+
+        parser.nextTag();
+        int count = 0;
+        while (parser.getName().equals(TAG_VALUE)) {
+            handler.onArrayElement(deserialize(parser));
+            count++;
+            parser.nextTag();
+        }
+        parser.require(XmlPullParser.END_TAG, null, TAG_DATA);
+        parser.nextTag(); // TAG_ARRAY (</array>)
+        parser.require(XmlPullParser.END_TAG, null, TYPE_ARRAY);
+        return count;
+    }
+
+    public interface ArrayElementHandler {
+        void onArrayElement(Object element);
+    }
 }
@@ -1,19 +1,16 @@
 package org.wordpress.android.fluxc.network.xmlrpc;
 
 import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCSerializer.ArrayElementHandler;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlPullParserFactory;
 import org.xmlpull.v1.XmlSerializer;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.SequenceInputStream;
+import java.io.PushbackInputStream;
 import java.io.StringWriter;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 
 public class XMLSerializerUtils {
@@ -27,6 +24,8 @@ public class XMLSerializerUtils {
     private static final String TAG_FAULT_STRING = "faultString";
 
     private static final int MAX_SCRUB_CHARACTERS = 5000;
+    private static final byte[] XML_DECLARATION_START = {'<', '?', 'x', 'm', 'l'};
+    private static final String PROTOCOL_CHARSET = "UTF-8";
 
     public static StringWriter serialize(XmlSerializer serializer, XMLRPC method, Object[] params)
             throws IOException {
@@ -55,9 +54,38 @@ public class XMLSerializerUtils {
 
     public static Object deserialize(InputStream is)
             throws IOException, XmlPullParserException, XMLRPCException {
+        return deserialize(is, PROTOCOL_CHARSET);
+    }
+
+    /**
+     * Parses the response straight from the stream, decoding it with the given charset.
+     */
+    public static Object deserialize(InputStream is, String charset)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        // no parser.require() here since its called in XMLRPCSerializer.deserialize() below
+        // deserialize result
+        return XMLRPCSerializer.deserialize(startResponse(is, charset));
+    }
+
+    /**
+     * Parses a response whose value is an array, handing each element to the handler as soon as it's parsed instead
+     * of building the whole array first.
+     *
+     * @return the number of elements in the response array
+     */
+    public static int deserializeArray(InputStream is, String charset, ArrayElementHandler handler)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        return XMLRPCSerializer.deserializeArray(startResponse(is, charset), handler);
+    }
+
+    /**
+     * Moves the parser to the response's value, throwing the fault if the response is one.
+     */
+    private static XmlPullParser startResponse(InputStream is, String charset)
+            throws IOException, XmlPullParserException, XMLRPCException {
         // setup pull parser
         XmlPullParser pullParser = XmlPullParserFactory.newInstance().newPullParser();
-        pullParser.setInput(is, "UTF-8");
+        pullParser.setInput(is, charset);
 
         // lets start pulling...
         pullParser.nextTag();
@@ -70,9 +98,7 @@ public class XMLSerializerUtils {
             pullParser.nextTag(); // TAG_PARAM (<param>)
             pullParser.require(XmlPullParser.START_TAG, null, TAG_PARAM);
             pullParser.nextTag(); // TAG_VALUE (<value>)
-            // no parser.require() here since its called in XMLRPCSerializer.deserialize() below
-            // deserialize result
-            return XMLRPCSerializer.deserialize(pullParser);
+            return pullParser;
         } else if (tag.equals(TAG_FAULT)) {
             // fault response
             pullParser.nextTag(); // TAG_VALUE (<value>)
@@ -89,34 +115,48 @@ public class XMLSerializerUtils {
 
     public static InputStream scrubXmlResponse(InputStream is) throws IOException {
         // Many WordPress configs can output junk before the xml response (php warnings for example), this cleans it.
-        int bomCheck = -1;
+        // The stream is scanned in place: bytes read past the start of the xml are pushed back.
+        PushbackInputStream pushbackStream = new PushbackInputStream(is, XML_DECLARATION_START.length);
+        byte[] snippet = new byte[XML_DECLARATION_START.length - 1];
+        int character;
         int stopper = 0;
-        while ((bomCheck = is.read()) != -1 && stopper <= MAX_SCRUB_CHARACTERS) {
+        while ((character = pushbackStream.read()) != -1 && stopper <= MAX_SCRUB_CHARACTERS) {
             stopper++;
-            String snippet = "";
-            // 60 == '<' character
-            if (bomCheck == 60) {
-                for (int i = 0; i < 4; i++) {
-                    byte[] chunk = new byte[1];
-                    int numRead = is.read(chunk);
-                    if (numRead > 0) {
-                        snippet += new String(chunk, "UTF-8");
-                    }
-                }
-                if (snippet.equals("?xml")) {
+            if (character == XML_DECLARATION_START[0]) {
+                int numRead = readFully(pushbackStream, snippet);
+                if (numRead == snippet.length && startsXmlDeclaration(snippet)) {
                     // it's all good, add xml tag back and start parsing
-                    String start = "<" + snippet;
-                    List<InputStream> streams = Arrays.asList(new ByteArrayInputStream(start.getBytes()), is);
-                    is = new SequenceInputStream(Collections.enumeration(streams));
+                    pushbackStream.unread(snippet, 0, numRead);
+                    pushbackStream.unread(character);
                     break;
-                } else {
+                } else if (numRead > 0) {
                     // keep searching...
-                    List<InputStream> streams = Arrays.asList(new ByteArrayInputStream(snippet.getBytes()), is);
-                    is = new SequenceInputStream(Collections.enumeration(streams));
+                    pushbackStream.unread(snippet, 0, numRead);
                 }
             }
         }
 
-        return is;
+        return pushbackStream;
+    }
+
+    private static int readFully(InputStream is, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int numRead = is.read(buffer, total, buffer.length - total);
+            if (numRead == -1) {
+                break;
+            }
+            total += numRead;
+        }
+        return total;
+    }
+
+    private static boolean startsXmlDeclaration(byte[] snippet) {
+        for (int i = 0; i < snippet.length; i++) {
+            if (snippet[i] != XML_DECLARATION_START[i + 1]) {
+                return false;
+            }
+        }
+        return true;
     }
 }
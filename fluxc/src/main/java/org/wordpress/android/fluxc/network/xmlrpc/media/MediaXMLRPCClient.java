@@ -42,13 +42,11 @@ import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.MapUtils;
 import org.xmlpull.v1.XmlPullParserException;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -623,11 +621,14 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
                 AppLog.e(T.MEDIA, "Failed to parse XMLRPC.wpUploadFile response - body was empty: " + response);
                 return null;
             }
-            String data = new String(responseBody.bytes(), "UTF-8");
-            InputStream is = new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
-            Object responseObject = XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(is));
-            if (responseObject instanceof Map) {
-                return (Map) responseObject;
+            try {
+                InputStream is = XMLSerializerUtils.scrubXmlResponse(responseBody.byteStream());
+                Object responseObject = XMLSerializerUtils.deserialize(is);
+                if (responseObject instanceof Map) {
+                    return (Map) responseObject;
+                }
+            } finally {
+                responseBody.close();
             }
         } catch (IOException | XmlPullParserException e) {
             AppLog.e(T.MEDIA, "Failed to parse XMLRPC.wpUploadFile response: " + response);
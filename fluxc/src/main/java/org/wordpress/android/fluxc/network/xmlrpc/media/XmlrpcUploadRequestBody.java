@@ -1,16 +1,17 @@
 package org.wordpress.android.fluxc.network.xmlrpc.media;
 
-import android.util.Base64;
-
 import androidx.annotation.NonNull;
 
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody;
+import org.wordpress.android.fluxc.network.xmlrpc.Base64StreamEncoder;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.Locale;
 
 import okhttp3.MediaType;
@@ -38,34 +39,32 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
     private static final String APPEND_XML =
             "</base64></value></member></struct></value></param></params></methodCall>";
 
-    private final String mPrependString;
-    private long mMediaSize;
-    private long mContentSize = -1;
-    private long mMediaBytesWritten = 0;
+    private static final byte[] APPEND_XML_BYTES = APPEND_XML.getBytes(Charset.forName("UTF-8"));
+
+    private final byte[] mPrependBytes;
+    private final long mContentSize;
 
     public XmlrpcUploadRequestBody(MediaModel media, ProgressListener listener, SiteModel site) {
         super(media, listener);
 
         // TODO: we should use the XMLRPCSerializer instead of doing this
-        mPrependString = String.format(Locale.ENGLISH, PREPEND_XML_FORMAT,
+        String prependString = String.format(Locale.ENGLISH, PREPEND_XML_FORMAT,
                 site.getSelfHostedSiteId(),
                 StringEscapeUtils.escapeXml(site.getUsername()),
                 StringEscapeUtils.escapeXml(site.getPassword()),
                 StringEscapeUtils.escapeXml(media.getFileName()),
                 StringEscapeUtils.escapeXml(media.getMimeType()),
                 media.getPostId());
+        mPrependBytes = prependString.getBytes(Charset.forName("UTF-8"));
 
-        try {
-            mMediaSize = contentLength();
-        } catch (IOException e) {
-            // Default to 1 (to avoid divide by zero errors)
-            mMediaSize = 1;
-        }
+        // The encoded size is computed from the file size, rather than by encoding the whole file an extra time
+        long mediaSize = new File(media.getFilePath()).length();
+        mContentSize = mPrependBytes.length + Base64StreamEncoder.encodedLength(mediaSize) + APPEND_XML_BYTES.length;
     }
 
     @Override
     protected float getProgress(long bytesWritten) {
-        return (float) mMediaBytesWritten / mMediaSize;
+        return (float) bytesWritten / mContentSize;
     }
 
     @Override
@@ -74,54 +73,28 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
     }
 
     @Override
-    public long contentLength() throws IOException {
-        if (mContentSize == -1) {
-            mContentSize = getMediaBase64EncodedSize() + mPrependString.length() + APPEND_XML.length();
-        }
+    public long contentLength() {
         return mContentSize;
     }
 
-    private long getMediaBase64EncodedSize() throws IOException {
-        FileInputStream fis = new FileInputStream(getMedia().getFilePath());
-        int totalSize = 0;
-        try {
-            byte[] buffer = new byte[3600];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                totalSize += Base64.encodeToString(buffer, 0, length, Base64.DEFAULT).length();
-            }
-        } finally {
-            fis.close();
-        }
-        return totalSize;
-    }
-
     @Override
     public void writeTo(@NonNull BufferedSink sink) throws IOException {
         CountingSink countingSink = new CountingSink(sink);
         BufferedSink bufferedSink = Okio.buffer(countingSink);
 
         // write XML up to point of file
-        bufferedSink.writeUtf8(mPrependString);
-
-        // write file to xml
+        bufferedSink.write(mPrependBytes);
 
+        // write file to xml, one chunk at a time
         FileInputStream fis = new FileInputStream(getMedia().getFilePath());
         try {
-            byte[] buffer = new byte[3600]; // you must use a 24bit multiple
-            int length;
-            String chunk;
-            while ((length = fis.read(buffer)) > 0) {
-                chunk = Base64.encodeToString(buffer, 0, length, Base64.DEFAULT);
-                mMediaBytesWritten += length;
-                bufferedSink.writeUtf8(chunk);
-            }
+            new Base64StreamEncoder().encode(fis, bufferedSink.outputStream());
         } finally {
             fis.close();
         }
 
         // write remainder or XML
-        bufferedSink.writeUtf8(APPEND_XML);
+        bufferedSink.write(APPEND_XML_BYTES);
 
         bufferedSink.flush();
     }
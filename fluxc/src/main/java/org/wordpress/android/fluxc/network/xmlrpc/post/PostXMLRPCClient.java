@@ -8,7 +8,6 @@ import androidx.annotation.Nullable;
 import com.android.volley.RequestQueue;
 import com.android.volley.Response.Listener;
 
-import org.jetbrains.annotations.NotNull;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -29,6 +28,8 @@ import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
 import org.wordpress.android.fluxc.network.HTTPAuthManager;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.xmlrpc.BaseXMLRPCClient;
+import org.wordpress.android.fluxc.network.xmlrpc.StreamingXMLRPCRequest;
+import org.wordpress.android.fluxc.network.xmlrpc.StreamingXMLRPCRequest.ElementParser;
 import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCRequest;
 import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCUtils;
 import org.wordpress.android.fluxc.store.PostStore;
@@ -59,6 +60,19 @@ import javax.inject.Singleton;
 
 @Singleton
 public class PostXMLRPCClient extends BaseXMLRPCClient {
+    private static final ElementParser<PostListItem> POST_LIST_ITEM_PARSER = new ElementParser<PostListItem>() {
+        @Override
+        public PostListItem parse(@NonNull Object element) {
+            Map<?, ?> postMap = (Map<?, ?>) element;
+            String postID = MapUtils.getMapStr(postMap, "post_id");
+            String postStatus = MapUtils.getMapStr(postMap, "post_status");
+            Date lastModifiedGmt = MapUtils.getMapDate(postMap, "post_modified_gmt");
+            String lastModifiedAsIso8601 = DateTimeUtils.iso8601UTCFromDate(lastModifiedGmt);
+
+            return new PostListItem(Long.parseLong(postID), lastModifiedAsIso8601, postStatus, null);
+        }
+    };
+
     public PostXMLRPCClient(Dispatcher dispatcher, RequestQueue requestQueue, UserAgent userAgent,
                             HTTPAuthManager httpAuthManager) {
         super(dispatcher, requestQueue, userAgent, httpAuthManager);
@@ -156,13 +170,15 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
                         listDescriptor.getSearchQuery());
         final boolean loadedMore = offset > 0;
 
-        final XMLRPCRequest request = new XMLRPCRequest(site.getXmlRpcUrl(), XMLRPC.GET_POSTS, params,
-                new Listener<Object[]>() {
+        final StreamingXMLRPCRequest<PostListItem> request = new StreamingXMLRPCRequest<>(site.getXmlRpcUrl(),
+                XMLRPC.GET_POSTS, params, POST_LIST_ITEM_PARSER,
+                new Listener<List<PostListItem>>() {
                     @Override
-                    public void onResponse(Object[] response) {
+                    public void onResponse(List<PostListItem> response) {
                         boolean canLoadMore =
-                                response != null && response.length == pageSize;
-                        List<PostListItem> postListItems = postListItemsFromPostsResponse(response);
+                                response != null && response.size() == pageSize;
+                        List<PostListItem> postListItems = response == null
+                                ? Collections.<PostListItem>emptyList() : response;
                         PostError postError = response == null ? new PostError(PostErrorType.INVALID_RESPONSE) : null;
                         FetchPostListResponsePayload responsePayload =
                                 new FetchPostListResponsePayload(listDescriptor, postListItems, loadedMore,
@@ -190,16 +206,24 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
                 createFetchPostListParameters(site.getSelfHostedSiteId(), site.getUsername(), site.getPassword(),
                         getPages, offset, PostStore.NUM_POSTS_PER_FETCH, statusList, null, null, null, null);
 
-        final XMLRPCRequest request = new XMLRPCRequest(site.getXmlRpcUrl(), XMLRPC.GET_POSTS, params,
-                new Listener<Object[]>() {
+        final StreamingXMLRPCRequest<PostModel> request = new StreamingXMLRPCRequest<>(site.getXmlRpcUrl(),
+                XMLRPC.GET_POSTS, params,
+                new ElementParser<PostModel>() {
+                    @Nullable
+                    @Override
+                    public PostModel parse(@NonNull Object element) {
+                        return postResponseObjectToPostModel((Map) element, site);
+                    }
+                },
+                new Listener<List<PostModel>>() {
                     @Override
-                    public void onResponse(Object[] response) {
+                    public void onResponse(List<PostModel> response) {
                         boolean canLoadMore = false;
-                        if (response != null && response.length == PostStore.NUM_POSTS_PER_FETCH) {
+                        if (response != null && response.size() == PostStore.NUM_POSTS_PER_FETCH) {
                             canLoadMore = true;
                         }
 
-                        PostsModel posts = postsResponseToPostsModel(response, site);
+                        PostsModel posts = postsResponseToPostsModel(response);
 
                         FetchPostsResponsePayload payload = new FetchPostsResponsePayload(posts, site, getPages,
                                 offset > 0, canLoadMore);
@@ -316,34 +340,15 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
         add(request);
     }
 
-    private @NotNull List<PostListItem> postListItemsFromPostsResponse(@Nullable Object[] response) {
-        if (response == null) {
-            return Collections.emptyList();
-        }
-        List<PostListItem> postListItems = new ArrayList<>();
-        for (Object responseObject : response) {
-            Map<?, ?> postMap = (Map<?, ?>) responseObject;
-            String postID = MapUtils.getMapStr(postMap, "post_id");
-            String postStatus = MapUtils.getMapStr(postMap, "post_status");
-            Date lastModifiedGmt = MapUtils.getMapDate(postMap, "post_modified_gmt");
-            String lastModifiedAsIso8601 = DateTimeUtils.iso8601UTCFromDate(lastModifiedGmt);
-
-            postListItems.add(new PostListItem(Long.parseLong(postID), lastModifiedAsIso8601, postStatus, null));
-        }
-        return postListItems;
-    }
-
-    private PostsModel postsResponseToPostsModel(@Nullable Object[] response, SiteModel site) {
+    private PostsModel postsResponseToPostsModel(@Nullable List<PostModel> response) {
         List<PostModel> postArray = new ArrayList<>();
         if (response == null) {
             return null;
         }
-        if (response.length == 0) {
+        if (response.isEmpty()) {
             return new PostsModel(postArray);
         }
-        for (Object responseObject : response) {
-            Map<?, ?> postMap = (Map<?, ?>) responseObject;
-            PostModel post = postResponseObjectToPostModel(postMap, site);
+        for (PostModel post : response) {
             if (post != null) {
                 postArray.add(post);
             }
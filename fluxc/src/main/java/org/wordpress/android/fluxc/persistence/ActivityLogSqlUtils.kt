@@ -1,5 +1,8 @@
 package org.wordpress.android.fluxc.persistence
 
+import android.content.ContentValues
+import android.database.Cursor
+import android.util.LruCache
 import com.wellsql.generated.ActivityLogTable
 import com.wellsql.generated.BackupDownloadStatusTable
 import com.wellsql.generated.RewindStatusCredentialsTable
@@ -15,35 +18,117 @@ import org.wordpress.android.fluxc.model.activity.ActivityLogModel
 import org.wordpress.android.fluxc.model.activity.BackupDownloadStatusModel
 import org.wordpress.android.fluxc.model.activity.RewindStatusModel
 import org.wordpress.android.fluxc.model.activity.RewindStatusModel.Credentials
+import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
 import java.util.Date
 import javax.inject.Inject
 import javax.inject.Singleton
 
+private const val DECODED_CONTENT_CACHE_SIZE = 200
+private const val ACTIVITY_LOG_TABLE = "ActivityLog"
+// Stays below SQLite's limit of 999 query parameters
+private const val SELECT_CHUNK_SIZE = 500
+
 @Singleton
 class ActivityLogSqlUtils
 @Inject constructor(private val formattableContentMapper: FormattableContentMapper) {
+    /**
+     * The content of the activities read lately, by row, so reading an activity again doesn't decode its content
+     * again. An entry is only reused if the JSON it was decoded from is still the one stored in the row.
+     */
+    private val decodedContent = LruCache<Int, DecodedContent>(DECODED_CONTENT_CACHE_SIZE)
+
+    /**
+     * Inserts the new activities of the site, and updates the ones that changed, in a single transaction. Activities
+     * stored as they are are left untouched, and not counted in the returned rows.
+     */
     fun insertOrUpdateActivities(siteModel: SiteModel, activityModels: List<ActivityLogModel>): Int {
-        val activityIds = activityModels.map { it.activityID }
-        val activitiesToUpdate = WellSql.select(ActivityLogBuilder::class.java).where()
-                .isIn(ActivityLogTable.ACTIVITY_ID, activityIds)
-                .endWhere()
-                .asModel
-                .map { it.activityID }
-        val (existing, new) = activityModels
-                .map { it.toBuilder(siteModel) }
-                .partition { activitiesToUpdate.contains(it.activityID) }
-        val insertQuery = WellSql.insert(new)
-        val updateQueries = existing.map {
-            WellSql.update(ActivityLogBuilder::class.java)
-                    .where()
-                    .equals(ActivityLogTable.ACTIVITY_ID, it.activityID)
-                    .equals(ActivityLogTable.LOCAL_SITE_ID, it.localSiteId)
-                    .endWhere()
-                    .put(it, UpdateAllExceptId<ActivityLogBuilder>(ActivityLogBuilder::class.java))
+        // An activity listed twice is stored as last listed
+        val activities = activityModels.associateBy { it.activityID }
+        val storedActivities = HashMap<String, StoredActivity>(activities.size)
+        activities.keys.chunked(SELECT_CHUNK_SIZE).forEach { activityIds ->
+            selectStoredActivities(siteModel, activityIds, storedActivities)
+        }
+        val updateMapper = UpdateAllExceptId<ActivityLogBuilder>(ActivityLogBuilder::class.java)
+        val newActivities = mutableListOf<ActivityLogBuilder>()
+        val changedActivities = mutableListOf<ActivityLogBuilder>()
+        activities.values.forEach { activity ->
+            val builder = activity.toBuilder(siteModel)
+            val stored = storedActivities[builder.activityID]
+            if (stored == null) {
+                newActivities.add(builder)
+            } else {
+                builder.id = stored.id
+                if (!stored.hasValues(updateMapper.toCv(builder))) {
+                    changedActivities.add(builder)
+                }
+            }
+        }
+        if (newActivities.isEmpty() && changedActivities.isEmpty()) {
+            return 0
+        }
+
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            if (newActivities.isNotEmpty()) {
+                WellSql.insert(newActivities).execute()
+            }
+            changedActivities.forEach {
+                WellSql.update(ActivityLogBuilder::class.java).whereId(it.id).put(it, updateMapper).execute()
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+        return newActivities.size + changedActivities.size
+    }
+
+    /**
+     * Reads the stored columns as they are, rather than through the model mapper, so that they compare with what the
+     * mapper writes for a model.
+     */
+    private fun selectStoredActivities(
+        site: SiteModel,
+        activityIds: List<String>,
+        storedActivities: MutableMap<String, StoredActivity>
+    ) {
+        val selection = "${ActivityLogTable.LOCAL_SITE_ID} = ? AND ${ActivityLogTable.ACTIVITY_ID} IN (" +
+                activityIds.joinToString(",") { "?" } + ")"
+        val selectionArgs = arrayOf(site.id.toString()) + activityIds
+        WellSql.giveMeReadableDb().query(ACTIVITY_LOG_TABLE, null, selection, selectionArgs, null, null, null)
+                .use { cursor ->
+                    val idColumn = cursor.getColumnIndexOrThrow(ActivityLogTable.ID)
+                    val activityIdColumn = cursor.getColumnIndexOrThrow(ActivityLogTable.ACTIVITY_ID)
+                    while (cursor.moveToNext()) {
+                        val values = HashMap<String, Any?>(cursor.columnCount)
+                        for (column in 0 until cursor.columnCount) {
+                            values[cursor.getColumnName(column)] = when (cursor.getType(column)) {
+                                Cursor.FIELD_TYPE_NULL -> null
+                                Cursor.FIELD_TYPE_INTEGER -> cursor.getLong(column)
+                                Cursor.FIELD_TYPE_FLOAT -> cursor.getDouble(column)
+                                Cursor.FIELD_TYPE_BLOB -> cursor.getBlob(column)
+                                else -> cursor.getString(column)
+                            }
+                        }
+                        storedActivities[cursor.getString(activityIdColumn)] =
+                                StoredActivity(cursor.getInt(idColumn), values)
+                    }
+                }
+    }
+
+    private class StoredActivity(val id: Int, private val values: Map<String, Any?>) {
+        fun hasValues(contentValues: ContentValues): Boolean {
+            return contentValues.keySet().all { column ->
+                val value = when (val newValue = contentValues.get(column)) {
+                    is Boolean -> if (newValue) 1L else 0L
+                    is Int, is Short, is Byte -> (newValue as Number).toLong()
+                    is Float -> newValue.toDouble()
+                    else -> newValue
+                }
+                values[column] == value
+            }
         }
-        insertQuery.execute()
-        return updateQueries.map { it.execute() }.sum() + new.count()
     }
 
     fun getActivitiesForSite(site: SiteModel, @SelectQuery.Order order: Int): List<ActivityLogModel> {
@@ -53,7 +138,7 @@ class ActivityLogSqlUtils
                 .endWhere()
                 .orderBy(ActivityLogTable.PUBLISHED, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.toModel() }
     }
 
     fun getRewindableActivitiesForSite(site: SiteModel, @SelectQuery.Order order: Int): List<ActivityLogModel> {
@@ -64,7 +149,7 @@ class ActivityLogSqlUtils
                 .endWhere()
                 .orderBy(ActivityLogTable.PUBLISHED, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.toModel() }
     }
 
     fun getActivityByRewindId(rewindId: String): ActivityLogModel? {
@@ -74,7 +159,7 @@ class ActivityLogSqlUtils
                 .endWhere()
                 .asModel
                 .firstOrNull()
-                ?.build(formattableContentMapper)
+                ?.toModel()
     }
 
     fun getActivityByActivityId(activityId: String): ActivityLogModel? {
@@ -84,7 +169,7 @@ class ActivityLogSqlUtils
                 .endWhere()
                 .asModel
                 .firstOrNull()
-                ?.build(formattableContentMapper)
+                ?.toModel()
     }
 
     fun deleteActivityLog(site: SiteModel): Int {
@@ -178,6 +263,15 @@ class ActivityLogSqlUtils
                 .firstOrNull()
     }
 
+    private fun ActivityLogBuilder.toModel(): ActivityLogModel {
+        val content = decodedContent.get(id)?.takeIf { it.json == formattableContent }
+                ?: DecodedContent(
+                        formattableContent,
+                        formattableContentMapper.mapToFormattableContent(formattableContent)
+                ).also { decodedContent.put(id, it) }
+        return build(content.content)
+    }
+
     private fun ActivityLogModel.toBuilder(site: SiteModel): ActivityLogBuilder {
         return ActivityLogBuilder(
                 localSiteId = site.id,
@@ -278,7 +372,7 @@ class ActivityLogSqlUtils
 
         override fun getId() = mId
 
-        fun build(formattableContentMapper: FormattableContentMapper): ActivityLogModel {
+        fun build(content: FormattableContent?): ActivityLogModel {
             val actor = if (actorType != null ||
                     displayName != null ||
                     wpcomUserID != null ||
@@ -288,7 +382,7 @@ class ActivityLogSqlUtils
             } else null
             return ActivityLogModel(activityID,
                     summary,
-                    formattableContentMapper.mapToFormattableContent(formattableContent),
+                    content,
                     name,
                     type,
                     gridicon,
@@ -409,4 +503,6 @@ class ActivityLogSqlUtils
             )
         }
     }
+
+    private class DecodedContent(val json: String, val content: FormattableContent?)
 }
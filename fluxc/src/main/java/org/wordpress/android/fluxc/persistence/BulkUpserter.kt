@@ -0,0 +1,175 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.content.ContentValues
+import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteDoneException
+import android.database.sqlite.SQLiteStatement
+import com.yarolegovich.wellsql.WellSql
+import com.yarolegovich.wellsql.core.Identifiable
+
+private const val ID_COLUMN = "_id"
+
+/**
+ * Inserts or updates a batch of models of a WellSql table in a single transaction.
+ *
+ * A model matches an existing row on its local id, or on its key columns (usually the local site id and a remote id),
+ * preferring the local id match - the same rule as the per-model insertOrUpdate helpers. Matched rows are updated
+ * with all the model's columns except the id. Every model gets the local id of its row set, whether it was inserted
+ * or updated.
+ *
+ * The select, insert and update statements are compiled once for the whole batch, and the batch is committed at once
+ * instead of in one implicit transaction per statement.
+ *
+ * The table name defaults to the model's simple class name, which is WellSql's default - models declaring a custom
+ * table name need [inTable].
+ */
+class BulkUpserter<T : Identifiable>(
+    private val modelClass: Class<T>,
+    private val keyColumns: Array<String>,
+    private val keyExtractor: KeyExtractor<T>
+) {
+    fun interface KeyExtractor<T> {
+        /**
+         * @return the values of the key columns for the model, in the same order, or null if the model should only be
+         * matched on its local id (e.g. local drafts without a remote id yet)
+         */
+        fun keyOf(item: T): Array<Any?>?
+    }
+
+    private var tableName = modelClass.simpleName
+    private var updateCondition: String? = null
+
+    /**
+     * Sets the table name, for models declaring a custom one with @Table(name = ...).
+     */
+    fun inTable(tableName: String): BulkUpserter<T> {
+        this.tableName = tableName
+        return this
+    }
+
+    /**
+     * Only updates the matched rows meeting the given condition (e.g. "IS_LOCALLY_CHANGED = 0"). Matched rows that
+     * don't are left untouched.
+     */
+    fun onlyUpdateWhere(condition: String): BulkUpserter<T> {
+        updateCondition = condition
+        return this
+    }
+
+    /**
+     * @return the number of rows inserted or updated
+     */
+    fun upsert(items: List<T>): Int {
+        if (items.isEmpty()) {
+            return 0
+        }
+        val mapper = WellSql.mapperFor(modelClass)
+        val db = WellSql.giveMeWritableDb()
+        val statements = Statements(db)
+        db.beginTransaction()
+        try {
+            var rowsAffected = 0
+            items.forEach { item ->
+                val values = mapper.toCv(item)
+                values.remove(ID_COLUMN)
+                val existingId = statements.findExistingId(item)
+                if (existingId == null) {
+                    item.id = statements.insert(values).toInt()
+                    rowsAffected++
+                } else {
+                    rowsAffected += statements.update(existingId, values)
+                    item.id = existingId.toInt()
+                }
+            }
+            db.setTransactionSuccessful()
+            return rowsAffected
+        } finally {
+            db.endTransaction()
+            statements.close()
+        }
+    }
+
+    private inner class Statements(private val db: SQLiteDatabase) {
+        private var selectById: SQLiteStatement? = null
+        private var selectByIdOrKey: SQLiteStatement? = null
+        private var columns: List<String>? = null
+        private var insert: SQLiteStatement? = null
+        private var update: SQLiteStatement? = null
+
+        fun findExistingId(item: T): Long? {
+            val key = keyExtractor.keyOf(item)
+            val statement = if (key == null) {
+                selectById ?: db.compileStatement("SELECT $ID_COLUMN FROM $tableName WHERE $ID_COLUMN = ?").also {
+                    selectById = it
+                }
+            } else {
+                selectByIdOrKey ?: db.compileStatement(
+                        "SELECT $ID_COLUMN FROM $tableName WHERE $ID_COLUMN = ? OR (" +
+                                keyColumns.joinToString(" AND ") { "$it = ?" } +
+                                ") ORDER BY $ID_COLUMN = ? DESC LIMIT 1"
+                ).also { selectByIdOrKey = it }
+            }
+            statement.clearBindings()
+            statement.bindLong(1, item.id.toLong())
+            if (key != null) {
+                key.forEachIndexed { index, value -> statement.bind(index + 2, value) }
+                statement.bindLong(key.size + 2, item.id.toLong())
+            }
+            return try {
+                statement.simpleQueryForLong()
+            } catch (e: SQLiteDoneException) {
+                null
+            }
+        }
+
+        fun insert(values: ContentValues): Long {
+            val statement = insert ?: db.compileStatement(
+                    "INSERT INTO $tableName (" + columnsOf(values).joinToString(",") + ") VALUES (" +
+                            columnsOf(values).joinToString(",") { "?" } + ")"
+            ).also { insert = it }
+            bindValues(statement, values)
+            return statement.executeInsert()
+        }
+
+        fun update(id: Long, values: ContentValues): Int {
+            val statement = update ?: db.compileStatement(
+                    "UPDATE $tableName SET " + columnsOf(values).joinToString(",") { "$it = ?" } +
+                            " WHERE $ID_COLUMN = ?" + (updateCondition?.let { " AND ($it)" } ?: "")
+            ).also { update = it }
+            bindValues(statement, values)
+            statement.bindLong(columnsOf(values).size + 1, id)
+            return statement.executeUpdateDelete()
+        }
+
+        fun close() {
+            listOfNotNull(selectById, selectByIdOrKey, insert, update).forEach { it.close() }
+        }
+
+        /**
+         * The column list is taken from the first model: the WellSql mapper always outputs every column.
+         */
+        private fun columnsOf(values: ContentValues): List<String> {
+            return columns ?: values.keySet().sorted().also { columns = it }
+        }
+
+        private fun bindValues(statement: SQLiteStatement, values: ContentValues) {
+            statement.clearBindings()
+            columnsOf(values).forEachIndexed { index, column -> statement.bind(index + 1, values.get(column)) }
+        }
+    }
+
+    private fun SQLiteStatement.bind(index: Int, value: Any?) {
+        when (value) {
+            null -> bindNull(index)
+            is Boolean -> bindLong(index, if (value) 1 else 0)
+            is Long -> bindLong(index, value)
+            is Int -> bindLong(index, value.toLong())
+            is Short -> bindLong(index, value.toLong())
+            is Byte -> bindLong(index, value.toLong())
+            is Double -> bindDouble(index, value)
+            is Float -> bindDouble(index, value.toDouble())
+            is ByteArray -> bindBlob(index, value)
+            else -> bindString(index, value.toString())
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.wordpress.android.fluxc.persistence;
 
+import android.text.TextUtils;
+
 import com.wellsql.generated.CommentModelTable;
 import com.yarolegovich.wellsql.ConditionClauseBuilder;
 import com.yarolegovich.wellsql.SelectQuery;
@@ -9,6 +11,7 @@ import com.yarolegovich.wellsql.WellSql;
 import org.wordpress.android.fluxc.model.CommentModel;
 import org.wordpress.android.fluxc.model.CommentStatus;
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.persistence.BulkUpserter.KeyExtractor;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -49,6 +52,20 @@ public class CommentSqlUtils {
         }
     }
 
+    /**
+     * Bulk version of {@link #insertOrUpdateComment(CommentModel)}, running in a single transaction.
+     */
+    public static int insertOrUpdateComments(List<CommentModel> comments) {
+        return new BulkUpserter<>(CommentModel.class,
+                new String[]{CommentModelTable.REMOTE_COMMENT_ID, CommentModelTable.LOCAL_SITE_ID},
+                new KeyExtractor<CommentModel>() {
+                    @Override
+                    public Object[] keyOf(CommentModel comment) {
+                        return new Object[]{comment.getRemoteCommentId(), comment.getLocalSiteId()};
+                    }
+                }).upsert(comments);
+    }
+
     public static CommentModel insertCommentForResult(CommentModel comment) {
         WellSql.insert(comment).asSingleTransaction(true).execute();
 
@@ -127,6 +144,38 @@ public class CommentSqlUtils {
                 .getAsModel();
     }
 
+    /**
+     * Searches the authors and contents of the comments of a site, the best matches first and the latest first among
+     * equal matches.
+     */
+    public static List<CommentModel> searchComments(SiteModel site, String searchTerm) {
+        if (site == null || TextUtils.isEmpty(searchTerm)) {
+            return Collections.emptyList();
+        }
+
+        List<CommentModel> comments = WellSql.select(CommentModel.class)
+                .where().beginGroup()
+                .equals(CommentModelTable.LOCAL_SITE_ID, site.getId())
+                .beginGroup()
+                    .contains(CommentModelTable.AUTHOR_NAME, searchTerm)
+                    .or().contains(CommentModelTable.CONTENT, searchTerm)
+                .endGroup()
+                .endGroup().endWhere()
+                .orderBy(CommentModelTable.DATE_PUBLISHED, SelectQuery.ORDER_DESCENDING)
+                .getAsModel();
+        String matchQuery = SearchIndexSqlUtils.toMatchQuery(searchTerm);
+        if (matchQuery == null || !SearchIndexSqlUtils.isAvailable(SearchIndexSqlUtils.COMMENTS)) {
+            return comments;
+        }
+        List<Integer> ids = SearchIndexSqlUtils.searchRanked(SearchIndexSqlUtils.COMMENTS, matchQuery,
+                CommentModelTable.LOCAL_SITE_ID + " = ?", new String[]{String.valueOf(site.getId())},
+                CommentModelTable.DATE_PUBLISHED + " DESC");
+        // The index only matches the start of the words, the comments with the term within a word come after the
+        // others
+        return SearchIndexSqlUtils.mergeMatches(
+                SearchIndexSqlUtils.getModelsInOrder(CommentModel.class, CommentModelTable.ID, ids), comments);
+    }
+
     public static int getCommentsCountForSite(SiteModel site, CommentStatus... statuses) {
         if (site == null) {
             return 0;
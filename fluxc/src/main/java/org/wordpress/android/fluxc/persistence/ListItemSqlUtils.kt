@@ -8,6 +8,8 @@ import org.wordpress.android.fluxc.model.list.ListItemModel
 import javax.inject.Inject
 import javax.inject.Singleton
 
+private const val LIST_ITEM_TABLE = "ListItemModel"
+
 @Singleton
 class ListItemSqlUtils @Inject constructor() {
     /**
@@ -26,6 +28,24 @@ class ListItemSqlUtils @Inject constructor() {
      */
     fun getListItems(listId: Int): List<ListItemModel> = getListItemsQuery(listId).asModel
 
+    /**
+     * This function returns the remote item ids of the [ListItemModel] records for the given [listId], in the same
+     * order as [getListItems]. Only this column is read, so it's cheaper than [getListItems] for long lists.
+     */
+    fun getListItemRemoteIds(listId: Int): List<Long> {
+        val remoteItemIds = mutableListOf<Long>()
+        WellSql.giveMeReadableDb().rawQuery(
+                "SELECT ${ListItemModelTable.REMOTE_ITEM_ID} FROM $LIST_ITEM_TABLE " +
+                        "WHERE ${ListItemModelTable.LIST_ID} = ? ORDER BY ${ListItemModelTable.ID} ASC",
+                arrayOf(listId.toString())
+        ).use { cursor ->
+            while (cursor.moveToNext()) {
+                remoteItemIds.add(cursor.getLong(0))
+            }
+        }
+        return remoteItemIds
+    }
+
     /**
      * This function returns the number of records a list has for the given [listId].
      */
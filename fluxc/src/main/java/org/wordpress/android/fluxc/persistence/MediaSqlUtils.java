@@ -2,6 +2,8 @@ package org.wordpress.android.fluxc.persistence;
 
 import android.text.TextUtils;
 
+import androidx.annotation.Nullable;
+
 import com.wellsql.generated.MediaModelTable;
 import com.yarolegovich.wellsql.ConditionClauseBuilder;
 import com.yarolegovich.wellsql.DeleteQuery;
@@ -12,6 +14,7 @@ import com.yarolegovich.wellsql.WellSql;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.persistence.BulkUpserter.KeyExtractor;
 import org.wordpress.android.fluxc.utils.MimeType.Type;
 
 import java.util.ArrayList;
@@ -115,23 +118,61 @@ public class MediaSqlUtils {
     }
 
     public static List<MediaModel> searchSiteMedia(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaQuery(siteModel, searchTerm).getAsModel();
+        String matchQuery = SearchIndexSqlUtils.toMatchQuery(searchTerm);
+        if (matchQuery == null || !SearchIndexSqlUtils.isAvailable(SearchIndexSqlUtils.MEDIA)) {
+            return searchSiteMediaQuery(siteModel, searchTerm).getAsModel();
+        }
+        // The index only matches the start of the words, and the MIME types aren't in it: the media only found by the
+        // LIKE search come after the others
+        return SearchIndexSqlUtils.mergeMatches(searchSiteMediaIndex(siteModel, matchQuery, null),
+                searchSiteMediaQuery(siteModel, searchTerm).getAsModel());
     }
 
     public static List<MediaModel> searchSiteImages(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.IMAGE.getValue()).getAsModel();
+        return searchSiteMediaByMimeType(siteModel, searchTerm, Type.IMAGE.getValue());
     }
 
     public static List<MediaModel> searchSiteAudio(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.AUDIO.getValue()).getAsModel();
+        return searchSiteMediaByMimeType(siteModel, searchTerm, Type.AUDIO.getValue());
     }
 
     public static List<MediaModel> searchSiteVideos(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.VIDEO.getValue()).getAsModel();
+        return searchSiteMediaByMimeType(siteModel, searchTerm, Type.VIDEO.getValue());
     }
 
     public static List<MediaModel> searchSiteDocuments(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.APPLICATION.getValue()).getAsModel();
+        return searchSiteMediaByMimeType(siteModel, searchTerm, Type.APPLICATION.getValue());
+    }
+
+    private static List<MediaModel> searchSiteMediaByMimeType(SiteModel siteModel, String searchTerm,
+                                                              String mimeTypePrefix) {
+        String matchQuery = SearchIndexSqlUtils.toMatchQuery(searchTerm);
+        if (matchQuery == null || !SearchIndexSqlUtils.isAvailable(SearchIndexSqlUtils.MEDIA)) {
+            return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, mimeTypePrefix).getAsModel();
+        }
+        // The index only matches the start of the words, the media with the term within a word come after the others
+        return SearchIndexSqlUtils.mergeMatches(searchSiteMediaIndex(siteModel, matchQuery, mimeTypePrefix),
+                searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, mimeTypePrefix).getAsModel());
+    }
+
+    /**
+     * Searches the titles, captions and descriptions of the media through the search index, the best matches first
+     * and the latest first among equal matches.
+     */
+    private static List<MediaModel> searchSiteMediaIndex(SiteModel siteModel, String matchQuery,
+                                                         @Nullable String mimeTypePrefix) {
+        String selection = MediaModelTable.LOCAL_SITE_ID + " = ?";
+        String[] selectionArgs;
+        if (mimeTypePrefix == null) {
+            selectionArgs = new String[]{String.valueOf(siteModel.getId())};
+        } else {
+            // Same as the contains() of the LIKE search
+            selection += " AND " + MediaModelTable.MIME_TYPE + " LIKE ?";
+            selectionArgs = new String[]{String.valueOf(siteModel.getId()), "%" + mimeTypePrefix + "%"};
+        }
+        List<Integer> ids = SearchIndexSqlUtils.searchRanked(SearchIndexSqlUtils.MEDIA, matchQuery, selection,
+                selectionArgs, MediaModelTable.UPLOAD_DATE + " DESC");
+        return SearchIndexSqlUtils.getModelsInOrder(MediaModel.class, MediaModelTable.ID, ids);
     }
 
     private static SelectQuery<MediaModel> searchSiteMediaQuery(SiteModel siteModel,
@@ -300,6 +341,24 @@ public class MediaSqlUtils {
         }
     }
 
+    /**
+     * Bulk version of {@link #insertOrUpdateMedia(MediaModel)}, running in a single transaction. Duplicate entries
+     * are not cleaned up, which can only happen for media items that already have a local ID - this is meant for
+     * fetched media.
+     */
+    public static int insertOrUpdateMediaList(List<MediaModel> mediaList) {
+        return new BulkUpserter<>(MediaModel.class,
+                new String[]{MediaModelTable.LOCAL_SITE_ID, MediaModelTable.MEDIA_ID},
+                new KeyExtractor<MediaModel>() {
+                    @Override
+                    public Object[] keyOf(MediaModel media) {
+                        // Local media files (remote media ID 0) are only matched by local ID
+                        return media.getMediaId() == 0 ? null
+                                : new Object[]{media.getLocalSiteId(), media.getMediaId()};
+                    }
+                }).upsert(mediaList);
+    }
+
     public static MediaModel insertMediaForResult(MediaModel media) {
         WellSql.insert(media).asSingleTransaction(true).execute();
         return media;
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence
 
 import android.annotation.SuppressLint
+import android.util.LruCache
 import com.wellsql.generated.NotificationModelTable
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.SelectQuery.ORDER_DESCENDING
@@ -13,14 +14,25 @@ import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.notification.NoteIdSet
 import org.wordpress.android.fluxc.model.notification.NotificationModel
 import org.wordpress.android.fluxc.model.notification.NotificationModel.Kind
-import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
 import org.wordpress.android.fluxc.tools.FormattableMeta
+import org.wordpress.android.fluxc.tools.LazyFormattableList
 import javax.inject.Inject
 import javax.inject.Singleton
 
+private const val NOTIFICATION_TABLE = "NotificationModel"
+// Stays below SQLite's limit of 999 variables per statement
+private const val DELETE_CHUNK_SIZE = 500
+private const val DECODED_CONTENT_CACHE_SIZE = 200
+
 @Singleton
 class NotificationSqlUtils @Inject constructor(private val formattableContentMapper: FormattableContentMapper) {
+    /**
+     * The content of the notifications read lately, so reading a notification again doesn't decode its content
+     * again. An entry is only reused if the JSON it was decoded from is still the one stored in the row.
+     */
+    private val decodedContent = LruCache<DecodedContentKey, DecodedContent>(DECODED_CONTENT_CACHE_SIZE)
+
     fun insertOrUpdateNotification(notification: NotificationModel): Int {
         val notificationResult = WellSql.select(NotificationModelBuilder::class.java)
                 .where().beginGroup()
@@ -47,6 +59,36 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         }
     }
 
+    /**
+     * Inserts or updates the notifications in a single transaction, matching existing ones on their local id or on
+     * their remote site and note ids.
+     */
+    fun insertOrUpdateNotifications(notifications: List<NotificationModel>): Int {
+        val upserter = BulkUpserter(
+                NotificationModelBuilder::class.java,
+                arrayOf(NotificationModelTable.REMOTE_SITE_ID, NotificationModelTable.REMOTE_NOTE_ID)
+        ) { arrayOf<Any?>(it.remoteSiteId, it.remoteNoteId) }
+        return upserter.inTable(NOTIFICATION_TABLE).upsert(notifications.map { it.toBuilder() })
+    }
+
+    /**
+     * @return The note hash of every stored notification, by remote note id. Only these two columns are read, so
+     * unlike [getNotifications] this doesn't decode the formattable content of the notifications.
+     */
+    fun getNoteHashesByRemoteId(): Map<Long, Long> {
+        val noteHashes = mutableMapOf<Long, Long>()
+        WellSql.giveMeReadableDb().rawQuery(
+                "SELECT ${NotificationModelTable.REMOTE_NOTE_ID}, ${NotificationModelTable.NOTE_HASH} " +
+                        "FROM $NOTIFICATION_TABLE",
+                null
+        ).use { cursor ->
+            while (cursor.moveToNext()) {
+                noteHashes[cursor.getLong(0)] = cursor.getLong(1)
+            }
+        }
+        return noteHashes
+    }
+
     /**
      * @return The total records in the notification table.
      */
@@ -82,7 +124,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         return conditionClauseBuilder.endWhere()
                 .orderBy(NotificationModelTable.TIMESTAMP, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.toModel() }
     }
 
     @SuppressLint("WrongConstant")
@@ -117,7 +159,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         return conditionClauseBuilder.endWhere()
                 .orderBy(NotificationModelTable.TIMESTAMP, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.toModel() }
     }
 
     fun hasUnreadNotificationsForSite(
@@ -163,7 +205,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .endGroup()
                 .endGroup().endWhere()
                 .asModel
-                .firstOrNull()?.build(formattableContentMapper)
+                .firstOrNull()?.toModel()
     }
 
     fun getNotificationByRemoteId(remoteNoteId: Long): NotificationModel? {
@@ -172,10 +214,13 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .equals(NotificationModelTable.REMOTE_NOTE_ID, remoteNoteId)
                 .endWhere()
                 .asModel
-                .firstOrNull()?.build(formattableContentMapper)
+                .firstOrNull()?.toModel()
     }
 
-    fun deleteAllNotifications() = WellSql.delete(NotificationModelBuilder::class.java).execute()
+    fun deleteAllNotifications(): Int {
+        decodedContent.evictAll()
+        return WellSql.delete(NotificationModelBuilder::class.java).execute()
+    }
 
     fun deleteNotificationByRemoteId(remoteNoteId: Long): Int {
         return WellSql.delete(NotificationModelBuilder::class.java)
@@ -184,6 +229,34 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .endGroup().endWhere().execute()
     }
 
+    fun deleteNotificationsByRemoteIds(remoteNoteIds: List<Long>): Int {
+        return remoteNoteIds.chunked(DELETE_CHUNK_SIZE).sumBy { chunk ->
+            WellSql.delete(NotificationModelBuilder::class.java)
+                    .where()
+                    .isIn(NotificationModelTable.REMOTE_NOTE_ID, chunk)
+                    .endWhere()
+                    .execute()
+        }
+    }
+
+    private fun NotificationModelBuilder.toModel(): NotificationModel {
+        val key = DecodedContentKey(id, noteHash)
+        val content = decodedContent.get(key)?.takeIf {
+            it.body?.json == formattableBody && it.subject?.json == formattableSubject &&
+                    it.metaJson == formattableMeta
+        } ?: DecodedContent(
+                // The body and subject are decoded on first access: list screens usually only need the title,
+                // timestamp and read state. The meta is small, and decoded right away.
+                formattableBody?.let { LazyFormattableList(it, formattableContentMapper::mapToFormattableContentList) },
+                formattableSubject?.let {
+                    LazyFormattableList(it, formattableContentMapper::mapToFormattableContentList)
+                },
+                formattableMeta,
+                formattableMeta?.let { formattableContentMapper.mapToFormattableMeta(it) }
+        ).also { decodedContent.put(key, it) }
+        return build(content)
+    }
+
     private fun NotificationModel.toBuilder(): NotificationModelBuilder {
         return NotificationModelBuilder(
                 mId = this.noteId,
@@ -198,8 +271,11 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 timestamp = this.timestamp,
                 url = this.url,
                 title = this.title,
-                formattableBody = this.body?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
-                formattableSubject = this.subject?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
+                // Content read from the database is written back as is, without decoding and encoding it again
+                formattableBody = (this.body as? LazyFormattableList)?.json
+                        ?: this.body?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
+                formattableSubject = (this.subject as? LazyFormattableList)?.json
+                        ?: this.subject?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
                 formattableMeta = this.meta?.let { formattableContentMapper.mapFormattableMetaToJson(it) }
         )
     }
@@ -229,18 +305,9 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
 
         override fun getId() = this.mId
 
-        fun build(formattableContentMapper: FormattableContentMapper): NotificationModel {
+        fun build(content: DecodedContent): NotificationModel {
             val subkind: NotificationModel.Subkind? = subtype?.let { NotificationModel.Subkind.fromString(it) }
 
-            val body: List<FormattableContent>? = formattableBody?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
-            }
-            val subject: List<FormattableContent>? = formattableSubject?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
-            }
-            val meta: FormattableMeta? = formattableMeta?.let {
-                formattableContentMapper.mapToFormattableMeta(it)
-            }
             return NotificationModel(
                     mId,
                     remoteNoteId,
@@ -254,10 +321,19 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                     timestamp,
                     url,
                     title,
-                    body,
-                    subject,
-                    meta
+                    content.body,
+                    content.subject,
+                    content.meta
             )
         }
     }
+
+    private data class DecodedContentKey(val rowId: Int, val noteHash: Long)
+
+    class DecodedContent(
+        val body: LazyFormattableList?,
+        val subject: LazyFormattableList?,
+        val metaJson: String?,
+        val meta: FormattableMeta?
+    )
 }
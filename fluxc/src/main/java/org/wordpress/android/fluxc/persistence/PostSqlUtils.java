@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence;
 
 import android.content.ContentValues;
+import android.database.Cursor;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
@@ -23,6 +24,7 @@ import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.revisions.LocalDiffModel;
 import org.wordpress.android.fluxc.model.revisions.LocalRevisionModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRemoteAutoSaveModel;
+import org.wordpress.android.fluxc.persistence.BulkUpserter.KeyExtractor;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -103,6 +105,28 @@ public class PostSqlUtils {
         return insertOrUpdatePost(post, true);
     }
 
+    /**
+     * Bulk version of {@link #insertOrUpdatePost(PostModel, boolean)}, running in a single transaction. Duplicate
+     * entries are not cleaned up, which can only happen for posts that already have a local ID - this is meant for
+     * fetched posts.
+     */
+    public synchronized int insertOrUpdatePosts(List<PostModel> posts, boolean overwriteLocalChanges) {
+        BulkUpserter<PostModel> upserter = new BulkUpserter<>(PostModel.class,
+                new String[]{PostModelTable.REMOTE_POST_ID, PostModelTable.LOCAL_SITE_ID},
+                new KeyExtractor<PostModel>() {
+                    @Override
+                    public Object[] keyOf(PostModel post) {
+                        return post.isLocalDraft() ? null
+                                : new Object[]{post.getRemotePostId(), post.getLocalSiteId()};
+                    }
+                });
+        if (!overwriteLocalChanges) {
+            // Update only if local changes for the post don't exist
+            upserter.onlyUpdateWhere(PostModelTable.IS_LOCALLY_CHANGED + " = 0");
+        }
+        return upserter.upsert(posts);
+    }
+
     public List<PostModel> getPostsForSite(SiteModel site, boolean getPages) {
         if (site == null) {
             return Collections.emptyList();
@@ -376,6 +400,10 @@ public class PostSqlUtils {
 
     public List<LocalId> getLocalPostIdsForFilter(SiteModel site, boolean isPage, String searchQuery,
                                                          String orderBy, @Order int order) {
+        String matchQuery = SearchIndexSqlUtils.toMatchQuery(searchQuery);
+        if (matchQuery != null && SearchIndexSqlUtils.isAvailable(SearchIndexSqlUtils.POSTS)) {
+            return searchLocalPostIds(site, isPage, searchQuery, matchQuery, orderBy, order);
+        }
         ConditionClauseBuilder<SelectQuery<PostModel>> clauseBuilder =
                 WellSql.select(PostModel.class)
                        // We only need the local ids
@@ -400,4 +428,33 @@ public class PostSqlUtils {
         }
         return localPostIds;
     }
+
+    /**
+     * Same as {@link #getLocalPostIdsForFilter} with a search, also finding through the search index the posts with
+     * all the words, even when they aren't next to each other. The index only matches the start of the words, so the
+     * posts with the term within a word are still found by the LIKE search.
+     */
+    private List<LocalId> searchLocalPostIds(SiteModel site, boolean isPage, String searchQuery, String matchQuery,
+                                             String orderBy, @Order int order) {
+        String sql = "SELECT " + PostModelTable.ID + " FROM PostModel WHERE " + PostModelTable.IS_LOCAL_DRAFT
+                     + " = 1 AND " + PostModelTable.LOCAL_SITE_ID + " = ? AND " + PostModelTable.IS_PAGE + " = ? AND ("
+                     + PostModelTable.ID + " IN (SELECT docid FROM " + SearchIndexSqlUtils.POSTS.getIndexName()
+                     + " WHERE " + SearchIndexSqlUtils.POSTS.getIndexName() + " MATCH ?) OR " + PostModelTable.TITLE
+                     + " LIKE ? OR " + PostModelTable.CONTENT + " LIKE ?) ORDER BY " + orderBy
+                     + (order == SelectQuery.ORDER_ASCENDING ? " ASC" : " DESC");
+        // Same as the contains() of the LIKE search
+        String likePattern = "%" + searchQuery + "%";
+        String[] args = new String[]{String.valueOf(site.getId()), isPage ? "1" : "0", matchQuery, likePattern,
+                likePattern};
+        List<LocalId> localPostIds = new ArrayList<>();
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                localPostIds.add(new LocalId(cursor.getInt(0)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return localPostIds;
+    }
 }
@@ -0,0 +1,329 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.wellsql.generated.CommentModelTable;
+import com.wellsql.generated.MediaModelTable;
+import com.wellsql.generated.PostModelTable;
+import com.yarolegovich.wellsql.WellSql;
+import com.yarolegovich.wellsql.core.Identifiable;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text search indexes (SQLite FTS4) over the text columns of some of the models.
+ *
+ * An index is an external content FTS table: it only stores the index, the text stays in the model's table. Triggers
+ * on the model's table keep the index up to date, whichever way the rows are inserted, updated or deleted.
+ *
+ * The indexes are created along with their model's table by {@link WellSqlConfig}. SQLite may be built without FTS,
+ * so the searches should check {@link #isAvailable(SearchIndex)} and fall back to a LIKE search otherwise. They also
+ * fall back to it when {@link #toMatchQuery(String)} gives no query. The index only matches the start of the words,
+ * where a LIKE search finds the term anywhere in the text: the searches add the rows only found by the LIKE search to
+ * the ones found by the index (see {@link #mergeMatches(List, List)}), so that "press" still finds "WordPress".
+ */
+public class SearchIndexSqlUtils {
+    public static final SearchIndex POSTS = new SearchIndex("PostModel",
+            new String[]{PostModelTable.TITLE, PostModelTable.CONTENT},
+            new double[]{5, 1});
+    public static final SearchIndex MEDIA = new SearchIndex("MediaModel",
+            new String[]{MediaModelTable.TITLE, MediaModelTable.CAPTION, MediaModelTable.DESCRIPTION},
+            new double[]{5, 2, 1});
+    public static final SearchIndex COMMENTS = new SearchIndex("CommentModel",
+            new String[]{CommentModelTable.AUTHOR_NAME, CommentModelTable.CONTENT},
+            new double[]{2, 1});
+
+    // Keeps the queries with many ids under SQLite's limit of 999 variables
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    public static class SearchIndex {
+        @NonNull final String mTableName;
+        @NonNull final String mIndexName;
+        @NonNull final String[] mColumns;
+        // Weight of a hit in each of the columns, in the ranking
+        @NonNull final double[] mWeights;
+
+        SearchIndex(@NonNull String tableName, @NonNull String[] columns, @NonNull double[] weights) {
+            mTableName = tableName;
+            mIndexName = tableName + "Fts";
+            mColumns = columns;
+            mWeights = weights;
+        }
+
+        @NonNull
+        public String getIndexName() {
+            return mIndexName;
+        }
+
+        /**
+         * Names of the triggers keeping the index up to date.
+         */
+        @NonNull
+        List<String> getTriggerNames() {
+            return Arrays.asList(mIndexName + "_before_update", mIndexName + "_before_delete",
+                    mIndexName + "_after_update", mIndexName + "_after_insert");
+        }
+
+        /**
+         * Statements (re)creating the index and its triggers, and indexing the rows already in the table.
+         */
+        @NonNull
+        List<String> getCreateStatements() {
+            String columns = joinColumns("");
+            String newValues = joinColumns("new.");
+            String deleteOld = "DELETE FROM " + mIndexName + " WHERE docid = old._id;";
+            String insertNew = "INSERT INTO " + mIndexName + "(docid, " + columns + ") VALUES (new._id, " + newValues
+                               + ");";
+            return Arrays.asList(
+                    "DROP TABLE IF EXISTS " + mIndexName,
+                    // Indexing the 2 and 3 letter prefixes makes the short prefix searches, while typing, fast
+                    "CREATE VIRTUAL TABLE " + mIndexName + " USING fts4(content=\"" + mTableName + "\", "
+                    + columns + ", prefix=\"2,3\")",
+                    "CREATE TRIGGER IF NOT EXISTS " + getTriggerNames().get(0) + " BEFORE UPDATE OF " + columns
+                    + " ON " + mTableName + " BEGIN " + deleteOld + " END",
+                    "CREATE TRIGGER IF NOT EXISTS " + getTriggerNames().get(1) + " BEFORE DELETE ON " + mTableName
+                    + " BEGIN " + deleteOld + " END",
+                    "CREATE TRIGGER IF NOT EXISTS " + getTriggerNames().get(2) + " AFTER UPDATE OF " + columns
+                    + " ON " + mTableName + " BEGIN " + insertNew + " END",
+                    "CREATE TRIGGER IF NOT EXISTS " + getTriggerNames().get(3) + " AFTER INSERT ON " + mTableName
+                    + " BEGIN " + insertNew + " END",
+                    "INSERT INTO " + mIndexName + "(" + mIndexName + ") VALUES ('rebuild')"
+            );
+        }
+
+        /**
+         * Statements removing the index and its triggers, for when it couldn't be created entirely.
+         */
+        @NonNull
+        List<String> getDropStatements() {
+            List<String> statements = new ArrayList<>();
+            for (String triggerName : getTriggerNames()) {
+                statements.add("DROP TRIGGER IF EXISTS " + triggerName);
+            }
+            statements.add("DROP TABLE IF EXISTS " + mIndexName);
+            return statements;
+        }
+
+        private String joinColumns(String prefix) {
+            StringBuilder builder = new StringBuilder();
+            for (String column : mColumns) {
+                if (builder.length() > 0) {
+                    builder.append(", ");
+                }
+                builder.append(prefix).append(column);
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Creates the search index, leaving the table without one if SQLite doesn't support FTS.
+     */
+    static void createSearchIndex(@NonNull SQLiteDatabase db, @NonNull SearchIndex index) {
+        try {
+            for (String statement : index.getCreateStatements()) {
+                db.execSQL(statement);
+            }
+        } catch (SQLiteException e) {
+            AppLog.e(T.DB, "Can't create the search index " + index.mIndexName + ": " + e.getMessage());
+            for (String statement : index.getDropStatements()) {
+                db.execSQL(statement);
+            }
+        }
+    }
+
+    /**
+     * Checks that the index is there along with all its triggers: without them, as when its model's table was
+     * recreated on its own, the index doesn't follow the changes to the table.
+     */
+    public static boolean isAvailable(@NonNull SearchIndex index) {
+        List<String> triggerNames = index.getTriggerNames();
+        List<String> args = new ArrayList<>();
+        args.add(index.mIndexName);
+        args.add(index.mTableName);
+        args.addAll(triggerNames);
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery(
+                "SELECT COUNT(*) FROM sqlite_master WHERE (type = 'table' AND name = ?)"
+                + " OR (type = 'trigger' AND tbl_name = ? AND name IN (?, ?, ?, ?))", args.toArray(new String[0]));
+        try {
+            return cursor.moveToFirst() && cursor.getInt(0) == triggerNames.size() + 1;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Turns what the user typed into an FTS query matching the rows with all the words, the last ones being possibly
+     * incomplete: "hello wor" matches "Hello world!" but not "hello" alone.
+     *
+     * The index only splits the words on ASCII spaces and punctuation, and only ignores the case of ASCII letters: a
+     * search term with other characters, such as CJK text whose words aren't separated by spaces, can't be looked
+     * for in the index.
+     *
+     * @return the query, or null if the search term has no words to look for or can't be looked for in the index
+     */
+    @Nullable
+    public static String toMatchQuery(@Nullable String searchTerm) {
+        if (searchTerm == null || !isAscii(searchTerm)) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        // Anything but letters and digits separates the words, as for the FTS tokenizer - this also drops the quotes
+        // and operators which would make the query invalid
+        for (String word : searchTerm.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append(word).append('*');
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    private static boolean isAscii(@NonNull String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the ids of the rows matching the query, the best matches first.
+     *
+     * A row ranks higher the more often the words are found in it, the rarer the words are among the rows, and the
+     * more weight the columns they're found in have.
+     *
+     * @param selection condition on the columns of the model's table that aren't indexed, may be null
+     * @param tieBreakOrder order of the rows ranking the same, may be null
+     */
+    @NonNull
+    public static List<Integer> searchRanked(@NonNull final SearchIndex index, @NonNull String matchQuery,
+                                             @Nullable String selection, @Nullable String[] selectionArgs,
+                                             @Nullable String tieBreakOrder) {
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT ").append(index.mTableName).append("._id, matchinfo(").append(index.mIndexName)
+                .append(", 'pcnx') FROM ").append(index.mIndexName)
+                .append(" JOIN ").append(index.mTableName).append(" ON ").append(index.mTableName)
+                .append("._id = ").append(index.mIndexName).append(".docid")
+                .append(" WHERE ").append(index.mIndexName).append(" MATCH ?");
+        if (selection != null) {
+            sql.append(" AND (").append(selection).append(')');
+        }
+        if (tieBreakOrder != null) {
+            sql.append(" ORDER BY ").append(tieBreakOrder);
+        }
+        List<String> args = new ArrayList<>();
+        args.add(matchQuery);
+        if (selectionArgs != null) {
+            args.addAll(Arrays.asList(selectionArgs));
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        final Map<Integer, Double> scores = new HashMap<>();
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery(sql.toString(), args.toArray(new String[0]));
+        try {
+            while (cursor.moveToNext()) {
+                int id = cursor.getInt(0);
+                ids.add(id);
+                scores.put(id, score(index, cursor.getBlob(1)));
+            }
+        } finally {
+            cursor.close();
+        }
+        // The sort is stable, the rows ranking the same keep the tie break order
+        Collections.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer id1, Integer id2) {
+                return Double.compare(scores.get(id2), scores.get(id1));
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Scores a row from its matchinfo 'pcnx': the number of phrases and columns, the number of rows, and then for each
+     * phrase and column, the hits in the row, the hits in all the rows and the number of rows with hits.
+     */
+    private static double score(@NonNull SearchIndex index, @NonNull byte[] matchInfo) {
+        // The values are 32-bit unsigned integers in the byte order of the device
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt();
+        int columnCount = buffer.getInt();
+        double rowCount = buffer.getInt() & 0xFFFFFFFFL;
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                long rowHits = buffer.getInt() & 0xFFFFFFFFL;
+                buffer.getInt(); // hits in all the rows
+                long rowsWithHits = buffer.getInt() & 0xFFFFFFFFL;
+                if (rowHits > 0) {
+                    score += rowHits * index.mWeights[column] * Math.log(1 + rowCount / rowsWithHits);
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Loads the models with the given ids, in the order of the ids.
+     */
+    @NonNull
+    static <T extends Identifiable> List<T> getModelsInOrder(@NonNull Class<T> modelClass, @NonNull String idColumn,
+                                                             @NonNull List<Integer> ids) {
+        Map<Integer, T> modelsById = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+            List<Integer> idsChunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_QUERY));
+            for (T model : WellSql.select(modelClass).where().isIn(idColumn, idsChunk).endWhere().getAsModel()) {
+                modelsById.put(model.getId(), model);
+            }
+        }
+        List<T> models = new ArrayList<>();
+        for (Integer id : ids) {
+            T model = modelsById.get(id);
+            if (model != null) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Adds the models found by the LIKE search which the index didn't find after the ones it found.
+     */
+    @NonNull
+    static <T extends Identifiable> List<T> mergeMatches(@NonNull List<T> indexMatches, @NonNull List<T> likeMatches) {
+        List<T> models = new ArrayList<>(indexMatches);
+        Set<Integer> foundIds = new HashSet<>();
+        for (T model : indexMatches) {
+            foundIds.add(model.getId());
+        }
+        for (T model : likeMatches) {
+            if (foundIds.add(model.getId())) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+}
@@ -0,0 +1,241 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.wellsql.generated.SiteModelTable;
+import com.yarolegovich.wellsql.WellSql;
+import com.yarolegovich.wellsql.mapper.SQLiteMapper;
+import com.yarolegovich.wellsql.mapper.SelectMapper;
+
+import org.wordpress.android.fluxc.model.SiteModel;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-through cache of the sites table, so that the site lookups almost every store runs don't each query the
+ * database and build a new {@link SiteModel} from a cursor.
+ *
+ * Sites are cached as their column values, and each lookup returns a new {@link SiteModel}: callers often modify the
+ * sites they get, which mustn't change the cached ones.
+ *
+ * Entries are dropped by the {@link SiteSqlUtils} methods writing to the sites table - a site written from anywhere
+ * else needs {@link #clear()}.
+ */
+public class SiteModelCache {
+    private final Object mLock = new Object();
+    private final Map<Integer, CachedSite> mSitesByLocalId = new HashMap<>();
+    private final Map<Long, Integer> mLocalIdsBySiteId = new HashMap<>();
+    private final Map<Long, Integer> mLocalIdsByRemoteSiteId = new HashMap<>();
+    // The database the entries were read from, so that re-initializing WellSql doesn't serve sites of another one
+    private SQLiteDatabase mDatabase;
+    // Bumped on every write, so that a lookup racing with a write doesn't cache the site as it was before the write
+    private int mGeneration;
+    private long mHitCount;
+    private long mMissCount;
+
+    /**
+     * Returns the site with the given (local) id, or null.
+     */
+    public SiteModel getSiteByLocalId(int localId) {
+        CachedSite cachedSite;
+        int generation;
+        synchronized (mLock) {
+            checkDatabase();
+            cachedSite = mSitesByLocalId.get(localId);
+            generation = countLookup(cachedSite != null);
+        }
+        if (cachedSite != null) {
+            return cachedSite.toSiteModel();
+        }
+
+        List<SiteModel> result = SiteSqlUtils.getSitesWith(SiteModelTable.ID, localId).getAsModel();
+        if (result.isEmpty()) {
+            return null;
+        }
+        SiteModel site = result.get(0);
+        cacheSite(site, generation);
+        return site;
+    }
+
+    /**
+     * Returns the site with the given .COM site id, or null.
+     */
+    public SiteModel getSiteBySiteId(long siteId) {
+        CachedSite cachedSite = null;
+        int generation;
+        synchronized (mLock) {
+            checkDatabase();
+            Integer localId = mLocalIdsBySiteId.get(siteId);
+            if (localId != null) {
+                cachedSite = mSitesByLocalId.get(localId);
+            }
+            generation = countLookup(cachedSite != null);
+        }
+        if (cachedSite != null) {
+            return cachedSite.toSiteModel();
+        }
+
+        List<SiteModel> result = SiteSqlUtils.getSitesWith(SiteModelTable.SITE_ID, siteId).getAsModel();
+        if (result.isEmpty()) {
+            return null;
+        }
+        SiteModel site = result.get(0);
+        synchronized (mLock) {
+            if (generation == mGeneration) {
+                mLocalIdsBySiteId.put(siteId, site.getId());
+            }
+        }
+        cacheSite(site, generation);
+        return site;
+    }
+
+    /**
+     * Returns the (local) id of the site with the given .COM or self-hosted site id, or 0.
+     */
+    public int getLocalIdForRemoteSiteId(long remoteSiteId) {
+        int generation;
+        synchronized (mLock) {
+            checkDatabase();
+            Integer localId = mLocalIdsByRemoteSiteId.get(remoteSiteId);
+            generation = countLookup(localId != null);
+            if (localId != null) {
+                return localId;
+            }
+        }
+
+        List<SiteModel> sites = WellSql.select(SiteModel.class)
+                                       .where().beginGroup()
+                                       .equals(SiteModelTable.SITE_ID, remoteSiteId)
+                                       .or()
+                                       .equals(SiteModelTable.SELF_HOSTED_SITE_ID, remoteSiteId)
+                                       .endGroup().endWhere()
+                                       .getAsModel(new SelectMapper<SiteModel>() {
+                                           @Override
+                                           public SiteModel convert(Cursor cursor) {
+                                               SiteModel siteModel = new SiteModel();
+                                               siteModel.setId(cursor.getInt(cursor.getColumnIndex(SiteModelTable.ID)));
+                                               return siteModel;
+                                           }
+                                       });
+        if (sites.isEmpty()) {
+            return 0;
+        }
+        int localId = sites.get(0).getId();
+        synchronized (mLock) {
+            if (generation == mGeneration) {
+                mLocalIdsByRemoteSiteId.put(remoteSiteId, localId);
+            }
+        }
+        return localId;
+    }
+
+    /**
+     * Drops the site with the given (local) id, and the remote ids lookups it could now be the answer to.
+     */
+    void invalidate(int localId, long siteId, long selfHostedSiteId) {
+        synchronized (mLock) {
+            mGeneration++;
+            mSitesByLocalId.remove(localId);
+            removeLocalId(mLocalIdsBySiteId, localId);
+            removeLocalId(mLocalIdsByRemoteSiteId, localId);
+            mLocalIdsBySiteId.remove(siteId);
+            mLocalIdsByRemoteSiteId.remove(siteId);
+            mLocalIdsByRemoteSiteId.remove(selfHostedSiteId);
+        }
+    }
+
+    public void clear() {
+        synchronized (mLock) {
+            mGeneration++;
+            mSitesByLocalId.clear();
+            mLocalIdsBySiteId.clear();
+            mLocalIdsByRemoteSiteId.clear();
+        }
+    }
+
+    public long getHitCount() {
+        synchronized (mLock) {
+            return mHitCount;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (mLock) {
+            return mMissCount;
+        }
+    }
+
+    private int countLookup(boolean hit) {
+        if (hit) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return mGeneration;
+    }
+
+    private void checkDatabase() {
+        SQLiteDatabase database = WellSql.giveMeReadableDb();
+        if (database != mDatabase) {
+            clear();
+            mDatabase = database;
+        }
+    }
+
+    private void cacheSite(SiteModel site, int generation) {
+        CachedSite cachedSite = new CachedSite(WellSql.mapperFor(SiteModel.class), site);
+        synchronized (mLock) {
+            if (generation == mGeneration) {
+                mSitesByLocalId.put(site.getId(), cachedSite);
+            }
+        }
+    }
+
+    private static void removeLocalId(Map<Long, Integer> localIds, int localId) {
+        Iterator<Integer> iterator = localIds.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == localId) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class CachedSite {
+        private final SQLiteMapper<SiteModel> mMapper;
+        private final String[] mColumns;
+        private final Object[] mValues;
+
+        CachedSite(SQLiteMapper<SiteModel> mapper, SiteModel site) {
+            mMapper = mapper;
+            ContentValues contentValues = mapper.toCv(site);
+            contentValues.put(SiteModelTable.ID, site.getId());
+            mColumns = contentValues.keySet().toArray(new String[0]);
+            mValues = new Object[mColumns.length];
+            for (int i = 0; i < mColumns.length; i++) {
+                Object value = contentValues.get(mColumns[i]);
+                // Booleans are stored as integers, which is how the mapper reads them back
+                if (value instanceof Boolean) {
+                    value = (Boolean) value ? 1 : 0;
+                }
+                mValues[i] = value;
+            }
+        }
+
+        SiteModel toSiteModel() {
+            MatrixCursor cursor = new MatrixCursor(mColumns, 1);
+            cursor.addRow(mValues);
+            try {
+                cursor.moveToFirst();
+                return mMapper.convert(cursor);
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.wordpress.android.fluxc.persistence;
 
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
 
@@ -28,19 +29,33 @@ import org.wordpress.android.fluxc.model.layouts.GutenbergLayoutModel;
 import org.wordpress.android.fluxc.model.layouts.GutenbergLayoutModelKt;
 import org.wordpress.android.fluxc.network.rest.wpcom.site.GutenbergLayout;
 import org.wordpress.android.fluxc.network.rest.wpcom.site.GutenbergLayoutCategory;
+import org.wordpress.android.fluxc.store.SiteStore.UpdateSitesResult;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.UrlUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class SiteSqlUtils {
     public static class DuplicateSiteException extends Exception {
         private static final long serialVersionUID = -224883903136726226L;
     }
 
+    private static final SiteModelCache SITE_CACHE = new SiteModelCache();
+
+    /**
+     * Returns the cache of the sites table, kept up to date by the methods of this class writing to it.
+     */
+    public static SiteModelCache getSiteCache() {
+        return SITE_CACHE;
+    }
+
     public static SelectQuery<SiteModel> getSitesWith(String field, Object value) {
         return WellSql.select(SiteModel.class)
                 .where().equals(field, value).endWhere();
@@ -169,6 +184,7 @@ public class SiteSqlUtils {
             // No site with this local ID, REMOTE_ID + URL, or XMLRPC URL, then insert it
             AppLog.d(T.DB, "Inserting site: " + site.getUrl());
             WellSql.insert(site).asSingleTransaction(true).execute();
+            SITE_CACHE.invalidate(site.getId(), site.getSiteId(), site.getSelfHostedSiteId());
             return 1;
         } else {
             // Update old site
@@ -183,28 +199,160 @@ public class SiteSqlUtils {
                 // Can happen on self hosted sites with incorrect url values in wp.getOption response.
                 // See https://github.com/wordpress-mobile/WordPress-FluxC-Android/issues/397
                 throw new DuplicateSiteException();
+            } finally {
+                SITE_CACHE.invalidate(oldId, site.getSiteId(), site.getSelfHostedSiteId());
             }
         }
     }
 
+    /**
+     * Inserts or updates a list of sites fetched from the server, matching each site to the stored ones with the same
+     * rules as {@link #insertOrUpdateSite(SiteModel)}.
+     *
+     * The stored sites are read with a single query and matched in memory, sites whose columns didn't change aren't
+     * written (and aren't counted in the rows affected), and all the writes are made in a single transaction.
+     *
+     * The REST API doesn't return the editor settings of the sites, so those of the stored site with the same
+     * SITE_ID are kept.
+     */
+    public static UpdateSitesResult insertOrUpdateSites(@NonNull List<SiteModel> sites) {
+        UpdateSitesResult result = new UpdateSitesResult();
+        if (sites.isEmpty()) {
+            return result;
+        }
+
+        boolean hasWPComAccount = WellSql.select(AccountModel.class)
+                .where()
+                .not().equals(AccountModelTable.USER_ID, 0)
+                .endWhere()
+                .exists();
+        // The stored sites by local id, in the order a query without ORDER BY would return them. Kept up to date
+        // with the writes of the batch, so that a site appearing twice in it is matched as it would be one at a time.
+        Map<Integer, SiteModel> storedSites = new LinkedHashMap<>();
+        for (SiteModel storedSite : WellSql.select(SiteModel.class)
+                .orderBy(SiteModelTable.ID, SelectQuery.ORDER_ASCENDING).getAsModel()) {
+            storedSites.put(storedSite.getId(), storedSite);
+        }
+        UpdateAllExceptId<SiteModel> updateMapper = new UpdateAllExceptId<>(SiteModel.class);
+
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            for (SiteModel site : sites) {
+                if (site.getSiteId() != 0) {
+                    Integer idFromDB = findStoredSiteId(storedSites, site.getSiteId(), null);
+                    if (idFromDB != null) {
+                        site.setMobileEditor(storedSites.get(idFromDB).getMobileEditor());
+                        site.setWebEditor(storedSites.get(idFromDB).getWebEditor());
+                    }
+                }
+
+                if (site.isUsingWpComRestApi() && !hasWPComAccount) {
+                    AppLog.w(T.DB, "Can't insert WP.com site " + site.getUrl() + ", missing user account");
+                    continue;
+                }
+
+                Integer oldId;
+                try {
+                    oldId = findMatchingSiteId(storedSites, site);
+                } catch (DuplicateSiteException e) {
+                    result.duplicateSiteFound = true;
+                    continue;
+                }
+
+                if (oldId == null) {
+                    AppLog.d(T.DB, "Inserting site: " + site.getUrl());
+                    WellSql.insert(site).execute();
+                    storedSites.put(site.getId(), site);
+                    SITE_CACHE.invalidate(site.getId(), site.getSiteId(), site.getSelfHostedSiteId());
+                    result.rowsAffected++;
+                } else if (!updateMapper.toCv(site).equals(updateMapper.toCv(storedSites.get(oldId)))) {
+                    AppLog.d(T.DB, "Updating site: " + site.getUrl());
+                    try {
+                        result.rowsAffected += WellSql.update(SiteModel.class).whereId(oldId)
+                                .put(site, updateMapper).execute();
+                        storedSites.put(oldId, site);
+                    } catch (SQLiteConstraintException e) {
+                        AppLog.e(T.DB, "Error while updating site: siteId=" + site.getSiteId() + " url="
+                                + site.getUrl() + " xmlrpc=" + site.getXmlRpcUrl(), e);
+                        result.duplicateSiteFound = true;
+                    } finally {
+                        SITE_CACHE.invalidate(oldId, site.getSiteId(), site.getSelfHostedSiteId());
+                    }
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return result;
+    }
+
+    /**
+     * The in memory equivalent of the queries of {@link #insertOrUpdateSite(SiteModel)}.
+     *
+     * @return the local id of the stored site matching the given one, or null
+     */
+    private static Integer findMatchingSiteId(Map<Integer, SiteModel> storedSites, SiteModel site)
+            throws DuplicateSiteException {
+        if (storedSites.containsKey(site.getId())) {
+            return site.getId();
+        }
+        Integer storedSiteId = findStoredSiteId(storedSites, site.getSiteId(),
+                site.getSiteId() > 0 ? null : site.getUrl());
+        if (storedSiteId != null) {
+            return storedSiteId;
+        }
+        String forcedHttpXmlRpcUrl = "http://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
+        String forcedHttpsXmlRpcUrl = "https://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
+        for (Map.Entry<Integer, SiteModel> storedSite : storedSites.entrySet()) {
+            String xmlRpcUrl = storedSite.getValue().getXmlRpcUrl();
+            if (forcedHttpXmlRpcUrl.equals(xmlRpcUrl) || forcedHttpsXmlRpcUrl.equals(xmlRpcUrl)) {
+                if (storedSite.getValue().getOrigin() == SiteModel.ORIGIN_WPCOM_REST) {
+                    AppLog.d(T.DB, "Site is a duplicate");
+                    throw new DuplicateSiteException();
+                }
+                return storedSite.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the local id of the first stored site with the given SITE_ID (and URL, if not null), or null
+     */
+    private static Integer findStoredSiteId(Map<Integer, SiteModel> storedSites, long siteId, String url) {
+        for (Map.Entry<Integer, SiteModel> storedSite : storedSites.entrySet()) {
+            if (storedSite.getValue().getSiteId() == siteId
+                    && (url == null || url.equals(storedSite.getValue().getUrl()))) {
+                return storedSite.getKey();
+            }
+        }
+        return null;
+    }
+
     public static int deleteSite(SiteModel site) {
         if (site == null) {
             return 0;
         }
-        return WellSql.delete(SiteModel.class)
+        int rowsAffected = WellSql.delete(SiteModel.class)
                  .where().equals(SiteModelTable.ID, site.getId()).endWhere()
                  .execute();
+        SITE_CACHE.invalidate(site.getId(), site.getSiteId(), site.getSelfHostedSiteId());
+        return rowsAffected;
     }
 
     public static int deleteAllSites() {
-        return WellSql.delete(SiteModel.class).execute();
+        int rowsAffected = WellSql.delete(SiteModel.class).execute();
+        SITE_CACHE.clear();
+        return rowsAffected;
     }
 
     public static int setSiteVisibility(SiteModel site, boolean visible) {
         if (site == null) {
             return 0;
         }
-        return WellSql.update(SiteModel.class)
+        int rowsAffected = WellSql.update(SiteModel.class)
                 .whereId(site.getId())
                 .where().equals(SiteModelTable.IS_WPCOM, true).endWhere()
                 .put(visible, new InsertMapper<Boolean>() {
@@ -215,6 +363,8 @@ public class SiteSqlUtils {
                         return cv;
                     }
                 }).execute();
+        SITE_CACHE.invalidate(site.getId(), site.getSiteId(), site.getSelfHostedSiteId());
+        return rowsAffected;
     }
 
     public static SelectQuery<SiteModel> getWPComSites() {
@@ -364,28 +514,34 @@ public class SiteSqlUtils {
                 .endWhere().getAsModel();
 
         if (localSites.size() > 0) {
+            Set<Long> siteIdsToKeep = new HashSet<>();
+            for (SiteModel site : sites) {
+                siteIdsToKeep.add(site.getSiteId());
+            }
+
             // iterate through all local WP.com+Jetpack sites
             Iterator<SiteModel> localIterator = localSites.iterator();
             while (localIterator.hasNext()) {
                 SiteModel localSite = localIterator.next();
 
-                // don't remove sites with local changes
-                if (postSqlUtils.getSiteHasLocalChanges(localSite)) {
+                // don't remove local site if the remote ID matches a given site's ID, nor sites with local changes
+                if (siteIdsToKeep.contains(localSite.getSiteId()) || postSqlUtils.getSiteHasLocalChanges(localSite)) {
                     localIterator.remove();
-                } else {
-                    // don't remove local site if the remote ID matches a given site's ID
-                    for (SiteModel site : sites) {
-                        if (site.getSiteId() == localSite.getSiteId()) {
-                            localIterator.remove();
-                            break;
-                        }
-                    }
                 }
             }
 
             // delete applicable sites
-            for (SiteModel site : localSites) {
-                deleteSite(site);
+            if (!localSites.isEmpty()) {
+                SQLiteDatabase db = WellSql.giveMeWritableDb();
+                db.beginTransaction();
+                try {
+                    for (SiteModel site : localSites) {
+                        deleteSite(site);
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
             }
         }
 
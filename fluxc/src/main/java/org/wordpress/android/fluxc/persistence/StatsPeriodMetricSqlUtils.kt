@@ -0,0 +1,142 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.wellsql.generated.StatsPeriodMetricTable
+import com.yarolegovich.wellsql.SelectQuery
+import com.yarolegovich.wellsql.WellSql
+import com.yarolegovich.wellsql.core.Identifiable
+import com.yarolegovich.wellsql.core.annotation.Column
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey
+import com.yarolegovich.wellsql.core.annotation.RawConstraints
+import com.yarolegovich.wellsql.core.annotation.Table
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.rest.wpcom.stats.time.VisitAndViewsRestClient.VisitsAndViewsResponse
+import org.wordpress.android.fluxc.persistence.StatsSqlUtils.StatsType
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val PERIOD_FIELD = "period"
+
+/**
+ * Stores per period stats (the visits and views of each day of a month...) as one (period, metric, value) row per
+ * value, instead of the JSON blob [StatsSqlUtils] stores, so reading them back doesn't involve any JSON parsing.
+ *
+ * Each stored block also has a header row (without period and metric) holding the date and unit of the response, so
+ * that a response without any period can be told apart from a block that was never stored.
+ */
+@Singleton
+class StatsPeriodMetricSqlUtils
+@Inject constructor() {
+    fun insert(site: SiteModel, statsType: StatsType, date: String, response: VisitsAndViewsResponse) {
+        val rows = mutableListOf(
+                StatsPeriodMetricBuilder(
+                        localSiteId = site.id,
+                        statsType = statsType.name,
+                        date = date,
+                        responseDate = response.date,
+                        unit = response.unit
+                )
+        )
+        val fields = response.fields ?: listOf()
+        val periodIndex = fields.indexOf(PERIOD_FIELD)
+        response.data?.filterNotNull()?.forEach { values ->
+            val period = values.getOrNull(periodIndex) ?: return@forEach
+            fields.forEachIndexed { index, metric ->
+                if (index != periodIndex) {
+                    rows.add(
+                            StatsPeriodMetricBuilder(
+                                    localSiteId = site.id,
+                                    statsType = statsType.name,
+                                    date = date,
+                                    period = period,
+                                    metric = metric,
+                                    value = values.getOrNull(index)?.toLongOrNull()
+                            )
+                    )
+                }
+            }
+        }
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            delete(site, statsType, date)
+            WellSql.insert(rows).execute()
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    fun select(site: SiteModel, statsType: StatsType, date: String): VisitsAndViewsResponse? {
+        val rows = WellSql.select(StatsPeriodMetricBuilder::class.java)
+                .where()
+                .equals(StatsPeriodMetricTable.LOCAL_SITE_ID, site.id)
+                .equals(StatsPeriodMetricTable.STATS_TYPE, statsType.name)
+                .equals(StatsPeriodMetricTable.DATE, date)
+                .endWhere()
+                .orderBy(StatsPeriodMetricTable.ID, SelectQuery.ORDER_ASCENDING)
+                .asModel
+        val header = rows.firstOrNull { it.period == null } ?: return null
+        val fields = mutableListOf(PERIOD_FIELD)
+        val valuesPerPeriod = LinkedHashMap<String, MutableMap<String, Long?>>()
+        rows.forEach { row ->
+            val period = row.period ?: return@forEach
+            val metric = row.metric ?: return@forEach
+            if (!fields.contains(metric)) {
+                fields.add(metric)
+            }
+            valuesPerPeriod.getOrPut(period) { mutableMapOf() }[metric] = row.value
+        }
+        // Missing and non numeric values are read as 0, as the mapper would read them
+        val data = valuesPerPeriod.map { (period, values) ->
+            fields.map { field -> if (field == PERIOD_FIELD) period else (values[field] ?: 0L).toString() }
+        }
+        return VisitsAndViewsResponse(header.responseDate, fields, data, header.unit)
+    }
+
+    fun deleteAllStats(): Int {
+        return WellSql.delete(StatsPeriodMetricBuilder::class.java).execute()
+    }
+
+    fun deleteSiteStats(site: SiteModel): Int {
+        return WellSql.delete(StatsPeriodMetricBuilder::class.java)
+                .where()
+                .equals(StatsPeriodMetricTable.LOCAL_SITE_ID, site.id)
+                .endWhere()
+                .execute()
+    }
+
+    private fun delete(site: SiteModel, statsType: StatsType, date: String) {
+        WellSql.delete(StatsPeriodMetricBuilder::class.java)
+                .where()
+                .equals(StatsPeriodMetricTable.LOCAL_SITE_ID, site.id)
+                .equals(StatsPeriodMetricTable.STATS_TYPE, statsType.name)
+                .equals(StatsPeriodMetricTable.DATE, date)
+                .endWhere()
+                .execute()
+    }
+
+    /**
+     * The unique constraint doubles as the index the selects (by site, granularity and date) run on.
+     */
+    @Table(name = "StatsPeriodMetric")
+    @RawConstraints("UNIQUE (LOCAL_SITE_ID, STATS_TYPE, DATE, PERIOD, METRIC) ON CONFLICT REPLACE")
+    data class StatsPeriodMetricBuilder(
+        @PrimaryKey @Column private var mId: Int = -1,
+        @Column var localSiteId: Int,
+        @Column var statsType: String,
+        @Column var date: String,
+        @Column var responseDate: String? = null,
+        @Column var unit: String? = null,
+        @Column var period: String? = null,
+        @Column var metric: String? = null,
+        @Column var value: Long? = null
+    ) : Identifiable {
+        constructor() : this(-1, -1, "", "")
+
+        override fun setId(id: Int) {
+            this.mId = id
+        }
+
+        override fun getId() = mId
+    }
+}
@@ -1,5 +1,6 @@
 package org.wordpress.android.fluxc.persistence
 
+import android.util.LruCache
 import com.google.gson.Gson
 import com.google.gson.GsonBuilder
 import com.wellsql.generated.StatsBlockTable
@@ -14,10 +15,44 @@ import javax.inject.Inject
 import javax.inject.Singleton
 
 const val DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ"
+private const val DECODED_CACHE_SIZE = 100
 
+/**
+ * Stores the stats blocks as JSON.
+ *
+ * The blocks returned by [select] and [selectAll] are cached and shared between the callers reading the same block:
+ * they must not be modified.
+ */
 @Singleton
 class StatsSqlUtils
 @Inject constructor() {
+    companion object {
+        /**
+         * Decoded blocks, so rendering the same stats again doesn't parse their JSON again. Writes drop the cached
+         * entries of the block type they touch, and bump [cacheGeneration] so a read racing with a write doesn't
+         * cache the data it read before the write. Keyed on the local site id, so it's cleared along with the tables
+         * (see [clearDecodedCache]).
+         */
+        private val decodedCache = LruCache<DecodedBlockKey, Any>(DECODED_CACHE_SIZE)
+        private var cacheGeneration = 0
+
+        /**
+         * Drops all the decoded blocks, to be called when the tables are recreated: the local site ids start over
+         * and could otherwise be served the blocks of the previous sites.
+         */
+        @JvmStatic
+        fun clearDecodedCache() {
+            invalidateDecodedBlocks { true }
+        }
+
+        private fun invalidateDecodedBlocks(predicate: (DecodedBlockKey) -> Boolean) {
+            synchronized(decodedCache) {
+                cacheGeneration++
+                decodedCache.snapshot().keys.filter(predicate).forEach { decodedCache.remove(it) }
+            }
+        }
+    }
+
     private val gson: Gson by lazy {
         val builder = GsonBuilder()
         builder.setDateFormat(DATE_FORMAT)
@@ -34,6 +69,7 @@ class StatsSqlUtils
         postId: Long? = null
     ) {
         val json = gson.toJson(item)
+        invalidateDecodedBlocks { it.localSiteId == site.id && it.blockType == blockType && it.statsType == statsType }
         if (replaceExistingData) {
             var deleteStatement = WellSql.delete(StatsBlockBuilder::class.java)
                     .where()
@@ -68,8 +104,11 @@ class StatsSqlUtils
         date: String? = null,
         postId: Long? = null
     ): List<T> {
-        val models = createSelectStatement(site, blockType, statsType, date, postId).asModel
-        return models.map { gson.fromJson(it.json, classOfT) }
+        val key = DecodedBlockKey(site.id, blockType, statsType, date, postId, classOfT, true)
+        return selectDecoded(key) {
+            val models = createSelectStatement(site, blockType, statsType, date, postId).asModel
+            models.map { gson.fromJson(it.json, classOfT) }
+        }
     }
 
     fun <T> select(
@@ -80,18 +119,21 @@ class StatsSqlUtils
         date: String? = null,
         postId: Long? = null
     ): T? {
-        val model = createSelectStatement(site, blockType, statsType, date, postId).asModel.firstOrNull()
-        if (model != null) {
-            return gson.fromJson(model.json, classOfT)
+        val key = DecodedBlockKey(site.id, blockType, statsType, date, postId, classOfT, false)
+        return selectDecoded(key) {
+            createSelectStatement(site, blockType, statsType, date, postId).asModel.firstOrNull()?.let {
+                gson.fromJson(it.json, classOfT)
+            }
         }
-        return null
     }
 
     fun deleteAllStats(): Int {
+        invalidateDecodedBlocks { true }
         return WellSql.delete(StatsBlockBuilder::class.java).execute()
     }
 
     fun deleteSiteStats(site: SiteModel): Int {
+        invalidateDecodedBlocks { it.localSiteId == site.id }
         return WellSql.delete(StatsBlockBuilder::class.java)
                 .where()
                 .equals(StatsBlockTable.LOCAL_SITE_ID, site.id)
@@ -99,6 +141,22 @@ class StatsSqlUtils
                 .execute()
     }
 
+    @Suppress("UNCHECKED_CAST")
+    private fun <T> selectDecoded(key: DecodedBlockKey, decode: () -> T): T {
+        val generation = synchronized(decodedCache) {
+            decodedCache.get(key)?.let { return it as T }
+            cacheGeneration
+        }
+        val decoded = decode()
+        synchronized(decodedCache) {
+            // A null result isn't cached: the next read should see the block once it's inserted
+            if (decoded != null && generation == cacheGeneration) {
+                decodedCache.put(key, decoded)
+            }
+        }
+        return decoded
+    }
+
     private fun createSelectStatement(
         site: SiteModel,
         blockType: BlockType,
@@ -120,6 +178,16 @@ class StatsSqlUtils
         return select.endWhere()
     }
 
+    private data class DecodedBlockKey(
+        val localSiteId: Int,
+        val blockType: BlockType,
+        val statsType: StatsType,
+        val date: String?,
+        val postId: Long?,
+        val decodedClass: Class<*>,
+        val allBlocks: Boolean
+    )
+
     @Table(name = "StatsBlock")
     data class StatsBlockBuilder(
         @PrimaryKey @Column private var mId: Int = -1,
@@ -5,6 +5,7 @@ import com.yarolegovich.wellsql.WellSql;
 
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.TermModel;
+import org.wordpress.android.fluxc.persistence.BulkUpserter.KeyExtractor;
 
 import java.util.Collections;
 import java.util.List;
@@ -36,6 +37,20 @@ public class TaxonomySqlUtils {
         }
     }
 
+    /**
+     * Bulk version of {@link #insertOrUpdateTerm(TermModel)}, running in a single transaction.
+     */
+    public static int insertOrUpdateTerms(List<TermModel> terms) {
+        return new BulkUpserter<>(TermModel.class,
+                new String[]{TermModelTable.REMOTE_TERM_ID, TermModelTable.LOCAL_SITE_ID, TermModelTable.TAXONOMY},
+                new KeyExtractor<TermModel>() {
+                    @Override
+                    public Object[] keyOf(TermModel term) {
+                        return new Object[]{term.getRemoteTermId(), term.getLocalSiteId(), term.getTaxonomy()};
+                    }
+                }).upsert(terms);
+    }
+
     public static TermModel insertTermForResult(TermModel term) {
         WellSql.insert(term).asSingleTransaction(true).execute();
 
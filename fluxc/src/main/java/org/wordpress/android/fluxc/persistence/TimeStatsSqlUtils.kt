@@ -54,7 +54,7 @@ open class TimeStatsSqlUtils<RESPONSE_TYPE>(
         formattedDate: String,
         requestedItems: Int?
     ) {
-        statsSqlUtils.insert(site, blockType, granularity.toStatsType(), data, true, formattedDate)
+        insertData(site, granularity.toStatsType(), formattedDate, data)
         statsRequestSqlUtils.insert(
                 site,
                 blockType,
@@ -69,13 +69,15 @@ open class TimeStatsSqlUtils<RESPONSE_TYPE>(
     }
 
     fun select(site: SiteModel, granularity: StatsGranularity, date: String): RESPONSE_TYPE? {
-        return statsSqlUtils.select(
-                site,
-                blockType,
-                granularity.toStatsType(),
-                classOfResponse,
-                date
-        )
+        return selectData(site, granularity.toStatsType(), date)
+    }
+
+    protected open fun insertData(site: SiteModel, statsType: StatsType, formattedDate: String, data: RESPONSE_TYPE) {
+        statsSqlUtils.insert(site, blockType, statsType, data, true, formattedDate)
+    }
+
+    protected open fun selectData(site: SiteModel, statsType: StatsType, formattedDate: String): RESPONSE_TYPE? {
+        return statsSqlUtils.select(site, blockType, statsType, classOfResponse, formattedDate)
     }
 
     fun hasFreshRequest(
@@ -149,14 +151,28 @@ open class TimeStatsSqlUtils<RESPONSE_TYPE>(
     @Inject constructor(
         statsSqlUtils: StatsSqlUtils,
         statsUtils: StatsUtils,
-        statsRequestSqlUtils: StatsRequestSqlUtils
+        statsRequestSqlUtils: StatsRequestSqlUtils,
+        private val statsPeriodMetricSqlUtils: StatsPeriodMetricSqlUtils
     ) : TimeStatsSqlUtils<VisitsAndViewsResponse>(
             statsSqlUtils,
             statsUtils,
             statsRequestSqlUtils,
             VISITS_AND_VIEWS,
             VisitsAndViewsResponse::class.java
-    )
+    ) {
+        override fun insertData(
+            site: SiteModel,
+            statsType: StatsType,
+            formattedDate: String,
+            data: VisitsAndViewsResponse
+        ) {
+            statsPeriodMetricSqlUtils.insert(site, statsType, formattedDate, data)
+        }
+
+        override fun selectData(site: SiteModel, statsType: StatsType, formattedDate: String): VisitsAndViewsResponse? {
+            return statsPeriodMetricSqlUtils.select(site, statsType, formattedDate)
+        }
+    }
 
     class CountryViewsSqlUtils
     @Inject constructor(
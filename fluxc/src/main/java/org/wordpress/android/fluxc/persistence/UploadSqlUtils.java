@@ -72,6 +72,28 @@ public class UploadSqlUtils {
         }
     }
 
+    /**
+     * Updates where a chunked upload is being sent and how much of it was sent, leaving the rest of the
+     * {@link MediaUploadModel} - and a missing one - as is.
+     */
+    public static int updateMediaResumableUploadOnly(MediaUploadModel media) {
+        if (media == null) return 0;
+
+        // We're only interested in updating existing MediaUploadModels
+        return WellSql.update(MediaUploadModel.class).whereId(media.getId())
+                .put(media, new InsertMapper<MediaUploadModel>() {
+                    @Override
+                    public ContentValues toCv(MediaUploadModel item) {
+                        ContentValues cv = new ContentValues();
+                        cv.put(MediaUploadModelTable.RESUMABLE_UPLOAD_URL, item.getResumableUploadUrl());
+                        cv.put(MediaUploadModelTable.RESUMABLE_UPLOAD_CREATION_URL,
+                                item.getResumableUploadCreationUrl());
+                        cv.put(MediaUploadModelTable.UPLOADED_BYTES, item.getUploadedBytes());
+                        return cv;
+                    }
+                }).execute();
+    }
+
     public static @Nullable MediaUploadModel getMediaUploadModelForLocalId(int localMediaId) {
         List<MediaUploadModel> result = WellSql.select(MediaUploadModel.class).where()
                 .equals(MediaUploadModelTable.ID, localMediaId)
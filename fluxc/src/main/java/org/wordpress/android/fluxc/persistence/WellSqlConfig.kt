@@ -17,6 +17,28 @@ import kotlin.annotation.AnnotationTarget.VALUE_PARAMETER
 open class WellSqlConfig : DefaultWellConfig {
     companion object {
         const val ADDON_WOOCOMMERCE = "WC"
+
+        /**
+         * Indexes WellSql can't declare on the models, by table name. They're created along with their table, and
+         * existing databases need a migration creating them.
+         */
+        private val TABLE_INDEXES = mapOf(
+                "WCProductModel" to listOf(
+                        "CREATE INDEX IF NOT EXISTS WCProductModel_filters ON WCProductModel " +
+                                "(LOCAL_SITE_ID, STATUS, STOCK_STATUS, TYPE, NAME COLLATE NOCASE)",
+                        "CREATE INDEX IF NOT EXISTS WCProductModel_date_created ON WCProductModel " +
+                                "(LOCAL_SITE_ID, DATE_CREATED)"
+                )
+        )
+
+        /**
+         * Full-text search indexes, by table name, created along with their table like [TABLE_INDEXES].
+         */
+        private val SEARCH_INDEXES = listOf(
+                SearchIndexSqlUtils.POSTS,
+                SearchIndexSqlUtils.MEDIA,
+                SearchIndexSqlUtils.COMMENTS
+        ).associateBy { it.mTableName }
     }
 
     constructor(context: Context) : super(context)
@@ -28,7 +50,7 @@ open class WellSqlConfig : DefaultWellConfig {
     annotation class AddOn
 
     override fun getDbVersion(): Int {
-        return 138
+        return 143
     }
 
     override fun getDbName(): String {
@@ -36,7 +58,10 @@ open class WellSqlConfig : DefaultWellConfig {
     }
 
     override fun onCreate(db: SQLiteDatabase, helper: WellTableManager) {
-        mTables.forEach { table -> helper.createTable(table) }
+        mTables.forEach { table ->
+            helper.createTable(table)
+            createIndexes(db, getTable(table).tableName)
+        }
     }
 
     @Suppress("CheckStyle")
@@ -1510,6 +1535,39 @@ open class WellSqlConfig : DefaultWellConfig {
                                     "DEMO_URL TEXT NOT NULL)"
                     )
                 }
+                138 -> migrate(version) {
+                    db.execSQL(
+                            "CREATE TABLE StatsPeriodMetric (" +
+                                    "_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                    "LOCAL_SITE_ID INTEGER," +
+                                    "STATS_TYPE TEXT NOT NULL," +
+                                    "DATE TEXT NOT NULL," +
+                                    "RESPONSE_DATE TEXT," +
+                                    "UNIT TEXT," +
+                                    "PERIOD TEXT," +
+                                    "METRIC TEXT," +
+                                    "VALUE INTEGER," +
+                                    "UNIQUE (LOCAL_SITE_ID, STATS_TYPE, DATE, PERIOD, METRIC) ON CONFLICT REPLACE)"
+                    )
+                    // Visits and views are now stored in StatsPeriodMetric, the blobs would never be read again
+                    db.execSQL("DELETE FROM StatsBlock WHERE BLOCK_TYPE = 'VISITS_AND_VIEWS'")
+                    db.execSQL("DELETE FROM StatsRequest WHERE BLOCK_TYPE = 'VISITS_AND_VIEWS'")
+                }
+                139 -> migrateAddOn(ADDON_WOOCOMMERCE, version) {
+                    createIndexes(db, "WCProductModel")
+                }
+                140 -> migrate(version) {
+                    createIndexes(db, "PostModel")
+                    createIndexes(db, "MediaModel")
+                    createIndexes(db, "CommentModel")
+                }
+                141 -> migrate(version) {
+                    db.execSQL("ALTER TABLE MediaUploadModel ADD RESUMABLE_UPLOAD_URL TEXT")
+                    db.execSQL("ALTER TABLE MediaUploadModel ADD UPLOADED_BYTES INTEGER")
+                }
+                142 -> migrate(version) {
+                    db.execSQL("ALTER TABLE MediaUploadModel ADD RESUMABLE_UPLOAD_CREATION_URL TEXT")
+                }
             }
         }
         db.setTransactionSuccessful()
@@ -1543,21 +1601,32 @@ open class WellSqlConfig : DefaultWellConfig {
             val table = getTable(clazz)
             db.execSQL("DROP TABLE IF EXISTS ${table.tableName}")
             db.execSQL(table.createStatement())
+            createIndexes(db, table.tableName)
         }
+        SiteSqlUtils.getSiteCache().clear()
+        StatsSqlUtils.clearDecodedCache()
     }
 
     /**
      * Recreates all the tables in this database - similar to the above but can be used from onDowngrade where we can't
      * call giveMeWritableDb (attempting to do so results in "IllegalStateException: getDatabase called recursively")
      */
-    fun reset(helper: WellTableManager) {
+    fun reset(db: SQLiteDatabase, helper: WellTableManager) {
         AppLog.d(T.DB, "resetting tables")
         for (table in mTables) {
             AppLog.d(T.DB, "dropping table " + table.simpleName)
             helper.dropTable(table)
             AppLog.d(T.DB, "creating table " + table.simpleName)
             helper.createTable(table)
+            createIndexes(db, getTable(table).tableName)
         }
+        SiteSqlUtils.getSiteCache().clear()
+        StatsSqlUtils.clearDecodedCache()
+    }
+
+    protected fun createIndexes(db: SQLiteDatabase, tableName: String) {
+        TABLE_INDEXES[tableName]?.forEach { db.execSQL(it) }
+        SEARCH_INDEXES[tableName]?.let { SearchIndexSqlUtils.createSearchIndex(db, it) }
     }
 
     private fun migrate(version: Int, script: () -> Unit) {
@@ -14,6 +14,7 @@ import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.AccountAction;
 import org.wordpress.android.fluxc.action.AuthenticationAction;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.AccountModel;
@@ -53,6 +54,7 @@ import javax.inject.Singleton;
  * In-memory based and persisted in SQLite.
  */
 @Singleton
+@HandlesActions({AccountAction.class, AuthenticationAction.class})
 public class AccountStore extends Store {
     // Payloads
     public static class AuthenticatePayload extends Payload<BaseNetworkError> {
@@ -952,6 +954,9 @@ public class AccountStore extends Store {
             case DISCOVER_ENDPOINT:
                 discoverEndPoint((String) payload);
                 break;
+            case REDISCOVER_ENDPOINT:
+                rediscoverEndPoint((String) payload);
+                break;
             case DISCOVERY_RESULT:
                 discoveryResult((DiscoveryResultPayload) payload);
                 break;
@@ -977,6 +982,11 @@ public class AccountStore extends Store {
         mSelfHostedEndpointFinder.findEndpoint(payload);
     }
 
+    private void rediscoverEndPoint(String payload) {
+        // Retrying, the site is probed again rather than getting the result of the last discovery
+        mSelfHostedEndpointFinder.findEndpoint(payload, true);
+    }
+
     private void discoveryResult(DiscoveryResultPayload payload) {
         OnDiscoveryResponse discoveryResponse = new OnDiscoveryResponse();
         if (payload.isError()) {
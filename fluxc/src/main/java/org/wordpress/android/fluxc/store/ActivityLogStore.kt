@@ -14,6 +14,7 @@ import org.wordpress.android.fluxc.action.ActivityLogAction.FETCH_ACTIVITY_TYPES
 import org.wordpress.android.fluxc.action.ActivityLogAction.FETCH_BACKUP_DOWNLOAD_STATE
 import org.wordpress.android.fluxc.action.ActivityLogAction.FETCH_REWIND_STATE
 import org.wordpress.android.fluxc.action.ActivityLogAction.REWIND
+import org.wordpress.android.fluxc.annotations.HandlesActions
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.activity.ActivityLogModel
@@ -32,6 +33,7 @@ import javax.inject.Singleton
 private const val ACTIVITY_LOG_PAGE_SIZE = 100
 
 @Singleton
+@HandlesActions(ActivityLogAction::class)
 class ActivityLogStore
 @Inject constructor(
     private val activityLogRestClient: ActivityLogRestClient,
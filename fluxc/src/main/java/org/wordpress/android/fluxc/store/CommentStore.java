@@ -13,6 +13,7 @@ import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.CommentAction;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.CommentModel;
@@ -35,6 +36,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions(CommentAction.class)
 public class CommentStore extends Store {
     private final CommentRestClient mCommentRestClient;
     private final CommentXMLRPCClient mCommentXMLRPCClient;
@@ -197,6 +199,13 @@ public class CommentStore extends Store {
         return CommentSqlUtils.getCommentsForSite(site, order, statuses);
     }
 
+    /**
+     * Searches the comments of a site by author and content, the best matches first.
+     */
+    public List<CommentModel> searchComments(SiteModel site, String searchTerm) {
+        return CommentSqlUtils.searchComments(site, searchTerm);
+    }
+
     public int getNumberOfCommentsForSite(SiteModel site, CommentStatus... statuses) {
         return CommentSqlUtils.getCommentsCountForSite(site, statuses);
     }
@@ -419,8 +428,8 @@ public class CommentStore extends Store {
                 CommentSqlUtils.removeComments(payload.site);
             }
 
+            rowsAffected += CommentSqlUtils.insertOrUpdateComments(payload.comments);
             for (CommentModel comment : payload.comments) {
-                rowsAffected += CommentSqlUtils.insertOrUpdateComment(comment);
                 event.changedCommentsLocalIds.add(comment.getId());
             }
         }
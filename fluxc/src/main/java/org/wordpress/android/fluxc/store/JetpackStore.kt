@@ -8,6 +8,7 @@ import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.JetpackAction
 import org.wordpress.android.fluxc.action.JetpackAction.INSTALL_JETPACK
+import org.wordpress.android.fluxc.annotations.HandlesActions
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.generated.SiteActionBuilder
 import org.wordpress.android.fluxc.model.SiteModel
@@ -22,6 +23,7 @@ import kotlin.coroutines.Continuation
 import kotlin.coroutines.resume
 
 @Singleton
+@HandlesActions(JetpackAction::class)
 class JetpackStore
 @Inject constructor(
     private val jetpackRestClient: JetpackRestClient,
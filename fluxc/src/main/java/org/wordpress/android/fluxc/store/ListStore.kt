@@ -17,6 +17,7 @@ import org.wordpress.android.fluxc.action.ListAction.LIST_ITEMS_REMOVED
 import org.wordpress.android.fluxc.action.ListAction.LIST_REQUIRES_REFRESH
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_ALL_LISTS
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_EXPIRED_LISTS
+import org.wordpress.android.fluxc.annotations.HandlesActions
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.list.LIST_STATE_TIMEOUT
@@ -30,6 +31,7 @@ import org.wordpress.android.fluxc.model.list.PagedListFactory
 import org.wordpress.android.fluxc.model.list.PagedListWrapper
 import org.wordpress.android.fluxc.model.list.datasource.InternalPagedListDataSource
 import org.wordpress.android.fluxc.model.list.datasource.ListItemDataSourceInterface
+import org.wordpress.android.fluxc.model.list.datasource.WindowedItemLoader
 import org.wordpress.android.fluxc.persistence.ListItemSqlUtils
 import org.wordpress.android.fluxc.persistence.ListSqlUtils
 import org.wordpress.android.fluxc.store.ListStore.OnListChanged.CauseOfListChange
@@ -50,6 +52,7 @@ const val DEFAULT_EXPIRATION_DURATION = 1000L * 60 * 60 * 24 * 7
  * responsibility of mutation to the Store but also makes it much easier to use the exposed data.
  */
 @Singleton
+@HandlesActions(ListAction::class)
 class ListStore @Inject constructor(
     private val listSqlUtils: ListSqlUtils,
     private val listItemSqlUtils: ListItemSqlUtils,
@@ -91,7 +94,15 @@ class ListStore @Inject constructor(
         dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
         lifecycle: Lifecycle
     ): PagedListWrapper<LIST_ITEM> {
-        val factory = createPagedListFactory(listDescriptor, dataSource)
+        // Kept for the lifetime of the list, so that its items survive the data sources created on every change
+        val itemLoader = if (listDescriptor.config.isWindowed) {
+            WindowedItemLoader<ITEM_IDENTIFIER, LIST_ITEM>(
+                    itemCacheSize = listDescriptor.config.itemCacheSize,
+                    pageSize = listDescriptor.config.dbPageSize,
+                    maxPrefetchPages = listDescriptor.config.maxPrefetchPages
+            )
+        } else null
+        val factory = createPagedListFactory(listDescriptor, dataSource, itemLoader)
         val pagedListData = createPagedListLiveData(
                 listDescriptor = listDescriptor,
                 dataSource = dataSource,
@@ -108,6 +119,7 @@ class ListStore @Inject constructor(
                     }
                 },
                 invalidate = factory::invalidate,
+                invalidateItems = { itemLoader?.clearItems() },
                 parentCoroutineContext = coroutineContext
         )
     }
@@ -125,6 +137,7 @@ class ListStore @Inject constructor(
                 .setEnablePlaceholders(true)
                 .setInitialLoadSizeHint(listDescriptor.config.initialLoadSize)
                 .setPageSize(listDescriptor.config.dbPageSize)
+                .setPrefetchDistance(listDescriptor.config.prefetchDistance)
                 .build()
         val boundaryCallback = object : BoundaryCallback<LIST_ITEM>() {
             override fun onItemAtEndLoaded(itemAtEnd: LIST_ITEM) {
@@ -142,11 +155,13 @@ class ListStore @Inject constructor(
     }
 
     /**
-     * A helper function that creates a [PagedListFactory] for the given [LIST_DESCRIPTOR] and [dataSource].
+     * A helper function that creates a [PagedListFactory] for the given [LIST_DESCRIPTOR] and [dataSource]. The
+     * [itemLoader] is shared by the data sources the factory creates, if the list is windowed.
      */
     private fun <LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM> createPagedListFactory(
         listDescriptor: LIST_DESCRIPTOR,
-        dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+        dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+        itemLoader: WindowedItemLoader<ITEM_IDENTIFIER, LIST_ITEM>?
     ): PagedListFactory<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM> {
         val getRemoteItemIds = { getListItems(listDescriptor).map { RemoteId(value = it) } }
         val getIsListFullyFetched = { getListState(listDescriptor) == FETCHED }
@@ -156,7 +171,8 @@ class ListStore @Inject constructor(
                             listDescriptor = listDescriptor,
                             remoteItemIds = getRemoteItemIds(),
                             isListFullyFetched = getIsListFullyFetched(),
-                            itemDataSource = dataSource
+                            itemDataSource = dataSource,
+                            itemLoader = itemLoader
                     )
                 })
     }
@@ -167,7 +183,7 @@ class ListStore @Inject constructor(
     private fun getListItems(listDescriptor: ListDescriptor): List<Long> {
         val listModel = listSqlUtils.getList(listDescriptor)
         return if (listModel != null) {
-            listItemSqlUtils.getListItems(listModel.id).map { it.remoteItemId }
+            listItemSqlUtils.getListItemRemoteIds(listModel.id)
         } else emptyList()
     }
 
@@ -12,6 +12,7 @@ import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.MediaAction;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.MediaModel;
@@ -41,6 +42,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions(MediaAction.class)
 public class MediaStore extends Store {
     public static final int DEFAULT_NUM_MEDIA_PER_FETCH = 50;
 
@@ -873,41 +875,20 @@ public class MediaStore extends Store {
     }
 
     private void updateFetchedMediaList(@NonNull FetchMediaListResponsePayload payload) {
-        // if we loaded another page, simply add the fetched media and be done
+        // add or update the fetched media, this also sets their local IDs
+        MediaSqlUtils.insertOrUpdateMediaList(payload.mediaList);
+
+        // if we loaded another page, we're done
         if (payload.loadedMore) {
-            for (MediaModel media : payload.mediaList) {
-                updateMedia(media, false);
-            }
             return;
         }
 
-        // build separate lists of existing and new media
-        List<MediaModel> existingMediaList = new ArrayList<>();
-        List<MediaModel> newMediaList = new ArrayList<>();
-        for (MediaModel fetchedMedia : payload.mediaList) {
-            MediaModel media = getSiteMediaWithId(payload.site, fetchedMedia.getMediaId());
-            if (media != null) {
-                // retain the local ID, then update this media item
-                fetchedMedia.setId(media.getId());
-                existingMediaList.add(fetchedMedia);
-                updateMedia(fetchedMedia, false);
-            } else {
-                newMediaList.add(fetchedMedia);
-            }
-        }
-
-        // remove media that is NOT in the existing list
+        // remove media that is NOT in the fetched list
         String mimeTypeValue = "";
         if (payload.mimeType != null) {
             mimeTypeValue = payload.mimeType.getValue();
         }
-        MediaSqlUtils.deleteUploadedSiteMediaNotInList(
-                payload.site, existingMediaList, mimeTypeValue);
-
-        // add new media
-        for (MediaModel media : newMediaList) {
-            updateMedia(media, false);
-        }
+        MediaSqlUtils.deleteUploadedSiteMediaNotInList(payload.site, payload.mediaList, mimeTypeValue);
     }
 
     private void handleMediaListFetched(@NonNull FetchMediaListResponsePayload payload) {
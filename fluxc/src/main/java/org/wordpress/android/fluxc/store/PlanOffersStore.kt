@@ -6,6 +6,7 @@ import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.PlanOffersAction
 import org.wordpress.android.fluxc.action.PlanOffersAction.FETCH_PLAN_OFFERS
+import org.wordpress.android.fluxc.annotations.HandlesActions
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.model.plans.PlanOffersModel
 import org.wordpress.android.fluxc.network.BaseRequest
@@ -18,6 +19,7 @@ import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
+@HandlesActions(PlanOffersAction::class)
 class PlanOffersStore @Inject constructor(
     private val planOffersRestClient: PlanOffersRestClient,
     private val planOffersSqlUtils: PlanOffersSqlUtils,
@@ -16,6 +16,7 @@ import org.wordpress.android.fluxc.BuildConfig;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.PostAction;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.generated.ListActionBuilder;
@@ -66,6 +67,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions(PostAction.class)
 public class PostStore extends Store {
     public static final int NUM_POSTS_PER_FETCH = 20;
 
@@ -921,10 +923,7 @@ public class PostStore extends Store {
                 mPostSqlUtils.deleteUploadedPostsForSite(payload.site, payload.isPages);
             }
 
-            int rowsAffected = 0;
-            for (PostModel post : payload.posts.getPosts()) {
-                rowsAffected += mPostSqlUtils.insertOrUpdatePostKeepingLocalChanges(post);
-            }
+            int rowsAffected = mPostSqlUtils.insertOrUpdatePosts(payload.posts.getPosts(), false);
 
             onPostChanged = new OnPostChanged(causeOfChange, rowsAffected, payload.canLoadMore);
         }
@@ -15,6 +15,7 @@ import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.SiteAction;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.JetpackCapability;
@@ -58,6 +59,7 @@ import javax.inject.Singleton;
  * SQLite based only. There is no in memory copy of mapped data, everything is queried from the DB.
  */
 @Singleton
+@HandlesActions(SiteAction.class)
 public class SiteStore extends Store {
     // Payloads
     public static class CompleteQuickStartPayload extends Payload<BaseNetworkError> {
@@ -1255,11 +1257,7 @@ public class SiteStore extends Store {
      * Obtains the site with the given (local) id and returns it as a {@link SiteModel}.
      */
     public SiteModel getSiteByLocalId(int id) {
-        List<SiteModel> result = SiteSqlUtils.getSitesWith(SiteModelTable.ID, id).getAsModel();
-        if (result.size() > 0) {
-            return result.get(0);
-        }
-        return null;
+        return SiteSqlUtils.getSiteCache().getSiteByLocalId(id);
     }
 
     /**
@@ -1397,24 +1395,7 @@ public class SiteStore extends Store {
      * Given a (remote) site id, returns the corresponding (local) id.
      */
     public int getLocalIdForRemoteSiteId(long siteId) {
-        List<SiteModel> sites = WellSql.select(SiteModel.class)
-                                       .where().beginGroup()
-                                       .equals(SiteModelTable.SITE_ID, siteId)
-                                       .or()
-                                       .equals(SiteModelTable.SELF_HOSTED_SITE_ID, siteId)
-                                       .endGroup().endWhere()
-                                       .getAsModel(new SelectMapper<SiteModel>() {
-                                           @Override
-                                           public SiteModel convert(Cursor cursor) {
-                                               SiteModel siteModel = new SiteModel();
-                                               siteModel.setId(cursor.getInt(cursor.getColumnIndex(SiteModelTable.ID)));
-                                               return siteModel;
-                                           }
-                                       });
-        if (sites.size() > 0) {
-            return sites.get(0).getId();
-        }
-        return 0;
+        return SiteSqlUtils.getSiteCache().getLocalIdForRemoteSiteId(siteId);
     }
 
     /**
@@ -1480,13 +1461,23 @@ public class SiteStore extends Store {
             return null;
         }
 
-        List<SiteModel> sites = SiteSqlUtils.getSitesWith(SiteModelTable.SITE_ID, siteId).getAsModel();
+        return SiteSqlUtils.getSiteCache().getSiteBySiteId(siteId);
+    }
+
+    /**
+     * Returns the number of {@link #getSiteByLocalId}, {@link #getSiteBySiteId} and
+     * {@link #getLocalIdForRemoteSiteId} lookups served from memory, without querying the database.
+     */
+    public long getSiteCacheHitCount() {
+        return SiteSqlUtils.getSiteCache().getHitCount();
+    }
 
-        if (sites.isEmpty()) {
-            return null;
-        } else {
-            return sites.get(0);
-        }
+    /**
+     * Returns the number of {@link #getSiteByLocalId}, {@link #getSiteBySiteId} and
+     * {@link #getLocalIdForRemoteSiteId} lookups which had to query the database.
+     */
+    public long getSiteCacheMissCount() {
+        return SiteSqlUtils.getSiteCache().getMissCount();
     }
 
     public List<PostFormatModel> getPostFormats(SiteModel site) {
@@ -1780,23 +1771,7 @@ public class SiteStore extends Store {
     }
 
     private UpdateSitesResult createOrUpdateSites(SitesModel sites) {
-        UpdateSitesResult result = new UpdateSitesResult();
-        for (SiteModel site : sites.getSites()) {
-            try {
-                // The REST API doesn't return info about the editor(s). Make sure to copy current values
-                // available on the DB. Otherwise the apps will receive an update site without editor prefs set.
-                // The apps will dispatch the action to update editor(s) when necessary.
-                SiteModel siteFromDB = getSiteBySiteId(site.getSiteId());
-                if (siteFromDB != null) {
-                    site.setMobileEditor(siteFromDB.getMobileEditor());
-                    site.setWebEditor(siteFromDB.getWebEditor());
-                }
-                result.rowsAffected += SiteSqlUtils.insertOrUpdateSite(site);
-            } catch (DuplicateSiteException caughtException) {
-                result.duplicateSiteFound = true;
-            }
-        }
-        return result;
+        return SiteSqlUtils.insertOrUpdateSites(sites.getSites());
     }
 
     private void deleteSite(SiteModel site) {
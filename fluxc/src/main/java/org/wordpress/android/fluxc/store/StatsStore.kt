@@ -17,6 +17,7 @@ import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.TIMEOUT
 import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.UNKNOWN
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComGsonNetworkError
 import org.wordpress.android.fluxc.persistence.InsightTypeSqlUtils
+import org.wordpress.android.fluxc.persistence.StatsPeriodMetricSqlUtils
 import org.wordpress.android.fluxc.persistence.StatsSqlUtils
 import org.wordpress.android.fluxc.store.StatsStore.InsightType.ALL_TIME_STATS
 import org.wordpress.android.fluxc.store.StatsStore.InsightType.FOLLOWER_TOTALS
@@ -44,14 +45,17 @@ class StatsStore
     private val coroutineEngine: CoroutineEngine,
     private val insightTypeSqlUtils: InsightTypeSqlUtils,
     private val preferenceUtils: PreferenceUtilsWrapper,
-    private val statsSqlUtils: StatsSqlUtils
+    private val statsSqlUtils: StatsSqlUtils,
+    private val statsPeriodMetricSqlUtils: StatsPeriodMetricSqlUtils
 ) {
     fun deleteAllData() {
         statsSqlUtils.deleteAllStats()
+        statsPeriodMetricSqlUtils.deleteAllStats()
     }
 
     fun deleteSiteData(site: SiteModel) {
         statsSqlUtils.deleteSiteStats(site)
+        statsPeriodMetricSqlUtils.deleteSiteStats(site)
     }
 
     suspend fun getInsightTypes(site: SiteModel): List<StatsType> =
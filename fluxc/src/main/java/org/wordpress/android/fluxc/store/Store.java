@@ -24,6 +24,8 @@ public abstract class Store {
 
     /**
      * onAction should {@link org.greenrobot.eventbus.Subscribe} with ASYNC {@link org.greenrobot.eventbus.ThreadMode}.
+     * The action types it handles should be declared on the Store with
+     * {@link org.wordpress.android.fluxc.annotations.HandlesActions}.
      */
     public abstract void onAction(Action action);
     public abstract void onRegister();
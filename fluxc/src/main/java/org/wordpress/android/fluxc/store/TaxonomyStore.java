@@ -7,6 +7,7 @@ import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.TaxonomyAction;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.PostImmutableModel;
@@ -26,6 +27,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions(TaxonomyAction.class)
 public class TaxonomyStore extends Store {
     public static final String DEFAULT_TAXONOMY_CATEGORY = "category";
     public static final String DEFAULT_TAXONOMY_TAG = "post_tag";
@@ -338,10 +340,7 @@ public class TaxonomyStore extends Store {
             // TODO: This may have to change when we support large numbers of terms and require multiple requests
             TaxonomySqlUtils.clearTaxonomyForSite(payload.site, payload.taxonomy);
 
-            int rowsAffected = 0;
-            for (TermModel term : payload.terms.getTerms()) {
-                rowsAffected += TaxonomySqlUtils.insertOrUpdateTerm(term);
-            }
+            int rowsAffected = TaxonomySqlUtils.insertOrUpdateTerms(payload.terms.getTerms());
 
             onTaxonomyChanged = new OnTaxonomyChanged(rowsAffected, payload.taxonomy);
         }
@@ -9,6 +9,7 @@ import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.MediaAction;
 import org.wordpress.android.fluxc.action.UploadAction;
+import org.wordpress.android.fluxc.annotations.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.Action;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.generated.MediaActionBuilder;
@@ -44,6 +45,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions({UploadAction.class, MediaAction.class})
 public class UploadStore extends Store {
     public static class ClearMediaPayload extends Payload<BaseNetworkError> {
         public PostImmutableModel post;
@@ -268,6 +270,13 @@ public class UploadStore extends Store {
 
     private void handleUploadMedia(MediaPayload payload) {
         MediaUploadModel mediaUploadModel = new MediaUploadModel(payload.media.getId());
+        MediaUploadModel previousUpload = UploadSqlUtils.getMediaUploadModelForLocalId(payload.media.getId());
+        if (previousUpload != null) {
+            // Keep what a previous chunked upload of the media sent, so that it resumes from there
+            mediaUploadModel.setResumableUploadUrl(previousUpload.getResumableUploadUrl());
+            mediaUploadModel.setResumableUploadCreationUrl(previousUpload.getResumableUploadCreationUrl());
+            mediaUploadModel.setUploadedBytes(previousUpload.getUploadedBytes());
+        }
         String errorMessage = MediaUtils.getMediaValidationError(payload.media);
         if (errorMessage != null) {
             mediaUploadModel.setUploadState(MediaUploadModel.FAILED);
@@ -1,21 +1,50 @@
 package org.wordpress.android.fluxc.tools
 
+import android.os.SystemClock
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancelChildren
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
 import org.wordpress.android.fluxc.utils.AppLogWrapper
 import org.wordpress.android.util.AppLog
+import java.util.WeakHashMap
 import javax.inject.Inject
 import kotlin.coroutines.CoroutineContext
 
+private const val SLOW_CALL_MS = 5000L
+
+/**
+ * Runs the coroutines of the Stores.
+ *
+ * A Store can be given a limited number of calls running at once (see [StoreConcurrencyLimits]), so that it can't
+ * starve the others, and every call is timed (see [CoroutineEngineMetrics]). The coroutines a Store launches can be
+ * cancelled together with [cancel].
+ */
 // The class is open for testing
 open class CoroutineEngine
 @Inject constructor(
     private val context: CoroutineContext,
-    private val appLog: AppLogWrapper
+    private val appLog: AppLogWrapper,
+    private val dispatchers: WorkloadDispatchers,
+    private val concurrencyLimits: StoreConcurrencyLimits,
+    private val metrics: CoroutineEngineMetrics
 ) {
+    /**
+     * The kind of work a call does, which picks the dispatcher it runs on - see [withWorkloadContext].
+     */
+    enum class Workload {
+        // Waiting on REST or XML-RPC calls
+        NETWORK,
+        // Reading or writing the database
+        DATABASE,
+        // Mapping or computing results
+        COMPUTATION
+    }
+
     private val coroutineScope = CoroutineScope(context)
+    private val callerJobs = WeakHashMap<Any, Job>()
 
     suspend fun <RESULT_TYPE> withDefaultContext(
         tag: AppLog.T,
@@ -24,7 +53,21 @@ open class CoroutineEngine
         block: suspend CoroutineScope.() -> RESULT_TYPE
     ): RESULT_TYPE {
         appLog.d(tag, "${caller.javaClass.simpleName}: $loggedMessage")
-        return withContext(context, block)
+        return runCall(tag, caller, loggedMessage) { withContext(context, block) }
+    }
+
+    /**
+     * Same as [withDefaultContext], but runs the block on the dispatcher of the given [Workload].
+     */
+    suspend fun <RESULT_TYPE> withWorkloadContext(
+        tag: AppLog.T,
+        caller: Any,
+        loggedMessage: String,
+        workload: Workload,
+        block: suspend CoroutineScope.() -> RESULT_TYPE
+    ): RESULT_TYPE {
+        appLog.d(tag, "${caller.javaClass.simpleName}: $loggedMessage")
+        return runCall(tag, caller, loggedMessage) { withContext(dispatchers.forWorkload(workload), block) }
     }
 
     fun <RESULT_TYPE> run(tag: AppLog.T, caller: Any, loggedMessage: String, block: () -> RESULT_TYPE): RESULT_TYPE {
@@ -39,8 +82,45 @@ open class CoroutineEngine
         block: suspend CoroutineScope.() -> RESULT_TYPE
     ): Job {
         appLog.d(tag, "${caller.javaClass.simpleName}: $loggedMessage")
-        return coroutineScope.launch {
-            block(this)
+        return coroutineScope.launch(jobOf(caller)) {
+            runCall(tag, caller, loggedMessage) { block(this) }
+        }
+    }
+
+    /**
+     * Cancels the coroutines launched for the given caller that are still running. The caller can launch new ones
+     * afterwards.
+     */
+    fun cancel(caller: Any) {
+        synchronized(callerJobs) { callerJobs[caller] }?.cancelChildren()
+    }
+
+    /**
+     * The parent of the coroutines launched for a caller: a supervisor, so that one failing doesn't cancel the others.
+     */
+    private fun jobOf(caller: Any): Job {
+        return synchronized(callerJobs) {
+            callerJobs.getOrPut(caller) { SupervisorJob(coroutineScope.coroutineContext[Job]) }
+        }
+    }
+
+    private suspend fun <RESULT_TYPE> runCall(
+        tag: AppLog.T,
+        caller: Any,
+        loggedMessage: String,
+        block: suspend () -> RESULT_TYPE
+    ): RESULT_TYPE {
+        return concurrencyLimits.withPermit(caller) {
+            val startTime = SystemClock.elapsedRealtime()
+            try {
+                block()
+            } finally {
+                val duration = SystemClock.elapsedRealtime() - startTime
+                metrics.record(caller, loggedMessage, duration)
+                if (duration >= SLOW_CALL_MS) {
+                    appLog.d(tag, "${CoroutineEngineMetrics.keyOf(caller, loggedMessage)} took ${duration}ms")
+                }
+            }
         }
     }
 }
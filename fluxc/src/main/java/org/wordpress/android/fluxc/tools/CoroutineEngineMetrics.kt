@@ -0,0 +1,44 @@
+package org.wordpress.android.fluxc.tools
+
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * How long the [CoroutineEngine] calls took, by Store and logged message.
+ */
+@Singleton
+class CoroutineEngineMetrics
+@Inject constructor() {
+    data class CallTimings(val count: Int, val totalMs: Long, val maxMs: Long) {
+        val averageMs: Long
+            get() = if (count == 0) 0 else totalMs / count
+    }
+
+    private val timings = mutableMapOf<String, CallTimings>()
+
+    @Synchronized
+    fun record(caller: Any, loggedMessage: String, durationMs: Long) {
+        val key = keyOf(caller, loggedMessage)
+        val current = timings[key]
+        timings[key] = if (current == null) {
+            CallTimings(1, durationMs, durationMs)
+        } else {
+            CallTimings(current.count + 1, current.totalMs + durationMs, maxOf(current.maxMs, durationMs))
+        }
+    }
+
+    /**
+     * @return the timings of the calls so far, keyed by "Store: logged message"
+     */
+    @Synchronized
+    fun getTimings(): Map<String, CallTimings> = timings.toMap()
+
+    @Synchronized
+    fun clear() {
+        timings.clear()
+    }
+
+    companion object {
+        fun keyOf(caller: Any, loggedMessage: String) = "${caller.javaClass.simpleName}: $loggedMessage"
+    }
+}
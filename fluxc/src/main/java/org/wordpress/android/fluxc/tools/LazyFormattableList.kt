@@ -0,0 +1,28 @@
+package org.wordpress.android.fluxc.tools
+
+/**
+ * A list of formattable content that is only decoded from its [json] the first time it's read, so that models read
+ * from the database don't pay for decoding content they never show. Writing it back doesn't need to encode it again.
+ *
+ * Two instances holding the same JSON are equal without decoding, so comparing models read from the database (e.g.
+ * with DiffUtil) doesn't decode them. Other comparisons, and [hashCode], decode the list.
+ */
+class LazyFormattableList(
+    val json: String,
+    decode: (String) -> List<FormattableContent>?
+) : AbstractList<FormattableContent>() {
+    private val decoded by lazy { decode(json).orEmpty() }
+
+    override val size: Int
+        get() = decoded.size
+
+    override fun get(index: Int) = decoded[index]
+
+    override fun equals(other: Any?): Boolean {
+        return this === other || (other is LazyFormattableList && json == other.json) || super.equals(other)
+    }
+
+    override fun hashCode() = super.hashCode()
+
+    override fun toString() = "LazyFormattableList(json=$json)"
+}
@@ -0,0 +1,115 @@
+package org.wordpress.android.fluxc.tools
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.supervisorScope
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.tools.MultiSiteFetcher.SiteOutcome.Failure
+import org.wordpress.android.fluxc.tools.MultiSiteFetcher.SiteOutcome.Success
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.UrlUtils
+import javax.inject.Inject
+import javax.inject.Singleton
+
+// Matches the network threads of the request queue: more fetches at once would only wait in the queue
+private const val DEFAULT_MAX_CONCURRENCY = 10
+private const val DEFAULT_MAX_CONCURRENCY_PER_HOST = 2
+
+/**
+ * Runs a fetch for each of a set of sites, such as refreshing the sites, their posts, stats or WooCommerce data, and
+ * gathers the outcomes in a single [MultiSiteResult].
+ *
+ * The fetches run in parallel, up to a limit, and at most a few at once for the sites hosted on the same server. The
+ * sites are interleaved by host, so that a host with many sites doesn't hold back the others. A fetch failing
+ * doesn't stop the others.
+ *
+ * The limits set for the Stores the fetches go through still apply (see [StoreConcurrencyLimits]).
+ */
+@Singleton
+class MultiSiteFetcher @Inject constructor(private val coroutineEngine: CoroutineEngine) {
+    sealed class SiteOutcome<T>(val site: SiteModel) {
+        class Success<T>(site: SiteModel, val value: T) : SiteOutcome<T>(site)
+        class Failure<T>(site: SiteModel, val error: Throwable) : SiteOutcome<T>(site)
+    }
+
+    /**
+     * The outcomes of a fetch, in the order the sites were given in.
+     */
+    class MultiSiteResult<T>(val outcomes: List<SiteOutcome<T>>) {
+        val successes: List<Success<T>>
+            get() = outcomes.filterIsInstance<Success<T>>()
+
+        val failures: List<Failure<T>>
+            get() = outcomes.filterIsInstance<Failure<T>>()
+
+        val isSuccessful: Boolean
+            get() = outcomes.none { it is Failure }
+    }
+
+    /**
+     * Runs [fetch] for each of the [sites].
+     *
+     * @param maxConcurrency The most fetches running at once
+     * @param maxConcurrencyPerHost The most fetches running at once for sites hosted on the same server
+     */
+    suspend fun <T> fetch(
+        sites: Collection<SiteModel>,
+        maxConcurrency: Int = DEFAULT_MAX_CONCURRENCY,
+        maxConcurrencyPerHost: Int = DEFAULT_MAX_CONCURRENCY_PER_HOST,
+        fetch: suspend (SiteModel) -> T
+    ): MultiSiteResult<T> {
+        return coroutineEngine.withDefaultContext(AppLog.T.API, this, "Fetching ${sites.size} sites") {
+            val siteList = sites.toList()
+            val permits = Semaphore(maxConcurrency)
+            // Sites without a known host are each on their own
+            val hosts = siteList.mapIndexed { index, site -> hostOf(site) ?: "#$index" }
+            // Indices of the sites, by host
+            val sitesByHost = siteList.indices.groupBy { hosts[it] }
+            val hostPermits = sitesByHost.mapValues { Semaphore(maxConcurrencyPerHost) }
+            val outcomes = arrayOfNulls<SiteOutcome<T>>(siteList.size)
+            supervisorScope {
+                // The permits are handed out in the order they are asked for, so the sites start in this order
+                interleave(sitesByHost.values).map { index ->
+                    val site = siteList[index]
+                    async {
+                        hostPermits.getValue(hosts[index]).withPermit {
+                            permits.withPermit { outcomes[index] = runFetch(site, fetch) }
+                        }
+                    }
+                }.awaitAll()
+            }
+            MultiSiteResult(outcomes.map { requireNotNull(it) })
+        }
+    }
+
+    private suspend fun <T> runFetch(site: SiteModel, fetch: suspend (SiteModel) -> T): SiteOutcome<T> {
+        return try {
+            Success(site, fetch(site))
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            AppLog.e(AppLog.T.API, "Fetching site ${site.id} failed: ${e.message}")
+            Failure(site, e)
+        }
+    }
+
+    /**
+     * Round-robin over the hosts: the first site of each host, then the second one of each, and so on.
+     */
+    private fun interleave(sitesByHost: Collection<List<Int>>): List<Int> {
+        val interleaved = mutableListOf<Int>()
+        val maxSitesPerHost = sitesByHost.map { it.size }.maxOrNull() ?: 0
+        for (index in 0 until maxSitesPerHost) {
+            sitesByHost.forEach { hostSites -> hostSites.getOrNull(index)?.let { interleaved.add(it) } }
+        }
+        return interleaved
+    }
+
+    private fun hostOf(site: SiteModel): String? {
+        val url = site.url ?: site.xmlRpcUrl ?: return null
+        return UrlUtils.getHost(url)?.takeIf { it.isNotEmpty() }
+    }
+}
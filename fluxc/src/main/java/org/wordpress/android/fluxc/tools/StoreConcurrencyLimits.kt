@@ -0,0 +1,59 @@
+package org.wordpress.android.fluxc.tools
+
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import kotlinx.coroutines.withContext
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.coroutines.AbstractCoroutineContextElement
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.coroutineContext
+
+/**
+ * Caps how many [CoroutineEngine] calls of a Store run at once, so that a Store firing many requests (e.g. stats for
+ * every granularity) leaves room for the others.
+ *
+ * The Stores have no limit unless one is set for them with [setLimit].
+ *
+ * A call made from within a call of the same Store doesn't take another permit: it's part of the same work, and
+ * waiting for a permit while holding one could deadlock.
+ */
+@Singleton
+class StoreConcurrencyLimits
+@Inject constructor() {
+    private val limits = mutableMapOf<Class<*>, Int>()
+    private val semaphores = mutableMapOf<Class<*>, Semaphore>()
+
+    /**
+     * Sets how many calls of the given Store can run at once. Only applies to the calls made from then on, so it
+     * should be set up front.
+     */
+    @Synchronized
+    fun setLimit(storeClass: Class<*>, maxConcurrentCalls: Int) {
+        require(maxConcurrentCalls > 0) { "A Store needs to be able to run at least one call" }
+        limits[storeClass] = maxConcurrentCalls
+        semaphores.remove(storeClass)
+    }
+
+    suspend fun <T> withPermit(caller: Any, block: suspend () -> T): T {
+        val storeClass = caller.javaClass
+        if (coroutineContext[HeldPermits]?.storeClasses?.contains(storeClass) == true) {
+            return block()
+        }
+        val semaphore = semaphoreFor(storeClass) ?: return block()
+        val heldPermits = HeldPermits((coroutineContext[HeldPermits]?.storeClasses ?: emptySet()) + storeClass)
+        return semaphore.withPermit {
+            withContext(heldPermits) { block() }
+        }
+    }
+
+    @Synchronized
+    private fun semaphoreFor(storeClass: Class<*>): Semaphore? {
+        val limit = limits[storeClass] ?: return null
+        return semaphores.getOrPut(storeClass) { Semaphore(limit) }
+    }
+
+    private class HeldPermits(val storeClasses: Set<Class<*>>) : AbstractCoroutineContextElement(HeldPermits) {
+        companion object Key : CoroutineContext.Key<HeldPermits>
+    }
+}
@@ -0,0 +1,35 @@
+package org.wordpress.android.fluxc.tools
+
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.asCoroutineDispatcher
+import org.wordpress.android.fluxc.tools.CoroutineEngine.Workload
+import org.wordpress.android.fluxc.tools.CoroutineEngine.Workload.COMPUTATION
+import org.wordpress.android.fluxc.tools.CoroutineEngine.Workload.DATABASE
+import org.wordpress.android.fluxc.tools.CoroutineEngine.Workload.NETWORK
+import java.util.concurrent.Executors
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * The dispatchers [CoroutineEngine] runs each kind of [Workload] on.
+ */
+@Singleton
+class WorkloadDispatchers
+@Inject constructor() {
+    /**
+     * SQLite only takes one write at a time, so database work gets a single thread instead of blocking several
+     * threads of the other dispatchers on the database lock.
+     */
+    private val database: CoroutineDispatcher by lazy {
+        Executors.newSingleThreadExecutor { runnable -> Thread(runnable, "FluxC-database") }.asCoroutineDispatcher()
+    }
+
+    fun forWorkload(workload: Workload): CoroutineDispatcher {
+        return when (workload) {
+            NETWORK -> Dispatchers.IO
+            DATABASE -> database
+            COMPUTATION -> Dispatchers.Default
+        }
+    }
+}
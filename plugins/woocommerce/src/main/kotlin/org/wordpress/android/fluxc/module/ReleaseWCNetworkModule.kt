@@ -9,6 +9,7 @@ import org.wordpress.android.fluxc.model.refunds.RefundMapper
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequestBuilder
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken
+import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelBatcher
 import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackTunnelGsonRequestBuilder
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.WooCommerceRestClient
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.data.WCDataRestClient
@@ -158,8 +159,8 @@ class ReleaseWCNetworkModule {
 
     @Singleton
     @Provides
-    fun provideJetpackTunnelGsonRequestBuilder(): JetpackTunnelGsonRequestBuilder {
-        return JetpackTunnelGsonRequestBuilder()
+    fun provideJetpackTunnelGsonRequestBuilder(batcher: JetpackTunnelBatcher): JetpackTunnelGsonRequestBuilder {
+        return JetpackTunnelGsonRequestBuilder(batcher)
     }
 
     @Singleton
@@ -1,8 +1,10 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.wc.order
 
 import com.google.gson.JsonElement
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter
 import org.wordpress.android.fluxc.network.Response
 
+@GenerateTypeAdapter
 @Suppress("PropertyName")
 class OrderApiResponse : Response {
     class Billing {
@@ -39,38 +41,38 @@ class OrderApiResponse : Response {
         val total: String? = null
     }
 
-    val id: Long? = null
-    val number: String? = null
-    val status: String? = null
-    val currency: String? = null
-    val date_created_gmt: String? = null
-    val date_modified_gmt: String? = null
-    val total: String? = null
-    val total_tax: String? = null
-    val shipping_total: String? = null
-    val payment_method: String? = null
-    val payment_method_title: String? = null
-    val date_paid_gmt: String? = null
-    val prices_include_tax: Boolean = false
+    var id: Long? = null
+    var number: String? = null
+    var status: String? = null
+    var currency: String? = null
+    var date_created_gmt: String? = null
+    var date_modified_gmt: String? = null
+    var total: String? = null
+    var total_tax: String? = null
+    var shipping_total: String? = null
+    var payment_method: String? = null
+    var payment_method_title: String? = null
+    var date_paid_gmt: String? = null
+    var prices_include_tax: Boolean = false
 
-    val customer_note: String? = null
+    var customer_note: String? = null
 
-    val discount_total: String? = null
-    val coupon_lines: List<CouponLine>? = null
+    var discount_total: String? = null
+    var coupon_lines: List<CouponLine>? = null
 
-    val billing: Billing? = null
-    val shipping: Shipping? = null
+    var billing: Billing? = null
+    var shipping: Shipping? = null
 
     // This is actually a list of objects. We're storing this as JSON initially, and it will be deserialized on demand.
     // See WCOrderModel.LineItem
-    val line_items: JsonElement? = null
+    var line_items: JsonElement? = null
 
-    val refunds: List<Refund>? = null
+    var refunds: List<Refund>? = null
 
     // This is actually a list of objects. We're storing this as JSON initially, and it will be deserialized on demand.
     // See WCOrderModel.ShippingLines
-    val shipping_lines: JsonElement? = null
+    var shipping_lines: JsonElement? = null
 
     // Same as shipping_lines, it's a list of objects
-    val fee_lines: JsonElement? = null
+    var fee_lines: JsonElement? = null
 }
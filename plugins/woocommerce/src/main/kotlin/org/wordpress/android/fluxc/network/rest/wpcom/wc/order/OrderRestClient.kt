@@ -57,8 +57,8 @@ class OrderRestClient(
     accessToken: AccessToken,
     userAgent: UserAgent
 ) : BaseWPComRestClient(appContext, dispatcher, requestQueue, accessToken, userAgent) {
-    private val ORDER_FIELDS = "id,number,status,currency,date_created_gmt,total,total_tax,shipping_total," +
-            "payment_method,payment_method_title,prices_include_tax,customer_note,discount_total," +
+    private val ORDER_FIELDS = "id,number,status,currency,date_created_gmt,date_modified_gmt,total,total_tax," +
+            "shipping_total,payment_method,payment_method_title,prices_include_tax,customer_note,discount_total," +
             "coupon_lines,refunds,billing,shipping,line_items,date_paid_gmt,shipping_lines,fee_lines"
     private val TRACKING_FIELDS = "tracking_id,tracking_number,tracking_link,tracking_provider,date_shipped"
 
@@ -105,6 +105,55 @@ class OrderRestClient(
         add(request)
     }
 
+    /**
+     * Makes a GET call to `/wc/v3/orders` via the Jetpack tunnel (see [JetpackTunnelGsonRequest]),
+     * retrieving the orders of the given WooCommerce [SiteModel] modified after [modifiedAfter], oldest change first.
+     *
+     * Orders of any status are returned, including trashed ones so they can be deleted locally. Paging is done by
+     * calling this again with the newest modification date received, rather than with an offset, so orders
+     * modified while paging aren't skipped. The [offset] only pages through the orders sharing a modification date.
+     *
+     * Dispatches a [WCOrderAction.FETCHED_ORDERS] action with the resulting list of orders.
+     *
+     * @param [modifiedAfter] ISO 8601-formatted date in UTC, as stored in [WCOrderModel.dateModified]
+     * @param [offset] the number of orders modified after [modifiedAfter] to skip
+     */
+    fun fetchOrdersModifiedAfter(site: SiteModel, modifiedAfter: String, offset: Int = 0) {
+        val url = WOOCOMMERCE.orders.pathV3
+        val responseType = object : TypeToken<List<OrderApiResponse>>() {}.type
+        val params = mapOf(
+                "per_page" to WCOrderStore.NUM_ORDERS_PER_FETCH.toString(),
+                "offset" to offset.toString(),
+                "status" to "${WCOrderStore.DEFAULT_ORDER_STATUS},${WCOrderStore.TRASHED_ORDER_STATUS}",
+                "modified_after" to modifiedAfter.removeSuffix("Z"),
+                "dates_are_gmt" to "true",
+                "orderby" to "modified",
+                "order" to "asc",
+                "_fields" to ORDER_FIELDS)
+        val request = JetpackTunnelGsonRequest.buildGetRequest(url, site.siteId, params, responseType,
+                { response: List<OrderApiResponse>? ->
+                    val orderModels = response?.map {
+                        orderResponseToOrderModel(it).apply { localSiteId = site.id }
+                    }.orEmpty()
+
+                    val canLoadMore = orderModels.size == WCOrderStore.NUM_ORDERS_PER_FETCH
+
+                    val payload = FetchOrdersResponsePayload(
+                            site, orderModels, loadedMore = false, canLoadMore = canLoadMore).apply {
+                        this.modifiedAfter = modifiedAfter
+                        this.modifiedAfterOffset = offset
+                    }
+                    dispatcher.dispatch(WCOrderActionBuilder.newFetchedOrdersAction(payload))
+                },
+                WPComErrorListener { networkError ->
+                    val orderError = networkErrorToOrderError(networkError)
+                    val payload = FetchOrdersResponsePayload(orderError, site)
+                    dispatcher.dispatch(WCOrderActionBuilder.newFetchedOrdersAction(payload))
+                },
+                { request: WPComGsonRequest<*> -> add(request) })
+        add(request)
+    }
+
     /**
      * Fetches orders from the API, but only requests `id` and `date_created_gmt` fields be returned. This is
      * used to determine what orders should be fetched (either existing orders that have since changed or new
@@ -1,13 +1,15 @@
 package org.wordpress.android.fluxc.network.rest.wpcom.wc.product
 
 import com.google.gson.JsonElement
+import org.wordpress.android.fluxc.annotations.GenerateTypeAdapter
 import org.wordpress.android.fluxc.model.WCProductModel
 import org.wordpress.android.fluxc.network.Response
 import org.wordpress.android.fluxc.network.utils.getString
 
+@GenerateTypeAdapter
 @Suppress("PropertyName")
 class ProductApiResponse : Response {
-    val id: Long? = null
+    var id: Long? = null
     var localSiteId = 0
     var name: String? = null
     var slug: String? = null
@@ -36,7 +38,7 @@ class ProductApiResponse : Response {
     var download_expiry = 0
 
     var external_url: String? = null
-    val button_text: String? = null
+    var button_text: String? = null
 
     var tax_status: String? = null
     var tax_class: String? = null
@@ -68,7 +70,7 @@ class ProductApiResponse : Response {
     var rating_count = 0
 
     var parent_id = 0
-    val menu_order = 0
+    var menu_order = 0
     var purchase_note: String? = null
 
     var categories: JsonElement? = null
@@ -82,6 +82,13 @@ object OrderSqlUtils {
         }
     }
 
+    fun insertOrUpdateOrders(orders: List<WCOrderModel>): Int {
+        return BulkUpserter(
+                WCOrderModel::class.java,
+                arrayOf(WCOrderModelTable.REMOTE_ORDER_ID, WCOrderModelTable.LOCAL_SITE_ID)
+        ) { arrayOf<Any?>(it.remoteOrderId, it.localSiteId) }.upsert(orders)
+    }
+
     fun getOrderForIdSet(orderIdSet: OrderIdSet): WCOrderModel? {
         val (id, remoteOrderId, localSiteId) = orderIdSet
         return WellSql.select(WCOrderModel::class.java)
@@ -132,6 +139,31 @@ object OrderSqlUtils {
                 .execute()
     }
 
+    /**
+     * Deletes the orders of the site with the given remote ids, along with their notes and shipment trackings.
+     */
+    fun deleteOrdersForSiteByRemoteIds(site: SiteModel, remoteOrderIds: List<RemoteId>): Int {
+        val localOrderIds = getOrdersForSiteByRemoteIds(site, remoteOrderIds).map { it.id }
+        if (localOrderIds.isEmpty()) {
+            return 0
+        }
+        WellSql.delete(WCOrderNoteModel::class.java)
+                .where()
+                .isIn(WCOrderNoteModelTable.LOCAL_ORDER_ID, localOrderIds)
+                .endWhere()
+                .execute()
+        WellSql.delete(WCOrderShipmentTrackingModel::class.java)
+                .where()
+                .isIn(WCOrderShipmentTrackingModelTable.LOCAL_ORDER_ID, localOrderIds)
+                .endWhere()
+                .execute()
+        return WellSql.delete(WCOrderModel::class.java)
+                .where()
+                .isIn(WCOrderModelTable.ID, localOrderIds)
+                .endWhere()
+                .execute()
+    }
+
     fun getOrderCountForSite(site: SiteModel): Int {
         return WellSql.select(WCOrderModel::class.java)
                 .where()
@@ -32,6 +32,8 @@ import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_DES
 import java.util.Locale
 
 object ProductSqlUtils {
+    private const val CHUNK_SIZE = 200
+
     fun insertOrUpdateProduct(product: WCProductModel): Int {
         val productResult = WellSql.select(WCProductModel::class.java)
                 .where().beginGroup()
@@ -60,11 +62,10 @@ object ProductSqlUtils {
     }
 
     fun insertOrUpdateProducts(products: List<WCProductModel>): Int {
-        var rowsAffected = 0
-        products.forEach {
-            rowsAffected += insertOrUpdateProduct(it)
-        }
-        return rowsAffected
+        return BulkUpserter(
+                WCProductModel::class.java,
+                arrayOf(WCProductModelTable.REMOTE_PRODUCT_ID, WCProductModelTable.LOCAL_SITE_ID)
+        ) { arrayOf<Any?>(it.remoteProductId, it.localSiteId) }.upsert(products)
     }
 
     fun getProductByRemoteId(site: SiteModel, remoteProductId: Long): WCProductModel? {
@@ -118,62 +119,75 @@ object ProductSqlUtils {
                 .count().toInt()
     }
 
+    /**
+     * Returns the products of the site matching the filter options, sorted and paged by SQLite: only the ids of the
+     * matching products are read to sort them, and only the products of the requested page are loaded.
+     *
+     * Sorting by title is case-insensitive for ASCII letters (SQLite's NOCASE collation).
+     *
+     * @param limit the maximum number of products to return, or null to return all of them
+     * @param offset the number of products to skip, when [limit] is set
+     */
     fun getProductsByFilterOptions(
         site: SiteModel,
         filterOptions: Map<ProductFilterOption, String>,
         sortType: ProductSorting = DEFAULT_PRODUCT_SORTING,
-        excludedProductIds: List<Long>? = null
+        excludedProductIds: List<Long>? = null,
+        limit: Int? = null,
+        offset: Int = 0
     ): List<WCProductModel> {
-        val queryBuilder = WellSql.select(WCProductModel::class.java)
-                .where().beginGroup()
-                .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
-
-        if (filterOptions.containsKey(ProductFilterOption.STATUS)) {
-            queryBuilder.equals(WCProductModelTable.STATUS, filterOptions[ProductFilterOption.STATUS])
-        }
-        if (filterOptions.containsKey(ProductFilterOption.STOCK_STATUS)) {
-            queryBuilder.equals(WCProductModelTable.STOCK_STATUS, filterOptions[ProductFilterOption.STOCK_STATUS])
-        }
-        if (filterOptions.containsKey(ProductFilterOption.TYPE)) {
-            queryBuilder.equals(WCProductModelTable.TYPE, filterOptions[ProductFilterOption.TYPE])
-        }
-
-        excludedProductIds?.let {
-            if (it.isNotEmpty()) {
-                queryBuilder.isNotIn(WCProductModelTable.REMOTE_PRODUCT_ID, it)
+        val selection = StringBuilder("${WCProductModelTable.LOCAL_SITE_ID} = ?")
+        val selectionArgs = mutableListOf(site.id.toString())
+        // Same column order as the index on the table
+        listOf(
+                ProductFilterOption.STATUS to WCProductModelTable.STATUS,
+                ProductFilterOption.STOCK_STATUS to WCProductModelTable.STOCK_STATUS,
+                ProductFilterOption.TYPE to WCProductModelTable.TYPE
+        ).forEach { (option, column) ->
+            filterOptions[option]?.let {
+                selection.append(" AND $column = ?")
+                selectionArgs.add(it)
             }
         }
-
-        val sortOrder = when (sortType) {
-            TITLE_ASC, DATE_ASC -> SelectQuery.ORDER_ASCENDING
-            TITLE_DESC, DATE_DESC -> SelectQuery.ORDER_DESCENDING
-        }
-        val sortField = when (sortType) {
-            TITLE_ASC, TITLE_DESC -> WCProductModelTable.NAME
-            DATE_ASC, DATE_DESC -> WCProductModelTable.DATE_CREATED
+        if (!excludedProductIds.isNullOrEmpty()) {
+            // Numbers only, they can be inlined instead of using a query argument each (limited to 999)
+            selection.append(" AND ${WCProductModelTable.REMOTE_PRODUCT_ID} NOT IN (")
+                    .append(excludedProductIds.joinToString(","))
+                    .append(")")
         }
 
-        val products = queryBuilder
-                .endGroup().endWhere()
-                .orderBy(sortField, sortOrder)
-                .asModel
-
-        return if (sortType == TITLE_ASC || sortType == TITLE_DESC) {
-            sortProductsByName(products, descending = sortType == TITLE_DESC)
-        } else {
-            products
+        val orderBy = when (sortType) {
+            TITLE_ASC -> "${WCProductModelTable.NAME} COLLATE NOCASE ASC"
+            TITLE_DESC -> "${WCProductModelTable.NAME} COLLATE NOCASE DESC"
+            DATE_ASC -> "${WCProductModelTable.DATE_CREATED} ASC"
+            DATE_DESC -> "${WCProductModelTable.DATE_CREATED} DESC"
+        }
+        // Sorting on the id too keeps the order of equal names/dates stable from one page to the next
+        val sql = "SELECT ${WCProductModelTable.ID} FROM WCProductModel WHERE $selection " +
+                "ORDER BY $orderBy, ${WCProductModelTable.ID} ASC" +
+                (limit?.let { " LIMIT $it OFFSET $offset" } ?: "")
+
+        val productIds = mutableListOf<Int>()
+        WellSql.giveMeReadableDb().rawQuery(sql, selectionArgs.toTypedArray()).use { cursor ->
+            while (cursor.moveToNext()) {
+                productIds.add(cursor.getInt(0))
+            }
         }
+        return getProductsByLocalIds(productIds)
     }
 
     /**
-     * WellSQL doesn't support "COLLATE NOCASE" so we have to manually provide case-insensitive sorting
+     * Returns the products with the given local ids, in the same order.
      */
-    private fun sortProductsByName(products: List<WCProductModel>, descending: Boolean): List<WCProductModel> {
-        return if (descending) {
-            products.sortedByDescending { it.name.toLowerCase(Locale.getDefault()) }
-        } else {
-            products.sortedBy { it.name.toLowerCase(Locale.getDefault()) }
-        }
+    private fun getProductsByLocalIds(productIds: List<Int>): List<WCProductModel> {
+        val productsById = productIds.chunked(CHUNK_SIZE).flatMap { chunk ->
+            WellSql.select(WCProductModel::class.java)
+                    .where()
+                    .isIn(WCProductModelTable.ID, chunk)
+                    .endWhere()
+                    .asModel
+        }.associateBy { it.id }
+        return productIds.mapNotNull { productsById[it] }
     }
 
     fun geProductExistsByRemoteId(site: SiteModel, remoteProductId: Long): Boolean {
@@ -196,28 +210,11 @@ object ProductSqlUtils {
 
     fun getProductsForSite(
         site: SiteModel,
-        sortType: ProductSorting = DEFAULT_PRODUCT_SORTING
+        sortType: ProductSorting = DEFAULT_PRODUCT_SORTING,
+        limit: Int? = null,
+        offset: Int = 0
     ): List<WCProductModel> {
-        val sortOrder = when (sortType) {
-            TITLE_ASC, DATE_ASC -> SelectQuery.ORDER_ASCENDING
-            TITLE_DESC, DATE_DESC -> SelectQuery.ORDER_DESCENDING
-        }
-        val sortField = when (sortType) {
-            TITLE_ASC, TITLE_DESC -> WCProductModelTable.NAME
-            DATE_ASC, DATE_DESC -> WCProductModelTable.DATE_CREATED
-        }
-        val products = WellSql.select(WCProductModel::class.java)
-                .where()
-                .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
-                .endWhere()
-                .orderBy(sortField, sortOrder)
-                .asModel
-
-        return if (sortType == TITLE_ASC || sortType == TITLE_DESC) {
-            sortProductsByName(products, descending = sortType == TITLE_DESC)
-        } else {
-            products
-        }
+        return getProductsByFilterOptions(site, emptyMap(), sortType, limit = limit, offset = offset)
     }
 
     fun deleteProductsForSite(site: SiteModel): Int {
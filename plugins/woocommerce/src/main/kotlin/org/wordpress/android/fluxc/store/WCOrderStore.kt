@@ -5,6 +5,7 @@ import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.WCOrderAction
+import org.wordpress.android.fluxc.annotations.HandlesActions
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.generated.ListActionBuilder
 import org.wordpress.android.fluxc.generated.WCOrderActionBuilder
@@ -26,6 +27,7 @@ import org.wordpress.android.fluxc.store.ListStore.FetchedListItemsPayload
 import org.wordpress.android.fluxc.store.ListStore.ListError
 import org.wordpress.android.fluxc.store.ListStore.ListErrorType
 import org.wordpress.android.fluxc.store.WCOrderStore.OrderErrorType.GENERIC_ERROR
+import org.wordpress.android.fluxc.utils.PreferenceUtils.PreferenceUtilsWrapper
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.AppLog.T
 import java.util.Locale
@@ -33,17 +35,32 @@ import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
-class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrderRestClient: OrderRestClient) :
-        Store(dispatcher) {
+@HandlesActions(WCOrderAction::class)
+class WCOrderStore @Inject constructor(
+    dispatcher: Dispatcher,
+    private val wcOrderRestClient: OrderRestClient,
+    private val preferenceUtils: PreferenceUtilsWrapper
+) : Store(dispatcher) {
     companion object {
         const val NUM_ORDERS_PER_FETCH = 15
         const val DEFAULT_ORDER_STATUS = "any"
+        const val TRASHED_ORDER_STATUS = "trash"
+
+        private const val ORDERS_SYNCED_UNTIL_PREF_KEY = "WC_ORDERS_SYNCED_UNTIL_"
+        private const val ORDERS_SYNCED_UNTIL_OFFSET_PREF_KEY = "WC_ORDERS_SYNCED_UNTIL_OFFSET_"
     }
 
+    /**
+     * @param incrementalSync If true, only the orders modified since the last sync are fetched and applied to the
+     * stored orders (trashed orders are deleted), instead of replacing them. The status filter is ignored, since the
+     * stored orders must be kept in sync whatever their status. Falls back to a regular fetch when the site has never
+     * been synced. If [loadMore] is also true, the next page of changes is fetched.
+     */
     class FetchOrdersPayload(
         var site: SiteModel,
         var statusFilter: String? = null,
-        var loadMore: Boolean = false
+        var loadMore: Boolean = false,
+        var incrementalSync: Boolean = false
     ) : Payload<BaseNetworkError>()
 
     class FetchOrderListPayload(
@@ -63,6 +80,16 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
         var loadedMore: Boolean = false,
         var canLoadMore: Boolean = false
     ) : Payload<OrderError>() {
+        /**
+         * Set for an incremental sync: the orders are the ones modified after this date.
+         */
+        var modifiedAfter: String? = null
+
+        /**
+         * Set for an incremental sync: the number of orders modified after [modifiedAfter] that were skipped.
+         */
+        var modifiedAfterOffset = 0
+
         constructor(error: OrderError, site: SiteModel) : this(site) { this.error = error }
     }
 
@@ -448,6 +475,13 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
     }
 
     private fun fetchOrders(payload: FetchOrdersPayload) {
+        val syncedUntil = getOrdersSyncedUntil(payload.site)
+        if (payload.incrementalSync && syncedUntil != null && OrderSqlUtils.getOrderCountForSite(payload.site) > 0) {
+            // Paging is done from the last modification date received, so loadMore doesn't need an offset
+            val offset = getOrdersSyncedUntilOffset(payload.site)
+            wcOrderRestClient.fetchOrdersModifiedAfter(payload.site, syncedUntil, offset)
+            return
+        }
         val offset = if (payload.loadMore) {
             OrderSqlUtils.getOrderCountForSite(payload.site)
         } else {
@@ -525,6 +559,16 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
 
         if (payload.isError) {
             onOrderChanged = OnOrderChanged(0).also { it.error = payload.error }
+        } else if (payload.modifiedAfter != null) {
+            val (trashedOrders, changedOrders) = payload.orders.partition { it.status == TRASHED_ORDER_STATUS }
+            val rowsAffected = OrderSqlUtils.insertOrUpdateOrders(changedOrders) +
+                    OrderSqlUtils.deleteOrdersForSiteByRemoteIds(
+                            payload.site,
+                            trashedOrders.map { RemoteId(it.remoteOrderId) }
+                    )
+            updateOrdersSyncedUntil(payload)
+
+            onOrderChanged = OnOrderChanged(rowsAffected, canLoadMore = payload.canLoadMore)
         } else {
             // Clear existing uploading orders if this is a fresh fetch (loadMore = false in the original request)
             // This is the simplest way of keeping our local orders in sync with remote orders (in case of deletions,
@@ -533,9 +577,12 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
                 OrderSqlUtils.deleteOrdersForSite(payload.site)
                 OrderSqlUtils.deleteOrderNotesForSite(payload.site)
                 OrderSqlUtils.deleteOrderShipmentTrackingsForSite(payload.site)
+                // The stored orders are now all up to date, later changes can be fetched incrementally
+                clearOrdersSyncedUntil(payload.site)
+                updateOrdersSyncedUntil(payload)
             }
 
-            val rowsAffected = payload.orders.sumBy { OrderSqlUtils.insertOrUpdateOrder(it) }
+            val rowsAffected = OrderSqlUtils.insertOrUpdateOrders(payload.orders)
 
             onOrderChanged = OnOrderChanged(rowsAffected, payload.statusFilter, canLoadMore = payload.canLoadMore)
         }
@@ -545,6 +592,54 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
         emitChange(onOrderChanged)
     }
 
+    private fun getOrdersSyncedUntil(site: SiteModel): String? {
+        return preferenceUtils.getFluxCPreferences().getString(ORDERS_SYNCED_UNTIL_PREF_KEY + site.id, null)
+    }
+
+    private fun getOrdersSyncedUntilOffset(site: SiteModel): Int {
+        return preferenceUtils.getFluxCPreferences().getInt(ORDERS_SYNCED_UNTIL_OFFSET_PREF_KEY + site.id, 0)
+    }
+
+    private fun clearOrdersSyncedUntil(site: SiteModel) {
+        preferenceUtils.getFluxCPreferences().edit()
+                .remove(ORDERS_SYNCED_UNTIL_PREF_KEY + site.id)
+                .remove(ORDERS_SYNCED_UNTIL_OFFSET_PREF_KEY + site.id)
+                .apply()
+    }
+
+    /**
+     * Moves the high-water mark of the site's order sync to the newest modification date of the given orders.
+     *
+     * If more orders are to be fetched, orders modified at that same date might be on the next page, and the next
+     * page only returns orders modified strictly after the mark: the mark then stops at the previous date, along
+     * with the number of orders at the newest date already received, which the next page skips. If all the orders
+     * of an incremental sync page were modified at the same date, the mark stays where it was and the page is added
+     * to the orders to skip, so that each page makes progress even when more orders than a page share a date (e.g.
+     * after a bulk edit). An order modified again while paging only moves to a later date, so it isn't missed by
+     * skipping it.
+     */
+    private fun updateOrdersSyncedUntil(payload: FetchOrdersResponsePayload) {
+        val site = payload.site
+        val dates = payload.orders.map { it.dateModified }.filter { it.isNotEmpty() }
+        val newestDate = dates.maxOrNull() ?: return
+        val previousDate = dates.filter { it < newestDate }.maxOrNull()
+        val modifiedAfter = payload.modifiedAfter
+        val (syncedUntil, offset) = when {
+            !payload.canLoadMore -> newestDate to 0
+            previousDate != null -> previousDate to dates.count { it == newestDate }
+            modifiedAfter != null -> modifiedAfter to payload.modifiedAfterOffset + payload.orders.size
+            else -> return
+        }
+        val currentSyncedUntil = getOrdersSyncedUntil(site).orEmpty()
+        if (syncedUntil > currentSyncedUntil ||
+                (syncedUntil == currentSyncedUntil && offset > getOrdersSyncedUntilOffset(site))) {
+            preferenceUtils.getFluxCPreferences().edit()
+                    .putString(ORDERS_SYNCED_UNTIL_PREF_KEY + site.id, syncedUntil)
+                    .putInt(ORDERS_SYNCED_UNTIL_OFFSET_PREF_KEY + site.id, offset)
+                    .apply()
+        }
+    }
+
     private fun handleFetchOrderListCompleted(payload: FetchOrderListResponsePayload) {
         // TODO: Ideally we would have a separate process that prunes the following
         // tables of defunct records:
@@ -590,7 +685,7 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
 
         if (!payload.isError) {
             // Save the list of orders to the database
-            payload.fetchedOrders.forEach { OrderSqlUtils.insertOrUpdateOrder(it) }
+            OrderSqlUtils.insertOrUpdateOrders(payload.fetchedOrders)
 
             // Notify listeners that the list of orders has changed (only call this if there is no error)
             val listTypeIdentifier = WCOrderListDescriptor.calculateTypeIdentifier(localSiteId = payload.site.id)
@@ -6,6 +6,7 @@ import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.WCStatsAction
+import org.wordpress.android.fluxc.annotations.HandlesActions
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCNewVisitorStatsModel
@@ -33,6 +34,7 @@ import javax.inject.Singleton
 import kotlin.random.Random
 
 @Singleton
+@HandlesActions(WCStatsAction::class)
 class WCStatsStore @Inject constructor(
     dispatcher: Dispatcher,
     private val context: Context,
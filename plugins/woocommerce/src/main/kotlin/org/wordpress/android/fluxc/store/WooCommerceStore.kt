@@ -7,6 +7,7 @@ import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.WCCoreAction
+import org.wordpress.android.fluxc.annotations.HandlesActions
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCProductSettingsModel
@@ -37,6 +38,7 @@ import javax.inject.Singleton
 import kotlin.math.absoluteValue
 
 @Singleton
+@HandlesActions(WCCoreAction::class)
 open class WooCommerceStore @Inject constructor(
     private val appContext: Context,
     dispatcher: Dispatcher,